@@ -0,0 +1,502 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import com.univocity.parsers.common.input.*;
+import com.univocity.parsers.common.processor.*;
+
+/**
+ * The base class for parsers that split a file into ranges of bytes that start and end at record boundaries, and parse these ranges with multiple threads.
+ *
+ * <p> Subclasses define the ranges of each file, and create the parsers used by each thread. Each range is parsed by a parser that reads directly from its own position of the file.
+ *     If header extraction is enabled, subclasses read the headers before splitting the file (see {@link #extractHeaders(String[], long)}). The original header settings are
+ *     restored after each file is parsed.
+ *
+ * <p> Parsed rows are delivered to the {@link RowProcessor} defined in the settings. Its {@link RowProcessor#processStarted(ParsingContext)}
+ *     and {@link RowProcessor#processEnded(ParsingContext)} methods are invoked once for the whole file.
+ * <ul>
+ * 	<li>In ordered mode (the default), rows are delivered in the order they appear in the file, by the thread that invoked {@link #parse(File, Charset)}.
+ *      Parsing threads run ahead of the processor, up to a bounded number of rows per range.</li>
+ *  <li>In unordered mode, each parsing thread delivers its rows as soon as they are parsed. The {@link RowProcessor} must be thread-safe.</li>
+ * </ul>
+ *
+ * <p> Records are numbered in the order they are delivered, unless the number of records that precede each range is known.
+ *     Lines are reported for the entire file in ordered mode, and relative to the start of each range in unordered mode, unless the number of lines that precede each range is known.
+ *     Character positions are reported only for ranges whose position in records is known.
+ *
+ * @param <T> the type of settings of the parser used by each thread
+ *
+ * @see com.univocity.parsers.fixed.ParallelFixedWidthParser
+ * @see com.univocity.parsers.tsv.ParallelTsvParser
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public abstract class AbstractParallelParser<T extends CommonParserSettings<?>> {
+
+	/**
+	 * The number of ranges created for each thread, so that threads that finish early can take more work.
+	 */
+	protected static final int RANGES_PER_THREAD = 8;
+
+	private static final int BATCH_SIZE = 1024;
+	private static final int BATCHES_PER_RANGE = 8;
+	private static final Batch END_OF_RANGE = new Batch();
+
+	protected final T settings;
+	protected final int threads;
+	private boolean ordered = true;
+
+	private RowProcessor processor;
+	private volatile boolean stopped;
+	private volatile Throwable failure;
+	private final AtomicLong recordCount = new AtomicLong();
+
+	private long headerLines;
+
+	/**
+	 * Creates a parallel parser
+	 * @param settings the parser configuration
+	 * @param threads the number of threads used to parse each file
+	 */
+	protected AbstractParallelParser(T settings, int threads) {
+		if (settings == null) {
+			throw new IllegalArgumentException("Parser settings cannot be null");
+		}
+		if (threads < 1) {
+			throw new IllegalArgumentException("Number of threads must be positive");
+		}
+		this.settings = settings;
+		this.threads = threads;
+	}
+
+	/**
+	 * Indicates whether rows are delivered to the {@link RowProcessor} in the order they appear in the file (defaults to true).
+	 * @return true if rows are delivered in order, false if they are delivered by the parsing threads as soon as they are parsed
+	 */
+	public boolean isOrdered() {
+		return ordered;
+	}
+
+	/**
+	 * Defines whether rows are delivered to the {@link RowProcessor} in the order they appear in the file (defaults to true).
+	 * <p> When disabled, rows are delivered by the parsing threads as soon as they are parsed, and the {@link RowProcessor} must be thread-safe.
+	 * @param ordered flag indicating whether rows should be delivered in order
+	 */
+	public void setOrdered(boolean ordered) {
+		this.ordered = ordered;
+	}
+
+	/**
+	 * Splits the file into ranges of records. If header extraction is enabled, the headers must be read and given to {@link #extractHeaders(String[], long)} first.
+	 * @param channel the channel used to read from the file
+	 * @param charset the encoding of the file
+	 * @return the ranges of the file, in the order they appear in the file, created with {@link #range(long, long)} or {@link #range(long, long, long, long)}.
+	 * @throws IOException if any error occurs while reading from the file
+	 */
+	protected abstract Range[] split(FileChannel channel, Charset charset) throws IOException;
+
+	/**
+	 * Creates a parser for one of the threads. It must use the {@link RowProcessor} defined in the given settings.
+	 * @param settings the parser configuration, with the {@link RowProcessor} that receives the rows of each range
+	 * @return a new parser
+	 */
+	protected abstract AbstractParser<T> newParser(T settings);
+
+	/**
+	 * Defines the headers read from the first record of the file, which is not part of any range. Header extraction is disabled while the ranges are parsed.
+	 * @param headers the headers of the file
+	 * @param lines the number of lines read up to the end of the headers, including any comments and blank lines before them
+	 */
+	protected final void extractHeaders(String[] headers, long lines) {
+		settings.setHeaders(headers);
+		settings.setHeaderExtractionEnabled(false);
+		headerLines = lines;
+	}
+
+	/**
+	 * Creates a range whose position in records and lines is not known.
+	 * @param start the position of the first byte of the range
+	 * @param end the position after the last byte of the range
+	 * @return a new range
+	 */
+	protected final Range range(long start, long end) {
+		return new Range(start, end, -1, -1);
+	}
+
+	/**
+	 * Creates a range whose position in records and lines is known, and in which characters are encoded with a single byte.
+	 * @param start the position of the first byte of the range
+	 * @param end the position after the last byte of the range
+	 * @param recordsBefore the number of data records that precede the range
+	 * @param linesBefore the number of lines that precede the range
+	 * @return a new range
+	 */
+	protected final Range range(long start, long end, long recordsBefore, long linesBefore) {
+		return new Range(start, end, recordsBefore, linesBefore);
+	}
+
+	/**
+	 * Parses the given file with multiple threads, and blocks until all of its records have been processed.
+	 * @param file the file to parse
+	 * @param charset the encoding of the file
+	 */
+	public void parse(File file, Charset charset) {
+		processor = settings.getRowProcessor();
+		stopped = false;
+		failure = null;
+		recordCount.set(0);
+		headerLines = 0;
+
+		RandomAccessFile randomAccessFile;
+		try {
+			randomAccessFile = new RandomAccessFile(file, "r");
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to open file '" + file + "'", e);
+		}
+
+		String[] originalHeaders = settings.getHeaders();
+		boolean headerExtractionEnabled = settings.isHeaderExtractionEnabled();
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			parse(channel, charset, split(channel, charset));
+		} catch (IOException e) {
+			throw new IllegalStateException("Error reading file '" + file + "'", e);
+		} finally {
+			settings.setHeaderExtractionEnabled(headerExtractionEnabled);
+			if (headerExtractionEnabled) {
+				settings.setHeaders(originalHeaders);
+			}
+			try {
+				randomAccessFile.close();
+			} catch (IOException e) {
+				//ignore
+			}
+		}
+	}
+
+	private void parse(final FileChannel channel, final Charset charset, Range[] ranges) {
+		final BlockingQueue<RangeParser> parsers = createParsers(Math.max(1, Math.min(threads, ranges.length)));
+		RecordContext mainContext = new RecordContext(parsers.peek().parser.getContext());
+		ExecutorService executor = Executors.newFixedThreadPool(parsers.size());
+
+		processor.processStarted(mainContext);
+		try {
+			for (final Range range : ranges) {
+				range.future = executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						RangeParser parser = parsers.take();
+						try {
+							parser.parse(channel, charset, range);
+						} catch (Exception e) {
+							if (failure == null && !stopped) {
+								failure = e;
+							}
+							throw e;
+						} finally {
+							parsers.put(parser);
+							if (ordered) {
+								range.batches.put(END_OF_RANGE);
+							}
+						}
+						return null;
+					}
+				});
+			}
+
+			if (ordered) {
+				deliverInOrder(ranges, mainContext);
+			}
+			for (Range range : ranges) {
+				await(range);
+			}
+		} finally {
+			executor.shutdownNow();
+			processor.processEnded(mainContext);
+		}
+
+		if (failure != null) {
+			if (failure instanceof RuntimeException) {
+				throw (RuntimeException) failure;
+			}
+			if (failure instanceof Error) {
+				throw (Error) failure;
+			}
+			throw new IllegalStateException("Error parsing file", failure);
+		}
+	}
+
+	private BlockingQueue<RangeParser> createParsers(int count) {
+		BlockingQueue<RangeParser> parsers = new ArrayBlockingQueue<RangeParser>(count);
+		try {
+			for (int i = 0; i < count; i++) {
+				RangeParser rangeParser = new RangeParser();
+				settings.setRowProcessor(rangeParser);
+				rangeParser.parser = newParser(settings);
+				parsers.add(rangeParser);
+			}
+		} finally {
+			settings.setRowProcessor(processor);
+		}
+		return parsers;
+	}
+
+	private void deliverInOrder(Range[] ranges, RecordContext context) {
+		try {
+			context.linesBefore = headerLines;
+			for (Range range : ranges) {
+				if (range.linesBefore >= 0) {
+					context.linesBefore = range.linesBefore;
+				}
+				Batch batch;
+				while ((batch = range.batches.take()) != END_OF_RANGE) {
+					for (int i = 0; i < batch.rows.size(); i++) {
+						if (stopped || failure != null) {
+							return;
+						}
+						context.record = recordCount.incrementAndGet();
+						context.line = batch.lines[i];
+						context.character = batch.chars[i];
+						processor.rowProcessed(batch.rows.get(i), context);
+					}
+				}
+				context.linesBefore += range.lines;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			stopped = true;
+			throw new IllegalStateException("Thread interrupted", e);
+		} catch (RuntimeException e) {
+			if (failure == null) {
+				failure = e;
+			}
+		} finally {
+			if (stopped || failure != null) {
+				for (Range range : ranges) {
+					range.future.cancel(true);
+				}
+			}
+		}
+	}
+
+	private void await(Range range) {
+		try {
+			range.future.get();
+		} catch (CancellationException e) {
+			//stopped
+		} catch (ExecutionException e) {
+			if (failure == null && !stopped) {
+				failure = e.getCause();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Thread interrupted", e);
+		}
+	}
+
+	/**
+	 * Rows parsed from a range, with the line (relative to the start of the range) and character position of each one.
+	 */
+	private static final class Batch {
+		final List<String[]> rows = new ArrayList<String[]>(BATCH_SIZE);
+		final long[] lines = new long[BATCH_SIZE];
+		final long[] chars = new long[BATCH_SIZE];
+	}
+
+	/**
+	 * A range of records, identified by the position of its first byte and the position after its last byte.
+	 */
+	protected static final class Range {
+		final long start;
+		final long end;
+		final long recordsBefore;
+		final long linesBefore;
+		final BlockingQueue<Batch> batches = new ArrayBlockingQueue<Batch>(BATCHES_PER_RANGE + 1);
+		volatile long lines;
+		Future<?> future;
+
+		Range(long start, long end, long recordsBefore, long linesBefore) {
+			this.start = start;
+			this.end = end;
+			this.recordsBefore = recordsBefore;
+			this.linesBefore = linesBefore;
+		}
+	}
+
+	/**
+	 * A parser used by a thread, which is reused to parse multiple ranges. It is also the {@link RowProcessor} of its parser,
+	 * and either accumulates rows in batches (in ordered mode) or delivers them to the user's processor.
+	 */
+	private final class RangeParser implements RowProcessor {
+		AbstractParser<T> parser;
+		private Range range;
+		private Batch batch;
+		private RangeContext context;
+
+		void parse(FileChannel channel, Charset charset, Range range) throws InterruptedException {
+			if (stopped || failure != null || range.start == range.end) {
+				return;
+			}
+			this.range = range;
+			FileSegmentInputStream segment = new FileSegmentInputStream(channel, range.start, range.end);
+			parser.parse(new ByteChannelReader(segment, charset, settings.getInputBufferSize()));
+			if (ordered && batch != null && !batch.rows.isEmpty()) {
+				range.batches.put(batch);
+			}
+			batch = null;
+		}
+
+		@Override
+		public void processStarted(ParsingContext context) {
+			this.context = new RangeContext(context, range);
+		}
+
+		@Override
+		public void rowProcessed(String[] row, ParsingContext context) {
+			if (stopped || failure != null) {
+				context.stop();
+				return;
+			}
+			if (ordered) {
+				if (batch == null) {
+					batch = new Batch();
+				}
+				int i = batch.rows.size();
+				batch.lines[i] = context.currentLine();
+				batch.chars[i] = this.context.currentChar();
+				batch.rows.add(row);
+				if (batch.rows.size() == BATCH_SIZE) {
+					try {
+						range.batches.put(batch);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						context.stop();
+					}
+					batch = null;
+				}
+			} else {
+				this.context.record = recordCount.incrementAndGet();
+				processor.rowProcessed(row, this.context);
+			}
+		}
+
+		@Override
+		public void processEnded(ParsingContext context) {
+			range.lines = context.currentLine();
+		}
+	}
+
+	/**
+	 * The context of a record delivered by a parsing thread, in unordered mode.
+	 */
+	private final class RangeContext extends ParsingContextWrapper {
+		private final Range range;
+		long record;
+
+		RangeContext(ParsingContext context, Range range) {
+			super(context);
+			this.range = range;
+		}
+
+		@Override
+		public void stop() {
+			stopped = true;
+			super.stop();
+		}
+
+		@Override
+		public boolean isStopped() {
+			return stopped || super.isStopped();
+		}
+
+		@Override
+		public long currentRecord() {
+			return range.recordsBefore >= 0 ? range.recordsBefore + super.currentRecord() : record;
+		}
+
+		@Override
+		public long currentLine() {
+			return range.linesBefore >= 0 ? range.linesBefore + super.currentLine() : super.currentLine();
+		}
+
+		@Override
+		public long currentChar() {
+			return range.recordsBefore >= 0 ? range.start + super.currentChar() : -1;
+		}
+	}
+
+	/**
+	 * The context of the entire file, given to the processor when parsing starts and ends, and with each record delivered in ordered mode.
+	 */
+	private final class RecordContext extends ParsingContextWrapper {
+		long record;
+		long line;
+		long linesBefore;
+		long character = -1;
+
+		RecordContext(ParsingContext context) {
+			super(context);
+		}
+
+		@Override
+		public void stop() {
+			stopped = true;
+		}
+
+		@Override
+		public boolean isStopped() {
+			return stopped;
+		}
+
+		@Override
+		public long currentRecord() {
+			return ordered ? record : recordCount.get();
+		}
+
+		@Override
+		public long currentLine() {
+			return ordered ? linesBefore + line : -1;
+		}
+
+		@Override
+		public long currentChar() {
+			return ordered ? character : -1;
+		}
+
+		@Override
+		public int currentColumn() {
+			return 0;
+		}
+
+		@Override
+		public String currentParsedContent() {
+			return null;
+		}
+
+		@Override
+		public String[] headers() {
+			return settings.getHeaders();
+		}
+	}
+}
@@ -16,10 +16,14 @@
 package com.univocity.parsers.common;
 
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
 import java.util.*;
 
 import com.univocity.parsers.common.input.*;
 import com.univocity.parsers.common.input.EOFException;
+import com.univocity.parsers.common.input.concurrent.*;
 import com.univocity.parsers.common.processor.*;
 
 /**
@@ -56,19 +60,46 @@ public abstract class AbstractParser<T extends CommonParserSettings<?>> {
 	protected final CharInputReader input;
 	protected final ParserOutput output;
 	protected char ch;
+	private char[] lineBuffer;
+	private FeedBuffer feedBuffer;
+	private boolean feeding;
+	private final char lineSeparatorStart;
+
+	private static final byte RECORD_START = 0;
+	private static final byte IN_COMMENT = 1;
+	private static final byte IN_RECORD = 2;
+	private byte feedState;
+	private long commentLine;
 
 	/**
 	 * All parsers must support, at the very least, the settings provided by {@link CommonParserSettings}. The AbstractParser requires its configuration to be properly initialized.
 	 * @param settings the parser configuration
 	 */
 	public AbstractParser(T settings) {
+		this(settings, settings.getRowProcessor());
+	}
+
+	/**
+	 * Creates a parser that sends the records it parses to a given {@link RowProcessor}, instead of the one provided by {@link CommonParserSettings#getRowProcessor()}.
+	 * <p> This allows parser implementations to wrap or replace the configured processor.
+	 * @param settings the parser configuration
+	 * @param processor the processor of the records parsed.
+	 */
+	protected AbstractParser(T settings, RowProcessor processor) {
 		this.settings = settings;
 		this.input = settings.newCharInputReader();
 		this.output = new ParserOutput(settings);
-		this.processor = settings.getRowProcessor();
+		this.processor = processor;
 		this.context = new DefaultParsingContext(input, output);
 		this.recordsToRead = settings.getNumberOfRecordsToRead();
 		this.comment = settings.getFormat().getComment();
+
+		char[] lineSeparator = settings.getFormat().getLineSeparator();
+		if (settings.isLineSeparatorDetectionEnabled()) {
+			this.lineSeparatorStart = '\r';
+		} else {
+			this.lineSeparatorStart = lineSeparator.length == 2 ? lineSeparator[0] : '\0';
+		}
 	}
 
 	/**
@@ -98,12 +129,77 @@ public abstract class AbstractParser<T extends CommonParserSettings<?>> {
 	 */
 	protected abstract void parseRecord();
 
+	/**
+	 * Resumes parsing a record that was interrupted because all characters given to {@link AbstractParser#feed(char[], int, int)} were consumed.
+	 *
+	 * <p> This method is invoked when more characters are fed, or when {@link AbstractParser#endOfInput()} is called. It must continue from the exact
+	 *     point where <i>ch = input.nextChar()</i> ran out of characters, as if it never happened: the values parsed so far and the partial value held by the
+	 *     output appender are preserved. Implementations must keep whatever else they need to resume (e.g. the position in the record) in their own attributes.
+	 */
+	protected abstract void resumeRecord();
+
+	/**
+	 * Invoked when the end of the input is reached, before the values parsed so far are collected to form the last record.
+	 * <p> Parsers that keep characters of the record being parsed outside of the {@link ParserOutput} must transfer them to the output here.
+	 *     The default implementation does nothing.
+	 */
+	protected void completeRecordAtEOF() {
+	}
+
 	/**
 	 * Parses the entirety of a given input and delegates each parsed row to an instance of {@link RowProcessor}, defined by {@link CommonParserSettings#getRowProcessor()}.
 	 * @param reader The input to be parsed.
 	 */
 	public final void parse(Reader reader) {
 		beginParsing(reader);
+		parseInput();
+	}
+
+	/**
+	 * Parses the entirety of a given input held in memory and delegates each parsed row to an instance of {@link RowProcessor}, defined by {@link CommonParserSettings#getRowProcessor()}.
+	 * <p> No input buffer is allocated and no threads are started: characters are read directly from the given sequence
+	 *     (see {@link AbstractParser#beginParsing(CharSequence)}).
+	 * @param input The input to be parsed.
+	 */
+	public final void parse(CharSequence input) {
+		beginParsing(input);
+		parseInput();
+	}
+
+	/**
+	 * Parses the entirety of the bytes provided by a channel and delegates each parsed row to an instance of {@link RowProcessor}, defined by {@link CommonParserSettings#getRowProcessor()}.
+	 * See {@link AbstractParser#beginParsing(ReadableByteChannel, Charset)}.
+	 * @param channel The input to be parsed. It will be closed at the end of the process.
+	 * @param charset The encoding of the input.
+	 */
+	public final void parse(ReadableByteChannel channel, Charset charset) {
+		beginParsing(channel, charset);
+		parseInput();
+	}
+
+	/**
+	 * Parses the entirety of a file and delegates each parsed row to an instance of {@link RowProcessor}, defined by {@link CommonParserSettings#getRowProcessor()}.
+	 * See {@link AbstractParser#beginParsing(File, Charset)}.
+	 * @param file The file to be parsed. It may be compressed with gzip.
+	 * @param charset The encoding of the (decompressed) file contents.
+	 */
+	public final void parse(File file, Charset charset) {
+		beginParsing(file, charset);
+		parseInput();
+	}
+
+	/**
+	 * Parses the entirety of the remaining bytes of a buffer and delegates each parsed row to an instance of {@link RowProcessor}, defined by {@link CommonParserSettings#getRowProcessor()}.
+	 * See {@link AbstractParser#beginParsing(ByteBuffer, Charset)}.
+	 * @param bytes The input to be parsed.
+	 * @param charset The encoding of the input.
+	 */
+	public final void parse(ByteBuffer bytes, Charset charset) {
+		beginParsing(bytes, charset);
+		parseInput();
+	}
+
+	private void parseInput() {
 		try {
 			while (!context.stopped) {
 				ch = input.nextChar();
@@ -131,6 +227,19 @@ public abstract class AbstractParser<T extends CommonParserSettings<?>> {
 	}
 
 	private final String[] handleEOF() {
+		String[] row = rowAtEOF();
+		if (row != null) {
+			processor.rowProcessed(row, context);
+		}
+		return row;
+	}
+
+	/**
+	 * Collects the values of the record being parsed when the end of the input is reached.
+	 * @return the record parsed at the end of the input, or null if there's none.
+	 */
+	private final String[] rowAtEOF() {
+		completeRecordAtEOF();
 		String[] row = null;
 		if (output.column != 0) {
 			if (output.appender.length() > 0) {
@@ -143,9 +252,6 @@ public abstract class AbstractParser<T extends CommonParserSettings<?>> {
 			output.valueParsed();
 			row = output.rowParsed();
 		}
-		if (row != null) {
-			processor.rowProcessed(row, context);
-		}
 		return row;
 	}
 
@@ -158,10 +264,98 @@ public abstract class AbstractParser<T extends CommonParserSettings<?>> {
 	 */
 	public final void beginParsing(Reader reader) {
 		context.stopped = false;
+		output.reset();
 		input.start(reader);
 		processor.processStarted(context);
 	}
 
+	/**
+	 * Starts an iterator-style parsing cycle over the bytes provided by a (blocking) channel. The parsed records must be read one by one with the invocation of {@link AbstractParser#parseNext()}.
+	 * <p> Bytes are read in blocks of {@link CommonParserSettings#getInputBufferSize()} bytes into a direct {@link ByteBuffer}, and decoded
+	 *     straight into the parser's input buffer by a {@link ByteChannelReader}, which converts ASCII and ISO-8859-1 content without a {@link CharsetDecoder}.
+	 *
+	 * @param channel The input to be parsed. It will be closed at the end of the process.
+	 * @param charset The encoding of the input.
+	 */
+	public final void beginParsing(ReadableByteChannel channel, Charset charset) {
+		beginParsing(new ByteChannelReader(channel, charset, settings.getInputBufferSize()));
+	}
+
+	/**
+	 * Starts an iterator-style parsing cycle over the contents of a file. The parsed records must be read one by one with the invocation of {@link AbstractParser#parseNext()}.
+	 * <p> Files compressed with gzip are identified by their header and decompressed by a {@link ConcurrentGzipInputStream}, using up to
+	 *     {@link CommonParserSettings#getDecompressionThreads()} threads. Decompression then runs as a separate stage of the input pipeline:
+	 *     bytes are decompressed, then decoded (in the input reading thread, if {@link CommonParserSettings#getReadInputOnSeparateThread()} is enabled), then parsed.
+	 * <p> Other files are read as in {@link AbstractParser#beginParsing(ReadableByteChannel, Charset)}.
+	 *
+	 * @param file The file to be parsed. It may be compressed with gzip.
+	 * @param charset The encoding of the (decompressed) file contents.
+	 */
+	public final void beginParsing(File file, Charset charset) {
+		Reader reader;
+		try {
+			if (isGzip(file)) {
+				reader = new InputStreamReader(new ConcurrentGzipInputStream(file, settings.getDecompressionThreads()), charset);
+			} else {
+				reader = new ByteChannelReader(new FileInputStream(file).getChannel(), charset, settings.getInputBufferSize());
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to open file '" + file + "'", e);
+		}
+		beginParsing(reader);
+	}
+
+	private static boolean isGzip(File file) throws IOException {
+		InputStream in = new FileInputStream(file);
+		try {
+			return in.read() == 0x1F && in.read() == 0x8B;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Starts an iterator-style parsing cycle over the remaining bytes of a buffer, which may be a direct buffer. The parsed records must be read one by one with the invocation of {@link AbstractParser#parseNext()}.
+	 * <p> Bytes are decoded straight into the parser's input buffer by a {@link ByteChannelReader}, which converts ASCII and ISO-8859-1 content without a {@link CharsetDecoder}.
+	 *     The position of the given buffer is not modified.
+	 *
+	 * @param bytes The input to be parsed.
+	 * @param charset The encoding of the input.
+	 */
+	public final void beginParsing(ByteBuffer bytes, Charset charset) {
+		beginParsing(new ByteChannelReader(bytes, charset));
+	}
+
+	/**
+	 * Starts an iterator-style parsing cycle over an input held in memory. The parsed records must be read one by one with the invocation of {@link AbstractParser#parseNext()}.
+	 * <p> The given array is read directly: no input buffer is allocated, no characters are copied and no threads are started.
+	 *     The array must not be modified until parsing is finished.
+	 *
+	 * @param chars the array that contains the input to be parsed.
+	 * @param from the position of the first character of the input in the given array.
+	 * @param length the number of characters of the input.
+	 */
+	public final void beginParsing(char[] chars, int from, int length) {
+		context.stopped = false;
+		output.reset();
+		input.start(chars, from, length);
+		processor.processStarted(context);
+	}
+
+	/**
+	 * Starts an iterator-style parsing cycle over an input held in memory, such as a {@link String}. The parsed records must be read one by one with the invocation of {@link AbstractParser#parseNext()}.
+	 * <p> No input buffer is allocated and no threads are started. A {@link java.nio.CharBuffer} backed by an array (e.g. {@code CharBuffer.wrap(chars)})
+	 *     is read directly from its array. Other sequences are transferred to the parser in small chunks as the parsing progresses.
+	 *
+	 * @param input The input to be parsed.
+	 */
+	public final void beginParsing(CharSequence input) {
+		context.stopped = false;
+		output.reset();
+		this.input.start(input);
+		processor.processStarted(context);
+	}
+
 	/**
 	 * Parses the next record from the input. Note that {@link AbstractParser#beginParsing(Reader)} must have been invoked once before calling this method.
 	 * If the end of the input is reached, then this method will return null. Additionally, all resources will be closed automatically at the end of the input or if any error happens while parsing.
@@ -203,6 +397,296 @@ public abstract class AbstractParser<T extends CommonParserSettings<?>> {
 		}
 	}
 
+	/**
+	 * Parses a single record from the given {@code String}. This is meant for inputs that arrive one record at a time, such as messages
+	 * consumed from a queue, and avoids the overhead of {@link AbstractParser#beginParsing(Reader)}: the characters are parsed directly from memory,
+	 * no input reading thread is started and the {@link RowProcessor} is not notified.
+	 *
+	 * <p> The characters of the given {@code String} are copied to an internal buffer that is reused by subsequent calls.
+	 * <p> If the given input contains more than one record, only the first one is parsed.
+	 *
+	 * @param line the record to be parsed
+	 * @return the parsed record, or null if the line is empty, a comment or the row of headers (if header extraction is enabled).
+	 */
+	public final String[] parseLine(String line) {
+		int length = line.length();
+		if (lineBuffer == null || lineBuffer.length < length) {
+			lineBuffer = new char[length];
+		}
+		line.getChars(0, length, lineBuffer, 0);
+		return parseLine(lineBuffer, 0, length);
+	}
+
+	/**
+	 * Parses a single record from a sequence of characters in the given array. This is meant for inputs that arrive one record at a time, such as messages
+	 * consumed from a queue, and avoids the overhead of {@link AbstractParser#beginParsing(Reader)}: the characters are parsed directly from the given array,
+	 * no input reading thread is started and the {@link RowProcessor} is not notified.
+	 *
+	 * <p> If the given input contains more than one record, only the first one is parsed.
+	 *
+	 * @param chars the array that contains the record to be parsed
+	 * @param from the position of the first character of the record in the given array.
+	 * @param length the number of characters to parse.
+	 * @return the parsed record, or null if the input is empty, a comment or the row of headers (if header extraction is enabled).
+	 */
+	public final String[] parseLine(char[] chars, int from, int length) {
+		context.stopped = false;
+		output.discardValues();
+		output.appender.reset();
+		input.start(chars, from, length);
+		try {
+			ch = input.nextChar();
+			if (ch == comment) {
+				return null;
+			}
+			parseRecord();
+			return output.rowParsed();
+		} catch (EOFException ex) {
+			return rowAtEOF();
+		} catch (Exception ex) {
+			throw handleException(ex);
+		}
+	}
+
+	/**
+	 * Parses the next records from the input into the given array, until it is full or the input ends.
+	 * Note that {@link AbstractParser#beginParsing(Reader)} must have been invoked once before calling this method.
+	 *
+	 * <p> This works as successive calls to {@link AbstractParser#parseNext()}, but with a single call for a whole batch of records.
+	 *     The same array can be reused between calls. Positions after the number of records returned are left unchanged.
+	 * <p> All resources will be closed automatically at the end of the input or if any error happens while parsing.
+	 *
+	 * @param batch the array to receive the records parsed from the input. Its length determines the maximum number of records to parse.
+	 * @return the number of records stored in the given array. If it is less than the array length, there are no more records to read.
+	 */
+	public final int parseNextBatch(String[][] batch) {
+		int count = 0;
+		try {
+			while (!context.stopped && count < batch.length) {
+				ch = input.nextChar();
+				if (ch == comment) {
+					input.skipLines(1);
+					continue;
+				}
+
+				parseRecord();
+
+				String[] row = output.rowParsed();
+				if (row != null) {
+					processor.rowProcessed(row, context);
+					batch[count++] = row;
+					if (recordsToRead > 0 && context.currentRecord() >= recordsToRead) {
+						context.stop();
+					}
+				}
+			}
+			if (context.stopped) {
+				stopParsing();
+			}
+			return count;
+		} catch (EOFException ex) {
+			String[] row = handleEOF();
+			if (row != null) {
+				batch[count++] = row;
+			}
+			stopParsing();
+			return count;
+		} catch (Exception ex) {
+			try {
+				throw handleException(ex);
+			} finally {
+				stopParsing();
+			}
+		}
+	}
+
+	/**
+	 * Starts a push-style parsing cycle, where the input is given to the parser in chunks of characters, as they become available,
+	 * with {@link AbstractParser#feed(char[], int, int)}. No thread is blocked waiting for input: records completed by each chunk are
+	 * parsed and delivered to the {@link RowProcessor} defined by {@link CommonParserSettings#getRowProcessor()} before {@code feed} returns.
+	 * <p> Once all chunks have been fed, {@link AbstractParser#endOfInput()} must be invoked to parse the last record and finish the process.
+	 */
+	public final void beginFeeding() {
+		beginFeeding(null);
+	}
+
+	/**
+	 * Starts a push-style parsing cycle, where the input is given to the parser in chunks of bytes, as they become available,
+	 * with {@link AbstractParser#feed(ByteBuffer)} or {@link AbstractParser#feed(byte[], int, int)}. Characters can also be fed with
+	 * {@link AbstractParser#feed(char[], int, int)}. Records completed by each chunk are parsed and delivered to the {@link RowProcessor}
+	 * defined by {@link CommonParserSettings#getRowProcessor()} before {@code feed} returns.
+	 * <p> Once all chunks have been fed, {@link AbstractParser#endOfInput()} must be invoked to parse the last record and finish the process.
+	 *
+	 * @param charset the encoding used to decode the bytes fed to the parser. Multi-byte characters may be split between chunks.
+	 */
+	public final void beginFeeding(Charset charset) {
+		if (feedBuffer == null) {
+			feedBuffer = new FeedBuffer();
+		}
+		feedBuffer.reset(charset);
+		feeding = true;
+		feedState = RECORD_START;
+		input.start(feedBuffer.chars, 0, 0);
+		context.stopped = false;
+		output.reset();
+		output.discardValues();
+		output.appender.reset();
+		processor.processStarted(context);
+	}
+
+	/**
+	 * Feeds all characters of the given array to the parser. See {@link AbstractParser#feed(char[], int, int)}.
+	 * @param chars the next chunk of the input
+	 */
+	public final void feed(char[] chars) {
+		feed(chars, 0, chars.length);
+	}
+
+	/**
+	 * Feeds the next chunk of the input to the parser. Every record completed by the characters fed so far is parsed and delivered to the
+	 * {@link RowProcessor}. An incomplete record at the end of the chunk is completed once more characters are fed (or when {@link AbstractParser#endOfInput()}
+	 * is invoked). The given array can be reused after this method returns.
+	 *
+	 * <p> Note that {@link AbstractParser#beginFeeding()} must have been invoked once before calling this method.
+	 * <p> Parsing of an incomplete record is suspended at the end of the chunk, even in the middle of a value, and resumed from the same point with the next chunk.
+	 *     Line and character counts reported by the {@link ParsingContext} account for all chunks fed so far.
+	 *
+	 * @param chars an array with the next chunk of the input
+	 * @param from the position of the first character of the chunk
+	 * @param length the number of characters in the chunk
+	 */
+	public final void feed(char[] chars, int from, int length) {
+		if (acceptsInput()) {
+			feedBuffer.append(chars, from, length);
+			parseFedInput(false);
+		}
+	}
+
+	/**
+	 * Feeds bytes of the given array to the parser. See {@link AbstractParser#feed(ByteBuffer)}.
+	 * @param bytes an array with the next chunk of the input
+	 * @param from the position of the first byte of the chunk
+	 * @param length the number of bytes in the chunk
+	 */
+	public final void feed(byte[] bytes, int from, int length) {
+		feed(ByteBuffer.wrap(bytes, from, length));
+	}
+
+	/**
+	 * Decodes the next chunk of the input using the charset given in {@link AbstractParser#beginFeeding(Charset)}, and feeds the resulting
+	 * characters to the parser. See {@link AbstractParser#feed(char[], int, int)}. All remaining bytes of the given buffer are consumed.
+	 * @param bytes the next chunk of the input
+	 */
+	public final void feed(ByteBuffer bytes) {
+		if (acceptsInput()) {
+			feedBuffer.append(bytes, false);
+			parseFedInput(false);
+		}
+	}
+
+	/**
+	 * Informs the parser that there are no more chunks to feed. Any remaining record is parsed and delivered to the {@link RowProcessor},
+	 * and the parsing process is stopped.
+	 */
+	public final void endOfInput() {
+		if (acceptsInput()) {
+			try {
+				if (feedBuffer.isDecoding()) {
+					feedBuffer.append(ByteBuffer.allocate(0), true);
+				}
+				parseFedInput(true);
+			} finally {
+				if (feeding) {
+					feeding = false;
+					stopParsing();
+				}
+			}
+		}
+	}
+
+	private boolean acceptsInput() {
+		if (feedBuffer == null) {
+			throw new IllegalStateException("Parser not ready to receive input. Use beginFeeding() before feeding any input");
+		}
+		return feeding;
+	}
+
+	/**
+	 * Parses the characters available in the {@link FeedBuffer}, delivering every record completed by them. When the characters run out mid-record
+	 * (or in the middle of a comment), the state of the parser is kept, and parsing resumes from the same point once more characters are fed.
+	 * <p> Characters at the end of the buffer that may be the first of a line separator sequence are only parsed once the next chunk arrives.
+	 */
+	private void parseFedInput(boolean endOfInput) {
+		int available = feedBuffer.length;
+		if (!endOfInput && lineSeparatorStart != '\0') {
+			//the input reader can't see past the characters it is given, so these never end with the first character of a line separator.
+			while (available > 0 && feedBuffer.chars[feedBuffer.start + available - 1] == lineSeparatorStart) {
+				available--;
+			}
+		}
+		if (available > 0) {
+			input.resume(feedBuffer.chars, feedBuffer.start, available);
+			feedBuffer.consume(available);
+		} else if (!endOfInput) {
+			return;
+		}
+
+		try {
+			if (feedState == IN_COMMENT) {
+				skipComment();
+			} else if (feedState == IN_RECORD) {
+				resumeRecord();
+				recordFed();
+			}
+			while (!context.stopped) {
+				ch = input.nextChar();
+				if (ch == comment) {
+					commentLine = input.lineCount();
+					feedState = IN_COMMENT;
+					skipComment();
+					continue;
+				}
+				feedState = IN_RECORD;
+				parseRecord();
+				recordFed();
+			}
+		} catch (EOFException ex) {
+			if (endOfInput) {
+				handleEOF();
+			}
+		} catch (Exception ex) {
+			feeding = false;
+			try {
+				throw handleException(ex);
+			} finally {
+				stopParsing();
+			}
+		}
+
+		if (context.stopped && feeding) {
+			feeding = false;
+			stopParsing();
+		}
+	}
+
+	private void skipComment() {
+		while (input.lineCount() == commentLine) {
+			input.nextChar();
+		}
+		feedState = RECORD_START;
+	}
+
+	private void recordFed() {
+		feedState = RECORD_START;
+		String[] row = output.rowParsed();
+		if (row != null) {
+			processor.rowProcessed(row, context);
+			if (recordsToRead > 0 && context.currentRecord() >= recordsToRead) {
+				context.stop();
+			}
+		}
+	}
+
 	private String displayLineSeparators(String str, boolean addNewLine) {
 		if (addNewLine) {
 			if (str.contains("\r\n")) {
@@ -225,7 +709,9 @@ public abstract class AbstractParser<T extends CommonParserSettings<?>> {
 		if (chars != null) {
 			int length = output.appender.length();
 			if (length > chars.length) {
-				message = "Length of parsed input (" + length + ") exceeds the maximum number of characters defined in your parser settings (" + settings.getMaxCharsPerColumn() + "). ";
+				if (!(output.appender instanceof StreamingCharAppender)) {
+					message = "Length of parsed input (" + length + ") exceeds the maximum number of characters defined in your parser settings (" + settings.getMaxCharsPerColumn() + "). ";
+				}
 				length = chars.length;
 			}
 
@@ -282,8 +768,12 @@ public abstract class AbstractParser<T extends CommonParserSettings<?>> {
 	 * @return the list of all records parsed from the input.
 	 */
 	public final List<String[]> parseAll(Reader reader) {
-		List<String[]> out = new ArrayList<String[]>(10000);
 		beginParsing(reader);
+		return parseAllRemaining();
+	}
+
+	private List<String[]> parseAllRemaining() {
+		List<String[]> out = new ArrayList<String[]>(10000);
 		String[] row = null;
 		while ((row = parseNext()) != null) {
 			out.add(row);
@@ -291,6 +781,25 @@ public abstract class AbstractParser<T extends CommonParserSettings<?>> {
 		return out;
 	}
 
+	/**
+	 * Returns the current state of the parsing process.
+	 * @return a {@link ParsingContext} with information about the input being parsed by this parser.
+	 */
+	public final ParsingContext getContext() {
+		return context;
+	}
+
+	/**
+	 * Parses all records from an input held in memory and returns them in a list. See {@link AbstractParser#beginParsing(CharSequence)}.
+	 *
+	 * @param input the input to be parsed
+	 * @return the list of all records parsed from the input.
+	 */
+	public final List<String[]> parseAll(CharSequence input) {
+		beginParsing(input);
+		return parseAllRemaining();
+	}
+
 	/**
 	 * Reloads headers from settings.
 	 */
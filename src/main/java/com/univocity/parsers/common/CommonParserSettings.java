@@ -15,6 +15,7 @@
  ******************************************************************************/
 package com.univocity.parsers.common;
 
+import com.univocity.parsers.common.fields.*;
 import com.univocity.parsers.common.input.*;
 import com.univocity.parsers.common.input.concurrent.*;
 import com.univocity.parsers.common.processor.*;
@@ -35,9 +36,16 @@ import com.univocity.parsers.common.processor.*;
  *  	<p>When enabled, a reading thread (in <code>input.concurrent.ConcurrentCharInputReader</code>) will be started and load characters from the input, while the parser is processing its input buffer.
  *         This yields better performance, especially when reading from big input (greater than 100 mb)
 		<p>When disabled, the parsing process will briefly pause so the buffer can be replenished every time it is exhausted (in {@link DefaultCharInputReader} it is not as bad or slow as it sounds, and can even be (slightly) more efficient if your input is small)
+ *  <li><b>normalizeLineEndingsOnSeparateThread <i>(defaults to false)</i>:</b> when the input is read on a separate thread, indicates whether line separators
+ *  	should be detected and replaced by the normalized newline character in that thread, while the input is loaded, instead of in the parsing thread.</li>
+ *  <li><b>decompressionThreads <i>(defaults to the number of available processors at runtime)</i>:</b> the maximum number of threads used to decompress
+ *  	the members of a gzip file parsed with {@link AbstractParser#parse(java.io.File, java.nio.charset.Charset)}.</li>
+ *  <li><b>structuralIndexEnabled <i>(defaults to false)</i>:</b> indicates whether the structural characters of the input (e.g. delimiters, quotes and line separators)
+ *  	are found through an index of their positions in each input buffer, built with {@link com.univocity.parsers.common.input.StructuralIndex#newInstance(char...)}.</li>
  *  <li><b>numberOfRecordsToRead <i>(defaults to -1)</i>:</b> Defines how many (valid) records are to be parsed before the process is stopped. A negative value indicates there's no limit.</li>
  *  <li><b>lineSeparatorDetectionEnabled <i>(defaults to false)</i>:</b> Attempts to identify what is the line separator being used in the input.
  *  	The first row of the input will be read until a sequence of '\r\n', or characters '\r' or '\n' is found. If a match is found, then it will be used as the line separator to use to parse the input</li>
+ *  <li><b>streamed columns <i>(defaults to none)</i>:</b> a selection of columns whose values are delivered in chunks to a {@link StreamedColumnProcessor} instead of being accumulated in memory.</li>
  * </ul>
  *
  * @param <F> the format supported by this parser.
@@ -56,8 +64,13 @@ public abstract class CommonParserSettings<F extends Format> extends CommonSetti
 	private boolean columnReorderingEnabled = true;
 	private int inputBufferSize = 1024 * 1024;
 	private boolean readInputOnSeparateThread = Runtime.getRuntime().availableProcessors() > 1;
+	private boolean normalizeLineEndingsOnSeparateThread = false;
+	private int decompressionThreads = Runtime.getRuntime().availableProcessors();
+	private boolean structuralIndexEnabled = false;
 	private int numberOfRecordsToRead = -1;
 	private boolean lineSeparatorDetectionEnabled = false;
+	private StreamedColumnProcessor streamedColumnProcessor;
+	private FieldSelector streamedFieldSelector;
 
 	/**
 	 * Indicates whether or not a separate thread will be used to read characters from the input while parsing (defaults true if the number of available
@@ -87,6 +100,76 @@ public abstract class CommonParserSettings<F extends Format> extends CommonSetti
 		this.readInputOnSeparateThread = readInputOnSeparateThread;
 	}
 
+	/**
+	 * Indicates whether or not line separators are detected and replaced by the normalized newline character in the input reading thread (defaults to false).
+	 * <p>This only has effect if {@link #getReadInputOnSeparateThread()} evaluates to true. When enabled, the conversion of line separators
+	 *    is performed while each batch of characters is loaded from the input, and the parsing thread simply reads the characters it receives.
+	 * <p>Note that the normalized newline character, if present in the input, will be counted as a line separator.
+	 * @return true if line separators are normalized in the input reading thread, false otherwise
+	 */
+	public boolean getNormalizeLineEndingsOnSeparateThread() {
+		return normalizeLineEndingsOnSeparateThread;
+	}
+
+	/**
+	 * Defines whether or not line separators are detected and replaced by the normalized newline character in the input reading thread (defaults to false).
+	 * <p>This only has effect if {@link #getReadInputOnSeparateThread()} evaluates to true. When enabled, the conversion of line separators
+	 *    is performed while each batch of characters is loaded from the input, and the parsing thread simply reads the characters it receives.
+	 * <p>Note that the normalized newline character, if present in the input, will be counted as a line separator.
+	 * @param normalizeLineEndingsOnSeparateThread flag indicating whether line separators should be normalized in the input reading thread
+	 */
+	public void setNormalizeLineEndingsOnSeparateThread(boolean normalizeLineEndingsOnSeparateThread) {
+		this.normalizeLineEndingsOnSeparateThread = normalizeLineEndingsOnSeparateThread;
+	}
+
+	/**
+	 * Returns the maximum number of threads used to decompress a gzip file (defaults to the number of available processors at runtime).
+	 * <p>Gzip files parsed with {@link AbstractParser#parse(java.io.File, java.nio.charset.Charset)} are decompressed by a
+	 *    {@link com.univocity.parsers.common.input.concurrent.ConcurrentGzipInputStream}. Files with multiple gzip members, such as the ones produced by
+	 *    parallel compressors, have their members decompressed concurrently.
+	 * @return the maximum number of decompression threads
+	 */
+	public int getDecompressionThreads() {
+		return decompressionThreads;
+	}
+
+	/**
+	 * Defines the maximum number of threads used to decompress a gzip file (defaults to the number of available processors at runtime).
+	 * <p>Gzip files parsed with {@link AbstractParser#parse(java.io.File, java.nio.charset.Charset)} are decompressed by a
+	 *    {@link com.univocity.parsers.common.input.concurrent.ConcurrentGzipInputStream}. Files with multiple gzip members, such as the ones produced by
+	 *    parallel compressors, have their members decompressed concurrently.
+	 * @param decompressionThreads the maximum number of decompression threads
+	 */
+	public void setDecompressionThreads(int decompressionThreads) {
+		this.decompressionThreads = decompressionThreads;
+	}
+
+	/**
+	 * Indicates whether the parser finds the structural characters of its format (e.g. delimiters, quotes and line separators) through an index
+	 * of their positions in each input buffer (defaults to false).
+	 * <p> The index is a bitmap with one bit per character, built 64 characters at a time. It allows long runs of regular characters to be skipped
+	 *     without testing each character against every structural character. The index is created with {@link com.univocity.parsers.common.input.StructuralIndex#newInstance(char...)},
+	 *     which uses vector instructions if an implementation that supports them is in the classpath (such as the one in the {@code univocity-parsers-vector} module).
+	 *     Otherwise, the bitmap is built one character at a time, which is usually slower than testing the characters directly: measure before enabling it.
+	 * @return true if structural characters are indexed, false otherwise
+	 */
+	public boolean isStructuralIndexEnabled() {
+		return structuralIndexEnabled;
+	}
+
+	/**
+	 * Defines whether the parser finds the structural characters of its format (e.g. delimiters, quotes and line separators) through an index
+	 * of their positions in each input buffer (defaults to false).
+	 * <p> The index is a bitmap with one bit per character, built 64 characters at a time. It allows long runs of regular characters to be skipped
+	 *     without testing each character against every structural character. The index is created with {@link com.univocity.parsers.common.input.StructuralIndex#newInstance(char...)},
+	 *     which uses vector instructions if an implementation that supports them is in the classpath (such as the one in the {@code univocity-parsers-vector} module).
+	 *     Otherwise, the bitmap is built one character at a time, which is usually slower than testing the characters directly: measure before enabling it.
+	 * @param structuralIndexEnabled flag indicating whether structural characters should be indexed
+	 */
+	public void setStructuralIndexEnabled(boolean structuralIndexEnabled) {
+		this.structuralIndexEnabled = structuralIndexEnabled;
+	}
+
 	/**
 	 * Indicates whether or not the first valid record parsed from the input should be considered as the row containing the names of each column
 	 * @return true if the first valid record parsed from the input should be considered as the row containing the names of each column, false otherwise
@@ -143,9 +226,9 @@ public abstract class CommonParserSettings<F extends Format> extends CommonSetti
 	CharInputReader newCharInputReader() {
 		if (readInputOnSeparateThread) {
 			if (lineSeparatorDetectionEnabled) {
-				return new ConcurrentCharInputReader(getFormat().getNormalizedNewline(), this.getInputBufferSize(), 10);
+				return new ConcurrentCharInputReader(getFormat().getNormalizedNewline(), this.getInputBufferSize(), 10, normalizeLineEndingsOnSeparateThread);
 			} else {
-				return new ConcurrentCharInputReader(getFormat().getLineSeparator(), getFormat().getNormalizedNewline(), this.getInputBufferSize(), 10);
+				return new ConcurrentCharInputReader(getFormat().getLineSeparator(), getFormat().getNormalizedNewline(), this.getInputBufferSize(), 10, normalizeLineEndingsOnSeparateThread);
 			}
 		} else {
 			if (lineSeparatorDetectionEnabled) {
@@ -232,4 +315,64 @@ public abstract class CommonParserSettings<F extends Format> extends CommonSetti
 		this.lineSeparatorDetectionEnabled = lineSeparatorDetectionEnabled;
 	}
 
+	/**
+	 * Declares fields, identified by their names, whose values will be streamed to a {@link StreamedColumnProcessor} in chunks of up to {@link CommonSettings#getMaxCharsPerColumn()} characters.
+	 * <p>Values of streamed fields are never held in memory in their entirety. The records produced by the parser will contain {@code null} in their positions.
+	 * <p>Field names are matched against the headers defined in {@link CommonSettings#getHeaders()} or extracted from the input (see {@link CommonParserSettings#isHeaderExtractionEnabled()}).
+	 *
+	 * @param processor the callback that will receive the contents of each streamed value.
+	 * @param fieldNames the names of the fields to stream.
+	 * @return the set of streamed fields, which can be modified further.
+	 */
+	public FieldSet<String> streamFields(StreamedColumnProcessor processor, String... fieldNames) {
+		return setStreamedFieldSet(processor, new FieldNameSelector(), fieldNames);
+	}
+
+	/**
+	 * Declares fields, identified by their positions, whose values will be streamed to a {@link StreamedColumnProcessor} in chunks of up to {@link CommonSettings#getMaxCharsPerColumn()} characters.
+	 * <p>Values of streamed fields are never held in memory in their entirety. The records produced by the parser will contain {@code null} in their positions.
+	 *
+	 * @param processor the callback that will receive the contents of each streamed value.
+	 * @param fieldIndexes the positions of the fields to stream.
+	 * @return the set of streamed fields, which can be modified further.
+	 */
+	public FieldSet<Integer> streamIndexes(StreamedColumnProcessor processor, Integer... fieldIndexes) {
+		return setStreamedFieldSet(processor, new FieldIndexSelector(), fieldIndexes);
+	}
+
+	private <T> FieldSet<T> setStreamedFieldSet(StreamedColumnProcessor processor, FieldSet<T> fieldSet, T... values) {
+		if (processor == null) {
+			throw new IllegalArgumentException("Streamed column processor cannot be null");
+		}
+		this.streamedColumnProcessor = processor;
+		this.streamedFieldSelector = (FieldSelector) fieldSet;
+		fieldSet.add(values);
+		return fieldSet;
+	}
+
+	/**
+	 * Returns the callback that receives the values of streamed columns, if any.
+	 * @return the {@link StreamedColumnProcessor} provided in {@link CommonParserSettings#streamFields(StreamedColumnProcessor, String...)} or {@link CommonParserSettings#streamIndexes(StreamedColumnProcessor, Integer...)}, or null if no column is streamed.
+	 */
+	public StreamedColumnProcessor getStreamedColumnProcessor() {
+		return streamedColumnProcessor;
+	}
+
+	/**
+	 * Returns the selection of columns to be streamed to the {@link StreamedColumnProcessor}
+	 * @return the selection of streamed columns, or null if no column is streamed.
+	 */
+	FieldSelector getStreamedFieldSelector() {
+		return streamedFieldSelector;
+	}
+
+	/**
+	 * Returns an instance of CharAppender that delivers the characters of a streamed column to the configured {@link StreamedColumnProcessor}, in chunks of up to {@link CommonSettings#getMaxCharsPerColumn()} characters.
+	 * @param column the index of the streamed column
+	 * @return an instance of CharAppender for the given streamed column.
+	 */
+	protected CharAppender newStreamingCharAppender(int column) {
+		return new StreamingCharAppender(getMaxCharsPerColumn(), ' ', column, getStreamedColumnProcessor());
+	}
+
 }
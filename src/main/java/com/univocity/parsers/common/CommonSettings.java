@@ -31,7 +31,8 @@ import com.univocity.parsers.common.fields.*;
  *  	<p>You need this to avoid OutOfMemoryErrors in case a file does not have a valid format. In such cases the parser might just keep reading from the input
  * 		until its end or the memory is exhausted. This sets a limit which avoids unwanted JVM crashes.</li>
  *  <li><b>maxColumns <i>(defaults to 512)</i>:</b> a hard limit on how many columns a record can have.
- *  	You need this to avoid OutOfMemory errors in case of inputs that might be inconsistent with the format you are dealing width</li>
+ *  	You need this to avoid OutOfMemory errors in case of inputs that might be inconsistent with the format you are dealing width.
+ *  	<p>Parsers allocate space for columns on demand, so a higher limit does not increase the memory used to parse narrow records.</li>
  *  <li><b>skipEmptyLines <i>(defaults to true)</i>:</b>
  *  	<p>when reading, if the parser reads a line that is empty, it will be skipped.
  *  	<p>when writing, if the writer receives an empty or null row to write to the output, it will be ignored</li>
@@ -190,6 +191,7 @@ public abstract class CommonSettings<F extends Format> {
 	/**
 	 *  Returns the hard limit of how many columns a record can have (defaults to 512).
 	 * 	You need this to avoid OutOfMemory errors in case of inputs that might be inconsistent with the format you are dealing width .
+	 *  <p>Parsers allocate space for columns on demand, so a higher limit does not increase the memory used to parse narrow records.
 	 * @return The maximum number of columns a record can have.
 	 */
 	public int getMaxColumns() {
@@ -199,6 +201,7 @@ public abstract class CommonSettings<F extends Format> {
 	/**
 	 *  Defines a hard limit of how many columns a record can have (defaults to 512).
 	 * 	You need this to avoid OutOfMemory errors in case of inputs that might be inconsistent with the format you are dealing width.
+	 *  <p>Parsers allocate space for columns on demand, so a higher limit does not increase the memory used to parse narrow records.
 	 * @param maxColumns The maximum number of columns a record can have.
 	 */
 	public void setMaxColumns(int maxColumns) {
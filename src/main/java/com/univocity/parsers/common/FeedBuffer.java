@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common;
+
+import java.nio.*;
+import java.nio.charset.*;
+
+/**
+ * Accumulates the characters given to {@link AbstractParser} through its {@code feed} methods, until they are parsed.
+ *
+ * <p> The parser reads the characters directly from this buffer, and keeps its own state when a record is not complete. Only characters the parser
+ *     can't handle yet (i.e. characters at the end of a chunk that may start a line separator sequence) are kept until more characters are fed.
+ *     Bytes are decoded with a {@link CharsetDecoder} that keeps incomplete multi-byte sequences between chunks.
+ *
+ * @see AbstractParser#feed(char[], int, int)
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+final class FeedBuffer {
+
+	private static final int INITIAL_CAPACITY = 8192;
+
+	char[] chars = new char[INITIAL_CAPACITY];
+	int start;
+	int length;
+
+	private CharsetDecoder decoder;
+	private ByteBuffer incompleteBytes;
+
+	/**
+	 * Discards all characters accumulated so far and prepares this buffer to receive new input.
+	 * @param charset the encoding of the bytes to be fed, or {@code null} if only characters will be fed.
+	 */
+	void reset(Charset charset) {
+		start = 0;
+		length = 0;
+		incompleteBytes = null;
+		if (charset == null) {
+			decoder = null;
+		} else {
+			decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		}
+	}
+
+	/**
+	 * Indicates whether this buffer receives bytes, which must be decoded.
+	 * @return true if a charset was given in {@link FeedBuffer#reset(Charset)}, false otherwise
+	 */
+	boolean isDecoding() {
+		return decoder != null;
+	}
+
+	/**
+	 * Appends characters after the ones not yet parsed.
+	 * @param src the characters to append
+	 * @param from the position of the first character to append
+	 * @param count the number of characters to append
+	 */
+	void append(char[] src, int from, int count) {
+		ensureCapacity(count);
+		System.arraycopy(src, from, chars, start + length, count);
+		length += count;
+	}
+
+	/**
+	 * Decodes the given bytes and appends the resulting characters after the ones not yet parsed. Bytes at the end of the given buffer
+	 * that are part of an incomplete character are kept until the next call.
+	 * @param bytes the bytes to decode. All remaining bytes in the buffer will be consumed.
+	 * @param endOfInput flag indicating whether there are no more bytes to decode after the given ones.
+	 */
+	void append(ByteBuffer bytes, boolean endOfInput) {
+		if (decoder == null) {
+			throw new IllegalStateException("No charset defined to decode bytes. Use beginFeeding(Charset) to start feeding bytes to the parser");
+		}
+		if (incompleteBytes != null) {
+			ByteBuffer tmp = ByteBuffer.allocate(incompleteBytes.remaining() + bytes.remaining());
+			tmp.put(incompleteBytes);
+			tmp.put(bytes);
+			tmp.flip();
+			bytes = tmp;
+			incompleteBytes = null;
+		}
+
+		ensureCapacity((int) (bytes.remaining() * decoder.maxCharsPerByte()) + 1);
+		CharBuffer out = CharBuffer.wrap(chars, start + length, chars.length - start - length);
+		decoder.decode(bytes, out, endOfInput);
+		if (endOfInput) {
+			decoder.flush(out);
+		}
+		length = out.position() - start;
+
+		if (bytes.hasRemaining()) {
+			incompleteBytes = ByteBuffer.allocate(bytes.remaining());
+			incompleteBytes.put(bytes);
+			incompleteBytes.flip();
+		}
+	}
+
+	/**
+	 * Discards the given number of characters from the beginning of the buffer, as they have been given to the parser.
+	 * @param count the number of characters given to the parser
+	 */
+	void consume(int count) {
+		start += count;
+		length -= count;
+		if (length == 0) {
+			start = 0;
+		}
+	}
+
+	private void ensureCapacity(int extra) {
+		if (start + length + extra <= chars.length) {
+			return;
+		}
+		if (length + extra <= chars.length) {
+			System.arraycopy(chars, start, chars, 0, length);
+		} else {
+			int capacity = chars.length * 2;
+			if (capacity < length + extra) {
+				capacity = length + extra;
+			}
+			char[] tmp = new char[capacity];
+			System.arraycopy(chars, start, tmp, 0, length);
+			chars = tmp;
+		}
+		start = 0;
+	}
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common;
+
+import java.io.*;
+
+/**
+ * The {@link ParsingContext} given to {@link com.univocity.parsers.common.processor.RowProcessor}s by a {@link MultiFileParser}.
+ * It identifies the file each record came from.
+ *
+ * <p> Line, character and record counts are relative to the current file. If headers are merged (see {@link MultiFileParser#setHeaderMergingEnabled(boolean)}),
+ *     {@link #headers()} returns the merged headers of all files.
+ *
+ * @see MultiFileParser
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public class FileParsingContext extends ParsingContextWrapper {
+
+	private final File file;
+	private final int fileIndex;
+	private final String[] headers;
+
+	FileParsingContext(ParsingContext context, File file, int fileIndex, String[] headers) {
+		super(context);
+		this.file = file;
+		this.fileIndex = fileIndex;
+		this.headers = headers;
+	}
+
+	/**
+	 * Returns the file being parsed
+	 * @return the file that contains the current record
+	 */
+	public File currentFile() {
+		return file;
+	}
+
+	/**
+	 * Returns the position of the file being parsed in the list of files given to the {@link MultiFileParser}
+	 * @return the index of the file that contains the current record
+	 */
+	public int currentFileIndex() {
+		return fileIndex;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String[] headers() {
+		return headers == null ? super.headers() : headers;
+	}
+}
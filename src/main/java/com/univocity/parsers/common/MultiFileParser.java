@@ -0,0 +1,453 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.*;
+
+import com.univocity.parsers.common.processor.*;
+
+/**
+ * Parses multiple files as a single dataset, concurrently, using a bounded number of threads.
+ *
+ * <p> A parser instance is created for each thread (with {@link #newParser(CommonParserSettings)}) and reused for every file processed by that thread.
+ *     Files are parsed with {@link AbstractParser#parse(File, Charset)}, so gzip files are decompressed automatically.
+ *
+ * <p> Records are delivered to the {@link RowProcessor} defined in the parser settings, which must be thread-safe as it receives records
+ *     from multiple files at the same time. Its {@link RowProcessor#processStarted(ParsingContext)} method is invoked once, before the first record of
+ *     any file, and {@link RowProcessor#processEnded(ParsingContext)} is invoked once, after all files have been parsed. Alternatively,
+ *     {@link #newRowProcessor(File)} can be overridden to provide one processor per file, which will be invoked by a single thread.
+ *
+ * <p> Processors receive a {@link FileParsingContext}, which identifies the file each record came from.
+ *
+ * <p> When header extraction is enabled in the settings, the headers of every file are compared against the headers of the first file in the list,
+ *     and a file with different headers is rejected. If header merging is enabled, the headers of all files are instead read before parsing starts
+ *     and merged in the order they are found. Records are then rearranged to fit the merged headers, with null values for columns that do not exist in their file.
+ *
+ * <p> Example:
+ * <pre>
+ * CsvParserSettings settings = new CsvParserSettings();
+ * settings.setHeaderExtractionEnabled(true);
+ * settings.setRowProcessor(threadSafeProcessor);
+ *
+ * MultiFileParser&lt;CsvParserSettings&gt; parser = new MultiFileParser&lt;CsvParserSettings&gt;(settings, 8) {
+ *     protected AbstractParser&lt;CsvParserSettings&gt; newParser(CsvParserSettings settings) {
+ *         return new CsvParser(settings);
+ *     }
+ * };
+ * parser.parse(new File("/data/2015-03-01"), "*.csv.gz", Charset.forName("UTF-8"));
+ * </pre>
+ *
+ * @param <T> the type of settings used to create the parsers
+ *
+ * @see FileParsingContext
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public abstract class MultiFileParser<T extends CommonParserSettings<?>> {
+
+	private final T settings;
+	private final int threads;
+	private boolean headerMergingEnabled = false;
+
+	private volatile Throwable failure;
+	private RowProcessor sharedProcessor;
+	private boolean sharedProcessorStarted;
+	private volatile FileParsingContext lastContext;
+
+	/**
+	 * Creates a parser of multiple files.
+	 * @param settings the settings used to create a parser for each thread. Its {@link RowProcessor} receives the records of all files,
+	 *        unless {@link #newRowProcessor(File)} is overridden.
+	 * @param threads the maximum number of files parsed concurrently.
+	 */
+	public MultiFileParser(T settings, int threads) {
+		if (settings == null) {
+			throw new IllegalArgumentException("Parser settings cannot be null");
+		}
+		if (threads < 1) {
+			throw new IllegalArgumentException("Number of threads must be positive");
+		}
+		this.settings = settings;
+		this.threads = threads;
+	}
+
+	/**
+	 * Creates a parser with the given settings. Invoked once for each thread.
+	 * @param settings the settings to be used by the parser
+	 * @return a new parser instance
+	 */
+	protected abstract AbstractParser<T> newParser(T settings);
+
+	/**
+	 * Returns the {@link RowProcessor} that will process the records of a given file. By default, returns null, so the records of all files are
+	 * delivered to the (thread-safe) {@link RowProcessor} defined in the parser settings.
+	 * @param file the file to be parsed
+	 * @return a processor to be used exclusively for the records of the given file, or null to use the processor defined in the settings.
+	 */
+	protected RowProcessor newRowProcessor(File file) {
+		return null;
+	}
+
+	/**
+	 * Indicates whether the headers of all files are merged (defaults to false). Only applicable if header extraction is enabled in the parser settings.
+	 * <p> When enabled, the headers of every file are read before parsing starts and merged in the order they are found. Records are rearranged
+	 *     to fit the merged headers, unless fields were selected and column reordering is enabled.
+	 * <p> When disabled, every file must have the same headers as the first file.
+	 * @return true if headers are merged, false if they are validated.
+	 */
+	public boolean isHeaderMergingEnabled() {
+		return headerMergingEnabled;
+	}
+
+	/**
+	 * Defines whether the headers of all files are merged (defaults to false). Only applicable if header extraction is enabled in the parser settings.
+	 * <p> When enabled, the headers of every file are read before parsing starts and merged in the order they are found. Records are rearranged
+	 *     to fit the merged headers, unless fields were selected and column reordering is enabled.
+	 * <p> When disabled, every file must have the same headers as the first file.
+	 * @param headerMergingEnabled flag indicating whether headers should be merged instead of validated.
+	 */
+	public void setHeaderMergingEnabled(boolean headerMergingEnabled) {
+		this.headerMergingEnabled = headerMergingEnabled;
+	}
+
+	/**
+	 * Parses all files in a directory whose names match a glob pattern. See {@link #listFiles(File, String)} and {@link #parse(List, Charset)}.
+	 * @param directory the directory that contains the files to parse
+	 * @param glob the pattern of the file names to parse, e.g. {@code "*.csv"}
+	 * @param charset the encoding of the files
+	 */
+	public final void parse(File directory, String glob, Charset charset) {
+		parse(listFiles(directory, glob), charset);
+	}
+
+	/**
+	 * Parses the given files concurrently and blocks until all of them have been processed. If any file fails to be parsed,
+	 * all files still being processed are stopped and the first error is rethrown.
+	 * @param files the files to parse
+	 * @param charset the encoding of the files
+	 */
+	public final void parse(List<File> files, Charset charset) {
+		if (files.isEmpty()) {
+			return;
+		}
+		failure = null;
+		sharedProcessor = settings.getRowProcessor();
+		sharedProcessorStarted = false;
+		lastContext = null;
+
+		final BlockingQueue<FileDispatcher> dispatchers = createDispatchers(Math.min(threads, files.size()));
+		ExecutorService executor = Executors.newFixedThreadPool(dispatchers.size());
+		try {
+			String[] referenceHeaders = null;
+			String[] mergedHeaders = null;
+			String[][] fileHeaders = new String[files.size()][];
+			if (settings.isHeaderExtractionEnabled()) {
+				if (headerMergingEnabled) {
+					readHeaders(executor, dispatchers, files, charset, fileHeaders);
+					mergedHeaders = merge(fileHeaders);
+				} else {
+					referenceHeaders = dispatchers.peek().readHeaders(files.get(0), charset);
+				}
+			}
+
+			List<Future<?>> results = new ArrayList<Future<?>>(files.size());
+			for (int i = 0; i < files.size(); i++) {
+				final File file = files.get(i);
+				final int fileIndex = i;
+				final String[] expectedHeaders = referenceHeaders;
+				final String[] headers = mergedHeaders;
+				final int[] mapping = mergedHeaders == null ? null : mapping(fileHeaders[i], mergedHeaders);
+				final Charset encoding = charset;
+
+				results.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						if (failure == null) {
+							FileDispatcher dispatcher = dispatchers.take();
+							try {
+								dispatcher.parse(file, fileIndex, encoding, expectedHeaders, headers, mapping);
+							} catch (Exception e) {
+								if (failure == null) {
+									failure = e;
+								}
+								throw e;
+							} finally {
+								dispatchers.put(dispatcher);
+							}
+						}
+						return null;
+					}
+				}));
+			}
+			awaitAll(results);
+		} finally {
+			executor.shutdownNow();
+			if (sharedProcessorStarted && lastContext != null) {
+				sharedProcessor.processEnded(lastContext);
+			}
+		}
+	}
+
+	private BlockingQueue<FileDispatcher> createDispatchers(int count) {
+		BlockingQueue<FileDispatcher> dispatchers = new ArrayBlockingQueue<FileDispatcher>(count);
+		try {
+			for (int i = 0; i < count; i++) {
+				FileDispatcher dispatcher = new FileDispatcher();
+				settings.setRowProcessor(dispatcher);
+				dispatcher.parser = newParser(settings);
+				dispatchers.add(dispatcher);
+			}
+		} finally {
+			settings.setRowProcessor(sharedProcessor);
+		}
+		return dispatchers;
+	}
+
+	private void readHeaders(ExecutorService executor, final BlockingQueue<FileDispatcher> dispatchers, final List<File> files, final Charset charset, final String[][] fileHeaders) {
+		List<Future<?>> results = new ArrayList<Future<?>>(files.size());
+		for (int i = 0; i < files.size(); i++) {
+			final int fileIndex = i;
+			results.add(executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					FileDispatcher dispatcher = dispatchers.take();
+					try {
+						fileHeaders[fileIndex] = dispatcher.readHeaders(files.get(fileIndex), charset);
+					} finally {
+						dispatchers.put(dispatcher);
+					}
+					return null;
+				}
+			}));
+		}
+		awaitAll(results);
+	}
+
+	private void awaitAll(List<Future<?>> results) {
+		for (Future<?> result : results) {
+			try {
+				result.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				failure = e;
+				throw new IllegalStateException("Thread interrupted", e);
+			} catch (ExecutionException e) {
+				if (failure == null) {
+					failure = e.getCause();
+				}
+			}
+		}
+		if (failure != null) {
+			if (failure instanceof RuntimeException) {
+				throw (RuntimeException) failure;
+			}
+			if (failure instanceof Error) {
+				throw (Error) failure;
+			}
+			throw new IllegalStateException("Error parsing files", failure);
+		}
+	}
+
+	private static String[] merge(String[][] fileHeaders) {
+		LinkedHashSet<String> merged = new LinkedHashSet<String>();
+		for (String[] headers : fileHeaders) {
+			if (headers != null) {
+				merged.addAll(Arrays.asList(headers));
+			}
+		}
+		return merged.toArray(new String[merged.size()]);
+	}
+
+	private static int[] mapping(String[] headers, String[] mergedHeaders) {
+		List<String> merged = Arrays.asList(mergedHeaders);
+		int[] mapping = new int[headers == null ? 0 : headers.length];
+		for (int i = 0; i < mapping.length; i++) {
+			mapping[i] = merged.indexOf(headers[i]);
+		}
+		return mapping;
+	}
+
+	private synchronized void startSharedProcessor(FileParsingContext context) {
+		if (!sharedProcessorStarted) {
+			sharedProcessor.processStarted(context);
+			sharedProcessorStarted = true;
+		}
+	}
+
+	/**
+	 * Lists the files of a directory whose names match a glob pattern, sorted by name. Supported wildcards are {@code *}, which matches any sequence of
+	 * characters, and {@code ?}, which matches a single character.
+	 * @param directory the directory whose files will be listed.
+	 * @param glob the pattern of the file names to list, e.g. {@code "sales-*.csv"}
+	 * @return the files that match the given pattern.
+	 */
+	public static List<File> listFiles(File directory, String glob) {
+		StringBuilder regex = new StringBuilder();
+		StringBuilder literal = new StringBuilder();
+		for (char ch : glob.toCharArray()) {
+			if (ch == '*' || ch == '?') {
+				if (literal.length() > 0) {
+					regex.append(Pattern.quote(literal.toString()));
+					literal.setLength(0);
+				}
+				regex.append(ch == '*' ? ".*" : ".");
+			} else {
+				literal.append(ch);
+			}
+		}
+		if (literal.length() > 0) {
+			regex.append(Pattern.quote(literal.toString()));
+		}
+		final Pattern pattern = Pattern.compile(regex.toString());
+
+		File[] files = directory.listFiles(new FileFilter() {
+			@Override
+			public boolean accept(File file) {
+				return file.isFile() && pattern.matcher(file.getName()).matches();
+			}
+		});
+		if (files == null) {
+			throw new IllegalArgumentException("Unable to list files of '" + directory + "'");
+		}
+		Arrays.sort(files);
+		return Arrays.asList(files);
+	}
+
+	/**
+	 * The {@link RowProcessor} of a parser used by a thread. It delivers the records of the file being parsed to the appropriate processor.
+	 */
+	private final class FileDispatcher implements RowProcessor {
+
+		AbstractParser<T> parser;
+
+		private File file;
+		private RowProcessor processor;
+		private boolean shared;
+		private FileParsingContext context;
+		private String[] expectedHeaders;
+		private String[] mergedHeaders;
+		private int[] mapping;
+		private boolean headersChecked;
+		private int fileIndex;
+
+		String[] readHeaders(File file, Charset charset) {
+			this.file = null;
+			parser.beginParsing(file, charset);
+			try {
+				parser.parseNext();
+				return parser.getContext().headers();
+			} finally {
+				parser.stopParsing();
+			}
+		}
+
+		void parse(File file, int fileIndex, Charset charset, String[] expectedHeaders, String[] mergedHeaders, int[] mapping) {
+			RowProcessor fileProcessor = newRowProcessor(file);
+			this.shared = fileProcessor == null;
+			this.processor = shared ? sharedProcessor : fileProcessor;
+			this.file = file;
+			this.fileIndex = fileIndex;
+			this.expectedHeaders = expectedHeaders;
+			this.mergedHeaders = mergedHeaders;
+			this.mapping = mapping;
+			this.headersChecked = false;
+			try {
+				parser.parse(file, charset);
+			} finally {
+				this.file = null;
+			}
+		}
+
+		@Override
+		public void processStarted(ParsingContext context) {
+			if (file == null) {
+				return;
+			}
+			this.context = new FileParsingContext(context, file, fileIndex, mergedHeaders);
+			if (shared) {
+				startSharedProcessor(this.context);
+			} else {
+				processor.processStarted(this.context);
+			}
+		}
+
+		@Override
+		public void rowProcessed(String[] row, ParsingContext context) {
+			if (file == null) {
+				return;
+			}
+			if (failure != null) {
+				context.stop();
+				return;
+			}
+			if (!headersChecked) {
+				checkHeaders(context);
+			}
+			if (mapping != null) {
+				String[] merged = new String[mergedHeaders.length];
+				int length = Math.min(row.length, mapping.length);
+				for (int i = 0; i < length; i++) {
+					merged[mapping[i]] = row[i];
+				}
+				row = merged;
+			}
+			processor.rowProcessed(row, this.context);
+		}
+
+		@Override
+		public void processEnded(ParsingContext context) {
+			if (file == null) {
+				return;
+			}
+			try {
+				if (!headersChecked) {
+					try {
+						checkHeaders(context);
+					} catch (IllegalStateException e) {
+						throw new TextParsingException(context, e);
+					}
+				}
+			} finally {
+				if (shared) {
+					lastContext = this.context;
+				} else {
+					processor.processEnded(this.context);
+				}
+			}
+		}
+
+		/**
+		 * Validates the headers extracted from the file against the expected headers. This happens before the first record of the file is processed,
+		 * or at the end of the file if it has no records, e.g. when it only contains headers. Empty files have no headers and are not rejected.
+		 * @param context the context of the parser, which holds the headers extracted from the file.
+		 */
+		private void checkHeaders(ParsingContext context) {
+			headersChecked = true;
+			String[] headers = context.headers();
+			if (expectedHeaders != null && headers != null && !Arrays.equals(expectedHeaders, headers)) {
+				throw new IllegalStateException("Headers of file '" + file + "' " + Arrays.toString(headers) + " do not match the expected headers " + Arrays.toString(expectedHeaders));
+			}
+			if (context.columnsReordered()) {
+				mapping = null;
+			}
+		}
+	}
+}
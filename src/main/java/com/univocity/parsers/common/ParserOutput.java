@@ -40,6 +40,11 @@ import com.univocity.parsers.common.input.*;
  */
 public class ParserOutput {
 
+	/**
+	 * Number of columns allocated initially when no headers are provided in {@link CommonSettings#getHeaders()}.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
 	/**
 	 * Keeps track of the current column being parsed in the input.
 	 * Calls to {@link ParserOutput#valueParsed} and  {@link ParserOutput#emptyParsed} will increase the column count.
@@ -48,17 +53,25 @@ public class ParserOutput {
 	int column = 0;
 
 	/**
-	 * Stores the values parsed for a record.
+	 * Stores the values parsed for a record. This array starts small and grows on demand (up to {@link CommonSettings#getMaxColumns()}) as wider records are parsed.
 	 */
-	private final String[] parsedValues;
+	private String[] parsedValues;
 
 	/**
-	 * <p>Stores (shared) references to {@link CharAppender} for each potential column (as given by {@link CommonSettings#getMaxColumns()}).
+	 * <p>Stores (shared) references to {@link CharAppender} for each potential column. It always has one more position than {@link ParserOutput#parsedValues},
+	 * so the appender of the column after the last value parsed is available without any additional checks.
 	 * <p>Fields that are not selected will receive an instance of {@link NoopCharAppender} so all parser calls in {@link AbstractParser#parseRecord()} to {@link ParserOutput#appender} will do nothing.
 	 * <p>Selected fields (given by {@link CommonParserSettings}) will receive a functional {@link CharAppender}.
 	 */
 	private CharAppender[] appenders;
 
+	/**
+	 * The appender assigned to new positions of {@link ParserOutput#appenders} when the number of columns increases.
+	 */
+	private CharAppender newColumnAppender;
+
+	private final int maxColumns;
+
 	private final CommonParserSettings<?> settings;
 	private final boolean skipEmptyLines;
 	private final String nullValue;
@@ -82,34 +95,91 @@ public class ParserOutput {
 	 */
 	public ParserOutput(CommonParserSettings<?> settings) {
 		this.appender = settings.newCharAppender();
-		this.parsedValues = new String[settings.getMaxColumns()];
-		this.appenders = new CharAppender[settings.getMaxColumns()];
+		this.newColumnAppender = appender;
+		this.maxColumns = settings.getMaxColumns();
+
+		String[] headers = settings.getHeaders();
+		int capacity = headers == null ? INITIAL_CAPACITY : headers.length;
+		if (capacity > maxColumns) {
+			capacity = maxColumns;
+		}
+		this.parsedValues = new String[capacity];
+		this.appenders = new CharAppender[capacity + 1];
 		Arrays.fill(appenders, appender);
 		this.settings = settings;
 		this.skipEmptyLines = settings.getSkipEmptyLines();
+		if (headers != null || !settings.isHeaderExtractionEnabled()) {
+			initializeStreamedColumns(headers);
+		}
 		this.nullValue = settings.getNullValue();
 		this.columnsToExtractInitialized = false;
 		this.currentRecord = 0;
 	}
 
+	/**
+	 * Prepares the output for a new input: headers will be extracted again from the first record (if enabled in the settings) and the record count restarts from zero.
+	 */
+	void reset() {
+		columnsToExtractInitialized = false;
+		currentRecord = 0;
+	}
+
 	void initializeHeaders() {
 		columnsToExtractInitialized = true;
 		columnsReordered = false;
 		selectedIndexes = null;
 		this.appender = settings.newCharAppender();
+		this.newColumnAppender = appender;
 		Arrays.fill(appenders, appender);
 
 		this.headers = settings.getHeaders();
 		if (headers != null) {
 			headers = headers.clone();
 			initializeColumnsToExtract(headers);
+			initializeStreamedColumns(headers);
 		} else if (column > 0) { //we only initialize headers from a parsed row if it is not empty
-			initializeColumnsToExtract(Arrays.copyOf(parsedValues, column));
+			String[] values = Arrays.copyOf(parsedValues, column);
+			initializeColumnsToExtract(values);
+			initializeStreamedColumns(values);
 			if (settings.isHeaderExtractionEnabled()) {
 				headers = new String[column];
 				System.arraycopy(parsedValues, 0, headers, 0, column);
 			}
+		} else {
+			initializeStreamedColumns(null);
+		}
+	}
+
+	/**
+	 * Assigns a {@link StreamingCharAppender} to each column selected for streaming in {@link CommonParserSettings#streamFields} or {@link CommonParserSettings#streamIndexes}.
+	 * Columns that are not selected for parsing keep their {@link NoopCharAppender}.
+	 * @param values a sequence of values that represent the headers of the input, or null if the headers are not known. If not known, only streamed columns identified by their indexes will be initialized.
+	 */
+	private void initializeStreamedColumns(String[] values) {
+		FieldSelector selector = settings.getStreamedFieldSelector();
+		if (selector == null) {
+			return;
+		}
+		if (values == null) {
+			if (!(selector instanceof FieldIndexSelector)) {
+				return;
+			}
+			//the headers are not known: the columns are sized from the largest streamed index, and grow with the input as usual.
+			int largestIndex = ((FieldIndexSelector) selector).getLargestIndex();
+			values = new String[Math.min(largestIndex + 1, maxColumns)];
+		}
+
+		int[] indexes = selector.getFieldIndexes(values);
+		for (int i = 0; i < indexes.length; i++) {
+			ensureCapacity(indexes[i] + 1);
+		}
+		for (int i = 0; i < indexes.length; i++) {
+			int index = indexes[i];
+			if (appenders[index] != NoopCharAppender.getInstance()) {
+				appenders[index] = settings.newStreamingCharAppender(index);
+			}
 		}
+		this.appender = appenders[column];
 	}
 
 	/**
@@ -181,6 +251,14 @@ public class ParserOutput {
 			selectedIndexes = selector.getFieldIndexes(values);
 
 			if (selectedIndexes != null) {
+				int requiredCapacity = values.length;
+				for (int i = 0; i < selectedIndexes.length; i++) {
+					if (selectedIndexes[i] >= requiredCapacity) {
+						requiredCapacity = selectedIndexes[i] + 1;
+					}
+				}
+				ensureCapacity(requiredCapacity);
+
 				Arrays.fill(appenders, NoopCharAppender.getInstance());
 
 				for (int i = 0; i < selectedIndexes.length; i++) {
@@ -189,7 +267,9 @@ public class ParserOutput {
 
 				columnsReordered = settings.isColumnReorderingEnabled();
 
-				if (!columnsReordered && values.length < appenders.length) {
+				if (columnsReordered) {
+					newColumnAppender = NoopCharAppender.getInstance();
+				} else if (values.length < appenders.length) {
 					Arrays.fill(appenders, values.length, appenders.length, appender);
 				}
 			}
@@ -235,6 +315,9 @@ public class ParserOutput {
 	 * Adds a nullValue (as specified in {@link CommonSettings#getNullValue()}) to the output and prepares the next position in the record to receive more values.
 	 */
 	public void emptyParsed() {
+		if (column == parsedValues.length) {
+			increaseCapacity();
+		}
 		this.parsedValues[column++] = nullValue;
 		this.appender = appenders[column];
 	}
@@ -243,10 +326,43 @@ public class ParserOutput {
 	 * Adds the accumulated value in the appender object to the output and prepares the next position in the record to receive more values.
 	 */
 	public void valueParsed() {
+		if (column == parsedValues.length) {
+			increaseCapacity();
+		}
 		this.parsedValues[column++] = appender.getAndReset();
 		this.appender = appenders[column];
 	}
 
+	/**
+	 * Doubles the number of columns this output can hold, limited to the value of {@link CommonSettings#getMaxColumns()}.
+	 */
+	private void increaseCapacity() {
+		if (parsedValues.length >= maxColumns) {
+			throw new IllegalStateException("Number of columns in record exceeds the maximum number of columns defined in your parser settings (" + maxColumns + "). Use setMaxColumns to increase this limit.");
+		}
+		int capacity = parsedValues.length * 2;
+		if (capacity < 1) {
+			capacity = 1;
+		}
+		ensureCapacity(capacity > maxColumns ? maxColumns : capacity);
+	}
+
+	/**
+	 * Grows the arrays of parsed values and appenders to hold at least the given number of columns.
+	 * New positions in {@link ParserOutput#appenders} receive the appender given by {@link ParserOutput#newColumnAppender}
+	 * @param capacity the minimum number of columns this output must be able to hold.
+	 */
+	private void ensureCapacity(int capacity) {
+		if (parsedValues.length >= capacity) {
+			return;
+		}
+		int previousLength = appenders.length;
+
+		parsedValues = Arrays.copyOf(parsedValues, capacity);
+		appenders = Arrays.copyOf(appenders, capacity + 1);
+		Arrays.fill(appenders, previousLength, appenders.length, newColumnAppender);
+	}
+
 	/**
 	 * Returns the current record index. The number returned here reflects the number of actually parsed and valid records sent to the output of {@link ParserOutput#rowParsed}.
 	 * @return the current record index.
@@ -46,4 +46,18 @@ public class FieldIndexSelector extends FieldSet<Integer> implements FieldSelect
 
 		return out;
 	}
+
+	/**
+	 * Returns the largest of the selected indexes, so the number of columns required by the selection is known before the headers of the input are.
+	 * @return the largest selected index, or -1 if no index was selected.
+	 */
+	public int getLargestIndex() {
+		int largest = -1;
+		for (Integer index : this.get()) {
+			if (index > largest) {
+				largest = index;
+			}
+		}
+		return largest;
+	}
 }
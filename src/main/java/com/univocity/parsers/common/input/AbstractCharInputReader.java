@@ -16,6 +16,7 @@
 package com.univocity.parsers.common.input;
 
 import java.io.*;
+import java.nio.*;
 
 import com.univocity.parsers.common.*;
 
@@ -42,10 +43,22 @@ public abstract class AbstractCharInputReader implements CharInputReader {
 	private char lineSeparator1;
 	private char lineSeparator2;
 	private final char normalizedLineSeparator;
+	private boolean inputNormalized;
+	private boolean normalizedByExtendingClass;
+	private boolean inMemory;
+
+	private static final int SEQUENCE_CHUNK_SIZE = 8192;
+	private CharSequence sequence;
+	private int sequencePosition;
+	private char[] sequenceBuffer;
 
 	private long lineCount;
 	private long charCount;
 
+	private StructuralIndex structuralIndex;
+	private int bufferVersion;
+	private int indexedVersion;
+
 	public int i;
 	public char[] buffer;
 	public int length = -1;
@@ -79,6 +92,19 @@ public abstract class AbstractCharInputReader implements CharInputReader {
 		this.normalizedLineSeparator = normalizedLineSeparator;
 	}
 
+	/**
+	 * Informs whether the buffers assigned by the extending class already have their line separators replaced by the normalized newline character.
+	 * <p> When set, no line separator detection or conversion is performed by {@link AbstractCharInputReader#nextChar()}, and every normalized newline
+	 *     character found in the buffer is counted as a new line.
+	 * @param inputNormalized flag indicating whether the line separators of the input are normalized before being assigned to the buffer.
+	 */
+	protected final void setInputNormalized(boolean inputNormalized) {
+		this.normalizedByExtendingClass = inputNormalized;
+		if (!inMemory) {
+			this.inputNormalized = inputNormalized;
+		}
+	}
+
 	/**
 	 * Passes the {@link java.io.Reader} provided in the {@link AbstractCharInputReader#start(Reader)} method to the extending class so it can begin loading characters from it.
 	 * @param reader the {@link java.io.Reader} provided in {@link AbstractCharInputReader#start(Reader)}
@@ -98,6 +124,8 @@ public abstract class AbstractCharInputReader implements CharInputReader {
 	@Override
 	public final void start(Reader reader) {
 		stop();
+		inMemory = false;
+		inputNormalized = normalizedByExtendingClass;
 		setReader(reader);
 		lineSeparatorDefined = false;
 		lineCount = 0;
@@ -108,23 +136,147 @@ public abstract class AbstractCharInputReader implements CharInputReader {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p> The given array is used directly as the {@link AbstractCharInputReader#buffer}. {@link AbstractCharInputReader#reloadBuffer()} is not invoked,
+	 *     and the extending class is only stopped once, if it was reading from a {@link java.io.Reader}.
+	 */
+	@Override
+	public final void start(char[] chars, int from, int length) {
+		startInMemory();
+
+		this.buffer = chars;
+		this.i = from;
+		this.charCount = -from;
+		this.bufferVersion++;
+		this.length = length > 0 ? from + length : -1;
+
+		if (detectLineSeparator && !lineSeparatorDefined) {
+			detectLineSeparator();
+		}
+		if (length > 0) {
+			i++;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p> As in {@link AbstractCharInputReader#start(char[], int, int)}, the given array is used directly as the {@link AbstractCharInputReader#buffer}.
+	 */
+	@Override
+	public final void resume(char[] chars, int from, int length) {
+		//all characters of the previous buffer were read, so charCount holds the number of characters read so far.
+		this.buffer = chars;
+		this.i = from;
+		this.charCount -= from;
+		this.bufferVersion++;
+		this.length = length > 0 ? from + length : -1;
+
+		if (detectLineSeparator && !lineSeparatorDefined) {
+			detectLineSeparator();
+		}
+		if (length > 0) {
+			i++;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p> If the given input is a {@link CharBuffer} backed by an array, the array is used directly as the {@link AbstractCharInputReader#buffer}, as in
+	 *     {@link AbstractCharInputReader#start(char[], int, int)}. Otherwise, characters are transferred in chunks to a small internal buffer as they are read,
+	 *     with {@link String#getChars(int, int, char[], int)} or equivalent methods when available. {@link AbstractCharInputReader#reloadBuffer()} is not invoked.
+	 */
+	@Override
+	public final void start(CharSequence input) {
+		if (input instanceof CharBuffer && ((CharBuffer) input).hasArray()) {
+			CharBuffer chars = (CharBuffer) input;
+			start(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+			return;
+		}
+		startInMemory();
+
+		this.sequence = input;
+		this.sequencePosition = 0;
+		this.i = 0;
+		this.charCount = 0;
+
+		updateBuffer();
+		if (length > 0) {
+			i++;
+		}
+	}
+
+	private void startInMemory() {
+		if (!inMemory) {
+			stop();
+			inMemory = true;
+			inputNormalized = false;
+		}
+		sequence = null;
+		lineSeparatorDefined = false;
+		lineCount = 0;
+	}
+
+	/**
+	 * Transfers the next chunk of characters of the {@link CharSequence} given in {@link AbstractCharInputReader#start(CharSequence)} to the buffer.
+	 */
+	private void loadSequenceChunk() {
+		int remaining = sequence == null ? 0 : sequence.length() - sequencePosition;
+		if (remaining <= 0) {
+			sequence = null;
+			length = -1;
+			return;
+		}
+		if (sequenceBuffer == null || (sequenceBuffer.length < remaining && sequenceBuffer.length < SEQUENCE_CHUNK_SIZE)) {
+			sequenceBuffer = new char[remaining < SEQUENCE_CHUNK_SIZE ? remaining : SEQUENCE_CHUNK_SIZE];
+		}
+		int count = remaining < sequenceBuffer.length ? remaining : sequenceBuffer.length;
+		int end = sequencePosition + count;
+
+		if (sequence instanceof String) {
+			((String) sequence).getChars(sequencePosition, end, sequenceBuffer, 0);
+		} else if (sequence instanceof StringBuilder) {
+			((StringBuilder) sequence).getChars(sequencePosition, end, sequenceBuffer, 0);
+		} else if (sequence instanceof StringBuffer) {
+			((StringBuffer) sequence).getChars(sequencePosition, end, sequenceBuffer, 0);
+		} else {
+			for (int c = 0; c < count; c++) {
+				sequenceBuffer[c] = sequence.charAt(sequencePosition + c);
+			}
+		}
+
+		sequencePosition = end;
+		buffer = sequenceBuffer;
+		length = count;
+	}
+
 	/**
 	 * Requests the next batch of characters from the implementing class and updates
 	 * the character count.
 	 *
 	 * <p> If there are no more characters in the input, the reading will stop by invoking the {@link AbstractCharInputReader#stop()} method.
+	 * <p> When reading from a character array given in {@link AbstractCharInputReader#start(char[], int, int)}, there are no more characters to load.
+	 *     When reading from a {@link CharSequence}, the next chunk of characters is transferred from it.
 	 */
 	private final void updateBuffer() {
-		reloadBuffer();
+		if (inMemory) {
+			loadSequenceChunk();
+		} else {
+			reloadBuffer();
+		}
 
 		charCount += i;
 		i = 0;
+		bufferVersion++;
 
-		if (length == -1) {
+		if (length == -1 && !inMemory) {
 			stop();
 		}
 
-		if (detectLineSeparator && !lineSeparatorDefined) {
+		if (detectLineSeparator && !lineSeparatorDefined && !inputNormalized) {
 			detectLineSeparator();
 		}
 	}
@@ -135,7 +287,7 @@ public abstract class AbstractCharInputReader implements CharInputReader {
 	private final void detectLineSeparator() {
 		char separator1 = '\0';
 		char separator2 = '\0';
-		for (int c = 0; c < length; c++) {
+		for (int c = i; c < length; c++) {
 			char ch = buffer[c];
 			if (ch == '\n' || ch == '\r') {
 				if (separator1 == '\0') {
@@ -186,7 +338,15 @@ public abstract class AbstractCharInputReader implements CharInputReader {
 
 		i++;
 
-		if (lineSeparator1 == ch && (lineSeparator2 == '\0' || lineSeparator2 == buffer[i - 1])) {
+		if (inputNormalized) {
+			if (ch == normalizedLineSeparator) {
+				lineCount++;
+			}
+			return ch;
+		}
+
+		//at the end of the input there's no next character to compare with the second character of the line separator.
+		if (lineSeparator1 == ch && (lineSeparator2 == '\0' || (length != -1 && lineSeparator2 == buffer[i - 1]))) {
 			lineCount++;
 			if (lineSeparator2 != '\0') {
 				ch = normalizedLineSeparator;
@@ -199,7 +359,8 @@ public abstract class AbstractCharInputReader implements CharInputReader {
 					}
 				}
 
-				if (i < length) {
+				//at the end of the input, the character count still moves past the line separator, as it does for single-character separators.
+				if (i < length || length == -1) {
 					i++;
 				}
 			} else {
@@ -210,6 +371,117 @@ public abstract class AbstractCharInputReader implements CharInputReader {
 		return ch;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p> This implementation copies the run of characters available in the current buffer with a single call to {@link CharAppender#append(char[], int, int)}.
+	 *     The last character of the buffer is always read with {@link AbstractCharInputReader#nextChar()} so the next buffer can be loaded.
+	 * <p> If structural characters are indexed and include both stop characters, the end of the run is found in the index. The run then
+	 *     also ends at any other structural character.
+	 */
+	@Override
+	public final char appendUntil(char ch, CharAppender appender, char stop1, char stop2) {
+		appender.append(ch);
+
+		int from = i - 1;
+		int pos = from;
+		if (structuralIndex != null && from < length && isIndexed(from) && structuralIndex.covers(stop1) && structuralIndex.covers(stop2)) {
+			pos = structuralIndex.next(from);
+		} else {
+			while (pos < length) {
+				ch = buffer[pos];
+				if (ch == stop1 || ch == stop2 || ch == lineSeparator1 || ch == normalizedLineSeparator) {
+					break;
+				}
+				pos++;
+			}
+		}
+		if (pos == length) {
+			pos--;
+		}
+		if (pos > from) {
+			appender.append(buffer, from, pos - from);
+			i = pos + 1;
+		}
+		return nextChar();
+	}
+
+	/**
+	 * Ensures the structural index covers the current buffer, from the given position onwards.
+	 * @param from the position where the index of a new buffer starts
+	 * @return true if the index can be used with the current buffer
+	 */
+	private boolean isIndexed(int from) {
+		if (indexedVersion != bufferVersion) {
+			indexedVersion = bufferVersion;
+			return structuralIndex.reset(buffer, from, length, lineSeparator1, normalizedLineSeparator);
+		}
+		return structuralIndex.isUsable();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p> The index is created with {@link StructuralIndex#newInstance(char...)}.
+	 */
+	@Override
+	public final void indexStructuralCharacters(char... characters) {
+		structuralIndex = characters == null ? null : StructuralIndex.newInstance(characters);
+		indexedVersion = bufferVersion - 1;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p> No block is consumed while the line separator of the input is being detected.
+	 */
+	@Override
+	public final int readBlock(int blockLength) {
+		int start = i - 2;
+		int end = start + blockLength;
+		if (blockLength < 1 || start < 0 || end >= length || (detectLineSeparator && !lineSeparatorDefined && !inputNormalized)) {
+			return -1;
+		}
+
+		char separator1 = normalizedLineSeparator;
+		char separator2 = normalizedLineSeparator;
+		if (!inputNormalized) {
+			separator1 = lineSeparator1;
+			if (lineSeparator2 != '\0') {
+				separator2 = lineSeparator2;
+			}
+		}
+
+		for (int c = start; c < end; c++) {
+			char ch = buffer[c];
+			if (ch == separator1 || ch == separator2 || ch == normalizedLineSeparator) {
+				return -1;
+			}
+		}
+		i = end + 1;
+		return start;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final int lookahead(int blockLength) {
+		int start = i - 2;
+		if (blockLength < 1 || start < 0 || start + blockLength > length) {
+			return -1;
+		}
+		return start;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final char[] getBuffer() {
+		return buffer;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.input;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+
+/**
+ * A {@link java.io.Reader} that decodes bytes from a {@link ReadableByteChannel}, or from a single {@link ByteBuffer}, directly into the character
+ * arrays requested by a {@link CharInputReader}, without the intermediate buffering of {@link Channels#newReader(ReadableByteChannel, String)}.
+ *
+ * <p> Bytes are read from the channel in large blocks. For ISO-8859-1, every byte is converted directly to a character. For encodings compatible with
+ *     ASCII (such as UTF-8, US-ASCII, ISO-8859-x and windows-125x), runs of ASCII bytes are converted directly, and the {@link CharsetDecoder} is only
+ *     used when non-ASCII bytes are found. Other encodings are always decoded with the {@link CharsetDecoder}.
+ * <p> Malformed input and unmappable characters are replaced, as in {@link InputStreamReader}.
+ * <p> Channels must be in blocking mode. To parse input from non-blocking channels, feed each chunk of bytes received to
+ *     {@link com.univocity.parsers.common.AbstractParser#feed(ByteBuffer)}.
+ *
+ * @see com.univocity.parsers.common.AbstractParser#beginParsing(ReadableByteChannel, Charset)
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public class ByteChannelReader extends Reader {
+
+	private static final int LATIN1 = 0;
+	private static final int ASCII_COMPATIBLE = 1;
+	private static final int DECODER_ONLY = 2;
+
+	private final ReadableByteChannel channel;
+	private final ByteBuffer bytes;
+	private final CharsetDecoder decoder;
+	private final int mode;
+	private boolean endOfInput;
+	private boolean flushed;
+	private char[] pair;
+	private int pendingChar = -1;
+
+	/**
+	 * Creates a reader of the bytes provided by a channel.
+	 * @param channel the source of bytes. It will be closed when this reader is closed.
+	 * @param charset the encoding of the bytes
+	 * @param bufferSize the size of the (direct) {@link ByteBuffer} used to read from the channel (at least 16 bytes are used)
+	 */
+	public ByteChannelReader(ReadableByteChannel channel, Charset charset, int bufferSize) {
+		this(channel, charset, ByteBuffer.allocateDirect(bufferSize < 16 ? 16 : bufferSize));
+	}
+
+	/**
+	 * Creates a reader of the bytes provided by a channel, using the given buffer to read from it.
+	 * @param channel the source of bytes. It will be closed when this reader is closed.
+	 * @param charset the encoding of the bytes
+	 * @param buffer the buffer used to read bytes from the channel. Its contents are discarded. It can be reused after this reader is closed.
+	 */
+	public ByteChannelReader(ReadableByteChannel channel, Charset charset, ByteBuffer buffer) {
+		if (channel == null) {
+			throw new IllegalArgumentException("Channel cannot be null");
+		}
+		if (buffer.capacity() < 16) {
+			throw new IllegalArgumentException("Buffer capacity must be at least 16 bytes");
+		}
+		this.channel = channel;
+		this.bytes = buffer;
+		bytes.clear();
+		bytes.flip();
+		this.decoder = newDecoder(charset);
+		this.mode = modeOf(charset);
+	}
+
+	/**
+	 * Creates a reader of the remaining bytes of a buffer. The position of the given buffer is not modified.
+	 * @param bytes the bytes to read
+	 * @param charset the encoding of the bytes
+	 */
+	public ByteChannelReader(ByteBuffer bytes, Charset charset) {
+		this.channel = null;
+		this.bytes = bytes.duplicate();
+		this.decoder = newDecoder(charset);
+		this.mode = modeOf(charset);
+		this.endOfInput = true;
+	}
+
+	private static CharsetDecoder newDecoder(Charset charset) {
+		return charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	private static int modeOf(Charset charset) {
+		String name = charset.name();
+		if (name.equals("ISO-8859-1")) {
+			return LATIN1;
+		}
+		if (name.equals("UTF-8") || name.equals("US-ASCII") || name.startsWith("ISO-8859-") || name.startsWith("windows-125")) {
+			return ASCII_COMPATIBLE;
+		}
+		return DECODER_ONLY;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (pendingChar != -1) {
+			cbuf[off] = (char) pendingChar;
+			pendingChar = -1;
+			return 1;
+		}
+		if (len == 1) {
+			// a single character may not be enough to hold the next decoded character (e.g. a surrogate pair)
+			if (pair == null) {
+				pair = new char[2];
+			}
+			int read = read(pair, 0, 2);
+			if (read == -1) {
+				return -1;
+			}
+			if (read == 2) {
+				pendingChar = pair[1];
+			}
+			cbuf[off] = pair[0];
+			return 1;
+		}
+		while (true) {
+			if (bytes.hasRemaining()) {
+				int count = mode == DECODER_ONLY ? 0 : convert(cbuf, off, len);
+				if (count == 0) {
+					count = decode(cbuf, off, len);
+				}
+				if (count > 0) {
+					return count;
+				}
+			}
+			if (endOfInput) {
+				if (!flushed) {
+					flushed = true;
+					CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+					decoder.decode(bytes, out, true);
+					decoder.flush(out);
+					int count = out.position() - off;
+					if (count > 0) {
+						return count;
+					}
+				}
+				return -1;
+			}
+			fill();
+		}
+	}
+
+	/**
+	 * Converts bytes directly into characters, until a byte that requires decoding is found.
+	 */
+	private int convert(char[] cbuf, int off, int len) {
+		int position = bytes.position();
+		int n = bytes.remaining();
+		if (n > len) {
+			n = len;
+		}
+		int c = 0;
+		if (bytes.hasArray()) {
+			byte[] array = bytes.array();
+			int base = bytes.arrayOffset() + position;
+			if (mode == LATIN1) {
+				for (; c < n; c++) {
+					cbuf[off + c] = (char) (array[base + c] & 0xFF);
+				}
+			} else {
+				for (; c < n; c++) {
+					byte b = array[base + c];
+					if (b < 0) {
+						break;
+					}
+					cbuf[off + c] = (char) b;
+				}
+			}
+		} else {
+			if (mode == LATIN1) {
+				for (; c < n; c++) {
+					cbuf[off + c] = (char) (bytes.get(position + c) & 0xFF);
+				}
+			} else {
+				for (; c < n; c++) {
+					byte b = bytes.get(position + c);
+					if (b < 0) {
+						break;
+					}
+					cbuf[off + c] = (char) b;
+				}
+			}
+		}
+		bytes.position(position + c);
+		return c;
+	}
+
+	/**
+	 * Decodes bytes with the {@link CharsetDecoder}. Incomplete characters at the end of the buffer are left for the next {@link #fill()}.
+	 */
+	private int decode(char[] cbuf, int off, int len) {
+		CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+		if (mode == ASCII_COMPATIBLE) {
+			// decodes until the next ASCII byte, so the direct conversion can resume.
+			int limit = bytes.limit();
+			int end = bytes.position() + 1;
+			while (end < limit && bytes.get(end) < 0) {
+				end++;
+			}
+			bytes.limit(end);
+			decoder.decode(bytes, out, false);
+			bytes.limit(limit);
+		} else {
+			decoder.decode(bytes, out, false);
+		}
+		return out.position() - off;
+	}
+
+	/**
+	 * Reads more bytes from the channel, keeping any bytes not yet decoded.
+	 */
+	private void fill() throws IOException {
+		bytes.compact();
+		try {
+			int read = 0;
+			while (read == 0 && bytes.hasRemaining()) {
+				read = channel.read(bytes);
+			}
+			if (read == -1) {
+				endOfInput = true;
+			}
+		} finally {
+			bytes.flip();
+		}
+	}
+
+	/**
+	 * Closes the channel given in the constructor, if any.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (channel != null) {
+			channel.close();
+		}
+	}
+}
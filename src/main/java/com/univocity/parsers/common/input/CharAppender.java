@@ -66,6 +66,14 @@ public interface CharAppender {
 	 */
 	public void append(char ch);
 
+	/**
+	 * Appends a sequence of characters in bulk. Whitespace and padding characters are not handled.
+	 * @param ch the array that contains the characters to append
+	 * @param from the position of the first character to append
+	 * @param length the number of characters to append
+	 */
+	public void append(char[] ch, int from, int length);
+
 	/**
 	 * Returns the current accumulated value length (the sum of all appended characters - whitespaceCount).
 	 * @return the current accumulated value length (the sum of all appended characters - whitespaceCount).
@@ -86,6 +94,13 @@ public interface CharAppender {
 	 */
 	public void resetWhitespaceCount();
 
+	/**
+	 * Updates the number of whitespaces accumulated after the last non-whitespace character, counting every character {@code <= ' '} at the end of the accumulated value.
+	 * <p> After this call, characters appended with {@link CharAppender#append(char)} or {@link CharAppender#append(char[], int, int)} are treated as if they were
+	 *     appended with {@link CharAppender#appendIgnoringWhitespace(char)}. This allows trailing whitespace to be discarded from values copied in bulk.
+	 */
+	public void updateWhitespace();
+
 	/**
 	 * Returns the accumulated value as a String, discarding any trailing whitespace characters identified when using {@link CharAppender#appendIgnoringWhitespace(char)}, {@link CharAppender#appendIgnoringPadding(char)} or {@link CharAppender#appendIgnoringWhitespaceAndPadding(char)}
 	 * <p> The internal accumulated value is discarded after invoking this method (as in {@link CharAppender#reset()})
@@ -39,6 +39,35 @@ public interface CharInputReader {
 	 */
 	public void start(Reader reader);
 
+	/**
+	 * Initializes the CharInputReader implementation with a sequence of characters held in memory. No {@link java.io.Reader} is used and
+	 * no threads are started: the characters are read directly from the given array.
+	 * <p> The given array must not be modified until all its characters are read.
+	 * @param chars the array that contains the input.
+	 * @param from the position of the first character of the input in the given array.
+	 * @param length the number of characters of the input.
+	 */
+	public void start(char[] chars, int from, int length);
+
+	/**
+	 * Continues reading from another sequence of characters held in memory, once all characters given to {@link CharInputReader#start(char[], int, int)}
+	 * (or to a previous call to this method) have been read. The input is handled as a continuation of the previous sequence: the line and character counts,
+	 * and the line separator detected so far, are preserved.
+	 * <p> The given array must not be modified until all its characters are read.
+	 * @param chars the array that contains the next characters of the input.
+	 * @param from the position of the first character in the given array.
+	 * @param length the number of characters available.
+	 */
+	public void resume(char[] chars, int from, int length);
+
+	/**
+	 * Initializes the CharInputReader implementation with a {@link CharSequence} held in memory, such as a {@link String}. No {@link java.io.Reader}
+	 * is used and no threads are started.
+	 * <p> The given sequence must not be modified until all its characters are read.
+	 * @param input the input characters.
+	 */
+	public void start(CharSequence input);
+
 	/**
 	 * Stops the CharInputReader from reading characters from the {@link java.io.Reader} provided in {@link CharInputReader#start(Reader)} and closes it.
 	 */
@@ -52,6 +81,63 @@ public interface CharInputReader {
 	 */
 	public char nextChar();
 
+	/**
+	 * Appends the given character, and all characters that follow it in the input, to a {@link CharAppender}, until one of the given stop characters is found.
+	 * <p> Implementations may transfer multiple characters in bulk, which is much faster than calling {@link CharInputReader#nextChar()} for each character.
+	 *     Characters that are part of a newline sequence always interrupt the transfer, so they can be handled (and normalized) by {@link CharInputReader#nextChar()}.
+	 * <p> The result is the same as appending {@code ch} followed by each character returned by {@link CharInputReader#nextChar()} until a stop character or
+	 *     newline is returned.
+	 *
+	 * @param ch the current character, which will be appended
+	 * @param appender the appender to receive the characters
+	 * @param stop1 a character that stops the transfer
+	 * @param stop2 another character that stops the transfer
+	 * @return the first character read that was not appended. This is not necessarily a stop character, as implementations may return earlier.
+	 */
+	public char appendUntil(char ch, CharAppender appender, char stop1, char stop2);
+
+	/**
+	 * Builds an index of the positions of the given structural characters (and of line separators) in each input buffer, which is used
+	 * by {@link CharInputReader#appendUntil(char, CharAppender, char, char)} to find the end of each run of characters without testing them one by one.
+	 * <p> The index is only used when the stop characters given to {@link CharInputReader#appendUntil(char, CharAppender, char, char)} are among the indexed characters.
+	 *
+	 * @see StructuralIndex
+	 *
+	 * @param characters the structural characters of the input format, or {@code null} to disable the index.
+	 */
+	public void indexStructuralCharacters(char... characters);
+
+	/**
+	 * Consumes a block of characters directly from the input buffer, without reading them one by one. The block is made of the current character
+	 * (i.e. the last character returned by {@link CharInputReader#nextChar()}) and the {@code length - 1} characters that follow it.
+	 * <p> The block is only consumed if all of its characters are held in the buffer returned by {@link CharInputReader#getBuffer()}, it contains
+	 *     no newline characters, and it is followed by at least one character in the same buffer. Otherwise, nothing is consumed and the characters
+	 *     must be read with {@link CharInputReader#nextChar()}.
+	 * <p> Once a block is consumed, the next call to {@link CharInputReader#nextChar()} returns the character that follows the block.
+	 *     The characters of the block remain available in the buffer until then.
+	 *
+	 * @param length the number of characters in the block, including the current character.
+	 * @return the position of the first character of the block in the array returned by {@link CharInputReader#getBuffer()}, or -1 if the block was not consumed.
+	 */
+	public int readBlock(int length);
+
+	/**
+	 * Peeks at a block of characters in the input buffer without consuming them. The block is made of the current character
+	 * (i.e. the last character returned by {@link CharInputReader#nextChar()}) and the {@code length - 1} characters that follow it.
+	 * <p> The characters are only available if all of them are held in the buffer returned by {@link CharInputReader#getBuffer()}.
+	 *     They are raw characters: line separators are not normalized.
+	 *
+	 * @param length the number of characters to peek at, including the current character.
+	 * @return the position of the current character in the array returned by {@link CharInputReader#getBuffer()}, or -1 if the block is not entirely held in the buffer.
+	 */
+	public int lookahead(int length);
+
+	/**
+	 * Returns the array that holds the characters consumed by {@link CharInputReader#readBlock(int)} and peeked at by {@link CharInputReader#lookahead(int)}.
+	 * @return the current input buffer.
+	 */
+	public char[] getBuffer();
+
 	/**
 	 * Returns the number of characters returned by {@link CharInputReader#nextChar()} at any given time.
 	 * @return the number of characters returned by {@link CharInputReader#nextChar()}
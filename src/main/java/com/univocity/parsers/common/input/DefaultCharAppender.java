@@ -103,6 +103,20 @@ public class DefaultCharAppender implements CharAppender {
 		chars[index++] = ch;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void append(char[] ch, int from, int length) {
+		if (index + length > chars.length) {
+			System.arraycopy(ch, from, chars, index, chars.length - index);
+			index += length;
+			throw new ArrayIndexOutOfBoundsException(index - 1);
+		}
+		System.arraycopy(ch, from, chars, index, length);
+		index += length;
+	}
+
 	/**
 	 * Returns the accumulated value as a String, discarding any trailing whitespace characters identified when using {@link DefaultCharAppender#appendIgnoringWhitespace(char)}, {@link DefaultCharAppender#appendIgnoringPadding(char)} or {@link DefaultCharAppender#appendIgnoringWhitespaceAndPadding(char)}
 	 * <p> The internal accumulated value is discarded after invoking this method (as in {@link DefaultCharAppender#reset()})
@@ -194,6 +208,17 @@ public class DefaultCharAppender implements CharAppender {
 		whitespaceCount = 0;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void updateWhitespace() {
+		whitespaceCount = 0;
+		for (int i = index - 1; i >= 0 && chars[i] <= ' '; i--) {
+			whitespaceCount++;
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
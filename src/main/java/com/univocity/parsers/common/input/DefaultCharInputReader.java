@@ -28,6 +28,8 @@ import com.univocity.parsers.common.*;
 public class DefaultCharInputReader extends AbstractCharInputReader {
 
 	private Reader reader;
+	private final int bufferSize;
+	private char[] readerBuffer;
 
 	/**
 	 * Creates a new instance with the mandatory characters for handling newlines transparently. Line separators will be detected automatically.
@@ -36,7 +38,7 @@ public class DefaultCharInputReader extends AbstractCharInputReader {
 	 */
 	public DefaultCharInputReader(char normalizedLineSeparator, int bufferSize) {
 		super(normalizedLineSeparator);
-		super.buffer = new char[bufferSize];
+		this.bufferSize = bufferSize;
 	}
 
 	/**
@@ -47,7 +49,7 @@ public class DefaultCharInputReader extends AbstractCharInputReader {
 	 */
 	public DefaultCharInputReader(char[] lineSeparator, char normalizedLineSeparator, int bufferSize) {
 		super(lineSeparator, normalizedLineSeparator);
-		super.buffer = new char[bufferSize];
+		this.bufferSize = bufferSize;
 	}
 
 	/**
@@ -74,11 +76,16 @@ public class DefaultCharInputReader extends AbstractCharInputReader {
 
 	/**
 	 * Copies a sequence of characters from the input into the {@link DefaultCharInputReader#buffer}, and updates the {@link DefaultCharInputReader#length} to the number of characters read.
+	 * <p> The buffer is only allocated when the first {@link java.io.Reader} is read, so parsers that only process inputs held in memory do not allocate it.
 	 */
 	@Override
 	protected void reloadBuffer() {
 		try {
-			super.length = reader.read(buffer, 0, buffer.length);
+			if (readerBuffer == null) {
+				readerBuffer = new char[bufferSize];
+			}
+			super.buffer = readerBuffer;
+			super.length = reader.read(readerBuffer, 0, readerBuffer.length);
 		} catch (IOException e) {
 			throw new IllegalStateException("Error reading from input", e);
 		}
@@ -15,6 +15,14 @@
  ******************************************************************************/
 package com.univocity.parsers.common.input;
 
+/**
+ * Internal exception marker to signalize the end of the input.
+ *
+ * <p> It is used for control flow only, so it does not fill in its stack trace.
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
 public final class EOFException extends RuntimeException {
 
 	private static final long serialVersionUID = -4064380464076294133L;
@@ -22,4 +30,12 @@ public final class EOFException extends RuntimeException {
 	public EOFException() {
 		super();
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Throwable fillInStackTrace() {
+		return this;
+	}
 }
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.input;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+/**
+ * An {@link InputStream} that reads a segment of a file, delimited by a start and an end position, from a {@link FileChannel}.
+ * It is also a {@link ReadableByteChannel}, so the segment can be read directly into a {@link ByteBuffer} (e.g. by a {@link ByteChannelReader}).
+ *
+ * <p> Bytes are read with positional reads ({@link FileChannel#read(ByteBuffer, long)}), which do not modify the position of the channel.
+ *     Multiple instances can therefore read different segments of the same file concurrently, sharing a single channel.
+ * <p> Closing this stream does not close the channel.
+ *
+ * @see RecordBoundaries
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public class FileSegmentInputStream extends InputStream implements ReadableByteChannel {
+
+	private final FileChannel channel;
+	private final long end;
+	private long position;
+	private boolean open = true;
+
+	/**
+	 * Creates an input stream for a segment of a file.
+	 * @param channel the channel used to read from the file
+	 * @param start the position of the first byte of the segment
+	 * @param end the position after the last byte of the segment
+	 */
+	public FileSegmentInputStream(FileChannel channel, long start, long end) {
+		if (start < 0 || end < start) {
+			throw new IllegalArgumentException("Invalid file segment: [" + start + ", " + end + ")");
+		}
+		this.channel = channel;
+		this.position = start;
+		this.end = end;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int read() throws IOException {
+		byte[] b = new byte[1];
+		int read = read(b, 0, 1);
+		return read == -1 ? -1 : b[0] & 0xFF;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		long remaining = end - position;
+		if (remaining <= 0) {
+			return -1;
+		}
+		if (len > remaining) {
+			len = (int) remaining;
+		}
+		int read = channel.read(ByteBuffer.wrap(b, off, len), position);
+		if (read > 0) {
+			position += read;
+		}
+		return read;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int read(ByteBuffer dst) throws IOException {
+		long remaining = end - position;
+		if (remaining <= 0) {
+			return -1;
+		}
+		int read;
+		if (dst.remaining() > remaining) {
+			int limit = dst.limit();
+			dst.limit(dst.position() + (int) remaining);
+			try {
+				read = channel.read(dst, position);
+			} finally {
+				dst.limit(limit);
+			}
+		} else {
+			read = channel.read(dst, position);
+		}
+		if (read > 0) {
+			position += read;
+		}
+		return read;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isOpen() {
+		return open;
+	}
+
+	/**
+	 * Closes this stream. The underlying {@link FileChannel} is not closed.
+	 */
+	@Override
+	public void close() {
+		open = false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long skip(long n) throws IOException {
+		long remaining = end - position;
+		if (n > remaining) {
+			n = remaining;
+		}
+		if (n <= 0) {
+			return 0;
+		}
+		position += n;
+		return n;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int available() throws IOException {
+		long remaining = end - position;
+		return remaining > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) remaining;
+	}
+}
@@ -77,6 +77,13 @@ public class NoopCharAppender implements CharAppender {
 	public void append(char ch) {
 	}
 
+	/**
+	 * Does nothing
+	 */
+	@Override
+	public void append(char[] ch, int from, int length) {
+	}
+
 	/**
 	 * Does nothing
 	 */
@@ -124,6 +131,14 @@ public class NoopCharAppender implements CharAppender {
 
 	}
 
+	/**
+	 * Does nothing
+	 */
+	@Override
+	public void updateWhitespace() {
+
+	}
+
 	/**
 	 * Does nothing
 	 */
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.input;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+/**
+ * Utility methods to find positions in a file where records start, so that the file can be split in segments to be parsed independently.
+ *
+ * <p> A record is assumed to start right after each occurrence of the last byte of the line separator (e.g. '\n' for "\r\n" or "\n").
+ *     This is only valid for inputs that:
+ * <ul>
+ *  <li>use a character encoding where that byte can't be part of a multi-byte character, such as ASCII, ISO-8859-x or UTF-8; and</li>
+ *  <li>do not contain line separators inside values (e.g. in quoted CSV values).</li>
+ * </ul>
+ *
+ * @see FileSegmentInputStream
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public final class RecordBoundaries {
+
+	private static final int BLOCK_SIZE = 8192;
+
+	private RecordBoundaries() {
+
+	}
+
+	/**
+	 * Returns the byte that terminates a line separator, as found in the file. For "\r\n" and "\n" this is '\n'; for "\r" this is '\r'.
+	 * @param lineSeparator the line separator characters, as defined in {@link com.univocity.parsers.common.Format#getLineSeparator()}
+	 * @return the byte that marks the end of each line in the file.
+	 */
+	public static byte lineTerminator(char[] lineSeparator) {
+		return (byte) lineSeparator[lineSeparator.length - 1];
+	}
+
+	/**
+	 * Finds the position of the first record that starts at or after a given position, i.e. the position after the next line terminator
+	 * found in the file from {@code position - 1}.
+	 *
+	 * @param channel the channel used to read from the file
+	 * @param position the position from where to search. Positions 0 and {@code limit} are always record boundaries.
+	 * @param limit the position where the search stops
+	 * @param lineTerminator the byte that terminates each line (see {@link #lineTerminator(char[])})
+	 * @return the position of the next record start, or {@code limit} if there are no line terminators between {@code position} and {@code limit}
+	 * @throws IOException if any error occurs while reading from the file
+	 */
+	public static long nextRecordStart(FileChannel channel, long position, long limit, byte lineTerminator) throws IOException {
+		if (position <= 0) {
+			return 0;
+		}
+		if (position >= limit) {
+			return limit;
+		}
+
+		ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+		long blockStart = position - 1;
+		while (blockStart < limit) {
+			block.clear();
+			if (limit - blockStart < BLOCK_SIZE) {
+				block.limit((int) (limit - blockStart));
+			}
+			int read = channel.read(block, blockStart);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				if (block.get(i) == lineTerminator) {
+					return blockStart + i + 1;
+				}
+			}
+			blockStart += read;
+		}
+		return limit;
+	}
+
+	/**
+	 * Splits a segment of a file into a number of smaller segments of approximately the same size, each one starting at a record boundary.
+	 *
+	 * @param channel the channel used to read from the file
+	 * @param start the position of the first byte of the segment to split. It must be the start of a record.
+	 * @param end the position after the last byte of the segment to split.
+	 * @param parts the number of segments to produce. Fewer segments are produced if the records are too long to split the input evenly.
+	 * @param lineTerminator the byte that terminates each line (see {@link #lineTerminator(char[])})
+	 * @return the boundaries of each segment: segment {@code i} starts at position {@code [i]} and ends at position {@code [i+1]}.
+	 * @throws IOException if any error occurs while reading from the file
+	 */
+	public static long[] split(FileChannel channel, long start, long end, int parts, byte lineTerminator) throws IOException {
+		if (parts < 1) {
+			throw new IllegalArgumentException("Number of parts must be positive");
+		}
+		long[] boundaries = new long[parts + 1];
+		boundaries[0] = start;
+		int count = 1;
+		long size = end - start;
+		for (int i = 1; i < parts; i++) {
+			long boundary = nextRecordStart(channel, start + (size * i) / parts, end, lineTerminator);
+			if (boundary > boundaries[count - 1] && boundary < end) {
+				boundaries[count++] = boundary;
+			}
+		}
+		boundaries[count++] = end;
+
+		if (count < boundaries.length) {
+			long[] tmp = new long[count];
+			System.arraycopy(boundaries, 0, tmp, 0, count);
+			boundaries = tmp;
+		}
+		return boundaries;
+	}
+}
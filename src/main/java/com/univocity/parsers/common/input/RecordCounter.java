@@ -0,0 +1,307 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.input;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Counts the lines or records of a file without parsing it, by scanning its bytes for line terminators.
+ *
+ * <p> Bytes are processed 8 at a time: each 64-bit word read from the file is compared against the line terminator (and the quote) in all of its bytes at once
+ *     with SWAR ("SIMD within a register") arithmetic, and the matches are counted with {@link Long#bitCount(long)}.
+ *
+ * <p> When counting records, line terminators inside quoted values are not counted. Whether a position is inside quotes is given by the parity of the
+ *     number of quotes before it, which is computed for all bytes of a word at once with a prefix XOR. This assumes quotes inside quoted values are escaped
+ *     by doubling them (e.g. {@code ""}), as in RFC 4180. If a different escape character is used, the file is scanned one byte at a time, by a single thread.
+ *
+ * <p> Multiple threads can count a single file: it is split into chunks at arbitrary positions, and each chunk is scanned both as if it started outside and inside
+ *     of quotes. The results of each chunk are then combined in order.
+ *
+ * <p> As with {@link RecordBoundaries}, the encoding of the file must not use the bytes of the line terminator or of the quote as part of other characters,
+ *     as in ASCII, ISO-8859-x or UTF-8. Every line terminator is counted, including the ones of blank lines and of the header row. A last line without a terminator is also counted.
+ *
+ * @see RecordBoundaries
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public final class RecordCounter {
+
+	private static final int BLOCK_SIZE = 1 << 20;
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	private static final long ONES = 0x0101010101010101L;
+	private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+	private RecordCounter() {
+
+	}
+
+	/**
+	 * Counts the lines of a file.
+	 * @param file the file whose lines will be counted
+	 * @param lineSeparator the line separator characters, as defined in {@link com.univocity.parsers.common.Format#getLineSeparator()}
+	 * @param threads the number of threads used to scan the file
+	 * @return the number of lines in the file.
+	 */
+	public static long countLines(File file, char[] lineSeparator, int threads) {
+		return count(file, lineSeparator, -1, -1, threads);
+	}
+
+	/**
+	 * Counts the records of a file with quoted values that may contain line separators, such as a CSV file.
+	 * @param file the file whose records will be counted
+	 * @param lineSeparator the line separator characters, as defined in {@link com.univocity.parsers.common.Format#getLineSeparator()}
+	 * @param quote the character used to enclose values (e.g. {@link com.univocity.parsers.csv.CsvFormat#getQuote()})
+	 * @param quoteEscape the character used to escape quotes inside quoted values (e.g. {@link com.univocity.parsers.csv.CsvFormat#getQuoteEscape()})
+	 * @param threads the number of threads used to scan the file. Only one thread is used if the escape character is not the quote itself.
+	 * @return the number of records in the file.
+	 */
+	public static long countRecords(File file, char[] lineSeparator, char quote, char quoteEscape, int threads) {
+		if (quote >= 128 || quoteEscape >= 128) {
+			throw new IllegalArgumentException("Quote and quote escape characters must be ASCII characters");
+		}
+		return count(file, lineSeparator, quote, quoteEscape, threads);
+	}
+
+	private static long count(File file, char[] lineSeparator, int quote, int quoteEscape, int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Number of threads must be positive");
+		}
+		byte terminator = RecordBoundaries.lineTerminator(lineSeparator);
+
+		RandomAccessFile randomAccessFile;
+		try {
+			randomAccessFile = new RandomAccessFile(file, "r");
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to open file '" + file + "'", e);
+		}
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			long size = channel.size();
+			if (size == 0) {
+				return 0;
+			}
+
+			Chunk total;
+			if (quote != quoteEscape) {
+				total = new Chunk(channel, 0, size, terminator, quote, quoteEscape);
+				total.call();
+			} else {
+				total = countInChunks(channel, size, terminator, quote, threads);
+			}
+
+			ByteBuffer last = ByteBuffer.allocate(1);
+			channel.read(last, size - 1);
+			if (last.get(0) != terminator || total.endState != Chunk.OUTSIDE) {
+				total.outside++;
+			}
+			return total.outside;
+		} catch (IOException e) {
+			throw new IllegalStateException("Error reading file '" + file + "'", e);
+		} finally {
+			try {
+				randomAccessFile.close();
+			} catch (IOException e) {
+				//ignore
+			}
+		}
+	}
+
+	private static Chunk countInChunks(FileChannel channel, long size, byte terminator, int quote, int threads) throws IOException {
+		int chunkCount = (int) Math.max(1, Math.min((long) threads * CHUNKS_PER_THREAD, size / BLOCK_SIZE));
+		List<Chunk> chunks = new ArrayList<Chunk>(chunkCount);
+		for (int i = 0; i < chunkCount; i++) {
+			chunks.add(new Chunk(channel, size * i / chunkCount, size * (i + 1) / chunkCount, terminator, quote, quote));
+		}
+
+		if (threads == 1 || chunkCount == 1) {
+			for (Chunk chunk : chunks) {
+				chunk.call();
+			}
+		} else {
+			ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, chunkCount));
+			try {
+				for (Future<Void> future : executor.invokeAll(chunks)) {
+					future.get();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Thread interrupted", e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException) {
+					throw (IOException) e.getCause();
+				}
+				throw new IllegalStateException("Error counting records", e.getCause());
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+
+		Chunk total = chunks.get(0);
+		for (int i = 1; i < chunks.size(); i++) {
+			Chunk chunk = chunks.get(i);
+			if (total.endState == Chunk.OUTSIDE) {
+				total.outside += chunk.outside;
+			} else {
+				total.outside += chunk.inside;
+			}
+			total.endState ^= chunk.endState;
+		}
+		return total;
+	}
+
+	/**
+	 * Returns a word with the highest bit of each byte set if the byte is zero. Unlike the usual "has zero byte" test, there are no false positives, so the
+	 * zero bytes can be counted.
+	 */
+	private static long zeroBytes(long word) {
+		return ~(((word & LOW_BITS) + LOW_BITS) | word | LOW_BITS);
+	}
+
+	/**
+	 * A segment of the file, counted as if it started outside of quotes ({@link #outside}), and as if it started inside of quotes ({@link #inside}).
+	 * <p> When quotes are escaped by doubling them, {@link #endState} is the parity of the number of quotes in the chunk, i.e. whether the state at the end of the
+	 *     chunk is the opposite of the state at its start. Otherwise, the chunk must start outside of quotes, and {@link #endState} is the state at its end.
+	 */
+	private static final class Chunk implements Callable<Void> {
+		static final int OUTSIDE = 0;
+		static final int INSIDE = 1;
+		static final int ESCAPED = 2;
+
+		private final FileChannel channel;
+		private final long start;
+		private final long end;
+		private final byte terminator;
+		private final int quote;
+		private final int quoteEscape;
+
+		long outside;
+		long inside;
+		int endState = OUTSIDE;
+
+		Chunk(FileChannel channel, long start, long end, byte terminator, int quote, int quoteEscape) {
+			this.channel = channel;
+			this.start = start;
+			this.end = end;
+			this.terminator = terminator;
+			this.quote = quote;
+			this.quoteEscape = quoteEscape;
+		}
+
+		@Override
+		public Void call() throws IOException {
+			ByteBuffer block = ByteBuffer.allocateDirect((int) Math.min(BLOCK_SIZE, end - start)).order(ByteOrder.LITTLE_ENDIAN);
+			long position = start;
+			while (position < end) {
+				block.clear();
+				if (end - position < block.capacity()) {
+					block.limit((int) (end - position));
+				}
+				int read = channel.read(block, position);
+				if (read <= 0) {
+					break;
+				}
+				block.flip();
+				if (quote == -1) {
+					countLines(block);
+				} else if (quote == quoteEscape) {
+					countRecords(block);
+				} else {
+					countEscapedRecords(block);
+				}
+				position += read;
+			}
+			return null;
+		}
+
+		private void countLines(ByteBuffer block) {
+			long terminators = (terminator & 0xFF) * ONES;
+			while (block.remaining() >= 8) {
+				outside += Long.bitCount(zeroBytes(block.getLong() ^ terminators));
+			}
+			while (block.hasRemaining()) {
+				if (block.get() == terminator) {
+					outside++;
+				}
+			}
+		}
+
+		private void countRecords(ByteBuffer block) {
+			long terminators = (terminator & 0xFF) * ONES;
+			long quotes = quote * ONES;
+			while (block.remaining() >= 8) {
+				long word = block.getLong();
+				long newLines = zeroBytes(word ^ terminators) >>> 7;
+				long quoted = zeroBytes(word ^ quotes) >>> 7;
+				if (quoted == 0) {
+					if (endState == OUTSIDE) {
+						outside += Long.bitCount(newLines);
+					} else {
+						inside += Long.bitCount(newLines);
+					}
+				} else {
+					// lowest bit of each byte becomes the parity of the quotes up to that byte
+					long parity = quoted;
+					parity ^= parity << 8;
+					parity ^= parity << 16;
+					parity ^= parity << 32;
+					if (endState != OUTSIDE) {
+						parity ^= ONES;
+					}
+					outside += Long.bitCount(newLines & ~parity);
+					inside += Long.bitCount(newLines & parity);
+					endState ^= Long.bitCount(quoted) & 1;
+				}
+			}
+			while (block.hasRemaining()) {
+				byte b = block.get();
+				if (b == quote) {
+					endState ^= 1;
+				} else if (b == terminator) {
+					if (endState == OUTSIDE) {
+						outside++;
+					} else {
+						inside++;
+					}
+				}
+			}
+		}
+
+		private void countEscapedRecords(ByteBuffer block) {
+			while (block.hasRemaining()) {
+				byte b = block.get();
+				if (endState == OUTSIDE) {
+					if (b == quote) {
+						endState = INSIDE;
+					} else if (b == terminator) {
+						outside++;
+					}
+				} else if (endState == ESCAPED) {
+					endState = INSIDE;
+				} else if (b == quoteEscape) {
+					endState = ESCAPED;
+				} else if (b == quote) {
+					endState = OUTSIDE;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.input;
+
+/**
+ * A {@link StructuralIndex} that builds each word of the bitmap without vector instructions. Each character is looked up in a table of the
+ * ASCII structural characters, without branching on the characters.
+ *
+ * <p> This is the index used when no {@link StructuralIndexProvider} is available.
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public final class ScalarStructuralIndex extends StructuralIndex {
+
+	/**
+	 * Creates an index of the given structural characters, and of the line separator characters. Characters from 128 onwards can't be indexed and are ignored.
+	 * @param characters the structural characters of the input format
+	 */
+	public ScalarStructuralIndex(char... characters) {
+		super(characters);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void index(char[] buffer, int from, int end, long[] words, int word) {
+		final byte[] table = this.table;
+		for (int p = from; p < end; word++) {
+			int wordEnd = Math.min(p + 64, end);
+			long bits = 0;
+			for (int bit = 0; p < wordEnd; p++, bit++) {
+				char ch = buffer[p];
+				// (ch - 128) >>> 31 is 1 for ASCII characters and 0 otherwise
+				bits |= (long) (table[ch & 0x7F] & ((ch - 128) >>> 31)) << bit;
+			}
+			words[word] = bits;
+		}
+	}
+}
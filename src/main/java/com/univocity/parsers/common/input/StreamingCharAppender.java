@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.input;
+
+import com.univocity.parsers.common.processor.*;
+
+/**
+ * A {@link CharAppender} that hands its accumulated characters to a {@link StreamedColumnProcessor} in chunks, instead of holding the entire value in memory.
+ *
+ * <p>Every time the internal buffer is full, its contents are delivered to {@link StreamedColumnProcessor#valueChunk(int, char[], int, int)} and the buffer is reused.
+ * <p>Trailing whitespace identified by {@link CharAppender#appendIgnoringWhitespace(char)} and friends is held back until a non-whitespace character is appended,
+ *    so it can still be discarded at the end of the value. If the buffer fills up with whitespace only, these characters are delivered.
+ * <p>The value itself is not materialized: {@link StreamingCharAppender#getAndReset()} notifies the end of the value and returns {@code null}.
+ *
+ * @see com.univocity.parsers.common.processor.StreamedColumnProcessor
+ * @see com.univocity.parsers.common.ParserOutput
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public class StreamingCharAppender extends DefaultCharAppender {
+
+	private final StreamedColumnProcessor processor;
+	private final int column;
+	private long streamed;
+
+	/**
+	 * Creates a StreamingCharAppender that delivers chunks of the value of a given column to a {@link StreamedColumnProcessor}.
+	 *
+	 * @param chunkSize the maximum number of characters held in memory before they are delivered to the processor.
+	 * @param padding the padding character to ignore when calling {@link DefaultCharAppender#appendIgnoringWhitespaceAndPadding(char)}.
+	 * @param column the index of the column whose values are streamed.
+	 * @param processor the callback that receives each chunk of characters.
+	 */
+	public StreamingCharAppender(int chunkSize, char padding, int column, StreamedColumnProcessor processor) {
+		super(chunkSize, null, padding);
+		if (processor == null) {
+			throw new IllegalArgumentException("Streamed column processor cannot be null");
+		}
+		this.processor = processor;
+		this.column = column;
+	}
+
+	/**
+	 * Delivers the characters accumulated so far to the {@link StreamedColumnProcessor}, retaining any trailing whitespace
+	 * unless the buffer contains nothing else.
+	 *
+	 * <p> Characters appended in bulk are only checked for whitespace when the value ends (see {@link CharAppender#updateWhitespace()}), so the whitespace
+	 *     at the end of the buffer is retained even if it was not tracked as it was appended. Retained whitespace that is not discarded is delivered with the next chunk.
+	 */
+	private void flush() {
+		int retained = index;
+		while (retained > 0 && chars[retained - 1] <= ' ') {
+			retained--;
+		}
+		retained = Math.max(index - retained, whitespaceCount);
+
+		int available = index - retained;
+		if (available > 0) {
+			processor.valueChunk(column, chars, 0, available);
+			streamed += available;
+			System.arraycopy(chars, available, chars, 0, retained);
+			index = retained;
+		} else if (index > 0) {
+			deliver();
+		}
+	}
+
+	private void deliver() {
+		if (index > 0) {
+			processor.valueChunk(column, chars, 0, index);
+			streamed += index;
+		}
+		index = 0;
+		whitespaceCount = 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void appendIgnoringWhitespaceAndPadding(char ch) {
+		if (index == chars.length) {
+			flush();
+		}
+		super.appendIgnoringWhitespaceAndPadding(ch);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void appendIgnoringPadding(char ch) {
+		if (index == chars.length) {
+			flush();
+		}
+		super.appendIgnoringPadding(ch);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void appendIgnoringWhitespace(char ch) {
+		if (index == chars.length) {
+			flush();
+		}
+		super.appendIgnoringWhitespace(ch);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void append(char ch) {
+		if (index == chars.length) {
+			flush();
+		}
+		chars[index++] = ch;
+	}
+
+	/**
+	 * Appends a sequence of characters, delivering them to the {@link StreamedColumnProcessor} whenever the buffer is full.
+	 * @param ch the array that contains the characters to append
+	 * @param from the position of the first character to append
+	 * @param length the number of characters to append
+	 */
+	@Override
+	public void append(char[] ch, int from, int length) {
+		while (length > 0) {
+			if (index == chars.length) {
+				flush();
+			}
+			int count = chars.length - index;
+			if (count > length) {
+				count = length;
+			}
+			System.arraycopy(ch, from, chars, index, count);
+			index += count;
+			from += count;
+			length -= count;
+		}
+	}
+
+	/**
+	 * Appends the contents of another DefaultCharAppender, discarding any of its trailing whitespace characters
+	 * @param appender The DefaultCharAppender instance got get contents from.
+	 */
+	@Override
+	public void append(DefaultCharAppender appender) {
+		int length = appender.index - appender.whitespaceCount;
+		for (int i = 0; i < length; i++) {
+			append(appender.chars[i]);
+		}
+		appender.reset();
+	}
+
+	/**
+	 * Delivers the remaining characters of the value (without trailing whitespace) and notifies the {@link StreamedColumnProcessor} the value ended.
+	 * @return {@code null} as the value is not materialized.
+	 */
+	@Override
+	public String getAndReset() {
+		index -= whitespaceCount;
+		deliver();
+		reset();
+		processor.valueEnded(column);
+		return null;
+	}
+
+	/**
+	 * Delivers the remaining characters of the value (without trailing whitespace) and notifies the {@link StreamedColumnProcessor} the value ended.
+	 * @return {@code null} as the value is not materialized.
+	 */
+	@Override
+	public char[] getCharsAndReset() {
+		getAndReset();
+		return null;
+	}
+
+	/**
+	 * Returns the number of characters of the current value, including the ones already delivered to the {@link StreamedColumnProcessor}
+	 * @return the length of the value streamed so far.
+	 */
+	@Override
+	public int length() {
+		long length = streamed + index - whitespaceCount;
+		return length > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void reset() {
+		super.reset();
+		streamed = 0;
+	}
+}
@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.input;
+
+import java.util.*;
+
+/**
+ * A bitmap of the positions of structural characters (such as delimiters, quotes, escapes and line separators) in an input buffer, with one bit per character.
+ *
+ * <p> The bitmap is built in blocks, as the positions are queried. Each 64-bit word covers 64 consecutive characters. The next structural character
+ *     after a given position is then found with {@link Long#numberOfTrailingZeros(long)}, skipping up to 64 regular characters at a time.
+ * <p> Extending classes only build the words of the bitmap (see {@link #index(char[], int, int, long[], int)}). {@link #newInstance(char...)} uses the first
+ *     {@link StructuralIndexProvider} available in the classpath, and falls back to the {@link ScalarStructuralIndex} if there's none.
+ *
+ * <p> Only ASCII characters (below 128) can be indexed.
+ *
+ * @see CharInputReader#indexStructuralCharacters(char...)
+ * @see StructuralIndexProvider
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public abstract class StructuralIndex {
+
+	private static final int BLOCK_SIZE = 4096;
+
+	private static boolean providerLoaded;
+	private static StructuralIndexProvider provider;
+
+	private final byte[] structural = new byte[128];
+	final byte[] table = new byte[128];
+	private char[] characters;
+	private boolean usable;
+
+	private long[] words = new long[BLOCK_SIZE / 64];
+	private char[] buffer;
+	private int base;
+	private int indexed;
+	private int length;
+
+	/**
+	 * Creates an index of the given structural characters, and of the line separator characters. Characters from 128 onwards can't be indexed and are ignored.
+	 * @param characters the structural characters of the input format
+	 */
+	protected StructuralIndex(char... characters) {
+		for (char ch : characters) {
+			if (ch < 128) {
+				structural[ch] = 1;
+			}
+		}
+		structural['\n'] = 1;
+		structural['\r'] = 1;
+		this.characters = toCharacters(structural);
+	}
+
+	/**
+	 * Creates an index of the given structural characters with the first {@link StructuralIndexProvider} available in the classpath, which is
+	 * registered in {@code META-INF/services/com.univocity.parsers.common.input.StructuralIndexProvider}. If there's none, a {@link ScalarStructuralIndex} is created.
+	 * @param characters the structural characters of the input format
+	 * @return a new index of the given characters
+	 */
+	public static StructuralIndex newInstance(char... characters) {
+		StructuralIndexProvider provider = getProvider();
+		if (provider != null) {
+			StructuralIndex index = provider.newStructuralIndex(characters);
+			if (index != null) {
+				return index;
+			}
+		}
+		return new ScalarStructuralIndex(characters);
+	}
+
+	private static synchronized StructuralIndexProvider getProvider() {
+		if (!providerLoaded) {
+			providerLoaded = true;
+			try {
+				for (StructuralIndexProvider candidate : ServiceLoader.load(StructuralIndexProvider.class, StructuralIndex.class.getClassLoader())) {
+					if (candidate.isAvailable()) {
+						provider = candidate;
+						break;
+					}
+				}
+			} catch (ServiceConfigurationError e) {
+				//the provider can't be loaded in this JVM. Uses the scalar index.
+				provider = null;
+			} catch (LinkageError e) {
+				//the provider requires classes that are not available in this JVM. Uses the scalar index.
+				provider = null;
+			}
+		}
+		return provider;
+	}
+
+	/**
+	 * Tests whether a character is indexed.
+	 * @param ch the character to test
+	 * @return true if the positions of the given character are set in the index.
+	 */
+	final boolean covers(char ch) {
+		return ch < 128 && table[ch] == 1;
+	}
+
+	/**
+	 * Returns the characters whose positions are set in the index of the current buffer: the structural characters given in the constructor,
+	 * and the line separator characters of the input. Before a buffer is indexed, the line separator characters are {@code '\n'} and {@code '\r'}.
+	 * @return the indexed characters, in ascending order.
+	 */
+	protected final char[] getIndexedCharacters() {
+		return characters;
+	}
+
+	/**
+	 * Starts indexing a new buffer.
+	 * @param buffer the buffer to index
+	 * @param from the position of the first character to index
+	 * @param length the position after the last character to index
+	 * @param lineSeparator the first character of the line separator of the input
+	 * @param normalizedLineSeparator the normalized newline character
+	 * @return true if the index can be used, i.e. the given line separator characters can be indexed.
+	 */
+	final boolean reset(char[] buffer, int from, int length, char lineSeparator, char normalizedLineSeparator) {
+		this.buffer = buffer;
+		this.base = from;
+		this.indexed = from;
+		this.length = length;
+
+		System.arraycopy(structural, 0, table, 0, table.length);
+		usable = add(lineSeparator) & add(normalizedLineSeparator);
+
+		characters = toCharacters(table);
+		return usable;
+	}
+
+	private static char[] toCharacters(byte[] table) {
+		int count = 0;
+		char[] characters = new char[table.length];
+		for (char ch = 0; ch < table.length; ch++) {
+			if (table[ch] == 1) {
+				characters[count++] = ch;
+			}
+		}
+		return Arrays.copyOf(characters, count);
+	}
+
+	private boolean add(char ch) {
+		if (ch < 128) {
+			table[ch] = 1;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Indicates whether the index of the current buffer can be used.
+	 * @return true if the line separator characters of the current buffer are indexed.
+	 */
+	final boolean isUsable() {
+		return usable;
+	}
+
+	/**
+	 * Returns the position of the first structural character at or after a given position of the buffer
+	 * @param from the position to start searching from. Must not be lower than the position given in {@link #reset(char[], int, int, char, char)}
+	 * @return the position of the next structural character, or the length of the buffer if there is none.
+	 */
+	final int next(int from) {
+		while (true) {
+			if (from >= indexed) {
+				if (indexed >= length) {
+					return length;
+				}
+				indexBlock();
+			}
+			int w = (from - base) >>> 6;
+			int lastWord = (indexed - base - 1) >>> 6;
+			long word = words[w] & (-1L << ((from - base) & 63));
+			while (word == 0 && w < lastWord) {
+				word = words[++w];
+			}
+			if (word != 0) {
+				return base + (w << 6) + Long.numberOfTrailingZeros(word);
+			}
+			from = indexed;
+		}
+	}
+
+	private void indexBlock() {
+		int end = Math.min(indexed + BLOCK_SIZE, length);
+		int w = (indexed - base) >>> 6;
+		int lastWord = (end - base - 1) >>> 6;
+		if (lastWord >= words.length) {
+			words = Arrays.copyOf(words, Math.max(words.length * 2, lastWord + 1));
+		}
+		index(buffer, indexed, end, words, w);
+		indexed = end;
+	}
+
+	/**
+	 * Builds the words of the bitmap that cover a range of the buffer. Bit {@code n} of a word is set if the character at position
+	 * {@code from + n} (plus 64 for each word after the first) is one of the {@link #getIndexedCharacters()}. Bits after the end of the range must be zero.
+	 *
+	 * @param buffer the buffer being indexed
+	 * @param from the position of the first character of the range, which corresponds to the lowest bit of {@code words[word]}
+	 * @param end the position after the last character of the range
+	 * @param words the words of the bitmap
+	 * @param word the index of the first word to build
+	 */
+	protected abstract void index(char[] buffer, int from, int end, long[] words, int word);
+}
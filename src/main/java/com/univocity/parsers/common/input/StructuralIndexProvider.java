@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.input;
+
+/**
+ * Creates {@link StructuralIndex} implementations that depend on features of the JVM, such as vector instructions.
+ *
+ * <p> Providers are found with {@link java.util.ServiceLoader}, and must be registered in a
+ *     {@code META-INF/services/com.univocity.parsers.common.input.StructuralIndexProvider} file. The first provider available is used by
+ *     {@link StructuralIndex#newInstance(char...)}.
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public interface StructuralIndexProvider {
+
+	/**
+	 * Indicates whether the indexes created by this provider can be used in the current JVM.
+	 * @return true if this provider can create indexes, false otherwise
+	 */
+	public boolean isAvailable();
+
+	/**
+	 * Creates an index of the given structural characters.
+	 * @param characters the structural characters of the input format
+	 * @return a new index of the given characters, or {@code null} to use the {@link ScalarStructuralIndex}
+	 */
+	public StructuralIndex newStructuralIndex(char... characters);
+}
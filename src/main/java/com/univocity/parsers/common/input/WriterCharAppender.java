@@ -154,6 +154,23 @@ public class WriterCharAppender extends DefaultCharAppender {
 		}
 	}
 
+	/**
+	 * Appends a sequence of characters.
+	 *
+	 * <p>Characters equal to {@link Format#getNormalizedNewline()} are replaced by the character sequence returned by {@link Format#getLineSeparator()}.
+	 *
+	 * @param ch the array that contains the characters to append
+	 * @param from the position of the first character to append
+	 * @param length the number of characters to append
+	 */
+	@Override
+	public void append(char[] ch, int from, int length) {
+		int end = from + length;
+		for (int i = from; i < end; i++) {
+			append(ch[i]);
+		}
+	}
+
 	/**
 	 * Writes the accumulated value to the {@link java.io.Writer}, discarding any trailing whitespace characters identified when using {@link WriterCharAppender#appendIgnoringWhitespace(char)}, {@link WriterCharAppender#appendIgnoringPadding(char)} or {@link WriterCharAppender#appendIgnoringWhitespaceAndPadding(char)}
 	 * <p> The internal accumulated value is discarded after invoking this method (as in {@link DefaultCharAppender#reset()})
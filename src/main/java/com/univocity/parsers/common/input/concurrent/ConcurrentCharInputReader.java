@@ -28,11 +28,15 @@ import com.univocity.parsers.common.input.*;
  * <p> The bucket loading process will block and wait while all buckets are full.
  * <p> Similarly, the reader will block while all buckets are empty.
  *
+ * <p> Optionally, line separators can be replaced by the normalized newline character in the input reading thread, while the "buckets" are loaded.
+ *     In this case {@link AbstractCharInputReader#nextChar()} simply returns the next character from the buffer.
+ *
  * This CharInputReader implementation provides a better throughput than {@link DefaultCharInputReader} when reading large inputs ({@code > 100 mb}).
  *
  * @see CharInputReader
  * @see ConcurrentCharLoader
  * @see CharBucket
+ * @see LineSeparatorNormalizer
  *
  * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
  *
@@ -43,6 +47,9 @@ public class ConcurrentCharInputReader extends AbstractCharInputReader {
 	private CharBucket currentBucket;
 	private final int bucketSize;
 	private final int bucketQuantity;
+	private final char[] lineSeparator;
+	private final char normalizedLineSeparator;
+	private final boolean normalizeOnReadingThread;
 
 	/**
 	 * Creates a new instance with the mandatory characters for handling newlines transparently. Line separators will be detected automatically.
@@ -52,9 +59,26 @@ public class ConcurrentCharInputReader extends AbstractCharInputReader {
 	 * @param bucketQuantity the number of "buckets" to load in memory. Note the reader will stop if all buckets are full.
 	 */
 	public ConcurrentCharInputReader(char normalizedLineSeparator, int bucketSize, int bucketQuantity) {
+		this(normalizedLineSeparator, bucketSize, bucketQuantity, false);
+	}
+
+	/**
+	 * Creates a new instance with the mandatory characters for handling newlines transparently. Line separators will be detected automatically.
+	 * @param normalizedLineSeparator the normalized newline character (as defined in {@link Format#getNormalizedNewline()})
+	 *        that is used to replace any lineSeparator sequence found in the input.
+	 * @param bucketSize the size of an each individual "bucket" used to store characters read from the input.
+	 * @param bucketQuantity the number of "buckets" to load in memory. Note the reader will stop if all buckets are full.
+	 * @param normalizeOnReadingThread flag indicating whether line separators should be detected and replaced by the normalized newline character
+	 *        in the input reading thread, while each "bucket" is loaded, instead of in {@link #nextChar()}.
+	 */
+	public ConcurrentCharInputReader(char normalizedLineSeparator, int bucketSize, int bucketQuantity, boolean normalizeOnReadingThread) {
 		super(normalizedLineSeparator);
 		this.bucketSize = bucketSize;
 		this.bucketQuantity = bucketQuantity;
+		this.lineSeparator = null;
+		this.normalizedLineSeparator = normalizedLineSeparator;
+		this.normalizeOnReadingThread = normalizeOnReadingThread;
+		setInputNormalized(normalizeOnReadingThread);
 	}
 
 	/**
@@ -66,9 +90,27 @@ public class ConcurrentCharInputReader extends AbstractCharInputReader {
 	 * @param bucketQuantity the number of "buckets" to load in memory. Note the reader will stop if all buckets are full.
 	 */
 	public ConcurrentCharInputReader(char[] lineSeparator, char normalizedLineSeparator, int bucketSize, int bucketQuantity) {
+		this(lineSeparator, normalizedLineSeparator, bucketSize, bucketQuantity, false);
+	}
+
+	/**
+	 * Creates a new instance with the mandatory characters for handling newlines transparently.
+	 * @param lineSeparator the sequence of characters that represent a newline, as defined in {@link Format#getLineSeparator()}
+	 * @param normalizedLineSeparator the normalized newline character (as defined in {@link Format#getNormalizedNewline()})
+	 *        that is used to replace any lineSeparator sequence found in the input.
+	 * @param bucketSize the size of an each individual "bucket" used to store characters read from the input.
+	 * @param bucketQuantity the number of "buckets" to load in memory. Note the reader will stop if all buckets are full.
+	 * @param normalizeOnReadingThread flag indicating whether line separators should be replaced by the normalized newline character
+	 *        in the input reading thread, while each "bucket" is loaded, instead of in {@link #nextChar()}.
+	 */
+	public ConcurrentCharInputReader(char[] lineSeparator, char normalizedLineSeparator, int bucketSize, int bucketQuantity, boolean normalizeOnReadingThread) {
 		super(lineSeparator, normalizedLineSeparator);
 		this.bucketSize = bucketSize;
 		this.bucketQuantity = bucketQuantity;
+		this.lineSeparator = lineSeparator.clone();
+		this.normalizedLineSeparator = normalizedLineSeparator;
+		this.normalizeOnReadingThread = normalizeOnReadingThread;
+		setInputNormalized(normalizeOnReadingThread);
 	}
 
 	/**
@@ -88,7 +130,15 @@ public class ConcurrentCharInputReader extends AbstractCharInputReader {
 	@Override
 	protected void setReader(Reader reader) {
 		stop();
-		bucketLoader = new ConcurrentCharLoader(reader, bucketSize, bucketQuantity);
+		LineSeparatorNormalizer normalizer = null;
+		if (normalizeOnReadingThread) {
+			if (lineSeparator == null) {
+				normalizer = new LineSeparatorNormalizer(normalizedLineSeparator);
+			} else {
+				normalizer = new LineSeparatorNormalizer(lineSeparator, normalizedLineSeparator);
+			}
+		}
+		bucketLoader = new ConcurrentCharLoader(reader, bucketSize, bucketQuantity, normalizer);
 	}
 
 	/**
@@ -39,6 +39,7 @@ class ConcurrentCharLoader implements Runnable {
 	private boolean finished = false;
 	private boolean active;
 	private final Reader reader;
+	private final LineSeparatorNormalizer normalizer;
 	private Thread activeExecution;
 
 	/**
@@ -48,6 +49,19 @@ class ConcurrentCharLoader implements Runnable {
 	 * @param bucketQuantity The number of {@link CharBucket} instances used to extract characters from the given reader.
 	 */
 	public ConcurrentCharLoader(Reader reader, final int bucketSize, int bucketQuantity) {
+		this(reader, bucketSize, bucketQuantity, null);
+	}
+
+	/**
+	 * Creates a {@link FixedInstancePool} with a given amount of {@link CharBucket} instances and starts a thread to fill each one.
+	 * @param reader The source of characters to extract and fill {@link CharBucket} instances
+	 * @param bucketSize The size of each individual {@link CharBucket}
+	 * @param bucketQuantity The number of {@link CharBucket} instances used to extract characters from the given reader.
+	 * @param normalizer The {@link LineSeparatorNormalizer} that replaces line separators in each {@link CharBucket} as it is filled.
+	 *        If {@code null}, characters are loaded as they are.
+	 */
+	public ConcurrentCharLoader(Reader reader, final int bucketSize, int bucketQuantity, LineSeparatorNormalizer normalizer) {
+		this.normalizer = normalizer;
 		this.end = new CharBucket(-1);
 		this.buckets = new ArrayBlockingQueue<Object>(bucketQuantity);
 
@@ -78,7 +92,11 @@ class ConcurrentCharLoader implements Runnable {
 				int length = -1;
 				do {
 					Entry<CharBucket> bucket = instances.allocate();
-					length = bucket.get().fill(reader);
+					if (normalizer == null) {
+						length = bucket.get().fill(reader);
+					} else {
+						length = normalizer.fill(bucket.get(), reader);
+					}
 					if (length != -1) {
 						buckets.put(bucket);
 					} else {
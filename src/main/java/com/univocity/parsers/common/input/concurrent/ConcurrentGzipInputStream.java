@@ -0,0 +1,369 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.input.concurrent;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.univocity.parsers.common.input.*;
+
+/**
+ * An {@link InputStream} that decompresses gzip input on separate threads, as a stage of the input pipeline that precedes decoding and parsing.
+ *
+ * <p> When created from an {@link InputStream}, a single thread decompresses all gzip members of the input in sequence while the consumer
+ *     reads the bytes already decompressed.
+ *
+ * <p> When created from a {@link File}, gzip members (such as the ones produced by parallel compressors, which concatenate independently compressed blocks)
+ *     are decompressed concurrently by multiple threads. The file is scanned ahead for positions that look like the start of a gzip member, and each one
+ *     is speculatively decompressed in its own thread. Members are consumed in the order they appear in the file: the output of a speculative candidate
+ *     is used only if it starts exactly where the previous member ends, and discarded otherwise. A file with a single member is decompressed by a single thread.
+ *
+ * <p> Multiple members and trailing data are handled as in {@link java.util.zip.GZIPInputStream}.
+ *
+ * <p> This class is not thread-safe: reads must be performed by a single thread.
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public class ConcurrentGzipInputStream extends InputStream {
+
+	private static final int CHUNK_SIZE = 64 * 1024;
+	private static final int CHUNKS_PER_MEMBER = 4;
+	private static final int SCAN_BLOCK_SIZE = 64 * 1024;
+
+	private final ExecutorService executor;
+	private final Closeable source;
+	private final FileChannel channel;
+	private final long fileSize;
+	private final int threads;
+
+	private final ArrayDeque<Member> members = new ArrayDeque<Member>();
+	private Member current;
+	private long expectedStart;
+
+	private final ByteBuffer scanBuffer;
+	private long scanPosition;
+
+	private byte[] chunk = GzipMemberInflater.END_OF_OUTPUT;
+	private int chunkPosition;
+	private boolean finished;
+	private boolean closed;
+
+	/**
+	 * Creates a stream that decompresses the given gzip input on a separate thread.
+	 * @param in the compressed input. It will be closed when this stream is closed.
+	 */
+	public ConcurrentGzipInputStream(final InputStream in) {
+		this.source = in;
+		this.channel = null;
+		this.fileSize = -1;
+		this.threads = 1;
+		this.scanBuffer = null;
+		this.executor = newExecutor(1);
+
+		final Member member = new Member(0);
+		member.start(new InflaterTask() {
+			@Override
+			public void inflate(GzipMemberInflater inflater) throws Exception {
+				inflater.inflateAll();
+			}
+		}, in);
+		current = member;
+	}
+
+	/**
+	 * Creates a stream that decompresses the members of a gzip file on multiple threads.
+	 * @param file the compressed file.
+	 * @param threads the maximum number of members decompressed concurrently.
+	 * @throws IOException if the file can't be opened
+	 */
+	public ConcurrentGzipInputStream(File file, int threads) throws IOException {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Number of decompression threads must be positive");
+		}
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		this.source = randomAccessFile;
+		this.channel = randomAccessFile.getChannel();
+		this.fileSize = channel.size();
+		this.threads = threads;
+		this.scanBuffer = ByteBuffer.allocate(SCAN_BLOCK_SIZE);
+		this.executor = newExecutor(threads);
+		this.scanPosition = 1; //the first member is always at position 0
+
+		current = startMember(0, true);
+	}
+
+	private static ExecutorService newExecutor(int threads) {
+		return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "gzip decompression thread");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	private Member startMember(final long start, final boolean required) {
+		final Member member = new Member(start);
+		member.start(new InflaterTask() {
+			@Override
+			public void inflate(GzipMemberInflater inflater) throws Exception {
+				if (inflater.inflateMember()) {
+					member.end = start + inflater.bytesConsumed();
+				} else if (required) {
+					throw new java.util.zip.ZipException("Not in GZIP format");
+				}
+			}
+		}, new FileSegmentInputStream(channel, start, fileSize));
+		return member;
+	}
+
+	/**
+	 * Scans the file for positions that may contain the beginning of a gzip member and starts decompressing from them,
+	 * until there's a member in progress for each thread.
+	 */
+	private void startCandidates() throws IOException {
+		if (scanPosition < expectedStart) {
+			scanPosition = expectedStart;
+		}
+		while (members.size() < threads - 1 && scanPosition < fileSize) {
+			long candidate = nextCandidate();
+			if (candidate != -1) {
+				members.add(startMember(candidate, false));
+			}
+		}
+	}
+
+	private long nextCandidate() throws IOException {
+		while (scanPosition < fileSize) {
+			scanBuffer.clear();
+			int read = channel.read(scanBuffer, scanPosition);
+			if (read <= 0) {
+				scanPosition = fileSize;
+				break;
+			}
+			byte[] bytes = scanBuffer.array();
+			int limit = read - 10;
+			if (limit <= 0) {
+				scanPosition = fileSize;
+				break;
+			}
+			for (int i = 0; i < limit; i++) {
+				if (bytes[i] == 0x1F && isHeader(bytes, i)) {
+					long candidate = scanPosition + i;
+					scanPosition = candidate + 1;
+					return candidate;
+				}
+			}
+			scanPosition += limit;
+		}
+		return -1;
+	}
+
+	private static boolean isHeader(byte[] bytes, int i) {
+		return (bytes[i + 1] & 0xFF) == 0x8B //magic
+				&& bytes[i + 2] == 8; // deflate
+	}
+
+	/**
+	 * Moves to the next chunk of decompressed bytes
+	 * @return false if there are no more decompressed bytes
+	 */
+	private boolean nextChunk() throws IOException {
+		while (!finished) {
+			if (current != null) {
+				byte[] next = current.take();
+				if (next != GzipMemberInflater.END_OF_OUTPUT) {
+					chunk = next;
+					chunkPosition = 0;
+					return true;
+				}
+				if (channel == null || current.end == -1) {
+					finished = true;
+					break;
+				}
+				expectedStart = current.end;
+				current = null;
+			}
+
+			startCandidates();
+			while (!members.isEmpty() && members.peek().start < expectedStart) {
+				members.poll().cancel();
+			}
+			if (!members.isEmpty() && members.peek().start == expectedStart) {
+				current = members.poll();
+			} else if (expectedStart < fileSize) {
+				// no candidate was identified here: discard all speculative work so the threads are free to read from this position.
+				while (!members.isEmpty()) {
+					members.poll().cancel();
+				}
+				scanPosition = expectedStart + 1;
+				current = startMember(expectedStart, false);
+			} else {
+				finished = true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int read() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		if (chunkPosition == chunk.length && !nextChunk()) {
+			return -1;
+		}
+		return chunk[chunkPosition++] & 0xFF;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		if (len == 0) {
+			return 0;
+		}
+		if (chunkPosition == chunk.length && !nextChunk()) {
+			return -1;
+		}
+		int count = Math.min(len, chunk.length - chunkPosition);
+		System.arraycopy(chunk, chunkPosition, b, off, count);
+		chunkPosition += count;
+		return count;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int available() throws IOException {
+		return chunk.length - chunkPosition;
+	}
+
+	/**
+	 * Stops all decompression threads and closes the compressed input.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (!closed) {
+			closed = true;
+			finished = true;
+			if (current != null) {
+				current.cancel();
+			}
+			while (!members.isEmpty()) {
+				members.poll().cancel();
+			}
+			executor.shutdownNow();
+			source.close();
+		}
+	}
+
+	/**
+	 * The decompression performed by the thread of a {@link Member}.
+	 */
+	private interface InflaterTask {
+		void inflate(GzipMemberInflater inflater) throws Exception;
+	}
+
+	/**
+	 * A gzip member (or, in sequential mode, all members) being decompressed by a thread.
+	 *
+	 * <p> Members are cancelled without interrupting their threads, which would close the file channel shared by all members. The inflater of a cancelled member stops
+	 *     as soon as it needs more input or space in the output queue, and the end of its output is not signaled.
+	 */
+	private final class Member {
+		final long start;
+		final BlockingQueue<byte[]> output = new ArrayBlockingQueue<byte[]>(CHUNKS_PER_MEMBER + 1);
+		volatile long end = -1;
+		private volatile boolean cancelled;
+		private volatile GzipMemberInflater inflater;
+		private Future<?> future;
+
+		Member(long start) {
+			this.start = start;
+		}
+
+		void start(final InflaterTask task, final InputStream in) {
+			future = executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					GzipMemberInflater inflater = new GzipMemberInflater(in, output, CHUNK_SIZE);
+					Member.this.inflater = inflater;
+					if (cancelled) {
+						inflater.cancel();
+					}
+					try {
+						task.inflate(inflater);
+					} finally {
+						inflater.end();
+						if (!cancelled) {
+							inflater.deliver(GzipMemberInflater.END_OF_OUTPUT);
+						}
+					}
+					return null;
+				}
+			});
+		}
+
+		byte[] take() throws IOException {
+			byte[] next;
+			try {
+				next = output.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for decompressed input");
+			}
+			if (next == GzipMemberInflater.END_OF_OUTPUT) {
+				try {
+					future.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while waiting for decompressed input");
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof IOException) {
+						throw (IOException) cause;
+					}
+					throw new IOException("Error decompressing input", cause);
+				}
+			}
+			return next;
+		}
+
+		void cancel() {
+			cancelled = true;
+			future.cancel(false);
+			GzipMemberInflater inflater = this.inflater;
+			if (inflater != null) {
+				inflater.cancel();
+			}
+			output.clear();
+		}
+	}
+}
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.input.concurrent;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
+
+/**
+ * Decompresses gzip members (RFC 1952) from an {@link InputStream}, handing the decompressed bytes over to a {@link BlockingQueue} in chunks.
+ *
+ * <p> The header, the trailer and the checksum of each member are processed here, and the number of compressed bytes consumed is tracked
+ *     so that the exact end of each member is known. Chunks are delivered as arrays with no unused positions. The end of the output is signaled
+ *     by {@link #END_OF_OUTPUT}.
+ *
+ * @see ConcurrentGzipInputStream
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+class GzipMemberInflater {
+
+	static final byte[] END_OF_OUTPUT = new byte[0];
+
+	private static final int FHCRC = 2;
+	private static final int FEXTRA = 4;
+	private static final int FNAME = 8;
+	private static final int FCOMMENT = 16;
+
+	private final InputStream in;
+	private final BlockingQueue<byte[]> output;
+	private final int chunkSize;
+
+	private final Inflater inflater = new Inflater(true);
+	private final CRC32 crc = new CRC32();
+
+	private final byte[] input;
+	private int inputPosition;
+	private int inputLimit;
+	private long bytesRead;
+
+	private volatile boolean cancelled;
+
+	/**
+	 * Creates an inflater for the gzip members of a stream
+	 * @param in the compressed input
+	 * @param output the queue that receives chunks of decompressed bytes
+	 * @param chunkSize the maximum number of bytes in each chunk
+	 */
+	GzipMemberInflater(InputStream in, BlockingQueue<byte[]> output, int chunkSize) {
+		this.in = in;
+		this.output = output;
+		this.chunkSize = chunkSize;
+		this.input = new byte[Math.max(chunkSize / 2, 512)];
+	}
+
+	/**
+	 * Stops the decompression. The thread running this inflater stops with a {@link CancellationException} as soon as it needs more input or space in the output queue.
+	 */
+	void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Hands over a chunk of decompressed bytes (or {@link #END_OF_OUTPUT}) to the output queue, waiting for space unless this inflater is cancelled.
+	 * @param chunk the chunk to deliver
+	 * @throws InterruptedException if the thread is interrupted while waiting for space in the output queue
+	 */
+	void deliver(byte[] chunk) throws InterruptedException {
+		while (!output.offer(chunk, 10, TimeUnit.MILLISECONDS)) {
+			if (cancelled) {
+				throw new CancellationException();
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of compressed bytes consumed so far
+	 * @return the number of bytes consumed from the input
+	 */
+	long bytesConsumed() {
+		return bytesRead - (inputLimit - inputPosition);
+	}
+
+	/**
+	 * Decompresses all members of the input, in sequence. Any data after the last member that does not start with a gzip header is ignored.
+	 * @throws IOException if the input is not in gzip format or can't be read
+	 * @throws InterruptedException if the thread is interrupted while waiting for space in the output queue
+	 */
+	void inflateAll() throws IOException, InterruptedException {
+		if (!inflateMember()) {
+			throw new ZipException("Not in GZIP format");
+		}
+		while (inflateMember()) {
+			//keep going until the input ends
+		}
+	}
+
+	/**
+	 * Decompresses the next gzip member of the input.
+	 * @return true if a member was decompressed, false if the input does not contain a gzip member at the current position
+	 * @throws IOException if the member is corrupted or the input can't be read
+	 * @throws InterruptedException if the thread is interrupted while waiting for space in the output queue
+	 */
+	boolean inflateMember() throws IOException, InterruptedException {
+		if (!readHeader()) {
+			return false;
+		}
+
+		inflater.reset();
+		crc.reset();
+		try {
+			byte[] chunk = new byte[chunkSize];
+			int length = 0;
+			while (!inflater.finished()) {
+				if (inflater.needsInput()) {
+					if (!fill()) {
+						throw new java.io.EOFException("Unexpected end of gzip input");
+					}
+					inflater.setInput(input, inputPosition, inputLimit - inputPosition);
+					inputPosition = inputLimit;
+				}
+				if (inflater.needsDictionary()) {
+					throw new ZipException("Invalid gzip data: preset dictionary required");
+				}
+				int inflated = inflater.inflate(chunk, length, chunk.length - length);
+				if (inflated > 0) {
+					crc.update(chunk, length, inflated);
+					length += inflated;
+					if (length == chunk.length) {
+						deliver(chunk);
+						chunk = new byte[chunkSize];
+						length = 0;
+					}
+				}
+			}
+			if (length > 0) {
+				deliver(Arrays.copyOf(chunk, length));
+			}
+		} catch (DataFormatException e) {
+			throw new ZipException("Invalid gzip data: " + e.getMessage());
+		}
+		inputPosition = inputLimit - inflater.getRemaining();
+
+		long checksum = readInt() & 0xFFFFFFFFL;
+		long size = readInt() & 0xFFFFFFFFL;
+		if (checksum != crc.getValue()) {
+			throw new ZipException("Corrupt gzip member: invalid CRC");
+		}
+		if (size != (inflater.getBytesWritten() & 0xFFFFFFFFL)) {
+			throw new ZipException("Corrupt gzip member: invalid size");
+		}
+		return true;
+	}
+
+	/**
+	 * Releases the native resources held by the {@link Inflater}
+	 */
+	void end() {
+		inflater.end();
+	}
+
+	private boolean readHeader() throws IOException {
+		if (!fill() || (input[inputPosition] & 0xFF) != 0x1F) {
+			return false;
+		}
+		inputPosition++;
+		if (readByte() != 0x8B || readByte() != 8) {
+			throw new ZipException("Not in GZIP format");
+		}
+		int flags = readByte();
+		skip(6); //MTIME, XFL and OS
+
+		if ((flags & FEXTRA) != 0) {
+			skip(readByte() | readByte() << 8);
+		}
+		if ((flags & FNAME) != 0) {
+			while (readByte() != 0) ;
+		}
+		if ((flags & FCOMMENT) != 0) {
+			while (readByte() != 0) ;
+		}
+		if ((flags & FHCRC) != 0) {
+			skip(2);
+		}
+		return true;
+	}
+
+	private boolean fill() throws IOException {
+		if (inputPosition < inputLimit) {
+			return true;
+		}
+		if (cancelled) {
+			throw new CancellationException();
+		}
+		int read = in.read(input, 0, input.length);
+		while (read == 0) {
+			read = in.read(input, 0, input.length);
+		}
+		if (read == -1) {
+			return false;
+		}
+		bytesRead += read;
+		inputPosition = 0;
+		inputLimit = read;
+		return true;
+	}
+
+	private int readByte() throws IOException {
+		if (!fill()) {
+			throw new java.io.EOFException("Unexpected end of gzip input");
+		}
+		return input[inputPosition++] & 0xFF;
+	}
+
+	private int readInt() throws IOException {
+		return readByte() | readByte() << 8 | readByte() << 16 | readByte() << 24;
+	}
+
+	private void skip(int bytes) throws IOException {
+		for (int i = 0; i < bytes; i++) {
+			readByte();
+		}
+	}
+}
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.input.concurrent;
+
+import java.io.*;
+
+/**
+ * Replaces the line separators found in each {@link CharBucket} loaded by a {@link ConcurrentCharLoader} with the normalized newline character,
+ * so the parsing thread does not have to perform this conversion itself.
+ *
+ * <p> Two-character line separators split between buckets are handled by reading one character ahead. If that character is not part of the
+ *     line separator, it is carried over to the beginning of the next bucket.
+ * <p> When the line separator is not known in advance, it is detected from the first bucket that contains a '\r' or '\n' character.
+ *
+ * @see ConcurrentCharLoader
+ * @see CharBucket
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+class LineSeparatorNormalizer {
+
+	private boolean lineSeparatorDefined;
+	private char lineSeparator1;
+	private char lineSeparator2;
+	private final char normalizedLineSeparator;
+
+	private int carry = -1;
+	private int lookahead = -2;
+	private boolean endOfInput;
+
+	/**
+	 * Creates a normalizer that detects the line separator from the input.
+	 * @param normalizedLineSeparator the normalized newline character that replaces any line separator sequence found in the input.
+	 */
+	LineSeparatorNormalizer(char normalizedLineSeparator) {
+		this.lineSeparatorDefined = false;
+		this.normalizedLineSeparator = normalizedLineSeparator;
+	}
+
+	/**
+	 * Creates a normalizer for a known line separator.
+	 * @param lineSeparator the sequence of characters that represent a newline (1 or 2 characters).
+	 * @param normalizedLineSeparator the normalized newline character that replaces any line separator sequence found in the input.
+	 */
+	LineSeparatorNormalizer(char[] lineSeparator, char normalizedLineSeparator) {
+		this.lineSeparatorDefined = true;
+		this.lineSeparator1 = lineSeparator[0];
+		this.lineSeparator2 = lineSeparator.length == 2 ? lineSeparator[1] : '\0';
+		this.normalizedLineSeparator = normalizedLineSeparator;
+	}
+
+	/**
+	 * Fills the bucket with characters taken from a {@link java.io.Reader} and replaces every line separator with the normalized newline character.
+	 * <p> The {@link CharBucket#length} attribute will be updated with the number of characters available after the conversion.
+	 * @param bucket the bucket to fill
+	 * @param reader the source of characters used to fill the bucket
+	 * @return the number of characters available in the bucket, or -1 if the end of the input has been reached.
+	 * @throws IOException if any error occurs while extracting characters from the reader
+	 */
+	int fill(CharBucket bucket, Reader reader) throws IOException {
+		char[] data = bucket.data;
+		int length = 0;
+		if (carry != -1) {
+			data[length++] = (char) carry;
+			carry = -1;
+		}
+		if (!endOfInput && length < data.length) {
+			int read = reader.read(data, length, data.length - length);
+			if (read == -1) {
+				endOfInput = true;
+			} else {
+				length += read;
+			}
+		}
+		if (length == 0 && endOfInput) {
+			length = -1;
+		} else {
+			if (!lineSeparatorDefined) {
+				detectLineSeparator(data, length, reader);
+			}
+			if (lineSeparatorDefined) {
+				length = normalize(data, length, reader);
+			}
+		}
+		if (lookahead != -2) {
+			carry = lookahead;
+			lookahead = -2;
+		}
+		bucket.length = length;
+		return length;
+	}
+
+	/**
+	 * Reads the character that follows the current bucket, or returns the one already read while detecting the line separator.
+	 * @param reader the source of characters
+	 * @return the next character of the input, or -1 if the end of the input has been reached.
+	 * @throws IOException if any error occurs while extracting characters from the reader
+	 */
+	private int nextChar(Reader reader) throws IOException {
+		int next;
+		if (lookahead != -2) {
+			next = lookahead;
+			lookahead = -2;
+		} else if (endOfInput) {
+			next = -1;
+		} else {
+			next = reader.read();
+		}
+		if (next == -1) {
+			endOfInput = true;
+		}
+		return next;
+	}
+
+	private void detectLineSeparator(char[] data, int length, Reader reader) throws IOException {
+		char separator1 = '\0';
+		char separator2 = '\0';
+		for (int c = 0; c < length; c++) {
+			char ch = data[c];
+			if (ch == '\n' || ch == '\r') {
+				if (separator1 == '\0') {
+					separator1 = ch;
+					if (c == length - 1 && ch == '\r') {
+						int next = nextChar(reader);
+						lookahead = next;
+						if (next == '\n') {
+							separator2 = '\n';
+						}
+					}
+				} else {
+					separator2 = ch;
+					break;
+				}
+			} else if (separator1 != '\0') {
+				break;
+			}
+		}
+
+		if (separator1 != '\0') {
+			lineSeparator1 = separator1;
+			lineSeparator2 = separator1 == '\r' && separator2 == '\n' ? '\n' : '\0';
+			lineSeparatorDefined = true;
+		}
+	}
+
+	private int normalize(char[] data, int length, Reader reader) throws IOException {
+		if (lineSeparator2 == '\0' && lineSeparator1 == normalizedLineSeparator) {
+			return length;
+		}
+
+		int r = 0;
+		while (r < length && data[r] != lineSeparator1) {
+			r++;
+		}
+		if (r == length) {
+			return length;
+		}
+
+		if (lineSeparator2 == '\0') {
+			for (; r < length; r++) {
+				if (data[r] == lineSeparator1) {
+					data[r] = normalizedLineSeparator;
+				}
+			}
+			return length;
+		}
+
+		int w = r;
+		for (; r < length; r++) {
+			char ch = data[r];
+			if (ch == lineSeparator1) {
+				if (r + 1 < length) {
+					if (data[r + 1] == lineSeparator2) {
+						ch = normalizedLineSeparator;
+						r++;
+					}
+				} else {
+					int next = nextChar(reader);
+					if (next == lineSeparator2) {
+						ch = normalizedLineSeparator;
+					} else if (next != -1) {
+						carry = next;
+					}
+				}
+			}
+			data[w++] = ch;
+		}
+		return w;
+	}
+}
@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.input.concurrent;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A {@link ReadableByteChannel} that reads a file ahead of its consumer, keeping multiple read requests in flight.
+ *
+ * <p> The file is read in consecutive blocks. Up to {@code queueDepth} blocks are requested at any given time, each one with a positional
+ *     {@link FileChannel#read(ByteBuffer, long)} executed in its own thread, so that the latency of individual requests (e.g. on networked storage)
+ *     overlaps. Blocks are handed to the consumer in the order they appear in the file, and their buffers are reused once consumed.
+ *
+ * <p> Use it as the input of {@link com.univocity.parsers.common.AbstractParser#parse(ReadableByteChannel, java.nio.charset.Charset)}.
+ *
+ * <p> This class is not thread-safe: reads must be performed by a single thread.
+ *
+ * @see com.univocity.parsers.common.input.ByteChannelReader
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public class ReadAheadFileChannel implements ReadableByteChannel {
+
+	private final FileChannel channel;
+	private final Closeable source;
+	private final long end;
+	private final int blockSize;
+	private final int queueDepth;
+
+	private final ExecutorService executor;
+	private final ArrayDeque<Future<ByteBuffer>> inFlight;
+	private final ArrayDeque<ByteBuffer> freeBuffers;
+
+	private long nextPosition;
+	private ByteBuffer current;
+	private boolean open = true;
+
+	/**
+	 * Creates a channel that reads a file ahead, from the current position of the given channel until its end.
+	 * The given channel is closed when this channel is closed.
+	 *
+	 * @param channel the file to read
+	 * @param blockSize the number of bytes requested by each read
+	 * @param queueDepth the maximum number of read requests in flight
+	 * @throws IOException if the position or the size of the given channel can't be determined
+	 */
+	public ReadAheadFileChannel(FileChannel channel, int blockSize, int queueDepth) throws IOException {
+		this(channel, channel, blockSize, queueDepth);
+	}
+
+	/**
+	 * Creates a channel that reads a file ahead, from its beginning until its end.
+	 *
+	 * @param file the file to read
+	 * @param blockSize the number of bytes requested by each read
+	 * @param queueDepth the maximum number of read requests in flight
+	 * @throws IOException if the file can't be opened
+	 */
+	public ReadAheadFileChannel(File file, int blockSize, int queueDepth) throws IOException {
+		this(new RandomAccessFile(file, "r"), blockSize, queueDepth);
+	}
+
+	private ReadAheadFileChannel(RandomAccessFile file, int blockSize, int queueDepth) throws IOException {
+		this(file.getChannel(), file, blockSize, queueDepth);
+	}
+
+	private ReadAheadFileChannel(FileChannel channel, Closeable source, int blockSize, int queueDepth) throws IOException {
+		if (blockSize < 1) {
+			throw new IllegalArgumentException("Block size must be positive");
+		}
+		if (queueDepth < 1) {
+			throw new IllegalArgumentException("Queue depth must be positive");
+		}
+		this.channel = channel;
+		this.source = source;
+		this.blockSize = blockSize;
+		this.queueDepth = queueDepth;
+		this.nextPosition = channel.position();
+		this.end = channel.size();
+		this.inFlight = new ArrayDeque<Future<ByteBuffer>>(queueDepth);
+		this.freeBuffers = new ArrayDeque<ByteBuffer>(queueDepth + 1);
+		this.executor = Executors.newFixedThreadPool(queueDepth, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "File read-ahead thread");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		requestBlocks();
+	}
+
+	/**
+	 * Requests the next blocks of the file, until the maximum number of requests in flight is reached.
+	 */
+	private void requestBlocks() {
+		while (inFlight.size() < queueDepth && nextPosition < end) {
+			final long position = nextPosition;
+			final int length = (int) Math.min(blockSize, end - position);
+			nextPosition += length;
+
+			ByteBuffer free = freeBuffers.poll();
+			final ByteBuffer buffer = free == null ? ByteBuffer.allocateDirect(blockSize) : free;
+
+			inFlight.add(executor.submit(new Callable<ByteBuffer>() {
+				@Override
+				public ByteBuffer call() throws IOException {
+					buffer.clear();
+					buffer.limit(length);
+					while (buffer.hasRemaining()) {
+						if (channel.read(buffer, position + buffer.position()) == -1) {
+							break;
+						}
+					}
+					buffer.flip();
+					return buffer;
+				}
+			}));
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int read(ByteBuffer dst) throws IOException {
+		if (!open) {
+			throw new ClosedChannelException();
+		}
+		while (current == null || !current.hasRemaining()) {
+			if (current != null) {
+				freeBuffers.add(current);
+				current = null;
+			}
+			requestBlocks();
+			Future<ByteBuffer> next = inFlight.poll();
+			if (next == null) {
+				return -1;
+			}
+			current = await(next);
+		}
+
+		int count = Math.min(dst.remaining(), current.remaining());
+		int limit = current.limit();
+		current.limit(current.position() + count);
+		dst.put(current);
+		current.limit(limit);
+
+		requestBlocks();
+		return count;
+	}
+
+	private ByteBuffer await(Future<ByteBuffer> block) throws IOException {
+		try {
+			return block.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for file block");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException("Error reading file block", cause);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isOpen() {
+		return open;
+	}
+
+	/**
+	 * Stops all read requests in flight and closes the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (open) {
+			open = false;
+			executor.shutdownNow();
+			inFlight.clear();
+			source.close();
+		}
+	}
+}
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.processor;
+
+import com.univocity.parsers.common.*;
+
+/**
+ * A callback interface to receive the contents of very large values, in chunks, while they are being parsed.
+ *
+ * <p>Columns are declared as streamed using {@link CommonParserSettings#streamFields(StreamedColumnProcessor, String...)} or
+ *    {@link CommonParserSettings#streamIndexes(StreamedColumnProcessor, Integer...)}. The characters of a streamed column are never accumulated in full:
+ *    every time the parser collects {@link CommonSettings#getMaxCharsPerColumn()} characters of the value, they are handed to {@link StreamedColumnProcessor#valueChunk(int, char[], int, int)}
+ *    and the internal buffer is reused. Memory usage remains bounded regardless of the size of the value.
+ *
+ * <p>Chunks are delivered in the order they are read. Once the value is fully parsed, {@link StreamedColumnProcessor#valueEnded(int)} is invoked,
+ *    before the record that contains the value is sent to the {@link RowProcessor}. The record will contain {@code null} in the position of the streamed column.
+ *    Empty values might not produce any notification.
+ *
+ * <p>The signature of {@link StreamedColumnProcessor#valueChunk(int, char[], int, int)} matches {@link java.io.Writer#write(char[], int, int)}, so
+ *    an implementation can simply forward each chunk to a {@link java.io.Writer}.
+ *
+ * @see com.univocity.parsers.common.CommonParserSettings
+ * @see com.univocity.parsers.common.input.StreamingCharAppender
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public interface StreamedColumnProcessor {
+
+	/**
+	 * Invoked by the parser when a chunk of characters of a streamed column has been read.
+	 * <p>The given array is reused by the parser after this method returns. Copy the characters if you need to keep them.
+	 *
+	 * @param column the index of the column whose value is being streamed.
+	 * @param chars the buffer of characters collected from the input.
+	 * @param offset the position of the first character of this chunk in the buffer.
+	 * @param length the number of characters in this chunk.
+	 */
+	public void valueChunk(int column, char[] chars, int offset, int length);
+
+	/**
+	 * Invoked by the parser after all characters of a streamed value have been delivered through {@link StreamedColumnProcessor#valueChunk(int, char[], int, int)}
+	 *
+	 * @param column the index of the column whose value was streamed.
+	 */
+	public void valueEnded(int column);
+}
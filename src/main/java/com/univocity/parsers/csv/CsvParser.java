@@ -15,8 +15,11 @@
  ******************************************************************************/
 package com.univocity.parsers.csv;
 
+import static com.univocity.parsers.csv.QuotedValueTransitions.*;
+
 import com.univocity.parsers.common.*;
 import com.univocity.parsers.common.input.*;
+import com.univocity.parsers.common.processor.*;
 
 /**
  * A very fast CSV parser implementation.
@@ -40,13 +43,38 @@ public class CsvParser extends AbstractParser<CsvParserSettings> {
 	private final char quoteEscape;
 	private final char newLine;
 	private final DefaultCharAppender whitespaceAppender;
+	private final boolean structuralIndexEnabled;
+
+	private final QuotedValueTransitions transitions;
+	private final byte[] charClasses;
+	private final byte[][] actions;
+	private final byte[][] nextStates;
+
+	//points where parsing can be resumed when the input fed to the parser runs out
+	private static final byte AT_RECORD_START = 0;
+	private static final byte AT_FIELD = 1;
+	private static final byte AT_DELIMITER = 2;
+	private static final byte IN_VALUE = 3;
+	private static final byte IN_QUOTED_VALUE = 4;
+	private static final byte AFTER_QUOTE = 5;
+	private byte resumeAt;
+	private byte quotedState;
 
 	/**
 	 * The CsvParser supports all settings provided by {@link CsvParserSettings}, and requires this configuration to be properly initialized.
 	 * @param settings the parser configuration
 	 */
 	public CsvParser(CsvParserSettings settings) {
-		super(settings);
+		this(settings, settings.getRowProcessor());
+	}
+
+	/**
+	 * Creates a parser that sends the records parsed to the given {@link RowProcessor} instead of the one defined in the settings.
+	 * @param settings the parser configuration
+	 * @param processor the processor of the records parsed
+	 */
+	CsvParser(CsvParserSettings settings, RowProcessor processor) {
+		super(settings, processor);
 		ignoreTrailingWhitespace = settings.getIgnoreTrailingWhitespaces();
 		ignoreLeadingWhitespace = settings.getIgnoreLeadingWhitespaces();
 		parseUnescapedQuotes = settings.isParseUnescapedQuotes();
@@ -58,6 +86,16 @@ public class CsvParser extends AbstractParser<CsvParserSettings> {
 		newLine = format.getNormalizedNewline();
 
 		whitespaceAppender = new DefaultCharAppender(settings.getMaxCharsPerColumn(), "");
+
+		transitions = new QuotedValueTransitions(format, parseUnescapedQuotes);
+		charClasses = transitions.charClasses;
+		actions = transitions.actions;
+		nextStates = transitions.nextStates;
+
+		structuralIndexEnabled = settings.isStructuralIndexEnabled();
+		if (structuralIndexEnabled) {
+			input.indexStructuralCharacters(delimiter, quote, quoteEscape);
+		}
 	}
 
 	/**
@@ -66,22 +104,90 @@ public class CsvParser extends AbstractParser<CsvParserSettings> {
 	@Override
 	protected void parseRecord() {
 		if (ch <= ' ' && ignoreLeadingWhitespace) {
+			resumeAt = AT_RECORD_START;
 			skipWhitespace();
 		}
+		parseFields();
+	}
 
-		while (ch != newLine) {
-			parseField();
-			if (ch != newLine) {
-				ch = input.nextChar();
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void resumeRecord() {
+		ch = input.nextChar();
+		switch (resumeAt) {
+			case AT_RECORD_START:
+				parseRecord();
+				return;
+			case AT_FIELD:
+				parseField();
+				break;
+			case AT_DELIMITER:
 				if (ch == newLine) {
 					output.emptyParsed();
 				}
+				parseFields();
+				return;
+			case IN_VALUE:
+				parseValue();
+				output.valueParsed();
+				break;
+			case IN_QUOTED_VALUE:
+				parseQuotedValue(quotedState);
+				output.valueParsed();
+				break;
+			case AFTER_QUOTE:
+				parseQuotedValue(parseWhitespaceAfterQuote());
+				output.valueParsed();
+				break;
+		}
+		skipDelimiter();
+		parseFields();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p> An unquoted value copied in bulk and cut short by the end of the input never reaches the end of {@link #parseValue()}, so its trailing whitespace is identified here.
+	 */
+	@Override
+	protected void completeRecordAtEOF() {
+		if (structuralIndexEnabled && ignoreTrailingWhitespace && resumeAt == IN_VALUE) {
+			output.appender.updateWhitespace();
+		}
+	}
+
+	private void parseFields() {
+		while (ch != newLine) {
+			parseField();
+			skipDelimiter();
+		}
+	}
+
+	private void skipDelimiter() {
+		if (ch != newLine) {
+			resumeAt = AT_DELIMITER;
+			ch = input.nextChar();
+			if (ch == newLine) {
+				output.emptyParsed();
 			}
 		}
 	}
 
+	/**
+	 * Parses an unquoted value. If structural characters are indexed, runs of characters are copied in bulk with
+	 * {@link CharInputReader#appendUntil(char, CharAppender, char, char)} so the index can be used, and trailing whitespace is identified once the whole value is read.
+	 */
 	private void parseValue() {
-		if (ignoreTrailingWhitespace) {
+		resumeAt = IN_VALUE;
+		if (structuralIndexEnabled) {
+			while (ch != delimiter && ch != newLine) {
+				ch = input.appendUntil(ch, output.appender, delimiter, delimiter);
+			}
+			if (ignoreTrailingWhitespace) {
+				output.appender.updateWhitespace();
+			}
+		} else if (ignoreTrailingWhitespace) {
 			while (ch != delimiter && ch != newLine) {
 				output.appender.appendIgnoringWhitespace(ch);
 				ch = input.nextChar();
@@ -94,70 +200,107 @@ public class CsvParser extends AbstractParser<CsvParserSettings> {
 		}
 	}
 
-	private void parseQuotedValue(char prev) {
-		ch = input.nextChar();
+	/**
+	 * Parses a quoted value iteratively, driven by the character classes and transition matrices in {@link QuotedValueTransitions}.
+	 * Runs of regular characters are copied in bulk with {@link CharInputReader#appendUntil(char, CharAppender, char, char)}.
+	 * @param state the state to start from: {@link QuotedValueTransitions#VALUE} after the opening quote, or the state saved when the input fed to the parser ran out.
+	 */
+	private void parseQuotedValue(byte state) {
+		resumeAt = IN_QUOTED_VALUE;
+		while (state != CLOSED) {
+			byte charClass = ch < charClasses.length ? charClasses[ch] : OTHER;
+			byte action = actions[state][charClass];
+			state = nextStates[state][charClass];
+			quotedState = state;
 
-		while (!(prev == quote && (ch == delimiter || ch == newLine || ch <= ' '))) {
-			if (ch != quote) {
-				if (prev == quote) { //unescaped quote detected
-					if (parseUnescapedQuotes) {
-						output.appender.append(quote);
-						output.appender.append(ch);
-						parseQuotedValue(ch);
-						break;
-					} else {
-						throw new TextParsingException(context, "Unescaped quote character '" + quote
-								+ "' inside quoted value of CSV field. To allow unescaped quotes, set 'parseUnescapedQuotes' to 'true' in the CSV parser settings. Cannot parse CSV input.");
-					}
-				}
-				output.appender.append(ch);
-				prev = ch;
-			} else if (prev == quoteEscape) {
-				output.appender.append(quote);
-				prev = '\0';
-			} else {
-				prev = ch;
+			switch (action) {
+				case APPEND_RUN:
+					ch = input.appendUntil(ch, output.appender, quote, quoteEscape);
+					break;
+				case APPEND_CHAR:
+					output.appender.append(ch);
+					ch = input.nextChar();
+					break;
+				case APPEND_QUOTE:
+					output.appender.append(quote);
+					ch = input.nextChar();
+					break;
+				case SKIP_QUOTE:
+					ch = input.nextChar();
+					break;
+				case APPEND_UNESCAPED_QUOTE:
+					output.appender.append(quote);
+					output.appender.append(ch);
+					ch = input.nextChar();
+					break;
+				case FAIL_UNESCAPED_QUOTE:
+					throw new TextParsingException(context, "Unescaped quote character '" + quote
+							+ "' inside quoted value of CSV field. To allow unescaped quotes, set 'parseUnescapedQuotes' to 'true' in the CSV parser settings. Cannot parse CSV input.");
+				case CLOSE:
+					break;
+			}
+
+			if (state == CLOSED) {
+				state = parseAfterClosingQuote();
 			}
-			ch = input.nextChar();
 		}
+	}
 
-		// handles whitespaces after quoted value: whitespaces are ignored. Content after whitespaces may be parsed if 'parseUnescapedQuotes' is enabled.
+	/**
+	 * Handles the characters after the closing quote of a quoted value: whitespaces are ignored. Content after whitespaces may be parsed if 'parseUnescapedQuotes' is enabled.
+	 * @return {@link QuotedValueTransitions#CLOSED} if the value ended, or the state to resume parsing the quoted value if the content after the quote belongs to it.
+	 */
+	private byte parseAfterClosingQuote() {
 		if (ch != newLine && ch <= ' ') {
 			whitespaceAppender.reset();
-			do {
-				//saves whitespaces after value
-				whitespaceAppender.append(ch);
-				ch = input.nextChar();
-				//found a new line, go to next record.
-				if (ch == newLine) {
-					return;
-				}
-			} while (ch <= ' ');
+			resumeAt = AFTER_QUOTE;
+			return parseWhitespaceAfterQuote();
+		}
+		return closeQuotedValue();
+	}
 
-			//there's more stuff after the quoted value, not only empty spaces.
-			if (!(ch == delimiter || ch == newLine) && parseUnescapedQuotes) {
-				if (output.appender instanceof DefaultCharAppender) {
-					//puts the quote before whitespaces back, then restores the whitespaces
-					output.appender.append(quote);
-					((DefaultCharAppender) output.appender).append(whitespaceAppender);
-				}
-				//the next character is not the escape character, put it there
-				if (ch != quoteEscape) {
-					output.appender.append(ch);
-				}
-				//sets this caracter as the previous character (may be escaping)
-				//calls recursively to keep parsing potentially quoted content
-				parseQuotedValue(ch);
+	/**
+	 * Collects the whitespaces after the closing quote of a quoted value, then handles the character that follows them.
+	 * @return {@link QuotedValueTransitions#CLOSED} if the value ended, or the state to resume parsing the quoted value if the content after the quote belongs to it.
+	 */
+	private byte parseWhitespaceAfterQuote() {
+		//saves whitespaces after value. Stops on a new line, to go to the next record.
+		while (ch != newLine && ch <= ' ') {
+			whitespaceAppender.append(ch);
+			ch = input.nextChar();
+		}
+
+		//there's more stuff after the quoted value, not only empty spaces.
+		if (!(ch == delimiter || ch == newLine) && parseUnescapedQuotes) {
+			if (output.appender instanceof DefaultCharAppender) {
+				//puts the quote before whitespaces back, then restores the whitespaces
+				output.appender.append(quote);
+				((DefaultCharAppender) output.appender).append(whitespaceAppender);
 			}
+			//the next character is not the escape character, put it there
+			if (ch != quoteEscape) {
+				output.appender.append(ch);
+			}
+			//sets this character as the previous character (may be escaping) and keeps parsing potentially quoted content
+			byte state = transitions.stateAfter(ch);
+			resumeAt = IN_QUOTED_VALUE;
+			quotedState = state;
+			ch = input.nextChar();
+			return state;
 		}
+		return closeQuotedValue();
+	}
 
+	private byte closeQuotedValue() {
 		if (!(ch == delimiter || ch == newLine)) {
 			throw new TextParsingException(context, "Unexpected character '" + ch + "' following quoted value of CSV field. Expecting '" + delimiter + "'. Cannot parse CSV input.");
 		}
+		return CLOSED;
 	}
 
 	private void parseField() {
 		if (ch <= ' ' && ignoreLeadingWhitespace) {
+			resumeAt = AT_FIELD;
 			skipWhitespace();
 		}
 
@@ -165,7 +308,10 @@ public class CsvParser extends AbstractParser<CsvParserSettings> {
 			output.emptyParsed();
 		} else {
 			if (ch == quote) {
-				parseQuotedValue('\0');
+				resumeAt = IN_QUOTED_VALUE;
+				quotedState = VALUE;
+				ch = input.nextChar();
+				parseQuotedValue(VALUE);
 			} else {
 				parseValue();
 			}
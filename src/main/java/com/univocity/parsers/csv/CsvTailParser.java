@@ -0,0 +1,317 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.csv;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.common.input.*;
+import com.univocity.parsers.common.processor.*;
+
+/**
+ * Parses the last records of a CSV file without reading the file from its beginning.
+ *
+ * <p> The file is scanned backward from its end, in blocks, to find the line separators that precede the last records. Quotes are counted along the way:
+ *     as the file ends outside of quotes, a line separator followed by an odd number of quotes is inside a quoted value and does not end a record.
+ *     Escaped quotes are not counted when the quote escape is not the quote itself.
+ *
+ * <p> The position found is then verified in a forward pass: starting outside of quotes from that position, the quotes up to the end of the file must be balanced.
+ *     If they are not, the position is inside a quoted value (e.g. because of an unexpected escape sequence), and the records are parsed from the beginning of the file instead.
+ *     The records are parsed forward with a {@link CsvParser}. If fewer records are parsed than expected (e.g. because of blank lines or comments),
+ *     the backward scan goes further back for the missing records. If more are parsed, only the last ones are returned.
+ *
+ * <p> If header extraction is enabled, the headers are read from the first record of the file.
+ *
+ * <p> Records are separated by the line separator of the {@link CsvFormat} ({@code "\r\n"} and {@code "\n"} both end with {@code '\n'}), and the encoding of
+ *     the file must represent this character and the quote characters with single bytes that never occur as part of other characters (e.g. UTF-8, ISO-8859-1, or US-ASCII).
+ *
+ * @see CsvParser
+ * @see CsvParserSettings
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public class CsvTailParser {
+
+	private static final int BLOCK_SIZE = 64 * 1024;
+
+	private final CsvParserSettings settings;
+	private String[] headers;
+
+	/**
+	 * Creates a parser for the last records of CSV files
+	 * @param settings the parser configuration
+	 */
+	public CsvTailParser(CsvParserSettings settings) {
+		if (settings == null) {
+			throw new IllegalArgumentException("Parser settings cannot be null");
+		}
+		this.settings = settings;
+	}
+
+	/**
+	 * Returns the headers of the last file parsed: the ones read from its first record, if header extraction is enabled, or the ones defined in the settings.
+	 * @return the headers of the last file parsed
+	 */
+	public String[] getHeaders() {
+		return headers;
+	}
+
+	/**
+	 * Parses the last records of the given file. The {@link RowProcessor} defined in the settings is not invoked.
+	 * @param file the CSV file to parse
+	 * @param charset the encoding of the file
+	 * @param records the number of records to parse from the end of the file
+	 * @return the last records of the file, in the order they appear in the file. Fewer records are returned if the file does not have enough records.
+	 */
+	public List<String[]> parseLast(File file, Charset charset, int records) {
+		if (records < 0) {
+			throw new IllegalArgumentException("Number of records cannot be negative");
+		}
+		CsvFormat format = settings.getFormat();
+		byte terminator = RecordBoundaries.lineTerminator(format.getLineSeparator());
+		validate((char) terminator, charset);
+		byte quote = validate(format.getQuote(), charset);
+		byte quoteEscape = validate(format.getQuoteEscape(), charset);
+
+		RandomAccessFile randomAccessFile;
+		try {
+			randomAccessFile = new RandomAccessFile(file, "r");
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to open file '" + file + "'", e);
+		}
+
+		String[] originalHeaders = settings.getHeaders();
+		boolean headerExtractionEnabled = settings.isHeaderExtractionEnabled();
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			long size = channel.size();
+
+			long start = 0;
+			headers = originalHeaders;
+			if (headerExtractionEnabled && size > 0) {
+				start = findHeaderEnd(channel, size, terminator, quote, quoteEscape);
+				headers = readHeaders(channel, charset, start);
+				settings.setHeaders(headers);
+				settings.setHeaderExtractionEnabled(false);
+			}
+
+			TailCollector tail = new TailCollector(records);
+			int boundaries = records;
+			while (records > 0 && start < size) {
+				long tailStart = findTailStart(channel, start, size, boundaries, terminator, quote, quoteEscape);
+				if (tailStart > start && !isBalanced(channel, tailStart, size, terminator, quote, quoteEscape)) {
+					tailStart = start;
+				}
+				tail = new TailCollector(records);
+				new CsvParser(settings, tail).parse(new ByteChannelReader(new FileSegmentInputStream(channel, tailStart, size), charset, settings.getInputBufferSize()));
+				if (tail.count >= records || tailStart <= start) {
+					break;
+				}
+				boundaries += records - tail.count;
+			}
+			return new ArrayList<String[]>(tail.rows);
+		} catch (IOException e) {
+			throw new IllegalStateException("Error reading file '" + file + "'", e);
+		} finally {
+			settings.setHeaderExtractionEnabled(headerExtractionEnabled);
+			if (headerExtractionEnabled) {
+				settings.setHeaders(originalHeaders);
+			}
+			try {
+				randomAccessFile.close();
+			} catch (IOException e) {
+				//ignore
+			}
+		}
+	}
+
+	private byte validate(char ch, Charset charset) {
+		byte[] bytes = String.valueOf(ch).getBytes(charset);
+		if (bytes.length != 1 || bytes[0] < 0) {
+			throw new IllegalArgumentException("Parsing the last records of a CSV file requires an encoding that represents '" + ch + "' with a single byte. Got " + charset);
+		}
+		return bytes[0];
+	}
+
+	private int read(FileChannel channel, ByteBuffer block, long position, int length) throws IOException {
+		block.clear();
+		block.limit(length);
+		while (block.hasRemaining() && channel.read(block, position + block.position()) > 0) ;
+		return block.position();
+	}
+
+	/**
+	 * Finds the position that follows the line separator of the first record, which is the first one outside of quotes.
+	 */
+	private long findHeaderEnd(FileChannel channel, long size, byte terminator, byte quote, byte quoteEscape) throws IOException {
+		ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+		byte[] bytes = block.array();
+		QuoteScanner scanner = new QuoteScanner(terminator, quote, quoteEscape);
+		long position = 0;
+		while (position < size) {
+			int read = read(channel, block, position, (int) Math.min(BLOCK_SIZE, size - position));
+			if (read == 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				if (scanner.isRecordEnd(bytes[i])) {
+					return position + i + 1;
+				}
+			}
+			position += read;
+		}
+		return size;
+	}
+
+	/**
+	 * Scans the file forward from the given position, which is assumed to be outside of quotes, and returns whether the end of the file is outside of quotes as well.
+	 */
+	private boolean isBalanced(FileChannel channel, long position, long size, byte terminator, byte quote, byte quoteEscape) throws IOException {
+		ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+		byte[] bytes = block.array();
+		QuoteScanner scanner = new QuoteScanner(terminator, quote, quoteEscape);
+		while (position < size) {
+			int read = read(channel, block, position, (int) Math.min(BLOCK_SIZE, size - position));
+			if (read == 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				scanner.isRecordEnd(bytes[i]);
+			}
+			position += read;
+		}
+		return !scanner.insideQuotes;
+	}
+
+	/**
+	 * Scans the file backward, from its last byte to the given start position, and returns the position that follows the line separator found after the
+	 * given number of line separators outside of quotes. A line separator at the end of the file is not counted.
+	 */
+	private long findTailStart(FileChannel channel, long start, long size, int boundaries, byte terminator, byte quote, byte quoteEscape) throws IOException {
+		ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+		byte[] bytes = block.array();
+		boolean escapable = quote != quoteEscape;
+		boolean insideQuotes = false;
+		boolean quoteFound = false;
+		int escapes = 0;
+
+		long end = size;
+		if (read(channel, block, size - 1, 1) == 1 && bytes[0] == terminator) {
+			end = size - 1;
+		}
+		while (end > start) {
+			long position = Math.max(start, end - BLOCK_SIZE);
+			int read = read(channel, block, position, (int) (end - position));
+			for (int i = read - 1; i >= 0; i--) {
+				byte b = bytes[i];
+				if (quoteFound) {
+					// a quote preceded by an odd number of escapes is escaped
+					if (b == quoteEscape) {
+						escapes++;
+						continue;
+					}
+					if ((escapes & 1) == 0) {
+						insideQuotes = !insideQuotes;
+					}
+					quoteFound = false;
+				}
+				if (b == quote) {
+					if (escapable) {
+						quoteFound = true;
+						escapes = 0;
+					} else {
+						insideQuotes = !insideQuotes;
+					}
+				} else if (b == terminator && !insideQuotes && --boundaries == 0) {
+					return position + i + 1;
+				}
+			}
+			end = position;
+		}
+		return start;
+	}
+
+	private String[] readHeaders(FileChannel channel, Charset charset, long end) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate((int) end);
+		read(channel, header, 0, (int) end);
+		header.flip();
+
+		CsvParserSettings headerSettings = new CsvParserSettings();
+		headerSettings.setFormat(settings.getFormat());
+		headerSettings.setIgnoreLeadingWhitespaces(settings.getIgnoreLeadingWhitespaces());
+		headerSettings.setIgnoreTrailingWhitespaces(settings.getIgnoreTrailingWhitespaces());
+		headerSettings.setParseUnescapedQuotes(settings.isParseUnescapedQuotes());
+		return new CsvParser(headerSettings).parseLine(charset.decode(header).toString());
+	}
+
+	/**
+	 * Follows the quotes of a file read forward, to identify the line separators that end records.
+	 */
+	private static final class QuoteScanner {
+		private final byte terminator;
+		private final byte quote;
+		private final byte quoteEscape;
+
+		boolean insideQuotes;
+		private boolean escaped;
+
+		QuoteScanner(byte terminator, byte quote, byte quoteEscape) {
+			this.terminator = terminator;
+			this.quote = quote;
+			this.quoteEscape = quoteEscape;
+		}
+
+		boolean isRecordEnd(byte b) {
+			if (escaped) {
+				escaped = false;
+			} else if (insideQuotes && b == quoteEscape && quote != quoteEscape) {
+				escaped = true;
+			} else if (b == quote) {
+				insideQuotes = !insideQuotes;
+			} else if (b == terminator && !insideQuotes) {
+				return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Keeps the last records parsed, and counts all of them.
+	 */
+	private static final class TailCollector extends AbstractRowProcessor {
+		private final int limit;
+		final ArrayDeque<String[]> rows = new ArrayDeque<String[]>();
+		int count;
+
+		TailCollector(int limit) {
+			this.limit = limit;
+		}
+
+		@Override
+		public void rowProcessed(String[] row, ParsingContext context) {
+			if (rows.size() == limit) {
+				rows.poll();
+			}
+			rows.add(row);
+			count++;
+		}
+	}
+}
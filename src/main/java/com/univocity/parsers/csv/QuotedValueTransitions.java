@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.csv;
+
+/**
+ * The character classes and the state transition matrix used by {@link CsvParser} to parse quoted values iteratively.
+ *
+ * <p>Every character read inside a quoted value is mapped to a character class with a lookup table built from the {@link CsvFormat}.
+ *    The current state and the character class select, from two matrices, the action to execute and the next state of the parser:
+ *
+ * <ul>
+ *  <li><b>VALUE:</b> the previous character was a regular character (or the opening quote)</li>
+ *  <li><b>ESCAPE:</b> the previous character was the quote escape (when the quote escape is different from the quote character)</li>
+ *  <li><b>QUOTE:</b> the previous character was a quote that may close the value</li>
+ *  <li><b>CLOSED:</b> the quoted value ended. Whatever comes after it is handled by {@link CsvParser}</li>
+ * </ul>
+ *
+ * @see CsvParser
+ * @see CsvFormat
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+final class QuotedValueTransitions {
+
+	static final byte OTHER = 0;
+	static final byte WHITESPACE = 1;
+	static final byte DELIMITER = 2;
+	static final byte NEWLINE = 3;
+	static final byte ESCAPE = 4;
+	static final byte QUOTE = 5;
+
+	static final byte VALUE = 0;
+	static final byte ESCAPED = 1;
+	static final byte QUOTED = 2;
+	static final byte CLOSED = 3;
+
+	/** appends the current character and the run of regular characters after it */
+	static final byte APPEND_RUN = 0;
+	/** appends the current character (a quote escape) */
+	static final byte APPEND_CHAR = 1;
+	/** appends a quote, as the current quote character was escaped */
+	static final byte APPEND_QUOTE = 2;
+	/** consumes a quote that may close the value */
+	static final byte SKIP_QUOTE = 3;
+	/** appends the previous (unescaped) quote along with the current character */
+	static final byte APPEND_UNESCAPED_QUOTE = 4;
+	/** rejects an unescaped quote */
+	static final byte FAIL_UNESCAPED_QUOTE = 5;
+	/** ends the quoted value */
+	static final byte CLOSE = 6;
+
+	final byte[] charClasses;
+	final byte[][] actions;
+	final byte[][] nextStates;
+
+	/**
+	 * Builds the character class table and the transition matrices for a given CSV format
+	 * @param format the format that defines the quote, quote escape, delimiter and newline characters
+	 * @param parseUnescapedQuotes flag indicating whether unescaped quotes inside quoted values should be accepted (see {@link CsvParserSettings#isParseUnescapedQuotes()})
+	 */
+	QuotedValueTransitions(CsvFormat format, boolean parseUnescapedQuotes) {
+		char quote = format.getQuote();
+		char quoteEscape = format.getQuoteEscape();
+		char delimiter = format.getDelimiter();
+		char newLine = format.getNormalizedNewline();
+
+		int max = Math.max(Math.max(quote, quoteEscape), Math.max(delimiter, Math.max(newLine, ' ')));
+		charClasses = new byte[max + 1];
+		for (int i = 0; i <= ' '; i++) {
+			charClasses[i] = WHITESPACE;
+		}
+		charClasses[delimiter] = DELIMITER;
+		charClasses[newLine] = NEWLINE;
+		charClasses[quoteEscape] = ESCAPE;
+		charClasses[quote] = QUOTE;
+
+		byte unescapedQuote = parseUnescapedQuotes ? APPEND_UNESCAPED_QUOTE : FAIL_UNESCAPED_QUOTE;
+
+		actions = new byte[][] {
+				// OTHER, WHITESPACE, DELIMITER, NEWLINE, ESCAPE, QUOTE
+				{ APPEND_RUN, APPEND_RUN, APPEND_RUN, APPEND_RUN, APPEND_CHAR, SKIP_QUOTE }, // VALUE
+				{ APPEND_RUN, APPEND_RUN, APPEND_RUN, APPEND_RUN, APPEND_CHAR, APPEND_QUOTE }, // ESCAPED
+				{ unescapedQuote, CLOSE, CLOSE, CLOSE, unescapedQuote, quote == quoteEscape ? APPEND_QUOTE : SKIP_QUOTE }, // QUOTED
+		};
+
+		nextStates = new byte[][] {
+				// OTHER, WHITESPACE, DELIMITER, NEWLINE, ESCAPE, QUOTE
+				{ VALUE, VALUE, VALUE, VALUE, ESCAPED, QUOTED }, // VALUE
+				{ VALUE, VALUE, VALUE, VALUE, ESCAPED, VALUE }, // ESCAPED
+				{ VALUE, CLOSED, CLOSED, CLOSED, ESCAPED, quote == quoteEscape ? VALUE : QUOTED }, // QUOTED
+		};
+	}
+
+	/**
+	 * Returns the class of a given character
+	 * @param ch the character to classify
+	 * @return the character class, which is one of {@link #OTHER}, {@link #WHITESPACE}, {@link #DELIMITER}, {@link #NEWLINE}, {@link #ESCAPE} or {@link #QUOTE}.
+	 */
+	byte classOf(char ch) {
+		return ch < charClasses.length ? charClasses[ch] : OTHER;
+	}
+
+	/**
+	 * Returns the state the parser is in after reading a given character inside a quoted value. Used to resume parsing after the content that follows a quote is
+	 * incorporated into the value.
+	 * @param ch the last character read.
+	 * @return the state that corresponds to the given character.
+	 */
+	byte stateAfter(char ch) {
+		byte charClass = classOf(ch);
+		if (charClass == QUOTE) {
+			return QUOTED;
+		} else if (charClass == ESCAPE) {
+			return ESCAPED;
+		}
+		return VALUE;
+	}
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.fixed;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+
+/**
+ * The layout of a fixed-width file in which every record has the same length in bytes: the sum of the field lengths defined in
+ * {@link FixedWidthParserSettings}, plus the length of the line separator. Used to locate records by their byte offsets.
+ *
+ * @see ParallelFixedWidthParser
+ * @see RandomAccessFixedWidthReader
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+final class FixedLengthRecords {
+
+	final int recordLength;
+	final int separatorLength;
+	final long fileSize;
+	final long recordCount;
+
+	/**
+	 * Determines the length of the records of a file. If line separator detection is enabled in the settings, the line separator is identified
+	 * from the bytes that follow the first record.
+	 * @param settings the settings that define the field lengths and line separator.
+	 * @param channel the file
+	 * @param charset the encoding of the file, which must use a single byte per character.
+	 * @throws IOException if the file can't be read
+	 */
+	FixedLengthRecords(FixedWidthParserSettings settings, FileChannel channel, Charset charset) throws IOException {
+		//decode-only charsets can't create an encoder to tell the number of bytes per character
+		if (!charset.canEncode() || charset.newEncoder().maxBytesPerChar() != 1.0f) {
+			throw new IllegalArgumentException("Records of fixed length in bytes require a single-byte encoding. Got " + charset);
+		}
+
+		int fieldsLength = 0;
+		for (int length : settings.getFieldLengths()) {
+			fieldsLength += length;
+		}
+		if (fieldsLength == 0) {
+			throw new IllegalArgumentException("Records of fixed length require at least one field");
+		}
+
+		int separatorLength = settings.getFormat().getLineSeparator().length;
+		if (settings.isLineSeparatorDetectionEnabled()) {
+			ByteBuffer separator = ByteBuffer.allocate(2);
+			channel.read(separator, fieldsLength);
+			separatorLength = 0;
+			if (separator.position() > 0) {
+				byte first = separator.get(0);
+				if (first == '\r') {
+					separatorLength = separator.position() > 1 && separator.get(1) == '\n' ? 2 : 1;
+				} else if (first == '\n') {
+					separatorLength = 1;
+				}
+			}
+		}
+
+		this.separatorLength = separatorLength;
+		this.recordLength = fieldsLength + separatorLength;
+		this.fileSize = channel.size();
+
+		if (fileSize % recordLength == 0) {
+			recordCount = fileSize / recordLength;
+		} else if ((fileSize + separatorLength) % recordLength == 0) { //no line separator after the last record
+			recordCount = (fileSize + separatorLength) / recordLength;
+		} else {
+			throw new IllegalArgumentException("File size (" + fileSize + " bytes) is not a multiple of the record length (" + recordLength + " bytes, including " + separatorLength + " byte(s) of line separator)");
+		}
+	}
+
+	/**
+	 * Returns the position of a record in the file
+	 * @param record the index of the record, starting from 0
+	 * @return the byte offset of the given record
+	 */
+	long offsetOf(long record) {
+		return record * recordLength;
+	}
+
+	/**
+	 * Returns the position after the last byte of a sequence of records in the file
+	 * @param record the index after the last record in the sequence
+	 * @return the byte offset where the given sequence ends
+	 */
+	long endOf(long record) {
+		return Math.min(record * recordLength, fileSize);
+	}
+}
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.fixed;
+
+/**
+ * The encodings of the fields of records parsed by a {@link FixedWidthByteParser}.
+ *
+ * @see FixedWidthByteParser
+ * @see FixedWidthByteRecord
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public enum FixedWidthByteFieldType {
+
+	/**
+	 * Text, with one byte per character. Decoded with the character set of the input only when the value is requested.
+	 */
+	TEXT,
+
+	/**
+	 * Packed decimal (COBOL's COMP-3): two digits per byte, one in each nibble. The last nibble holds the sign:
+	 * {@code 0xD} or {@code 0xB} for negative values, any other value for positive ones. A field of {@code n} bytes holds {@code 2n - 1} digits.
+	 */
+	PACKED,
+
+	/**
+	 * Zoned decimal (COBOL's DISPLAY numerics): one digit per byte, in the low nibble. The high nibble of the last byte holds the sign:
+	 * {@code 0xD} or {@code 0xB} for negative values, any other value for positive ones.
+	 */
+	ZONED
+}
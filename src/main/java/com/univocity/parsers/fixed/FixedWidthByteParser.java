@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.fixed;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.*;
+import java.util.*;
+
+/**
+ * A fixed-width parser that works on the bytes of the input, for files produced by mainframes: records of fixed length in bytes, encoded with a
+ * single-byte character set such as EBCDIC ({@code Cp037}, {@code Cp500}), and holding binary numeric fields that can't be decoded as text.
+ *
+ * <p> Records are sliced from the input buffer by their byte offsets, without decoding the input to characters. The field lengths given in the
+ *     {@link FixedWidthParserSettings} are lengths in bytes. Each field is {@link FixedWidthByteFieldType#TEXT} by default, and
+ *     {@link FixedWidthByteFieldType#PACKED} (COMP-3) or {@link FixedWidthByteFieldType#ZONED} fields can be declared with
+ *     {@link #setFieldType(int, FixedWidthByteFieldType, int)}. Values are only decoded or converted when requested from the {@link FixedWidthByteRecord}.
+ *
+ * <p> Of the parser settings, this parser uses the field lengths, headers, padding, null value, input buffer size and whitespace handling options.
+ *     Records are contiguous by default. A separator between records, such as a newline added by a file transfer, can be defined with {@link #setRecordSeparator(byte...)}.
+ *
+ * @see FixedWidthByteRecord
+ * @see FixedWidthByteFieldType
+ * @see FixedWidthParserSettings
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public class FixedWidthByteParser {
+
+	private final String[] headers;
+	private final int[] lengths;
+	private final FixedWidthByteFieldType[] types;
+	private final int[] scales;
+	private final int recordLength;
+	private final FixedWidthByteRecord record;
+	private final int bufferSize;
+
+	private byte[] separator = new byte[0];
+
+	private InputStream input;
+	private byte[] buffer;
+	private int position;
+	private int limit;
+	private boolean endOfInput;
+	private long recordCount;
+
+	/**
+	 * Creates a parser for records with the field lengths, in bytes, given in the settings.
+	 * @param settings the parser configuration
+	 * @param charset the encoding of the text fields, which must use a single byte per character.
+	 */
+	public FixedWidthByteParser(FixedWidthParserSettings settings, Charset charset) {
+		//decode-only charsets can't create an encoder to tell the number of bytes per character
+		if (!charset.canEncode() || charset.newEncoder().maxBytesPerChar() != 1.0f) {
+			throw new IllegalArgumentException("Records of fixed length in bytes require a single-byte encoding. Got " + charset);
+		}
+
+		this.headers = settings.getHeaders();
+		this.lengths = settings.getFieldLengths();
+		this.types = new FixedWidthByteFieldType[lengths.length];
+		this.scales = new int[lengths.length];
+		Arrays.fill(types, FixedWidthByteFieldType.TEXT);
+
+		int recordLength = 0;
+		for (int length : lengths) {
+			recordLength += length;
+		}
+		if (recordLength == 0) {
+			throw new IllegalArgumentException("Records of fixed length require at least one field");
+		}
+		this.recordLength = recordLength;
+		this.bufferSize = Math.max(settings.getInputBufferSize(), recordLength);
+
+		char padding = settings.getFormat().getPadding();
+		if (!charset.newEncoder().canEncode(padding)) {
+			throw new IllegalArgumentException("Padding character '" + padding + "' cannot be represented in " + charset);
+		}
+		byte[] paddingBytes = String.valueOf(padding).getBytes(charset);
+		this.record = new FixedWidthByteRecord(lengths, types, scales, decodingTable(charset), paddingBytes[0], settings);
+	}
+
+	private static char[] decodingTable(Charset charset) {
+		byte[] bytes = new byte[256];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) i;
+		}
+		CharsetDecoder decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		CharBuffer chars = CharBuffer.allocate(bytes.length);
+		decoder.decode(ByteBuffer.wrap(bytes), chars, true);
+		decoder.flush(chars);
+		return chars.array();
+	}
+
+	/**
+	 * Declares the encoding of a field.
+	 * @param field the index of the field
+	 * @param type the encoding of the field
+	 * @param scale the number of digits of a numeric field that are after the decimal point. Must be 0 for {@link FixedWidthByteFieldType#TEXT} fields.
+	 */
+	public void setFieldType(int field, FixedWidthByteFieldType type, int scale) {
+		if (field < 0 || field >= lengths.length) {
+			throw new IllegalArgumentException("Invalid field index " + field + ". Records have " + lengths.length + " fields");
+		}
+		if (type == null) {
+			throw new IllegalArgumentException("Type of field " + field + " cannot be null");
+		}
+		if (scale < 0 || (type == FixedWidthByteFieldType.TEXT && scale != 0)) {
+			throw new IllegalArgumentException("Invalid scale " + scale + " for " + type + " field " + field);
+		}
+		types[field] = type;
+		scales[field] = scale;
+	}
+
+	/**
+	 * Declares the encoding of a field.
+	 * @param field the name of the field, as given in the headers of the parser settings
+	 * @param type the encoding of the field
+	 * @param scale the number of digits of a numeric field that are after the decimal point. Must be 0 for {@link FixedWidthByteFieldType#TEXT} fields.
+	 */
+	public void setFieldType(String field, FixedWidthByteFieldType type, int scale) {
+		int index = headers == null ? -1 : Arrays.asList(headers).indexOf(field);
+		if (index == -1) {
+			throw new IllegalArgumentException("Unknown field '" + field + "'. Available headers: " + Arrays.toString(headers));
+		}
+		setFieldType(index, type, scale);
+	}
+
+	/**
+	 * Defines the bytes that separate records in the input (defaults to none). The separator is optional after the last record.
+	 * @param separator the bytes found after every record.
+	 */
+	public void setRecordSeparator(byte... separator) {
+		this.separator = separator == null ? new byte[0] : separator.clone();
+	}
+
+	/**
+	 * Returns the field names defined in the parser settings
+	 * @return the headers of the records, or {@code null} if no field names were defined.
+	 */
+	public String[] getHeaders() {
+		return headers == null ? null : headers.clone();
+	}
+
+	/**
+	 * Starts an iterator-style parsing cycle over the records of a file.
+	 * @param file the file to be parsed
+	 */
+	public void beginParsing(File file) {
+		try {
+			beginParsing(new FileInputStream(file));
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to open file '" + file + "'", e);
+		}
+	}
+
+	/**
+	 * Starts an iterator-style parsing cycle over the records of an input stream. The stream is closed when all records are parsed, or when {@link #stopParsing()} is called.
+	 * @param input the input to be parsed
+	 */
+	public void beginParsing(InputStream input) {
+		stopParsing();
+		this.input = input;
+		if (buffer == null) {
+			buffer = new byte[bufferSize];
+		}
+		position = 0;
+		limit = 0;
+		endOfInput = false;
+		recordCount = 0;
+	}
+
+	/**
+	 * Parses the next record of the input. The record returned is a view over the input buffer, valid until the next call to this method.
+	 * @return the next record, or {@code null} if all records have been parsed.
+	 */
+	public FixedWidthByteRecord parseNext() {
+		if (input == null) {
+			return null;
+		}
+		int required = recordLength + separator.length;
+		if (limit - position < required && !endOfInput) {
+			fill(required);
+		}
+
+		int available = limit - position;
+		if (available < recordLength) {
+			stopParsing();
+			if (available > 0) {
+				throw new IllegalStateException("Input ends with an incomplete record of " + available + " byte(s), after record " + recordCount + ". Expected " + recordLength + " bytes per record");
+			}
+			return null;
+		}
+
+		record.set(buffer, position, ++recordCount);
+		position += recordLength;
+
+		int separatorEnd = Math.min(position + separator.length, limit);
+		for (int i = 0; position < separatorEnd; i++, position++) {
+			if (buffer[position] != separator[i]) {
+				stopParsing();
+				throw new IllegalStateException("Record " + recordCount + " is not followed by the record separator " + Arrays.toString(separator));
+			}
+		}
+		return record;
+	}
+
+	private void fill(int required) {
+		int remaining = limit - position;
+		System.arraycopy(buffer, position, buffer, 0, remaining);
+		position = 0;
+		limit = remaining;
+		if (buffer.length < required) {
+			buffer = Arrays.copyOf(buffer, required);
+		}
+		try {
+			while (limit < required) {
+				int read = input.read(buffer, limit, buffer.length - limit);
+				if (read == -1) {
+					endOfInput = true;
+					break;
+				}
+				limit += read;
+			}
+		} catch (IOException e) {
+			stopParsing();
+			throw new IllegalStateException("Error reading input", e);
+		}
+	}
+
+	/**
+	 * Stops the parsing process and closes the input.
+	 */
+	public void stopParsing() {
+		if (input != null) {
+			try {
+				input.close();
+			} catch (IOException e) {
+				throw new IllegalStateException("Error closing input", e);
+			} finally {
+				input = null;
+			}
+		}
+	}
+}
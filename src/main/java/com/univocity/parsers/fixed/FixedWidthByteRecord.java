@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.fixed;
+
+import java.math.*;
+import java.util.*;
+
+/**
+ * A record parsed by a {@link FixedWidthByteParser}, which provides the values of its fields straight from the bytes of the input.
+ *
+ * <p> Nothing is decoded until a value is requested: text fields are decoded with a lookup table built from the character set of the input,
+ *     and {@link FixedWidthByteFieldType#PACKED} and {@link FixedWidthByteFieldType#ZONED} fields are converted directly to {@code long} or {@link BigDecimal}.
+ *
+ * <p> An instance of this class is a view over the input buffer of its parser, and is reused for every record. It is only valid until the next call to
+ *     {@link FixedWidthByteParser#parseNext()}.
+ *
+ * @see FixedWidthByteParser
+ * @see FixedWidthByteFieldType
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public final class FixedWidthByteRecord {
+
+	private static final int MAX_LONG_DIGITS = 18;
+
+	private final int[] offsets;
+	private final int[] lengths;
+	private final FixedWidthByteFieldType[] types;
+	private final int[] scales;
+
+	private final char[] decodingTable;
+	private final byte padding;
+	private final boolean ignoreLeadingWhitespace;
+	private final boolean ignoreTrailingWhitespace;
+	private final String nullValue;
+	private final char[] chars;
+
+	private byte[] buffer;
+	private int start;
+	private long recordNumber;
+
+	FixedWidthByteRecord(int[] lengths, FixedWidthByteFieldType[] types, int[] scales, char[] decodingTable, byte padding, FixedWidthParserSettings settings) {
+		this.lengths = lengths;
+		this.types = types;
+		this.scales = scales;
+		this.decodingTable = decodingTable;
+		this.padding = padding;
+		this.ignoreLeadingWhitespace = settings.getIgnoreLeadingWhitespaces();
+		this.ignoreTrailingWhitespace = settings.getIgnoreTrailingWhitespaces();
+		this.nullValue = settings.getNullValue();
+
+		offsets = new int[lengths.length];
+		int longest = lengths[0];
+		for (int i = 1; i < lengths.length; i++) {
+			offsets[i] = offsets[i - 1] + lengths[i - 1];
+			longest = Math.max(longest, lengths[i]);
+		}
+		chars = new char[longest];
+	}
+
+	void set(byte[] buffer, int start, long recordNumber) {
+		this.buffer = buffer;
+		this.start = start;
+		this.recordNumber = recordNumber;
+	}
+
+	/**
+	 * Returns the number of this record in the input, starting from 1.
+	 * @return the number of this record.
+	 */
+	public long getRecordNumber() {
+		return recordNumber;
+	}
+
+	/**
+	 * Returns the number of fields of this record.
+	 * @return the number of fields.
+	 */
+	public int getFieldCount() {
+		return lengths.length;
+	}
+
+	/**
+	 * Returns a copy of the bytes of a field, as found in the input.
+	 * @param field the index of the field
+	 * @return the bytes of the given field.
+	 */
+	public byte[] getBytes(int field) {
+		int from = start + offsets[field];
+		return Arrays.copyOfRange(buffer, from, from + lengths[field]);
+	}
+
+	/**
+	 * Decodes the value of a {@link FixedWidthByteFieldType#TEXT} field. Padding and whitespace are trimmed according to the parser settings.
+	 * <p> The value of a numeric field is returned as the plain representation of its {@link BigDecimal}.
+	 *
+	 * @param field the index of the field
+	 * @return the text of the given field, or the null value defined in the parser settings if the field is empty.
+	 */
+	public String getString(int field) {
+		if (types[field] != FixedWidthByteFieldType.TEXT) {
+			return getBigDecimal(field).toPlainString();
+		}
+
+		int from = start + offsets[field];
+		int to = from + lengths[field];
+
+		while (from < to && buffer[from] == padding) {
+			from++;
+		}
+		if (ignoreLeadingWhitespace) {
+			while (from < to && decodingTable[buffer[from] & 0xFF] <= ' ') {
+				from++;
+			}
+		}
+		if (ignoreTrailingWhitespace) {
+			while (to > from && (decodingTable[buffer[to - 1] & 0xFF] <= ' ' || buffer[to - 1] == padding)) {
+				to--;
+			}
+		} else {
+			while (to > from && buffer[to - 1] == padding) {
+				to--;
+			}
+		}
+
+		if (from == to) {
+			return nullValue;
+		}
+		int length = to - from;
+		for (int i = 0; i < length; i++) {
+			chars[i] = decodingTable[buffer[from + i] & 0xFF];
+		}
+		return new String(chars, 0, length);
+	}
+
+	/**
+	 * Returns the value of a field as a {@code long}. Numeric fields are converted directly from their bytes; text fields are decoded and then parsed.
+	 * @param field the index of the field
+	 * @return the value of the given field
+	 * @throws NumberFormatException if the field doesn't hold a valid number.
+	 * @throws ArithmeticException if the value has a fractional part, or doesn't fit in a {@code long}.
+	 */
+	public long getLong(int field) {
+		if (types[field] == FixedWidthByteFieldType.TEXT) {
+			return Long.parseLong(getString(field));
+		}
+		if (scales[field] == 0 && digitCount(field) <= MAX_LONG_DIGITS) {
+			return unscaledValue(field);
+		}
+		return getBigDecimal(field).longValueExact();
+	}
+
+	/**
+	 * Returns the value of a field as a {@link BigDecimal}, with the scale given in {@link FixedWidthByteParser#setFieldType(int, FixedWidthByteFieldType, int)}.
+	 * Numeric fields are converted directly from their bytes; text fields are decoded and then parsed.
+	 * @param field the index of the field
+	 * @return the value of the given field
+	 * @throws NumberFormatException if the field doesn't hold a valid number.
+	 */
+	public BigDecimal getBigDecimal(int field) {
+		if (types[field] == FixedWidthByteFieldType.TEXT) {
+			String value = getString(field);
+			if (value == null) {
+				throw new NumberFormatException("Field " + field + " of record " + recordNumber + " is empty");
+			}
+			return new BigDecimal(value);
+		}
+		if (digitCount(field) <= MAX_LONG_DIGITS) {
+			return BigDecimal.valueOf(unscaledValue(field), scales[field]);
+		}
+		return new BigDecimal(new BigInteger(digits(field)), scales[field]);
+	}
+
+	/**
+	 * Returns the values of all fields of this record as text.
+	 * @return the values of this record, as given by {@link #getString(int)}.
+	 */
+	public String[] getValues() {
+		String[] values = new String[lengths.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = getString(i);
+		}
+		return values;
+	}
+
+	private int digitCount(int field) {
+		return types[field] == FixedWidthByteFieldType.PACKED ? lengths[field] * 2 - 1 : lengths[field];
+	}
+
+	private int digit(int nibble, int field) {
+		if (nibble > 9) {
+			throw new NumberFormatException("Invalid digit 0x" + Integer.toHexString(nibble).toUpperCase() + " in " + types[field] + " field " + field + " of record " + recordNumber);
+		}
+		return nibble;
+	}
+
+	private static boolean isNegative(int signNibble) {
+		return signNibble == 0xD || signNibble == 0xB;
+	}
+
+	private long unscaledValue(int field) {
+		int from = start + offsets[field];
+		int last = from + lengths[field] - 1;
+		long value = 0;
+		int sign;
+		if (types[field] == FixedWidthByteFieldType.PACKED) {
+			for (int i = from; i < last; i++) {
+				int b = buffer[i] & 0xFF;
+				value = value * 100 + digit(b >>> 4, field) * 10 + digit(b & 0xF, field);
+			}
+			int b = buffer[last] & 0xFF;
+			value = value * 10 + digit(b >>> 4, field);
+			sign = b & 0xF;
+		} else {
+			for (int i = from; i <= last; i++) {
+				value = value * 10 + digit(buffer[i] & 0xF, field);
+			}
+			sign = (buffer[last] & 0xFF) >>> 4;
+		}
+		return isNegative(sign) ? -value : value;
+	}
+
+	private String digits(int field) {
+		int from = start + offsets[field];
+		int last = from + lengths[field] - 1;
+		StringBuilder out = new StringBuilder(digitCount(field) + 1);
+		int sign;
+		if (types[field] == FixedWidthByteFieldType.PACKED) {
+			for (int i = from; i < last; i++) {
+				int b = buffer[i] & 0xFF;
+				out.append((char) ('0' + digit(b >>> 4, field)));
+				out.append((char) ('0' + digit(b & 0xF, field)));
+			}
+			int b = buffer[last] & 0xFF;
+			out.append((char) ('0' + digit(b >>> 4, field)));
+			sign = b & 0xF;
+		} else {
+			for (int i = from; i <= last; i++) {
+				out.append((char) ('0' + digit(buffer[i] & 0xF, field)));
+			}
+			sign = (buffer[last] & 0xFF) >>> 4;
+		}
+		if (isNegative(sign)) {
+			out.insert(0, '-');
+		}
+		return out.toString();
+	}
+}
@@ -20,6 +20,11 @@ import com.univocity.parsers.common.*;
 /**
  * A fast and flexible fixed-with parser implementation.
  *
+ * <p> When lookahead values are configured with {@link FixedWidthParserSettings#addFormatForLookahead(String, FixedWidthFieldLengths, com.univocity.parsers.common.processor.RowProcessor)},
+ *     the type of each record is selected by matching its first characters against a prefix tree of these values,
+ *     and the record is parsed with the field lengths of its type and sent to its processor. All record types are handled in a single pass over the input.
+ * <p> Field selection is applied by position to the records of every type.
+ *
  * @see FixedWidthFormat
  * @see FixedWidthFieldLengths
  * @see FixedWidthParserSettings
@@ -31,7 +36,11 @@ import com.univocity.parsers.common.*;
  */
 public class FixedWidthParser extends AbstractParser<FixedWidthParserSettings> {
 
-	private final int[] lengths;
+	private int[] lengths;
+	private int recordLength;
+
+	private final LookaheadTree lookahead;
+	private final char[] lookaheadRecord;
 
 	private final boolean ignoreLeadingWhitespace;
 	private final boolean ignoreTrailingWhitespace;
@@ -44,12 +53,31 @@ public class FixedWidthParser extends AbstractParser<FixedWidthParserSettings> {
 
 	private int length;
 
+	//points where parsing can be resumed when the input fed to the parser runs out
+	private static final byte AT_NEW_LINE = 0;
+	private static final byte IN_LOOKAHEAD = 1;
+	private static final byte IN_PADDING = 2;
+	private static final byte IN_WHITESPACE = 3;
+	private static final byte IN_VALUE = 4;
+	private byte resumeAt;
+	private int field;
+
+	//state of a record whose characters are collected to select its type
+	private LookaheadTree.Node node;
+	private int type;
+	private int available;
+
 	/**
 	 * The FixedWidthParser supports all settings provided by {@link FixedWidthParserSettings}, and requires this configuration to be properly initialized.
 	 * @param settings the parser configuration
 	 */
 	public FixedWidthParser(FixedWidthParserSettings settings) {
-		super(settings);
+		this(settings, settings.getFormatsForLookahead().isEmpty() ? null : new LookaheadTree(settings));
+	}
+
+	private FixedWidthParser(FixedWidthParserSettings settings, LookaheadTree lookahead) {
+		super(settings, lookahead == null ? settings.getRowProcessor() : lookahead.processorSwitch);
+		this.lookahead = lookahead;
 		ignoreLeadingWhitespace = settings.getIgnoreLeadingWhitespaces();
 		ignoreTrailingWhitespace = settings.getIgnoreTrailingWhitespaces();
 		skipToNewLine = settings.getSkipTrailingCharsUntilNewline();
@@ -57,6 +85,24 @@ public class FixedWidthParser extends AbstractParser<FixedWidthParserSettings> {
 		skipEmptyLines = settings.getSkipEmptyLines();
 		lengths = settings.getFieldLengths();
 
+		int recordLength = 0;
+		for (int length : lengths) {
+			recordLength += length;
+		}
+		this.recordLength = recordLength;
+
+		if (lookahead != null) {
+			int longestRecord = 0;
+			for (int length : lookahead.recordLengths) {
+				if (length > longestRecord) {
+					longestRecord = length;
+				}
+			}
+			lookaheadRecord = new char[longestRecord];
+		} else {
+			lookaheadRecord = null;
+		}
+
 		FixedWidthFormat format = settings.getFormat();
 		padding = format.getPadding();
 		newLine = format.getNormalizedNewline();
@@ -71,35 +117,215 @@ public class FixedWidthParser extends AbstractParser<FixedWidthParserSettings> {
 			return;
 		}
 
-		int i;
-		for (i = 0; i < lengths.length; i++) {
-			length = lengths[i];
+		if (lookahead != null) {
+			int start = input.lookahead(lookahead.longestLookahead);
+			if (start != -1) {
+				selectRecordType(lookahead.match(input.getBuffer(), start));
+			} else {
+				readRecordByLookahead();
+				if (skipToNewLine) {
+					skipToNewLine();
+				}
+				return;
+			}
+		}
 
-			skipPadding();
+		int start = input.readBlock(recordLength);
+		if (start != -1) {
+			sliceRecord(input.getBuffer(), start, recordLength, false);
+			ch = input.nextChar();
+		} else {
+			readRecord();
+		}
 
-			if (ignoreLeadingWhitespace) {
-				skipWhitespace();
+		if (skipToNewLine) {
+			skipToNewLine();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void resumeRecord() {
+		ch = input.nextChar();
+		switch (resumeAt) {
+			case IN_LOOKAHEAD:
+				if (node != null && node.type != LookaheadTree.DEFAULT_TYPE) {
+					type = node.type;
+				}
+				readLookaheadRecord();
+				break;
+			case AT_NEW_LINE:
+				skipToNewLine();
+				return;
+			default:
+				if (readField(field, resumeAt)) {
+					readFields(field + 1);
+				}
+		}
+
+		if (skipToNewLine) {
+			skipToNewLine();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p> The characters of a record collected to select its type are sliced into values, as the record is cut short.
+	 */
+	@Override
+	protected void completeRecordAtEOF() {
+		if (resumeAt == IN_LOOKAHEAD) {
+			resumeAt = AT_NEW_LINE;
+			selectRecordType(type);
+			sliceRecord(lookaheadRecord, 0, available, true);
+		}
+	}
+
+	private void selectRecordType(int type) {
+		lengths = lookahead.fieldLengths[type];
+		recordLength = lookahead.recordLengths[type];
+		lookahead.processorSwitch.setType(type);
+	}
+
+	/**
+	 * Reads a record whose first characters are not all held in the input buffer. Its characters are consumed one by one while walking down the
+	 * tree of lookahead values, and then up to the length of the record type selected. The values of the record are then sliced from the characters collected.
+	 */
+	private void readRecordByLookahead() {
+		resumeAt = IN_LOOKAHEAD;
+		available = 0;
+		type = LookaheadTree.DEFAULT_TYPE;
+		node = lookahead.root();
+		readLookaheadRecord();
+	}
+
+	/**
+	 * Collects the characters of a record read by lookahead, from the current node of the tree of lookahead values (if its type is still being matched), or from the
+	 * character after the last one collected.
+	 */
+	private void readLookaheadRecord() {
+		char[] record = lookaheadRecord;
+		if (node != null) {
+			while ((node = node.next(ch)) != null) {
+				record[available++] = ch;
+				ch = input.nextChar();
+				if (node.type != LookaheadTree.DEFAULT_TYPE) {
+					type = node.type;
+				}
 			}
+			selectRecordType(type);
+		}
 
-			if (recordEndsOnNewLine) {
-				readValueUntilNewLine();
-				if (ch == newLine) {
-					output.valueParsed();
-					return;
+		while (available < recordLength && !(recordEndsOnNewLine && ch == newLine)) {
+			record[available++] = ch;
+			ch = input.nextChar();
+		}
+		resumeAt = AT_NEW_LINE;
+		sliceRecord(record, 0, available, false);
+	}
+
+	/**
+	 * Extracts the values of a record from a buffer, slicing each field by its offset.
+	 * Padding and whitespace are trimmed from both ends of each field before its value is copied, with a single call to
+	 * {@link com.univocity.parsers.common.input.CharAppender#append(char[], int, int)}.
+	 *
+	 * <p> If fewer characters than the record length are available, the record is cut short: the values of the fields that start after the last
+	 *     available character are not extracted (the first value is always extracted), and the last value extracted is truncated. When the end of the input has been reached, the last value
+	 *     is left in the appender for the parser to complete, as if it was being read when the end of the input was found.
+	 *
+	 * @param buffer the buffer that holds the record.
+	 * @param start the position of the first character of the record in the buffer.
+	 * @param available the number of characters of the record held in the buffer.
+	 * @param endOfInput flag indicating whether the input ends after the available characters.
+	 */
+	private void sliceRecord(char[] buffer, int start, int available, boolean endOfInput) {
+		int end = start + available;
+		for (int i = 0; i < lengths.length && (i == 0 || start < end); i++) {
+			int from = start;
+			int to = start + lengths[i];
+			start = to;
+			if (to > end) {
+				to = end;
+			}
+
+			while (from < to && buffer[from] == padding) {
+				from++;
+			}
+			if (ignoreLeadingWhitespace) {
+				while (from < to && buffer[from] <= ' ') {
+					from++;
+				}
+			}
+			if (ignoreTrailingWhitespace) {
+				while (to > from && (buffer[to - 1] <= ' ' || buffer[to - 1] == padding)) {
+					to--;
 				}
 			} else {
-				readValue();
+				while (to > from && buffer[to - 1] == padding) {
+					to--;
+				}
+			}
+
+			if (to > from) {
+				output.appender.append(buffer, from, to - from);
+			}
+			if (endOfInput && start >= end) {
+				return;
 			}
 			output.valueParsed();
 		}
+	}
 
-		if (skipToNewLine) {
-			skipToNewLine();
+	private void readRecord() {
+		readFields(0);
+	}
+
+	private void readFields(int from) {
+		for (int i = from; i < lengths.length; i++) {
+			length = lengths[i];
+			if (!readField(i, IN_PADDING)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Reads the value of a field, starting from the given step: skipping padding, skipping leading whitespace, or reading the value itself.
+	 * @param field the index of the field to read.
+	 * @param step the first step to execute. Either {@link #IN_PADDING}, {@link #IN_WHITESPACE} or {@link #IN_VALUE}.
+	 * @return {@code false} if the record ended on a new line, {@code true} otherwise.
+	 */
+	private boolean readField(int field, byte step) {
+		this.field = field;
+		if (step == IN_PADDING) {
+			resumeAt = IN_PADDING;
+			skipPadding();
 		}
 
+		if (step != IN_VALUE && ignoreLeadingWhitespace) {
+			resumeAt = IN_WHITESPACE;
+			skipWhitespace();
+		}
+
+		resumeAt = IN_VALUE;
+		if (recordEndsOnNewLine) {
+			readValueUntilNewLine();
+			if (ch == newLine) {
+				output.valueParsed();
+				return false;
+			}
+		} else {
+			readValue();
+		}
+		output.valueParsed();
+		return true;
 	}
 
 	private void skipToNewLine() {
+		resumeAt = AT_NEW_LINE;
 		while (ch != newLine) {
 			ch = input.nextChar();
 		}
@@ -15,8 +15,11 @@
  ******************************************************************************/
 package com.univocity.parsers.fixed;
 
+import java.util.*;
+
 import com.univocity.parsers.common.*;
 import com.univocity.parsers.common.input.*;
+import com.univocity.parsers.common.processor.*;
 
 /**
  * This is the configuration class used by the Fixed-Width parser ({@link FixedWidthParser})
@@ -33,6 +36,10 @@ import com.univocity.parsers.common.input.*;
  *
  * <p> The FixedWidthParserSettings need a definition of the field lengths of each record in the input. This must provided using an instance of {@link FixedWidthFieldLengths}.
  *
+ * <p> Inputs with records of different types can be parsed by associating additional field lengths with a lookahead value,
+ *     using {@link FixedWidthParserSettings#addFormatForLookahead(String, FixedWidthFieldLengths)}. Records that start with none of
+ *     the lookahead values are parsed with the field lengths given in the constructor.
+ *
  * @see com.univocity.parsers.fixed.FixedWidthParser
  * @see com.univocity.parsers.fixed.FixedWidthFormat
  * @see com.univocity.parsers.fixed.FixedWidthFieldLengths
@@ -47,6 +54,8 @@ public class FixedWidthParserSettings extends CommonParserSettings<FixedWidthFor
 	protected boolean recordEndsOnNewline = false;
 
 	private final FixedWidthFieldLengths fieldLengths;
+	private final Map<String, FixedWidthFieldLengths> lookaheadFormats = new LinkedHashMap<String, FixedWidthFieldLengths>();
+	private final Map<String, RowProcessor> lookaheadProcessors = new HashMap<String, RowProcessor>();
 
 	/**
 	 * You can only create an instance of this class by providing a definition of the field lengths of each record in the input.
@@ -73,6 +82,62 @@ public class FixedWidthParserSettings extends CommonParserSettings<FixedWidthFor
 		return fieldLengths.getFieldLengths();
 	}
 
+	/**
+	 * Associates the field lengths of a record type with the value found at the beginning of every record of that type.
+	 * <p> The parser checks the beginning of each record against all lookahead values. The longest value that matches selects the field lengths used to parse the record.
+	 *     Records that don't match any lookahead value are parsed with the field lengths given in the constructor of this class.
+	 * <p> The lookahead value is part of the record, and is parsed as part of its first field(s).
+	 * <p> Records of this type are sent to the {@link RowProcessor} provided by {@link CommonParserSettings#getRowProcessor()}. Their
+	 *     {@link ParsingContext#headers()} are the field names of the given field lengths, if any.
+	 *
+	 * @param lookahead the value found at the beginning of every record that must be parsed with the given field lengths.
+	 * @param lengths the field lengths of the records that start with the lookahead value.
+	 */
+	public void addFormatForLookahead(String lookahead, FixedWidthFieldLengths lengths) {
+		addFormatForLookahead(lookahead, lengths, null);
+	}
+
+	/**
+	 * Associates the field lengths of a record type with the value found at the beginning of every record of that type, and routes these records to a given {@link RowProcessor}.
+	 * <p> The parser checks the beginning of each record against all lookahead values. The longest value that matches selects the field lengths used to parse the record.
+	 *     Records that don't match any lookahead value are parsed with the field lengths given in the constructor of this class.
+	 * <p> All processors are started and ended along with the parsing process, regardless of whether they receive any record.
+	 *
+	 * @param lookahead the value found at the beginning of every record that must be parsed with the given field lengths.
+	 * @param lengths the field lengths of the records that start with the lookahead value.
+	 * @param processor the processor of the records that start with the lookahead value. If null, records are sent to the processor provided by {@link CommonParserSettings#getRowProcessor()}.
+	 */
+	public void addFormatForLookahead(String lookahead, FixedWidthFieldLengths lengths, RowProcessor processor) {
+		if (lookahead == null || lookahead.isEmpty()) {
+			throw new IllegalArgumentException("Lookahead value cannot be null or empty");
+		}
+		if (lengths == null) {
+			throw new IllegalArgumentException("Field lengths of lookahead value '" + lookahead + "' cannot be null");
+		}
+		lookaheadFormats.put(lookahead, lengths);
+		if (processor == null) {
+			lookaheadProcessors.remove(lookahead);
+		} else {
+			lookaheadProcessors.put(lookahead, processor);
+		}
+	}
+
+	/**
+	 * Returns the field lengths associated with each lookahead value, in the order they were added.
+	 * @return the field lengths associated with each lookahead value.
+	 */
+	Map<String, FixedWidthFieldLengths> getFormatsForLookahead() {
+		return lookaheadFormats;
+	}
+
+	/**
+	 * Returns the {@link RowProcessor} associated with each lookahead value, if any.
+	 * @return the processors associated with lookahead values.
+	 */
+	Map<String, RowProcessor> getProcessorsForLookahead() {
+		return lookaheadProcessors;
+	}
+
 	/**
 	 * Indicates whether or not any trailing characters beyond the record's length should be skipped until the newline is reached (defaults to false)
 	 * <p>For example, if the record length is 5, but the row contains "12345678\n", then the portion containing "678\n" will be discarded and not considered part of the next record
@@ -139,11 +204,23 @@ public class FixedWidthParserSettings extends CommonParserSettings<FixedWidthFor
 		return new DefaultCharAppender(getMaxCharsPerColumn(), getNullValue(), getFormat().getPadding());
 	}
 
+	/**
+	 * Returns an instance of CharAppender that delivers the characters of a streamed column to the configured {@link StreamedColumnProcessor},
+	 * ignoring the padding character to handle unwritten positions.
+	 *
+	 * @param column the index of the streamed column
+	 * @return an instance of CharAppender for the given streamed column, which discards trailing padding.
+	 */
+	@Override
+	protected CharAppender newStreamingCharAppender(int column) {
+		return new StreamingCharAppender(getMaxCharsPerColumn(), getFormat().getPadding(), column, getStreamedColumnProcessor());
+	}
+
 	/**
 	 * The maximum number of characters allowed for any given value being written/read. Used to avoid OutOfMemoryErrors (defaults to a minimum of 4096 characters).
 	 *
 	 *  <p> This overrides the parent implementation and calculates the absolute minimum number of characters required to store the values of a record
-	 *  <p> If the sum of all field lengths is greater than the configured maximum number of characters per column, the calculated amount will be returned.
+	 *  <p> If the sum of all field lengths (of the record type with the longest records) is greater than the configured maximum number of characters per column, the calculated amount will be returned.
 	 *
 	 * @return The maximum number of characters allowed for any given value being written/read
 	 */
@@ -151,13 +228,24 @@ public class FixedWidthParserSettings extends CommonParserSettings<FixedWidthFor
 	public int getMaxCharsPerColumn() {
 		int max = super.getMaxCharsPerColumn();
 
+		int minimum = minimumCharsPerColumn(getFieldLengths());
+		for (FixedWidthFieldLengths lengths : lookaheadFormats.values()) {
+			int lookaheadMinimum = minimumCharsPerColumn(lengths.getFieldLengths());
+			if (lookaheadMinimum > minimum) {
+				minimum = lookaheadMinimum;
+			}
+		}
+
+		return max > minimum ? max : minimum;
+	}
+
+	private static int minimumCharsPerColumn(int[] fieldLengths) {
 		int minimum = 0;
-		for (int length : getFieldLengths()) {
+		for (int length : fieldLengths) {
 			//adding 2 to give room for line breaks in every record (e.g. "\r\n").
 			minimum += length + 2;
 		}
-
-		return max > minimum ? max : minimum;
+		return minimum;
 	}
 
 	/**
@@ -173,6 +261,11 @@ public class FixedWidthParserSettings extends CommonParserSettings<FixedWidthFor
 	public int getMaxColumns() {
 		int max = super.getMaxColumns();
 		int minimum = getFieldLengths().length;
+		for (FixedWidthFieldLengths lengths : lookaheadFormats.values()) {
+			if (lengths.getFieldLengths().length > minimum) {
+				minimum = lengths.getFieldLengths().length;
+			}
+		}
 		return max > minimum ? max : minimum;
 	}
 
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.fixed;
+
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.common.processor.*;
+
+/**
+ * A {@link RowProcessor} that routes each record parsed by a {@link FixedWidthParser} to the processor of its record type, as selected by a {@link LookaheadTree}.
+ *
+ * <p> Records of types without a processor of their own are sent to the processor of the default record type.
+ *     Records of types with field names are processed with a {@link ParsingContext} whose {@link ParsingContext#headers()} are these names.
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+final class LookaheadProcessorSwitch implements RowProcessor {
+
+	private final RowProcessor[] processors;
+	private final String[][] fieldNames;
+	private ParsingContext[] contexts;
+
+	private int type = LookaheadTree.DEFAULT_TYPE;
+
+	LookaheadProcessorSwitch(RowProcessor[] processors, String[][] fieldNames) {
+		this.processors = processors;
+		this.fieldNames = fieldNames;
+		for (int i = 0; i < processors.length; i++) {
+			if (processors[i] == null) {
+				processors[i] = processors[LookaheadTree.DEFAULT_TYPE];
+			}
+		}
+	}
+
+	/**
+	 * Selects the record type of the next records processed.
+	 * @param type the index of the record type.
+	 */
+	void setType(int type) {
+		this.type = type;
+	}
+
+	private ParsingContext[] contexts(ParsingContext context) {
+		if (contexts == null || contexts[LookaheadTree.DEFAULT_TYPE] != context) {
+			contexts = new ParsingContext[processors.length];
+			for (int i = 0; i < contexts.length; i++) {
+				final String[] names = fieldNames[i];
+				if (names == null) {
+					contexts[i] = context;
+				} else {
+					contexts[i] = new ParsingContextWrapper(context) {
+						@Override
+						public String[] headers() {
+							return names;
+						}
+					};
+				}
+			}
+		}
+		return contexts;
+	}
+
+	/**
+	 * Returns whether the processor of the given record type has already been notified by a preceding record type, which uses the same processor.
+	 */
+	private boolean isRepeated(int type) {
+		for (int i = 0; i < type; i++) {
+			if (processors[i] == processors[type]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void processStarted(ParsingContext context) {
+		type = LookaheadTree.DEFAULT_TYPE;
+		ParsingContext[] contexts = contexts(context);
+		for (int i = 0; i < processors.length; i++) {
+			if (!isRepeated(i)) {
+				processors[i].processStarted(contexts[i]);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void rowProcessed(String[] row, ParsingContext context) {
+		processors[type].rowProcessed(row, contexts(context)[type]);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void processEnded(ParsingContext context) {
+		ParsingContext[] contexts = contexts(context);
+		for (int i = 0; i < processors.length; i++) {
+			if (!isRepeated(i)) {
+				processors[i].processEnded(contexts[i]);
+			}
+		}
+	}
+}
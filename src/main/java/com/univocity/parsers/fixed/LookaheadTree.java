@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.fixed;
+
+import java.util.*;
+import java.util.Map.Entry;
+
+import com.univocity.parsers.common.processor.*;
+
+/**
+ * A prefix tree of the lookahead values given in {@link FixedWidthParserSettings#addFormatForLookahead(String, FixedWidthFieldLengths, RowProcessor)},
+ * used by the {@link FixedWidthParser} to select the field lengths of each record.
+ *
+ * <p> Each record type is identified by an index. Index 0 is the record type defined by the field lengths given in the constructor of {@link FixedWidthParserSettings},
+ *     and is selected when no lookahead value matches the beginning of a record. Lookahead values are indexed from 1, in the order they were added.
+ *
+ * <p> Matching a record walks down the tree, one character at a time, so the cost of selecting a record type depends on the length of the lookahead
+ *     values, not on how many of them there are.
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+final class LookaheadTree {
+
+	static final int DEFAULT_TYPE = 0;
+
+	final int[][] fieldLengths;
+	final int[] recordLengths;
+	final int longestLookahead;
+	final LookaheadProcessorSwitch processorSwitch;
+
+	private final Node root = new Node();
+
+	/**
+	 * Builds the tree of lookahead values configured in the given settings.
+	 * @param settings the parser configuration, with at least one lookahead value.
+	 */
+	LookaheadTree(FixedWidthParserSettings settings) {
+		Map<String, FixedWidthFieldLengths> formats = settings.getFormatsForLookahead();
+		Map<String, RowProcessor> processors = settings.getProcessorsForLookahead();
+
+		int types = formats.size() + 1;
+		fieldLengths = new int[types][];
+		recordLengths = new int[types];
+		String[][] fieldNames = new String[types][];
+		RowProcessor[] typeProcessors = new RowProcessor[types];
+
+		fieldLengths[DEFAULT_TYPE] = settings.getFieldLengths();
+		typeProcessors[DEFAULT_TYPE] = settings.getRowProcessor();
+
+		int type = 1;
+		int longest = 0;
+		for (Entry<String, FixedWidthFieldLengths> e : formats.entrySet()) {
+			String lookahead = e.getKey();
+			fieldLengths[type] = e.getValue().getFieldLengths();
+			fieldNames[type] = e.getValue().getFieldNames();
+			typeProcessors[type] = processors.get(lookahead);
+			add(lookahead, type);
+			if (lookahead.length() > longest) {
+				longest = lookahead.length();
+			}
+			type++;
+		}
+		longestLookahead = longest;
+
+		for (int i = 0; i < types; i++) {
+			for (int length : fieldLengths[i]) {
+				recordLengths[i] += length;
+			}
+			// while matching a record that is split across input buffers, the characters walked through in the tree are consumed from the input.
+			// They must all belong to the record, whatever its type.
+			if (recordLengths[i] < longestLookahead) {
+				throw new IllegalArgumentException("Lookahead values cannot be longer than the records they identify. Longest lookahead value has " + longestLookahead + " characters, but records of type " + i + " have length " + recordLengths[i]);
+			}
+		}
+
+		root.compile();
+		processorSwitch = new LookaheadProcessorSwitch(typeProcessors, fieldNames);
+	}
+
+	private void add(String lookahead, int type) {
+		Node node = root;
+		for (int i = 0; i < lookahead.length(); i++) {
+			node = node.child(lookahead.charAt(i));
+		}
+		node.type = type;
+	}
+
+	/**
+	 * Returns the type of the record whose first characters are in the given buffer.
+	 * @param buffer the buffer with the first characters of a record
+	 * @param start the position of the first character of the record in the buffer. At least {@link #longestLookahead} characters must be available from this position.
+	 * @return the type of the record: the index of its longest matching lookahead value, or {@link #DEFAULT_TYPE} if none matches.
+	 */
+	int match(char[] buffer, int start) {
+		int type = DEFAULT_TYPE;
+		Node node = root;
+		while ((node = node.next(buffer[start++])) != null) {
+			if (node.type != DEFAULT_TYPE) {
+				type = node.type;
+			}
+		}
+		return type;
+	}
+
+	/**
+	 * Returns the root of the tree, for matching a record one character at a time with {@link Node#next(char)}.
+	 * @return the root node of the tree.
+	 */
+	Node root() {
+		return root;
+	}
+
+	static final class Node {
+		int type = DEFAULT_TYPE;
+
+		private TreeMap<Character, Node> children = new TreeMap<Character, Node>();
+		private char first;
+		private Node[] next;
+
+		private Node child(char ch) {
+			Node child = children.get(ch);
+			if (child == null) {
+				child = new Node();
+				children.put(ch, child);
+			}
+			return child;
+		}
+
+		/**
+		 * Replaces the map of children by an array indexed by character, so each step of a match is a single array lookup.
+		 */
+		private void compile() {
+			if (!children.isEmpty()) {
+				first = children.firstKey();
+				next = new Node[children.lastKey() - first + 1];
+				for (Entry<Character, Node> e : children.entrySet()) {
+					e.getValue().compile();
+					next[e.getKey() - first] = e.getValue();
+				}
+			}
+			children = null;
+		}
+
+		/**
+		 * Returns the node reached from this one with the given character.
+		 * @param ch the next character of the record being matched
+		 * @return the next node, or {@code null} if no lookahead value continues with the given character.
+		 */
+		Node next(char ch) {
+			if (next != null) {
+				int index = ch - first;
+				if (index >= 0 && index < next.length) {
+					return next[index];
+				}
+			}
+			return null;
+		}
+	}
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.fixed;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.common.processor.*;
+
+/**
+ * Parses a fixed-width file with multiple threads, by splitting it into ranges of records at exact byte offsets.
+ *
+ * <p> Every record of the file must have the same length in bytes: the sum of the field lengths defined in {@link FixedWidthParserSettings}, plus the
+ *     length of the line separator. The encoding of the file must use a single byte per character (e.g. ISO-8859-1, US-ASCII, or an EBCDIC code page).
+ *     The number of records is computed from the file size, and the records are divided into ranges. Each range is parsed
+ *     by a {@link FixedWidthParser} that reads directly from its own position of the file, with no speculation involved.
+ *
+ * <p> Parsed rows are delivered to the {@link RowProcessor} defined in the settings, either in the order they appear in the file or as soon as they are parsed
+ *     (see {@link AbstractParallelParser#setOrdered(boolean)}).
+ *
+ * <p> The {@link ParsingContext} given to the processor reports the position of each record in the entire file.
+ *     If header extraction is enabled, the headers are read from the first record before the remaining records are split into ranges.
+ *
+ * @see FixedWidthParser
+ * @see FixedWidthParserSettings
+ * @see AbstractParallelParser
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public class ParallelFixedWidthParser extends AbstractParallelParser<FixedWidthParserSettings> {
+
+	private FixedLengthRecords layout;
+
+	/**
+	 * Creates a parallel parser for fixed-width files
+	 * @param settings the parser configuration
+	 * @param threads the number of threads used to parse each file
+	 */
+	public ParallelFixedWidthParser(FixedWidthParserSettings settings, int threads) {
+		super(settings, threads);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected Range[] split(FileChannel channel, Charset charset) throws IOException {
+		layout = new FixedLengthRecords(settings, channel, charset);
+		long records = layout.recordCount;
+
+		long headerRecords = 0;
+		if (settings.isHeaderExtractionEnabled() && records > 0) {
+			extractHeaders(readHeaders(channel, charset), 1);
+			headerRecords = 1;
+		}
+		records -= headerRecords;
+
+		int rangeCount = (int) Math.max(1, Math.min(records, (long) threads * RANGES_PER_THREAD));
+		Range[] ranges = new Range[rangeCount];
+		long first = 0;
+		for (int i = 0; i < rangeCount; i++) {
+			long last = records * (i + 1) / rangeCount;
+			long start = layout.offsetOf(headerRecords + first);
+			long end = first == last ? start : layout.endOf(headerRecords + last);
+			ranges[i] = range(start, end, first, headerRecords + first);
+			first = last;
+		}
+		return ranges;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected AbstractParser<FixedWidthParserSettings> newParser(FixedWidthParserSettings settings) {
+		return new FixedWidthParser(settings);
+	}
+
+	private String[] readHeaders(FileChannel channel, Charset charset) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(layout.recordLength);
+		while (header.hasRemaining() && channel.read(header, header.position()) > 0) ;
+		header.flip();
+
+		FixedWidthParserSettings headerSettings = new FixedWidthParserSettings(new FixedWidthFieldLengths(settings.getFieldLengths()));
+		headerSettings.setFormat(settings.getFormat());
+		headerSettings.setIgnoreLeadingWhitespaces(settings.getIgnoreLeadingWhitespaces());
+		headerSettings.setIgnoreTrailingWhitespaces(settings.getIgnoreTrailingWhitespaces());
+		headerSettings.setLineSeparatorDetectionEnabled(settings.isLineSeparatorDetectionEnabled());
+		return new FixedWidthParser(headerSettings).parseLine(charset.decode(header).toString());
+	}
+}
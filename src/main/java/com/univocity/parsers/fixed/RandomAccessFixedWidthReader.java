@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.fixed;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+
+/**
+ * Provides random access to the records of a fixed-width file in which every record has the same length in bytes: the sum of the field lengths
+ * defined in {@link FixedWidthParserSettings}, plus the length of the line separator. The encoding of the file must use a single byte per character.
+ *
+ * <p> The position of a record is computed from its index ({@code offset = index * recordLength}), so any record is located without reading the records
+ *     that precede it. Only the bytes of the requested records are read from the file, with a positional read, and each record is parsed with
+ *     {@link FixedWidthParser#parseLine(char[], int, int)}.
+ *
+ * <p> If header extraction is enabled in the settings, the first record of the file is parsed as the headers, and is not counted as a record.
+ *
+ * <p> The {@link com.univocity.parsers.common.processor.RowProcessor} defined in the settings is not used. This class is not thread-safe.
+ *
+ * @see FixedWidthParser
+ * @see FixedWidthParserSettings
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public class RandomAccessFixedWidthReader implements Closeable {
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final FixedLengthRecords layout;
+	private final FixedWidthParser parser;
+	private final CharsetDecoder decoder;
+	private final long firstRecord;
+	private final String[] headers;
+
+	private ByteBuffer bytes;
+	private CharBuffer chars;
+
+	/**
+	 * Opens a fixed-width file for random access to its records
+	 * @param settings the parser configuration
+	 * @param file the fixed-width file
+	 * @param charset the encoding of the file. Must use a single byte per character.
+	 */
+	public RandomAccessFixedWidthReader(FixedWidthParserSettings settings, File file, Charset charset) {
+		try {
+			this.file = new RandomAccessFile(file, "r");
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to open file '" + file + "'", e);
+		}
+		try {
+			this.channel = this.file.getChannel();
+			this.layout = new FixedLengthRecords(settings, channel, charset);
+		} catch (IOException e) {
+			close();
+			throw new IllegalStateException("Error reading file '" + file + "'", e);
+		} catch (RuntimeException e) {
+			close();
+			throw e;
+		}
+		this.decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		this.parser = new FixedWidthParser(settings);
+
+		if (settings.isHeaderExtractionEnabled() && layout.recordCount > 0) {
+			parse(0, 1, null);
+			this.headers = parser.getContext().headers();
+			this.firstRecord = 1;
+		} else {
+			this.headers = settings.getHeaders();
+			this.firstRecord = 0;
+		}
+	}
+
+	/**
+	 * Returns the number of records in the file, excluding the headers.
+	 * @return the number of records available.
+	 */
+	public long getRecordCount() {
+		return layout.recordCount - firstRecord;
+	}
+
+	/**
+	 * Returns the headers of the file, extracted from its first record if header extraction is enabled, or defined in the settings.
+	 * @return the headers of the file, or null if no headers are available.
+	 */
+	public String[] getHeaders() {
+		return headers == null ? null : headers.clone();
+	}
+
+	/**
+	 * Returns the length of every record of the file, including the line separator.
+	 * @return the length of each record, in bytes.
+	 */
+	public int getRecordLength() {
+		return layout.recordLength;
+	}
+
+	/**
+	 * Reads and parses a single record.
+	 * <p> Records are parsed with {@link FixedWidthParser#parseLine(char[], int, int)}, so a record that starts with the comment character is returned as {@code null}.
+	 *     A record filled with whitespace or padding is returned with a {@code null} value for each field.
+	 * @param index the index of the record, starting from 0 (excluding the headers).
+	 * @return the parsed record, or {@code null} if it is a comment.
+	 */
+	public String[] getRecord(long index) {
+		List<String[]> out = new ArrayList<String[]>(1);
+		parse(index, 1, out);
+		return out.get(0);
+	}
+
+	/**
+	 * Reads and parses a sequence of records with a single read from the file. The records read can't exceed {@link Integer#MAX_VALUE} bytes in total.
+	 * <p> As in {@link #getRecord(long)}, comments are returned as {@code null}, so the position of each record in the list is preserved.
+	 * @param index the index of the first record, starting from 0 (excluding the headers).
+	 * @param count the number of records to read
+	 * @return the parsed records.
+	 */
+	public List<String[]> getRecords(long index, int count) {
+		List<String[]> out = new ArrayList<String[]>(count);
+		parse(index, count, out);
+		return out;
+	}
+
+	private void parse(long index, int count, List<String[]> out) {
+		if (out != null) {
+			if (index < 0 || count < 0 || index > getRecordCount() - count) {
+				throw new IndexOutOfBoundsException("Cannot read " + count + " record(s) from index " + index + ". Number of records: " + getRecordCount());
+			}
+			index += firstRecord;
+		}
+		if (count == 0) {
+			return;
+		}
+
+		long start = layout.offsetOf(index);
+		long end = layout.endOf(index + count);
+		if (end - start > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Cannot read " + count + " record(s) of " + layout.recordLength + " bytes at once: " + (end - start) + " bytes exceed the maximum of " + Integer.MAX_VALUE + ". Read fewer records at a time.");
+		}
+		int length = (int) (end - start);
+		if (bytes == null || bytes.capacity() < length) {
+			bytes = ByteBuffer.allocate(length);
+			chars = CharBuffer.allocate(length);
+		}
+		bytes.clear();
+		bytes.limit(length);
+		try {
+			while (bytes.hasRemaining()) {
+				if (channel.read(bytes, start + bytes.position()) == -1) {
+					throw new EOFException("Unexpected end of file at position " + (start + bytes.position()));
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Error reading records from file", e);
+		}
+		bytes.flip();
+
+		chars.clear();
+		decoder.reset();
+		decoder.decode(bytes, chars, true);
+		decoder.flush(chars);
+
+		char[] buffer = chars.array();
+		int recordLength = layout.recordLength;
+		for (int i = 0; i < count; i++) {
+			int from = i * recordLength;
+			String[] row = parser.parseLine(buffer, from, Math.min(recordLength, length - from));
+			if (out != null) {
+				out.add(row);
+			}
+		}
+	}
+
+	/**
+	 * Closes the file.
+	 */
+	@Override
+	public void close() {
+		try {
+			file.close();
+		} catch (IOException e) {
+			throw new IllegalStateException("Error closing file", e);
+		}
+	}
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.tsv;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.common.input.*;
+import com.univocity.parsers.common.processor.*;
+
+/**
+ * Parses a TSV file with multiple threads, by splitting it into ranges of bytes that start right after a line separator.
+ *
+ * <p> Tabs and line separators within TSV values are escaped (e.g. as {@code \t} and {@code \n}), so every line separator in the file marks the end of a record.
+ *     The file is divided into ranges of roughly the same size, and the boundary of each range is moved forward to the byte that follows the next line separator.
+ *     Each range is then parsed by a {@link TsvParser} that reads directly from its own position of the file.
+ *
+ * <p> Records are split at the last character of the line separator ({@code '\n'} for {@code "\n"} and {@code "\r\n"}, {@code '\r'} for {@code "\r"}).
+ *     If line separator detection is enabled, the line separator is detected from the first line of the file before it is split.
+ *     The encoding of the file must represent this character with a single byte that never occurs as part of another character (e.g. UTF-8, ISO-8859-1, or US-ASCII).
+ *
+ * <p> Parsed rows are delivered to the {@link RowProcessor} defined in the settings, either in the order they appear in the file or as soon as they are parsed
+ *     (see {@link AbstractParallelParser#setOrdered(boolean)}). In ordered mode, the {@link ParsingContext} reports the line of each record in the entire file.
+ *     In unordered mode, it reports lines relative to the start of the range being parsed.
+ *
+ * <p> Records are numbered in the order they are delivered. Character positions are not tracked across ranges, and {@link ParsingContext#currentChar()} returns -1.
+ *     If header extraction is enabled, the headers are read from the first line that is not a comment or blank before the remaining lines are split into ranges.
+ *
+ * @see TsvParser
+ * @see TsvParserSettings
+ * @see AbstractParallelParser
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public class ParallelTsvParser extends AbstractParallelParser<TsvParserSettings> {
+
+	private static final int MIN_RANGE_SIZE = 64 * 1024;
+	private static final int DETECTION_BLOCK_SIZE = 8 * 1024;
+
+	/**
+	 * Creates a parallel parser for TSV files
+	 * @param settings the parser configuration
+	 * @param threads the number of threads used to parse each file
+	 */
+	public ParallelTsvParser(TsvParserSettings settings, int threads) {
+		super(settings, threads);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected Range[] split(FileChannel channel, Charset charset) throws IOException {
+		long size = channel.size();
+		byte terminator = lineTerminator(channel, size);
+		if (!Arrays.equals(String.valueOf((char) terminator).getBytes(charset), new byte[] { terminator })) {
+			throw new IllegalArgumentException("Parallel parsing of TSV files requires an encoding that represents the line separator with a single byte. Got " + charset);
+		}
+
+		long start = 0;
+		if (settings.isHeaderExtractionEnabled() && size > 0) {
+			//comments and blank lines before the headers are skipped, as in the TsvParser
+			String[] headers = null;
+			long lines = 0;
+			while (headers == null && start < size) {
+				long end = RecordBoundaries.nextRecordStart(channel, start + 1, size, terminator);
+				headers = readHeaders(channel, charset, start, end);
+				start = end;
+				lines++;
+			}
+			extractHeaders(headers, lines);
+		}
+
+		int rangeCount = (int) Math.max(1, Math.min((size - start) / MIN_RANGE_SIZE, (long) threads * RANGES_PER_THREAD));
+		long[] boundaries = RecordBoundaries.split(channel, start, size, rangeCount, terminator);
+
+		List<Range> ranges = new ArrayList<Range>(boundaries.length - 1);
+		for (int i = 1; i < boundaries.length; i++) {
+			if (boundaries[i] > boundaries[i - 1]) {
+				ranges.add(range(boundaries[i - 1], boundaries[i]));
+			}
+		}
+		return ranges.toArray(new Range[ranges.size()]);
+	}
+
+	/**
+	 * Returns the byte that ends each line: the last character of the line separator in the settings, or of the line separator
+	 * found in the first line of the file, if line separator detection is enabled.
+	 */
+	private byte lineTerminator(FileChannel channel, long size) throws IOException {
+		if (settings.isLineSeparatorDetectionEnabled()) {
+			ByteBuffer block = ByteBuffer.allocate(DETECTION_BLOCK_SIZE);
+			long position = 0;
+			while (position < size) {
+				block.clear();
+				int read = channel.read(block, position);
+				if (read <= 0) {
+					break;
+				}
+				for (int i = 0; i < read; i++) {
+					byte b = block.get(i);
+					if (b == '\n') {
+						return '\n';
+					}
+					if (b == '\r') {
+						if (i + 1 < read) {
+							return block.get(i + 1) == '\n' ? (byte) '\n' : (byte) '\r';
+						}
+						ByteBuffer next = ByteBuffer.allocate(1);
+						return channel.read(next, position + read) == 1 && next.get(0) == '\n' ? (byte) '\n' : (byte) '\r';
+					}
+				}
+				position += read;
+			}
+		}
+		return RecordBoundaries.lineTerminator(settings.getFormat().getLineSeparator());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected AbstractParser<TsvParserSettings> newParser(TsvParserSettings settings) {
+		return new TsvParser(settings);
+	}
+
+	private String[] readHeaders(FileChannel channel, Charset charset, long start, long end) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate((int) (end - start));
+		while (header.hasRemaining() && channel.read(header, start + header.position()) > 0) ;
+		header.flip();
+
+		TsvParserSettings headerSettings = new TsvParserSettings();
+		headerSettings.setFormat(settings.getFormat());
+		headerSettings.setIgnoreLeadingWhitespaces(settings.getIgnoreLeadingWhitespaces());
+		headerSettings.setIgnoreTrailingWhitespaces(settings.getIgnoreTrailingWhitespaces());
+		headerSettings.setLineSeparatorDetectionEnabled(settings.isLineSeparatorDetectionEnabled());
+		return new TsvParser(headerSettings).parseLine(charset.decode(header).toString());
+	}
+}
@@ -36,6 +36,14 @@ public class TsvParser extends AbstractParser<TsvParserSettings> {
 	private final char newLine;
 	private final char escapeChar;
 
+	//points where parsing can be resumed when the input fed to the parser runs out
+	private static final byte AT_RECORD_START = 0;
+	private static final byte AT_FIELD = 1;
+	private static final byte AT_DELIMITER = 2;
+	private static final byte IN_VALUE = 3;
+	private static final byte AFTER_ESCAPE = 4;
+	private byte resumeAt;
+
 	/**
 	 * The TsvParser supports all settings provided by {@link TsvParserSettings}, and requires this configuration to be properly initialized.
 	 * @param settings the parser configuration
@@ -48,6 +56,10 @@ public class TsvParser extends AbstractParser<TsvParserSettings> {
 		TsvFormat format = settings.getFormat();
 		newLine = format.getNormalizedNewline();
 		escapeChar = settings.getFormat().getEscapeChar();
+
+		if (settings.isStructuralIndexEnabled()) {
+			input.indexStructuralCharacters('\t', escapeChar);
+		}
 	}
 
 	/**
@@ -56,81 +68,133 @@ public class TsvParser extends AbstractParser<TsvParserSettings> {
 	@Override
 	protected void parseRecord() {
 		if (ignoreLeadingWhitespace && ch != '\t' && ch <= ' ') {
+			resumeAt = AT_RECORD_START;
 			skipWhitespace();
 		}
+		parseFields();
+	}
 
-		while (ch != newLine) {
-			parseField();
-			if (ch != newLine) {
-				ch = input.nextChar();
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void resumeRecord() {
+		ch = input.nextChar();
+		switch (resumeAt) {
+			case AT_RECORD_START:
+				parseRecord();
+				return;
+			case AT_FIELD:
+				parseField();
+				break;
+			case AT_DELIMITER:
 				if (ch == newLine) {
 					output.emptyParsed();
 				}
+				parseFields();
+				return;
+			case AFTER_ESCAPE:
+				if (appendEscaped()) {
+					resumeAt = IN_VALUE;
+					ch = input.nextChar();
+				}
+				parseValue();
+				break;
+			case IN_VALUE:
+				parseValue();
+				break;
+		}
+		skipDelimiter();
+		parseFields();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p> A value cut short by the end of the input never reaches the end of {@link #parseValue()}, so its trailing whitespace is identified here.
+	 */
+	@Override
+	protected void completeRecordAtEOF() {
+		if (ignoreTrailingWhitespace) {
+			output.appender.updateWhitespace();
+		}
+	}
+
+	private void parseFields() {
+		while (ch != newLine) {
+			parseField();
+			skipDelimiter();
+		}
+	}
+
+	private void skipDelimiter() {
+		if (ch != newLine) {
+			resumeAt = AT_DELIMITER;
+			ch = input.nextChar();
+			if (ch == newLine) {
+				output.emptyParsed();
 			}
 		}
 	}
 
 	private void parseField() {
 		if (ignoreLeadingWhitespace && ch != '\t' && ch <= ' ') {
+			resumeAt = AT_FIELD;
 			skipWhitespace();
 		}
 
 		if (ch == '\t') {
 			output.emptyParsed();
 		} else {
-			if (ignoreTrailingWhitespace) {
-				while (ch != '\t' && ch != newLine) {
-					if (ch == escapeChar) {
-						ch = input.nextChar();
-						if (ch == 't') {
-							output.appender.appendIgnoringWhitespace('\t');
-						} else if (ch == 'n') {
-							output.appender.appendIgnoringWhitespace('\n');
-						} else if (ch == '\\') {
-							output.appender.appendIgnoringWhitespace('\\');
-						} else if (ch == 'r') {
-							output.appender.appendIgnoringWhitespace('\r');
-						} else {
-							output.appender.append(escapeChar);
-							if (ch == newLine || ch == '\t') {
-								break;
-							}
-							output.appender.appendIgnoringWhitespace(ch);
-						}
-						ch = input.nextChar();
-					} else {
-						output.appender.appendIgnoringWhitespace(ch);
-						ch = input.nextChar();
-					}
+			parseValue();
+		}
+	}
+
+	/**
+	 * Parses a value, copying runs of characters without escape sequences in bulk with {@link com.univocity.parsers.common.input.CharInputReader#appendUntil(char, com.univocity.parsers.common.input.CharAppender, char, char)}.
+	 * Characters are only handled one by one after an escape character is found. Trailing whitespace is identified once the whole value is read.
+	 */
+	private void parseValue() {
+		resumeAt = IN_VALUE;
+		while (ch != '\t' && ch != newLine) {
+			if (ch == escapeChar) {
+				resumeAt = AFTER_ESCAPE;
+				ch = input.nextChar();
+				if (!appendEscaped()) {
+					break;
 				}
+				resumeAt = IN_VALUE;
+				ch = input.nextChar();
 			} else {
-				while (ch != '\t' && ch != newLine) {
-					if (ch == escapeChar) {
-						ch = input.nextChar();
-						if (ch == 't') {
-							output.appender.append('\t');
-						} else if (ch == 'n') {
-							output.appender.append('\n');
-						} else if (ch == '\\') {
-							output.appender.append('\\');
-						} else if (ch == 'r') {
-							output.appender.append('\r');
-						} else {
-							output.appender.append(escapeChar);
-							if (ch == newLine || ch == '\t') {
-								break;
-							}
-							output.appender.append(ch);
-						}
-						ch = input.nextChar();
-					} else {
-						output.appender.append(ch);
-						ch = input.nextChar();
-					}
-				}
+				ch = input.appendUntil(ch, output.appender, '\t', escapeChar);
+			}
+		}
+		if (ignoreTrailingWhitespace) {
+			output.appender.updateWhitespace();
+		}
+		output.valueParsed();
+	}
+
+	/**
+	 * Appends the character represented by the escape sequence formed by the escape character and the current character.
+	 * @return false if the escape character is followed by the end of the value, true otherwise.
+	 */
+	private boolean appendEscaped() {
+		if (ch == 't') {
+			output.appender.append('\t');
+		} else if (ch == 'n') {
+			output.appender.append('\n');
+		} else if (ch == '\\') {
+			output.appender.append('\\');
+		} else if (ch == 'r') {
+			output.appender.append('\r');
+		} else {
+			output.appender.append(escapeChar);
+			if (ch == newLine || ch == '\t') {
+				return false;
 			}
-			output.valueParsed();
+			output.appender.append(ch);
 		}
+		return true;
 	}
 
 	private void skipWhitespace() {
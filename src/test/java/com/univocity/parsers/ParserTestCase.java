@@ -20,6 +20,7 @@ import static org.testng.Assert.*;
 import java.io.*;
 import java.util.*;
 
+import com.univocity.parsers.common.*;
 import com.univocity.parsers.common.processor.*;
 import com.univocity.parsers.csv.*;
 
@@ -53,4 +54,41 @@ public abstract class ParserTestCase {
 	public void assertHeadersAndValuesMatch(String[] expectedHeaders, Object[][] expectedResult) {
 		assertHeadersAndValuesMatch(processor, expectedHeaders, expectedResult);
 	}
+
+	/**
+	 * Collects each row parsed along with the line and character reported by the parsing context when the row is processed.
+	 */
+	public static class RowPositionProcessor extends AbstractRowProcessor {
+		public final List<String> rows = new ArrayList<String>();
+
+		@Override
+		public void processStarted(ParsingContext context) {
+			rows.clear();
+		}
+
+		@Override
+		public void rowProcessed(String[] row, ParsingContext context) {
+			rows.add(Arrays.toString(row) + " at line " + context.currentLine() + ", char " + context.currentChar());
+		}
+	}
+
+	/**
+	 * Parses the input with a {@link Reader}, then feeds it to the same parser in chunks of the given size, and checks the rows and their positions are the same.
+	 * @param parser a parser that sends its rows to the given processor.
+	 * @param processor the processor of the rows parsed.
+	 * @param input the input to parse.
+	 * @param chunkSize the number of characters of each chunk fed to the parser.
+	 */
+	public void assertFedRowsMatch(AbstractParser<?> parser, RowPositionProcessor processor, String input, int chunkSize) {
+		parser.parse(new StringReader(input));
+		List<String> expected = new ArrayList<String>(processor.rows);
+
+		char[] chars = input.toCharArray();
+		parser.beginFeeding();
+		for (int i = 0; i < chars.length; i += chunkSize) {
+			parser.feed(chars, i, Math.min(chunkSize, chars.length - i));
+		}
+		parser.endOfInput();
+		assertEquals(processor.rows, expected);
+	}
 }
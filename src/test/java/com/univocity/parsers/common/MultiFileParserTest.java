@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common;
+
+import static org.testng.Assert.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
+
+import org.testng.annotations.*;
+
+import com.univocity.parsers.common.processor.*;
+import com.univocity.parsers.csv.*;
+
+public class MultiFileParserTest {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private File directory;
+
+	@BeforeClass
+	public void createFiles() throws IOException {
+		directory = File.createTempFile("multi-file", "");
+		directory.delete();
+		directory.mkdir();
+		directory.deleteOnExit();
+
+		for (int i = 0; i < 20; i++) {
+			StringBuilder out = new StringBuilder("id,file,value\n");
+			for (int j = 0; j < 100; j++) {
+				out.append(j).append(',').append(i).append(",v").append(j).append('\n');
+			}
+			write("part-" + (i < 10 ? "0" : "") + i + ".csv", out.toString(), i % 2 == 1);
+		}
+		write("other.csv", "value,extra\na,b\n", false);
+	}
+
+	private File write(String name, String content, boolean gzip) throws IOException {
+		File file = new File(directory, name);
+		file.deleteOnExit();
+		OutputStream out = new FileOutputStream(file);
+		if (gzip) {
+			out = new GZIPOutputStream(out);
+		}
+		try {
+			out.write(content.getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+
+	private MultiFileParser<CsvParserSettings> newParser(CsvParserSettings settings, int threads) {
+		settings.getFormat().setLineSeparator("\n");
+		settings.setHeaderExtractionEnabled(true);
+		return new MultiFileParser<CsvParserSettings>(settings, threads) {
+			@Override
+			protected AbstractParser<CsvParserSettings> newParser(CsvParserSettings settings) {
+				return new CsvParser(settings);
+			}
+		};
+	}
+
+	@Test
+	public void testListFiles() {
+		List<File> files = MultiFileParser.listFiles(directory, "part-?5.csv");
+		assertEquals(files.size(), 2);
+		assertEquals(files.get(0).getName(), "part-05.csv");
+		assertEquals(files.get(1).getName(), "part-15.csv");
+		assertEquals(MultiFileParser.listFiles(directory, "*.csv").size(), 21);
+	}
+
+	@Test
+	public void testSharedProcessor() {
+		final Map<String, Integer> recordsPerFile = new ConcurrentHashMap<String, Integer>();
+		final int[] events = new int[2];
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.setRowProcessor(new RowProcessor() {
+			@Override
+			public synchronized void processStarted(ParsingContext context) {
+				events[0]++;
+			}
+
+			@Override
+			public synchronized void rowProcessed(String[] row, ParsingContext context) {
+				FileParsingContext fileContext = (FileParsingContext) context;
+				assertEquals(row[1], String.valueOf(fileContext.currentFileIndex()));
+				assertTrue(fileContext.currentFile().getName().startsWith("part-"));
+				assertEquals(context.headers(), new String[]{"id", "file", "value"});
+
+				String name = fileContext.currentFile().getName();
+				Integer count = recordsPerFile.get(name);
+				recordsPerFile.put(name, count == null ? 1 : count + 1);
+			}
+
+			@Override
+			public synchronized void processEnded(ParsingContext context) {
+				events[1]++;
+			}
+		});
+
+		newParser(settings, 4).parse(directory, "part-*.csv", UTF_8);
+
+		assertEquals(events, new int[]{1, 1});
+		assertEquals(recordsPerFile.size(), 20);
+		for (Integer count : recordsPerFile.values()) {
+			assertEquals(count.intValue(), 100);
+		}
+	}
+
+	@Test
+	public void testProcessorPerFile() {
+		final List<RowListProcessor> processors = Collections.synchronizedList(new ArrayList<RowListProcessor>());
+		CsvParserSettings settings = new CsvParserSettings();
+		MultiFileParser<CsvParserSettings> parser = new MultiFileParser<CsvParserSettings>(settings, 3) {
+			@Override
+			protected AbstractParser<CsvParserSettings> newParser(CsvParserSettings settings) {
+				return new CsvParser(settings);
+			}
+
+			@Override
+			protected RowProcessor newRowProcessor(File file) {
+				RowListProcessor processor = new RowListProcessor();
+				processors.add(processor);
+				return processor;
+			}
+		};
+		settings.getFormat().setLineSeparator("\n");
+		settings.setHeaderExtractionEnabled(true);
+
+		parser.parse(MultiFileParser.listFiles(directory, "part-*.csv"), UTF_8);
+
+		assertEquals(processors.size(), 20);
+		for (RowListProcessor processor : processors) {
+			assertEquals(processor.getRows().size(), 100);
+			assertEquals(processor.getHeaders(), new String[]{"id", "file", "value"});
+		}
+	}
+
+	@Test
+	public void testHeaderValidation() {
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.setRowProcessor(new RowListProcessor());
+		try {
+			newParser(settings, 2).parse(directory, "*.csv", UTF_8);
+			fail("Expecting headers of files to be rejected");
+		} catch (TextParsingException ex) {
+			assertTrue(ex.getCause().getMessage().startsWith("Headers of file"));
+			assertTrue(ex.getCause().getMessage().endsWith("do not match the expected headers [value, extra]"));
+		}
+	}
+
+	@Test
+	public void testHeaderOnlyFileValidation() throws IOException {
+		File matching = write("headers-only.txt", "id,file,value\n", false);
+		File different = write("other-headers-only.txt", "value,extra\n", true);
+
+		RowListProcessor processor = new RowListProcessor();
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.setRowProcessor(processor);
+		newParser(settings, 2).parse(Arrays.asList(new File(directory, "part-00.csv"), matching), UTF_8);
+		assertEquals(processor.getRows().size(), 100);
+
+		try {
+			newParser(settings, 2).parse(Arrays.asList(new File(directory, "part-00.csv"), different), UTF_8);
+			fail("Expecting headers of file with no records to be rejected");
+		} catch (TextParsingException ex) {
+			assertTrue(ex.getCause().getMessage().startsWith("Headers of file"));
+			assertTrue(ex.getCause().getMessage().endsWith("do not match the expected headers [id, file, value]"));
+		}
+	}
+
+	@Test
+	public void testHeaderMerging() {
+		final List<String[]> rows = Collections.synchronizedList(new ArrayList<String[]>());
+		final List<String[]> headers = Collections.synchronizedList(new ArrayList<String[]>());
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.setRowProcessor(new RowListProcessor() {
+			@Override
+			public void rowProcessed(String[] row, ParsingContext context) {
+				rows.add(row);
+				headers.add(context.headers());
+			}
+		});
+		MultiFileParser<CsvParserSettings> parser = newParser(settings, 2);
+		parser.setHeaderMergingEnabled(true);
+
+		parser.parse(Arrays.asList(new File(directory, "part-00.csv"), new File(directory, "other.csv")), UTF_8);
+
+		assertEquals(rows.size(), 101);
+		for (int i = 0; i < rows.size(); i++) {
+			assertEquals(headers.get(i), new String[]{"id", "file", "value", "extra"});
+			String[] row = rows.get(i);
+			if (row[0] == null) {
+				assertEquals(row, new String[]{null, null, "a", "b"});
+			} else {
+				assertEquals(row, new String[]{row[0], "0", "v" + row[0], null});
+			}
+		}
+	}
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.input;
+
+import static org.testng.Assert.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+
+import org.testng.annotations.*;
+
+public class ByteChannelReaderTest {
+
+	private static final String TEXT = "plain ascii,áéíóú,€100,😀 and more ascii text\n";
+
+	private String readAll(Reader reader, int chunk) throws IOException {
+		StringBuilder out = new StringBuilder();
+		char[] tmp = new char[chunk];
+		int read;
+		while ((read = reader.read(tmp, 0, chunk)) != -1) {
+			out.append(tmp, 0, read);
+		}
+		reader.close();
+		return out.toString();
+	}
+
+	@DataProvider
+	public Object[][] charsets() {
+		return new Object[][] { { "UTF-8" }, { "ISO-8859-1" }, { "UTF-16LE" }, { "windows-1252" } };
+	}
+
+	@Test(dataProvider = "charsets")
+	public void testReadFromChannel(String charsetName) throws IOException {
+		Charset charset = Charset.forName(charsetName);
+		String text = new String(TEXT.getBytes(charset), charset);
+		for (int i = 0; i < 5; i++) {
+			text = text + text;
+		}
+		byte[] bytes = text.getBytes(charset);
+
+		for (int bufferSize : new int[] { 16, 17, 100, 8192 }) {
+			for (int chunk : new int[] { 1, 2, 7, 1024 }) {
+				ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(bytes));
+				assertEquals(readAll(new ByteChannelReader(channel, charset, bufferSize), chunk), text);
+			}
+		}
+	}
+
+	@Test(dataProvider = "charsets")
+	public void testReadFromBuffer(String charsetName) throws IOException {
+		Charset charset = Charset.forName(charsetName);
+		String text = new String(TEXT.getBytes(charset), charset);
+		byte[] bytes = text.getBytes(charset);
+
+		ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+		direct.put(bytes);
+		direct.flip();
+
+		assertEquals(readAll(new ByteChannelReader(direct, charset), 5), text);
+		assertEquals(readAll(new ByteChannelReader(ByteBuffer.wrap(bytes), charset), 1000), text);
+		assertEquals(direct.position(), 0);
+	}
+
+	@Test
+	public void testMalformedInputIsReplaced() throws IOException {
+		byte[] bytes = new byte[] { 'a', (byte) 0xC3 };
+		assertEquals(readAll(new ByteChannelReader(ByteBuffer.wrap(bytes), Charset.forName("UTF-8")), 10), "a�");
+	}
+}
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.input;
+
+import static org.testng.Assert.*;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.util.*;
+
+import org.testng.annotations.*;
+
+public class RecordBoundariesTest {
+
+	private File file;
+	private RandomAccessFile randomAccessFile;
+	private FileChannel channel;
+
+	@BeforeClass
+	public void createFile() throws IOException {
+		file = File.createTempFile("boundaries", ".txt");
+		file.deleteOnExit();
+		Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			out.write("aaaa\r\nbb\r\ncccccc\r\nd\r\n");
+		} finally {
+			out.close();
+		}
+		randomAccessFile = new RandomAccessFile(file, "r");
+		channel = randomAccessFile.getChannel();
+	}
+
+	@AfterClass
+	public void closeFile() throws IOException {
+		randomAccessFile.close();
+	}
+
+	@Test
+	public void testNextRecordStart() throws IOException {
+		long size = channel.size();
+		assertEquals(RecordBoundaries.nextRecordStart(channel, 0, size, (byte) '\n'), 0);
+		assertEquals(RecordBoundaries.nextRecordStart(channel, 1, size, (byte) '\n'), 6);
+		assertEquals(RecordBoundaries.nextRecordStart(channel, 6, size, (byte) '\n'), 6);
+		assertEquals(RecordBoundaries.nextRecordStart(channel, 7, size, (byte) '\n'), 10);
+		assertEquals(RecordBoundaries.nextRecordStart(channel, 19, size, (byte) '\n'), 21);
+		assertEquals(RecordBoundaries.nextRecordStart(channel, 7, 9, (byte) '\n'), 9);
+	}
+
+	@Test
+	public void testSplit() throws IOException {
+		long size = channel.size();
+		assertEquals(Arrays.toString(RecordBoundaries.split(channel, 0, size, 2, (byte) '\n')), "[0, 10, 21]");
+		assertEquals(Arrays.toString(RecordBoundaries.split(channel, 0, size, 1, (byte) '\n')), "[0, 21]");
+		assertEquals(Arrays.toString(RecordBoundaries.split(channel, 0, size, 20, (byte) '\n')), "[0, 6, 10, 18, 21]");
+	}
+
+	@Test
+	public void testReadSegment() throws IOException {
+		Reader reader = new InputStreamReader(new FileSegmentInputStream(channel, 6, 18), "UTF-8");
+		StringBuilder out = new StringBuilder();
+		int ch;
+		while ((ch = reader.read()) != -1) {
+			out.append((char) ch);
+		}
+		assertEquals(out.toString(), "bb\r\ncccccc\r\n");
+	}
+}
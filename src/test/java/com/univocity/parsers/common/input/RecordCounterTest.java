@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.input;
+
+import static org.testng.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.testng.annotations.*;
+
+import com.univocity.parsers.csv.*;
+
+public class RecordCounterTest {
+
+	private File createFile(String content) throws IOException {
+		File file = File.createTempFile("record-counter", ".csv");
+		file.deleteOnExit();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			writer.write(content);
+		} finally {
+			writer.close();
+		}
+		return file;
+	}
+
+	private String createCsv(int records, String lineSeparator, boolean trailingSeparator) {
+		Random random = new Random(records);
+		StringBuilder out = new StringBuilder();
+		for (int i = 0; i < records; i++) {
+			out.append(i).append(',');
+			switch (random.nextInt(5)) {
+				case 0:
+					out.append("\"multi").append(lineSeparator).append("line\"");
+					break;
+				case 1:
+					out.append("\"with \"\"quotes\"\" and ").append(lineSeparator).append(lineSeparator).append("\"");
+					break;
+				case 2:
+					out.append("\"\"");
+					break;
+				default:
+					out.append("plain value ").append(random.nextInt());
+			}
+			out.append(",ação");
+			if (i < records - 1 || trailingSeparator) {
+				out.append(lineSeparator);
+			}
+		}
+		return out.toString();
+	}
+
+	@DataProvider
+	public Object[][] files() {
+		return new Object[][]{
+				{1, "\n", true, 1},
+				{1, "\r\n", false, 3},
+				{7, "\n", false, 2},
+				{5000, "\n", true, 4},
+				{5000, "\r\n", false, 3},
+				{60000, "\r", true, 8},
+		};
+	}
+
+	@Test(dataProvider = "files")
+	public void testCountRecords(int records, String lineSeparator, boolean trailingSeparator, int threads) throws IOException {
+		String content = createCsv(records, lineSeparator, trailingSeparator);
+		File file = createFile(content);
+
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.getFormat().setLineSeparator(lineSeparator);
+		assertEquals(new CsvParser(settings).parseAll(new StringReader(content)).size(), records);
+
+		assertEquals(RecordCounter.countRecords(file, lineSeparator.toCharArray(), '"', '"', threads), records);
+		assertEquals(RecordCounter.countLines(file, lineSeparator.toCharArray(), threads), content.split(lineSeparator, -1).length - (trailingSeparator ? 1 : 0));
+	}
+
+	@Test
+	public void testQuotesAcrossChunks() throws IOException {
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 3; i++) {
+			content.append("a,\"");
+			for (int j = 0; j < 1000000; j++) {
+				content.append(j % 10 == 0 ? '\n' : 'x');
+			}
+			content.append("\"\n");
+		}
+		File file = createFile(content.toString());
+		for (int threads = 1; threads <= 5; threads++) {
+			assertEquals(RecordCounter.countRecords(file, new char[]{'\n'}, '"', '"', threads), 3);
+			assertEquals(RecordCounter.countLines(file, new char[]{'\n'}, threads), 300003);
+		}
+	}
+
+	@Test
+	public void testEscapedQuotes() throws IOException {
+		File file = createFile("a,'it\\'s\nquoted'\nb,'\\\\'\nc,'open\n");
+		assertEquals(RecordCounter.countRecords(file, new char[]{'\n'}, '\'', '\\', 2), 3);
+		assertEquals(RecordCounter.countLines(file, new char[]{'\n'}, 2), 4);
+	}
+
+	@Test
+	public void testEmptyFile() throws IOException {
+		File file = createFile("");
+		assertEquals(RecordCounter.countRecords(file, new char[]{'\n'}, '"', '"', 2), 0);
+		assertEquals(RecordCounter.countLines(file, new char[]{'\n'}, 2), 0);
+	}
+}
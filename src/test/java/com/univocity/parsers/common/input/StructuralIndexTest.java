@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.input;
+
+import static org.testng.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.testng.annotations.*;
+
+import com.univocity.parsers.common.processor.*;
+import com.univocity.parsers.csv.*;
+import com.univocity.parsers.tsv.*;
+
+public class StructuralIndexTest {
+
+	private static final char[] ALPHABET = "abc ,\"\\\t\r\nçĬ¬‬".toCharArray();
+
+	private String randomInput(Random random, int length) {
+		StringBuilder out = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			// mostly regular characters, so runs of different lengths are formed
+			if (random.nextInt(8) == 0) {
+				out.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+			} else {
+				out.append((char) ('a' + random.nextInt(26)));
+			}
+		}
+		return out.toString();
+	}
+
+	@Test
+	public void findNextStructuralCharacter() {
+		Random random = new Random(42);
+		char[] buffer = randomInput(random, 10000).toCharArray();
+
+		StructuralIndex index = new ScalarStructuralIndex(',', '"', 'ç');
+		assertTrue(index.reset(buffer, 7, buffer.length - 3, '\n', '\n'));
+		assertTrue(index.covers(','));
+		assertFalse(index.covers('ç'));
+		assertFalse(index.covers('\t'));
+
+		int expected = -1;
+		for (int from = 7; from < buffer.length - 3; from++) {
+			if (expected < from) {
+				expected = from;
+				while (expected < buffer.length - 3 && "\",\r\n".indexOf(buffer[expected]) == -1) {
+					expected++;
+				}
+			}
+			assertEquals(index.next(from), expected, "Position " + from);
+		}
+		assertEquals(index.next(buffer.length - 3), buffer.length - 3);
+
+		assertFalse(index.reset(buffer, 0, buffer.length, ' ', '\n'));
+	}
+
+	@DataProvider
+	public Object[][] bufferSizes() {
+		return new Object[][] { { 7 }, { 100 }, { 65536 } };
+	}
+
+	@Test(dataProvider = "bufferSizes")
+	public void parseCsvWithIndex(int bufferSize) {
+		String input = randomInput(new Random(bufferSize), 20000).replace("\"", "");
+		input = input + "\n\"quoted, value\"\"\",   trailing   \n";
+
+		for (boolean ignoreTrailing : new boolean[] { true, false }) {
+			CsvParserSettings settings = new CsvParserSettings();
+			settings.getFormat().setLineSeparator("\n");
+			settings.setReadInputOnSeparateThread(false);
+			settings.setInputBufferSize(bufferSize);
+			settings.setIgnoreTrailingWhitespaces(ignoreTrailing);
+			List<String[]> expected = new CsvParser(settings).parseAll(new StringReader(input));
+
+			settings.setStructuralIndexEnabled(true);
+			List<String[]> actual = new CsvParser(settings).parseAll(new StringReader(input));
+
+			assertEquals(actual.size(), expected.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(actual.get(i), expected.get(i));
+			}
+			String trailing = ignoreTrailing ? "trailing" : "trailing   ";
+			assertEquals(actual.get(actual.size() - 1), new String[] { "quoted, value\"", trailing });
+		}
+	}
+
+	@Test(dataProvider = "bufferSizes")
+	public void parseTsvWithIndex(int bufferSize) {
+		String input = randomInput(new Random(bufferSize), 20000);
+
+		TsvParserSettings settings = new TsvParserSettings();
+		settings.setLineSeparatorDetectionEnabled(true);
+		settings.setReadInputOnSeparateThread(false);
+		settings.setInputBufferSize(bufferSize);
+		List<String[]> expected = new TsvParser(settings).parseAll(new StringReader(input));
+
+		settings.setStructuralIndexEnabled(true);
+		List<String[]> actual = new TsvParser(settings).parseAll(new StringReader(input));
+
+		assertEquals(actual.size(), expected.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(actual.get(i), expected.get(i));
+		}
+	}
+
+	@Test
+	public void newInstanceFallsBackToScalarIndex() {
+		assertTrue(StructuralIndex.newInstance(',', '"') instanceof ScalarStructuralIndex);
+	}
+
+	private List<String[]> feedCsv(CsvParserSettings settings, String input, int chunkSize) {
+		RowListProcessor processor = new RowListProcessor();
+		settings.setRowProcessor(processor);
+		CsvParser parser = new CsvParser(settings);
+		parser.beginFeeding();
+		for (int i = 0; i < input.length(); i += chunkSize) {
+			char[] chunk = input.substring(i, Math.min(i + chunkSize, input.length())).toCharArray();
+			parser.feed(chunk, 0, chunk.length);
+		}
+		parser.endOfInput();
+		return processor.getRows();
+	}
+
+	@Test
+	public void feedCsvWithIndex() {
+		String input = randomInput(new Random(1), 5000).replace("\"", "") + "\nlast, value   ";
+
+		for (int chunkSize : new int[] { 1, 3, 64, 5000 }) {
+			CsvParserSettings settings = new CsvParserSettings();
+			settings.getFormat().setLineSeparator("\n");
+			List<String[]> expected = feedCsv(settings, input, chunkSize);
+
+			settings.setStructuralIndexEnabled(true);
+			List<String[]> actual = feedCsv(settings, input, chunkSize);
+
+			assertEquals(actual.size(), expected.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(actual.get(i), expected.get(i));
+			}
+			assertEquals(actual.get(actual.size() - 1), new String[] { "last", "value" });
+		}
+	}
+}
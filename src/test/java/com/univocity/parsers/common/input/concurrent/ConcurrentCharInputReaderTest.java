@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.input.concurrent;
+
+import static org.testng.Assert.*;
+
+import java.io.StringReader;
+
+import org.testng.annotations.*;
+
+import com.univocity.parsers.common.input.*;
+
+public class ConcurrentCharInputReaderTest {
+
+	private String readAll(ConcurrentCharInputReader reader, String input) {
+		reader.start(new StringReader(input));
+		StringBuilder out = new StringBuilder();
+		try {
+			while (true) {
+				out.append(reader.nextChar());
+			}
+		} catch (EOFException ex) {
+			//pass
+		}
+		return out.toString();
+	}
+
+	@DataProvider
+	public Object[][] bucketSizes() {
+		return new Object[][]{{1}, {2}, {3}, {1024}};
+	}
+
+	@Test(dataProvider = "bucketSizes")
+	public void testNormalizationOnReadingThread(int bucketSize) {
+		String input = "a\r\nbc\r\r\n\rd\ne\r\n";
+
+		ConcurrentCharInputReader reader = new ConcurrentCharInputReader("\r\n".toCharArray(), '\n', bucketSize, 2, true);
+		assertEquals(readAll(reader, input), "a\nbc\r\n\rd\ne\n");
+		assertEquals(reader.lineCount(), 4);
+
+		reader = new ConcurrentCharInputReader("\r".toCharArray(), '\n', bucketSize, 2, true);
+		assertEquals(readAll(reader, "a\rb\r"), "a\nb\n");
+		assertEquals(reader.lineCount(), 2);
+
+		reader = new ConcurrentCharInputReader('\n', bucketSize, 2, true);
+		assertEquals(readAll(reader, "ab\r\ncd\r\n\r\n"), "ab\ncd\n\n");
+		assertEquals(reader.lineCount(), 3);
+
+		reader = new ConcurrentCharInputReader("\r\n".toCharArray(), '\n', bucketSize, 2, true);
+		assertEquals(readAll(reader, "a\r"), "a\r");
+	}
+
+	@Test(dataProvider = "bucketSizes")
+	public void testSameOutputWithAndWithoutNormalizationOnReadingThread(int bucketSize) {
+		String input = "x\r\ny\r\n\r\nz\rw\r\n";
+		ConcurrentCharInputReader inParserThread = new ConcurrentCharInputReader("\r\n".toCharArray(), '\n', bucketSize, 2, false);
+		ConcurrentCharInputReader inReadingThread = new ConcurrentCharInputReader("\r\n".toCharArray(), '\n', bucketSize, 2, true);
+
+		assertEquals(readAll(inReadingThread, input), readAll(inParserThread, input));
+		assertEquals(inReadingThread.lineCount(), inParserThread.lineCount());
+	}
+}
@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.input.concurrent;
+
+import static org.testng.Assert.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.testng.annotations.*;
+
+import com.univocity.parsers.common.processor.*;
+import com.univocity.parsers.csv.*;
+
+public class ConcurrentGzipInputStreamTest {
+
+	private byte[] content;
+
+	@BeforeClass
+	public void createContent() throws IOException {
+		StringBuilder out = new StringBuilder();
+		Random random = new Random(42);
+		for (int i = 0; i < 20000; i++) {
+			out.append(i).append(",\"").append(Long.toHexString(random.nextLong())).append("\",").append(random.nextInt(1000)).append('\n');
+		}
+		content = out.toString().getBytes("UTF-8");
+	}
+
+	private byte[] gzip(byte[] bytes, int from, int to) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		GZIPOutputStream gzip = new GZIPOutputStream(out);
+		gzip.write(bytes, from, to - from);
+		gzip.close();
+		return out.toByteArray();
+	}
+
+	private byte[] gzipMembers(int members) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		int memberSize = content.length / members + 1;
+		for (int from = 0; from < content.length; from += memberSize) {
+			out.write(gzip(content, from, Math.min(from + memberSize, content.length)));
+		}
+		return out.toByteArray();
+	}
+
+	private File toFile(byte[] bytes) throws IOException {
+		File file = File.createTempFile("gzip-test", ".csv.gz");
+		file.deleteOnExit();
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(bytes);
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+
+	private byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1000];
+		try {
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+		} finally {
+			in.close();
+		}
+		return out.toByteArray();
+	}
+
+	@DataProvider
+	public Object[][] members() {
+		return new Object[][]{{1, 1}, {1, 4}, {3, 1}, {3, 2}, {16, 4}, {50, 8}};
+	}
+
+	@Test(dataProvider = "members")
+	public void testDecompressFile(int members, int threads) throws IOException {
+		File file = toFile(gzipMembers(members));
+		assertTrue(Arrays.equals(readAll(new ConcurrentGzipInputStream(file, threads)), content));
+	}
+
+	@Test(dataProvider = "members")
+	public void testDecompressStream(int members, int threads) throws IOException {
+		InputStream in = new ByteArrayInputStream(gzipMembers(members));
+		assertTrue(Arrays.equals(readAll(new ConcurrentGzipInputStream(in)), content));
+	}
+
+	@Test
+	public void testTrailingDataIgnored() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(gzipMembers(4));
+		out.write(new byte[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0});
+		File file = toFile(out.toByteArray());
+
+		assertTrue(Arrays.equals(readAll(new ConcurrentGzipInputStream(file, 3)), content));
+		assertTrue(Arrays.equals(readAll(new ConcurrentGzipInputStream(new ByteArrayInputStream(out.toByteArray()))), content));
+	}
+
+	@Test(expectedExceptions = ZipException.class)
+	public void testCorruptedMember() throws IOException {
+		byte[] bytes = gzipMembers(2);
+		bytes[bytes.length - 5] ^= 1; //the size of the last member
+		readAll(new ConcurrentGzipInputStream(toFile(bytes), 2));
+	}
+
+	@Test(expectedExceptions = ZipException.class)
+	public void testNotGzip() throws IOException {
+		readAll(new ConcurrentGzipInputStream(toFile(content), 2));
+	}
+
+	private int decompressionThreads() throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		int alive;
+		do {
+			alive = 0;
+			for (Thread thread : Thread.getAllStackTraces().keySet()) {
+				if (thread.isAlive() && "gzip decompression thread".equals(thread.getName())) {
+					alive++;
+				}
+			}
+			if (alive > 0) {
+				Thread.sleep(10);
+			}
+		} while (alive > 0 && System.currentTimeMillis() < deadline);
+		return alive;
+	}
+
+	@Test
+	public void testCloseHalfReadStream() throws Exception {
+		// members whose output is larger than the chunks each decompression thread can queue
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (int i = 0; i < 18; i++) {
+			out.write(content);
+		}
+		byte[] large = out.toByteArray();
+		out.reset();
+		for (int i = 0; i < 6; i++) {
+			out.write(gzip(large, large.length / 6 * i, large.length / 6 * (i + 1)));
+		}
+		byte[] compressed = out.toByteArray();
+		byte[] buffer = new byte[1000];
+
+		InputStream in = new ConcurrentGzipInputStream(toFile(compressed), 4);
+		assertEquals(in.read(buffer), 1000);
+		Thread.sleep(200); // lets the decompression threads fill their queues
+		in.close();
+		assertEquals(decompressionThreads(), 0);
+
+		in = new ConcurrentGzipInputStream(new ByteArrayInputStream(compressed));
+		assertEquals(in.read(buffer), 1000);
+		Thread.sleep(200); // lets the decompression threads fill their queues
+		in.close();
+		assertEquals(decompressionThreads(), 0);
+	}
+
+	@Test
+	public void testParseGzipFile() throws IOException {
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setDecompressionThreads(4);
+		RowListProcessor processor = new RowListProcessor();
+		settings.setRowProcessor(processor);
+
+		new CsvParser(settings).parse(toFile(gzipMembers(10)), Charset.forName("UTF-8"));
+		List<String[]> rows = processor.getRows();
+		assertEquals(rows.size(), 20000);
+
+		processor = new RowListProcessor();
+		settings.setRowProcessor(processor);
+		new CsvParser(settings).parse(toFile(content), Charset.forName("UTF-8"));
+		assertEquals(processor.getRows().size(), 20000);
+		assertEquals(processor.getRows().get(19999), rows.get(19999));
+		assertEquals(rows.get(19999)[0], "19999");
+	}
+}
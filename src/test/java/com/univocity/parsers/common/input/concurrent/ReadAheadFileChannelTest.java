@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.input.concurrent;
+
+import static org.testng.Assert.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import org.testng.annotations.*;
+
+import com.univocity.parsers.csv.*;
+
+public class ReadAheadFileChannelTest {
+
+	private File file;
+	private byte[] content;
+
+	@BeforeClass
+	public void createFile() throws IOException {
+		StringBuilder out = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			out.append(i).append(",\"value ").append(i).append("\",").append(i * 2).append('\n');
+		}
+		content = out.toString().getBytes("UTF-8");
+
+		file = File.createTempFile("read-ahead", ".csv");
+		file.deleteOnExit();
+		FileOutputStream fos = new FileOutputStream(file);
+		try {
+			fos.write(content);
+		} finally {
+			fos.close();
+		}
+	}
+
+	@DataProvider
+	public Object[][] blocks() {
+		return new Object[][]{{1, 1}, {7, 3}, {100, 4}, {4096, 2}, {1 << 20, 8}};
+	}
+
+	@Test(dataProvider = "blocks")
+	public void testBlocksDeliveredInOrder(int blockSize, int queueDepth) throws IOException {
+		ReadAheadFileChannel channel = new ReadAheadFileChannel(file, blockSize, queueDepth);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ByteBuffer buffer = ByteBuffer.allocate(13);
+		try {
+			while (channel.read(buffer) != -1) {
+				out.write(buffer.array(), 0, buffer.position());
+				buffer.clear();
+			}
+		} finally {
+			channel.close();
+		}
+		assertFalse(channel.isOpen());
+		assertTrue(Arrays.equals(out.toByteArray(), content));
+	}
+
+	@Test
+	public void testParseWithReadAhead() throws IOException {
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.getFormat().setLineSeparator("\n");
+
+		CsvParser parser = new CsvParser(settings);
+		parser.beginParsing(new ReadAheadFileChannel(file, 512, 4), Charset.forName("UTF-8"));
+
+		List<String[]> rows = new ArrayList<String[]>();
+		String[] row;
+		while ((row = parser.parseNext()) != null) {
+			rows.add(row);
+		}
+
+		assertEquals(rows.size(), 1000);
+		assertEquals(rows.get(0), new String[]{"0", "value 0", "0"});
+		assertEquals(rows.get(999), new String[]{"999", "value 999", "1998"});
+	}
+}
@@ -18,6 +18,9 @@ package com.univocity.parsers.csv;
 import static org.testng.Assert.*;
 
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
 import java.util.*;
 
 import org.testng.annotations.*;
@@ -342,6 +345,76 @@ public class CsvParserTest extends ParserTestCase {
 
 	}
 
+	@DataProvider(name = "quoteRuns")
+	public Object[][] quoteRuns() {
+		return new Object[][] { { 1 }, { 2 }, { 7 }, { 1000 }, { 100000 } };
+	}
+
+	private String repeat(String content, int times) {
+		StringBuilder out = new StringBuilder(content.length() * times);
+		for (int i = 0; i < times; i++) {
+			out.append(content);
+		}
+		return out.toString();
+	}
+
+	private void assertUnescapedQuotesParsed(String input, String[]... expected) {
+		for (boolean ignoreWhitespace : new boolean[] { true, false }) {
+			CsvParserSettings settings = newCsvInputSettings(new char[] { '\n' });
+			settings.setParseUnescapedQuotes(true);
+			settings.setIgnoreLeadingWhitespaces(ignoreWhitespace);
+			settings.setIgnoreTrailingWhitespaces(ignoreWhitespace);
+			settings.setMaxCharsPerColumn(input.length());
+
+			List<String[]> rows = new CsvParser(settings).parseAll(new StringReader(input));
+			assertEquals(rows.size(), expected.length);
+			for (int i = 0; i < expected.length; i++) {
+				assertEquals(rows.get(i), expected[i]);
+			}
+		}
+	}
+
+	@Test(dataProvider = "quoteRuns")
+	public void parseLongRunsOfUnescapedQuotes(int n) {
+		String[] next = { "1", "2" };
+
+		assertUnescapedQuotesParsed("\"" + repeat("a\"", n) + ",b\n1,2\n", new String[] { repeat("a\"", n - 1) + "a", "b" }, next);
+		assertUnescapedQuotesParsed("\"" + repeat("\"a", n) + "\",b\n1,2\n", new String[] { repeat("\"a", n), "b" }, next);
+
+		//an odd number of quotes leaves the value open, so it takes the rest of the input.
+		assertUnescapedQuotesParsed("\"" + repeat("\"", 2 * n) + ",b\n1,2\n", new String[] { repeat("\"", n) + ",b\n1,2\n" });
+	}
+
+	@Test(dataProvider = "quoteRuns")
+	public void parseLongRunsOfEscapedQuotes(int n) {
+		String[] next = { "1", "2" };
+
+		assertUnescapedQuotesParsed("\"" + repeat("\"\"", n) + "\",b\n1,2\n", new String[] { repeat("\"", n), "b" }, next);
+		assertUnescapedQuotesParsed("\"" + repeat("a\"\"", n) + "\",b\n1,2\n", new String[] { repeat("a\"", n), "b" }, next);
+		assertUnescapedQuotesParsed("\"" + repeat("\"\"a", n) + "\",b\n1,2\n", new String[] { repeat("\"a", n), "b" }, next);
+	}
+
+	@Test(dataProvider = "quoteRuns")
+	public void parseContentAfterWhitespaceFollowingQuotes(int n) {
+		String[] next = { "1", "2" };
+
+		assertUnescapedQuotesParsed("\"" + repeat("a\" ", n) + ",b\n1,2\n", new String[] { repeat("a\" ", n - 1) + "a", "b" }, next);
+		assertUnescapedQuotesParsed("\"" + repeat("a\"\t\"", n) + ",b\n1,2\n", new String[] { repeat("a\"\t\"", n - 1) + "a\"\t", "b" }, next);
+	}
+
+	@Test
+	public void parseContentAfterWhitespaceFollowingQuote() {
+		String[] next = { "1", "2" };
+
+		assertUnescapedQuotesParsed("\"x\" \"y\" ,z\n1,2\n", new String[] { "x\" \"y", "z" }, next);
+		assertUnescapedQuotesParsed("\"x\"\t\"y\"\t,z\n1,2\n", new String[] { "x\"\t\"y", "z" }, next);
+		assertUnescapedQuotesParsed("\"x\" y\" ,z\n1,2\n", new String[] { "x\" y", "z" }, next);
+
+		//content after the whitespace reopens the quoted value, which only ends at another quote followed by a delimiter or newline.
+		assertUnescapedQuotesParsed("\"x\"  y  ,z\n1,2\n", new String[] { "x\"  y  ,z\n1,2\n" });
+		assertUnescapedQuotesParsed("\"x\"  y  ,z\"\n1,2\n", new String[] { "x\"  y  ,z" }, next);
+	}
+
 	@Test
 	public void testReadEmptyValue() {
 		CsvParserSettings settings = newCsvInputSettings(new char[] { '\n' });
@@ -359,4 +432,467 @@ public class CsvParserTest extends ParserTestCase {
 		assertEquals(row[4], "");
 		assertEquals(row[5], "");
 	}
+
+	private String wideRow(int columns, String prefix) {
+		StringBuilder out = new StringBuilder();
+		for (int i = 0; i < columns; i++) {
+			if (i > 0) {
+				out.append(',');
+			}
+			out.append(prefix).append(i);
+		}
+		return out.toString();
+	}
+
+	@Test
+	public void parseRecordsWiderThanInitialCapacity() {
+		CsvParserSettings settings = newCsvInputSettings(new char[] { '\n' });
+		settings.setMaxColumns(20000);
+		CsvParser parser = new CsvParser(settings);
+
+		parser.beginParsing(new StringReader("a,b\n" + wideRow(1000, "v") + "\nc,d\n"));
+
+		assertEquals(parser.parseNext(), new String[] { "a", "b" });
+
+		String[] row = parser.parseNext();
+		assertEquals(row.length, 1000);
+		assertEquals(row[0], "v0");
+		assertEquals(row[999], "v999");
+
+		assertEquals(parser.parseNext(), new String[] { "c", "d" });
+		assertNull(parser.parseNext());
+	}
+
+	@Test
+	public void parseSelectedFieldsOfWideRecords() {
+		CsvParserSettings settings = newCsvInputSettings(new char[] { '\n' });
+		settings.setHeaderExtractionEnabled(true);
+		settings.selectFields("h300", "h2");
+		CsvParser parser = new CsvParser(settings);
+
+		List<String[]> rows = parser.parseAll(new StringReader(wideRow(400, "h") + "\n" + wideRow(400, "v") + "\n" + wideRow(500, "w") + "\n"));
+		assertEquals(rows.size(), 2);
+		assertEquals(rows.get(0), new String[] { "v300", "v2" });
+		assertEquals(rows.get(1), new String[] { "w300", "w2" });
+
+		String[] row;
+		settings = newCsvInputSettings(new char[] { '\n' });
+		settings.setHeaderExtractionEnabled(true);
+		settings.selectFields("h2");
+		settings.setColumnReorderingEnabled(false);
+		parser = new CsvParser(settings);
+		rows = parser.parseAll(new StringReader(wideRow(4, "h") + "\n" + wideRow(60, "v") + "\n"));
+		assertEquals(rows.size(), 1);
+		row = rows.get(0);
+		assertEquals(row.length, 60);
+		assertEquals(row[1], null);
+		assertEquals(row[2], "v2");
+		assertEquals(row[3], null);
+		assertEquals(row[4], "v4");
+		assertEquals(row[59], "v59");
+	}
+
+	@Test(expectedExceptions = TextParsingException.class)
+	public void parseRecordWithTooManyColumns() {
+		CsvParserSettings settings = newCsvInputSettings(new char[] { '\n' });
+		settings.setMaxColumns(100);
+		CsvParser parser = new CsvParser(settings);
+		parser.parseAll(new StringReader(wideRow(101, "v") + "\n"));
+	}
+
+	@Test
+	public void streamLargeQuotedValues() {
+		final Map<Integer, StringBuilder> streamed = new TreeMap<Integer, StringBuilder>();
+		final List<String> ended = new ArrayList<String>();
+
+		StreamedColumnProcessor streamProcessor = new StreamedColumnProcessor() {
+			@Override
+			public void valueChunk(int column, char[] chars, int offset, int length) {
+				assertTrue(length <= 10);
+				StringBuilder value = streamed.get(column);
+				if (value == null) {
+					value = new StringBuilder();
+					streamed.put(column, value);
+				}
+				value.append(chars, offset, length);
+			}
+
+			@Override
+			public void valueEnded(int column) {
+				StringBuilder value = streamed.remove(column);
+				ended.add(column + ":" + (value == null ? "" : value.toString()));
+			}
+		};
+
+		CsvParserSettings settings = newCsvInputSettings(new char[] { '\n' });
+		settings.setHeaderExtractionEnabled(true);
+		settings.setMaxCharsPerColumn(10);
+		settings.streamFields(streamProcessor, "document");
+
+		StringBuilder document = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			document.append("line ").append(i).append("\n");
+		}
+
+		CsvParser parser = new CsvParser(settings);
+		List<String[]> rows = parser.parseAll(new StringReader("id,document,size\n1,\"" + document + "\" ,big\n2,small   ,ok\n"));
+
+		assertEquals(rows.size(), 2);
+		assertEquals(rows.get(0), new String[] { "1", null, "big" });
+		assertEquals(rows.get(1), new String[] { "2", null, "ok" });
+		assertEquals(ended, Arrays.asList("1:" + document, "1:small"));
+	}
+
+	@Test
+	public void streamValuesWithTrailingWhitespace() {
+		final StringBuilder streamed = new StringBuilder();
+		final List<String> ended = new ArrayList<String>();
+
+		CsvParserSettings settings = newCsvInputSettings(new char[] { '\n' });
+		settings.setMaxCharsPerColumn(8);
+		settings.setInputBufferSize(4);
+		settings.setReadInputOnSeparateThread(false);
+		settings.streamIndexes(new StreamedColumnProcessor() {
+			@Override
+			public void valueChunk(int column, char[] chars, int offset, int length) {
+				streamed.append(chars, offset, length);
+			}
+
+			@Override
+			public void valueEnded(int column) {
+				ended.add(streamed.toString());
+				streamed.setLength(0);
+			}
+		}, 1);
+
+		new CsvParser(settings).parseAll(new StringReader("1,abcdef    \n2,abcdefgh    x  ,3\n"));
+		assertEquals(ended, Arrays.asList("abcdef", "abcdefgh    x"));
+	}
+
+	@Test
+	public void streamIndexesWithLargeMaxColumns() {
+		final List<String> ended = new ArrayList<String>();
+		final StringBuilder streamed = new StringBuilder();
+
+		CsvParserSettings settings = newCsvInputSettings(new char[] { '\n' });
+		settings.setMaxColumns(Integer.MAX_VALUE - 8);
+		settings.streamIndexes(new StreamedColumnProcessor() {
+			@Override
+			public void valueChunk(int column, char[] chars, int offset, int length) {
+				streamed.append(chars, offset, length);
+			}
+
+			@Override
+			public void valueEnded(int column) {
+				ended.add(column + ":" + streamed);
+				streamed.setLength(0);
+			}
+		}, 1, 5);
+
+		List<String[]> rows = new CsvParser(settings).parseAll(new StringReader("a,b,c,d,e,f\ng,h,i,j,k,l,m\n"));
+		assertEquals(rows.size(), 2);
+		assertEquals(ended, Arrays.asList("1:b", "5:f", "1:h", "5:l"));
+	}
+
+	@DataProvider(name = "bufferSizes")
+	public Object[][] bufferSizes() {
+		return new Object[][] { { 1, false }, { 2, false }, { 3, true }, { 7, false }, { 16, true }, { 1024, false } };
+	}
+
+	@Test(dataProvider = "bufferSizes")
+	public void parseQuotedValuesAcrossBuffers(int bufferSize, boolean concurrent) {
+		CsvParserSettings settings = newCsvInputSettings(new char[] { '\r', '\n' });
+		settings.setInputBufferSize(bufferSize);
+		settings.setReadInputOnSeparateThread(concurrent);
+		CsvParser parser = new CsvParser(settings);
+
+		List<String[]> rows = parser.parseAll(new StringReader(""
+				+ "\"a long quoted value\",\"with \"\"escaped\"\" quotes\"\r\n"
+				+ "\"multi\r\nline\r\nvalue\",\"\"\r\n"
+				+ "\"unescaped \"quote\" here\", \"x\" \r\n"));
+
+		assertEquals(rows.size(), 3);
+		assertEquals(rows.get(0), new String[] { "a long quoted value", "with \"escaped\" quotes" });
+		assertEquals(rows.get(1), new String[] { "multi\nline\nvalue", null });
+		assertEquals(rows.get(2), new String[] { "unescaped \"quote\" here", "x" });
+	}
+
+	@Test
+	public void parseIndividualLines() {
+		CsvParserSettings settings = newCsvInputSettings(new char[] { '\n' });
+		settings.setReadInputOnSeparateThread(true);
+		settings.setInputBufferSize(4);
+		CsvParser parser = new CsvParser(settings);
+
+		assertEquals(parser.parseLine("a,b,c"), new String[] { "a", "b", "c" });
+		assertEquals(parser.parseLine("\"quoted, \"\"value\"\"\",,x\n"), new String[] { "quoted, \"value\"", null, "x" });
+		assertEquals(parser.parseLine("1,2\n3,4"), new String[] { "1", "2" });
+		assertNull(parser.parseLine(""));
+		assertEquals(parser.parseLine("single"), new String[] { "single" });
+
+		char[] chars = "xx,first,second,yy".toCharArray();
+		assertEquals(parser.parseLine(chars, 3, 12), new String[] { "first", "second" });
+
+		assertEquals(parser.parseLine("\"unterminated,value"), new String[] { "unterminated,value" });
+		assertEquals(parser.parseLine("after,error"), new String[] { "after", "error" });
+
+		List<String[]> rows = parser.parseAll(new StringReader("r1c1,r1c2\nr2c1,r2c2\n"));
+		assertEquals(rows.size(), 2);
+		assertEquals(rows.get(1), new String[] { "r2c1", "r2c2" });
+
+		assertEquals(parser.parseLine("back,to,lines"), new String[] { "back", "to", "lines" });
+	}
+
+	@Test
+	public void parseInBatches() {
+		CsvParserSettings settings = newCsvInputSettings(new char[] { '\n' });
+		settings.setNumberOfRecordsToRead(7);
+		CsvParser parser = new CsvParser(settings);
+
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 10; i++) {
+			input.append(i).append(",value ").append(i).append('\n');
+		}
+		parser.beginParsing(new StringReader(input.toString()));
+
+		String[][] batch = new String[3][];
+		assertEquals(parser.parseNextBatch(batch), 3);
+		assertEquals(batch[2], new String[] { "2", "value 2" });
+		assertEquals(parser.parseNextBatch(batch), 3);
+		assertEquals(batch[0], new String[] { "3", "value 3" });
+		assertEquals(parser.parseNextBatch(batch), 1);
+		assertEquals(batch[0], new String[] { "6", "value 6" });
+
+		settings.setNumberOfRecordsToRead(-1);
+		parser = new CsvParser(settings);
+		parser.beginParsing(new StringReader("a,b\nc,d"));
+		assertEquals(parser.parseNextBatch(batch), 2);
+		assertEquals(batch[1], new String[] { "c", "d" });
+		assertEquals(parser.parseNextBatch(batch), 0);
+	}
+
+	@DataProvider(name = "chunkSizes")
+	public Object[][] chunkSizes() {
+		return new Object[][] { { 1 }, { 2 }, { 5 }, { 13 }, { 1000 } };
+	}
+
+	@Test(dataProvider = "chunkSizes")
+	public void feedInputInChunks(int chunkSize) throws Exception {
+		String input = "# a comment\r\n"
+				+ "a,b,c\r\n"
+				+ "\"quoted\r\nvalue, with \"\"escapes\"\"\",x,\r\n"
+				+ "\r\n"
+				+ "\u00e1\u00e9,\u20ac,last";
+
+		CsvParserSettings settings = newCsvInputSettings(new char[] { '\r', '\n' });
+		RowListProcessor processor = new RowListProcessor();
+		settings.setRowProcessor(processor);
+		List<String[]> expected = new CsvParser(settings).parseAll(new StringReader(input));
+
+		CsvParser parser = new CsvParser(settings);
+		char[] chars = input.toCharArray();
+		parser.beginFeeding();
+		for (int i = 0; i < chars.length; i += chunkSize) {
+			parser.feed(chars, i, Math.min(chunkSize, chars.length - i));
+		}
+		parser.endOfInput();
+		assertEquals(processor.getRows().size(), expected.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(processor.getRows().get(i), expected.get(i));
+		}
+
+		byte[] bytes = input.getBytes("UTF-8");
+		parser.beginFeeding(Charset.forName("UTF-8"));
+		for (int i = 0; i < bytes.length; i += chunkSize) {
+			parser.feed(bytes, i, Math.min(chunkSize, bytes.length - i));
+		}
+		parser.endOfInput();
+		assertEquals(processor.getRows().size(), expected.size());
+		assertEquals(processor.getRows().get(expected.size() - 1), new String[] { "\u00e1\u00e9", "\u20ac", "last" });
+	}
+
+	@Test(dataProvider = "chunkSizes")
+	public void feedRecordsSplitAnywhere(int chunkSize) {
+		String input = "a,b\n"
+				+ "  \"quoted\nvalue\"  , \"\"\"\"\"\" ,\n"
+				+ "# comment, \"with quotes\n"
+				+ "\"unescaped \"quote\" here\",\"x\"  y\" ,\n"
+				+ ",,\"\",\n"
+				+ "\n"
+				+ "last,\"open";
+
+		CsvParserSettings settings = newCsvInputSettings(new char[] { '\n' });
+		RowPositionProcessor positions = new RowPositionProcessor();
+		settings.setRowProcessor(positions);
+		assertFedRowsMatch(new CsvParser(settings), positions, input, chunkSize);
+
+		settings = newCsvInputSettings(new char[] { '\r', '\n' });
+		settings.setLineSeparatorDetectionEnabled(true);
+		settings.setIgnoreLeadingWhitespaces(false);
+		settings.setIgnoreTrailingWhitespaces(false);
+		settings.setRowProcessor(positions);
+		assertFedRowsMatch(new CsvParser(settings), positions, input.replaceAll("\n", "\r\n"), chunkSize);
+	}
+
+	private void assertFedChunksMatch(CsvParserSettings settings, String... chunks) {
+		RowListProcessor processor = new RowListProcessor();
+		settings.setRowProcessor(processor);
+		CsvParser parser = new CsvParser(settings);
+
+		StringBuilder input = new StringBuilder();
+		for (String chunk : chunks) {
+			input.append(chunk);
+		}
+		parser.parse(new StringReader(input.toString()));
+		List<String[]> expected = new ArrayList<String[]>(processor.getRows());
+
+		parser.beginFeeding();
+		for (String chunk : chunks) {
+			parser.feed(chunk.toCharArray(), 0, chunk.length());
+		}
+		parser.endOfInput();
+
+		assertEquals(processor.getRows().size(), expected.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(processor.getRows().get(i), expected.get(i));
+		}
+	}
+
+	@Test
+	public void feedLineSeparatorStartAtChunkBoundary() {
+		for (boolean detectLineSeparator : new boolean[] { false, true }) {
+			CsvParserSettings settings = newCsvInputSettings(new char[] { '\r', '\n' });
+			settings.setLineSeparatorDetectionEnabled(detectLineSeparator);
+
+			assertFedChunksMatch(settings, "\nab\r", "\r", "c\r\n");
+			assertFedChunksMatch(settings, "a,b\r\nab\r", "\r", "c\r\n");
+			assertFedChunksMatch(settings, "ab\r", "\n", "cd\r\n");
+			assertFedChunksMatch(settings, "ab\r", "\ncd");
+			assertFedChunksMatch(settings, "x\r", "\r", "\ny\r\n");
+			assertFedChunksMatch(settings, "\"x\r", "\r\r", "\n\"\r", "\ny");
+			assertFedChunksMatch(settings, "a,b\r\nab\r");
+		}
+
+		CsvParserSettings settings = newCsvInputSettings(new char[] { '\r', '\n' });
+		RowListProcessor processor = new RowListProcessor();
+		settings.setRowProcessor(processor);
+		CsvParser parser = new CsvParser(settings);
+		parser.beginFeeding();
+		parser.feed("\nab\r".toCharArray(), 0, 4);
+		parser.feed("\r".toCharArray(), 0, 1);
+		parser.feed("c\r\n".toCharArray(), 0, 3);
+		parser.endOfInput();
+		assertEquals(processor.getRows().size(), 1);
+		assertEquals(processor.getRows().get(0), new String[] { "ab\r\rc" });
+
+		settings.setIgnoreTrailingWhitespaces(false);
+		parser = new CsvParser(settings);
+		parser.parse(CharBuffer.wrap("\nab\r".toCharArray(), 1, 3));
+		assertEquals(processor.getRows().size(), 1);
+		assertEquals(processor.getRows().get(0), new String[] { "ab\r" });
+	}
+
+	@Test
+	public void feedStreamedValueInChunks() {
+		final StringBuilder streamed = new StringBuilder();
+		final List<String> ended = new ArrayList<String>();
+
+		CsvParserSettings settings = newCsvInputSettings(new char[] { '\n' });
+		settings.setMaxCharsPerColumn(16);
+		settings.streamIndexes(new StreamedColumnProcessor() {
+			@Override
+			public void valueChunk(int column, char[] chars, int offset, int length) {
+				streamed.append(chars, offset, length);
+			}
+
+			@Override
+			public void valueEnded(int column) {
+				ended.add(streamed.toString());
+				streamed.setLength(0);
+			}
+		}, 1);
+
+		StringBuilder value = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			value.append("value ").append(i).append(i % 10 == 0 ? "\"\"\n" : ", ");
+		}
+		char[] input = ("1,\"" + value + "\",x\n2,y,z\n").toCharArray();
+
+		CsvParser parser = new CsvParser(settings);
+		parser.beginFeeding();
+		for (int i = 0; i < input.length; i += 7) {
+			parser.feed(input, i, Math.min(7, input.length - i));
+		}
+		parser.endOfInput();
+
+		assertEquals(ended, Arrays.asList(value.toString().replace("\"\"", "\""), "y"));
+	}
+
+	@Test
+	public void parseInputsHeldInMemory() {
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 2000; i++) {
+			input.append(i).append(",\"quoted\r\nvalue ").append(i).append("\",x\r\n");
+		}
+		final String text = input.toString();
+
+		CsvParserSettings settings = newCsvInputSettings(new char[] { '\r', '\n' });
+		List<String[]> expected = new CsvParser(settings).parseAll(new StringReader(text));
+		assertEquals(expected.size(), 2000);
+
+		CharSequence customSequence = new CharSequence() {
+			@Override
+			public int length() {
+				return text.length();
+			}
+
+			@Override
+			public char charAt(int index) {
+				return text.charAt(index);
+			}
+
+			@Override
+			public CharSequence subSequence(int start, int end) {
+				return text.subSequence(start, end);
+			}
+		};
+
+		char[] chars = ("ignored" + text + "ignored").toCharArray();
+		CharSequence[] inputs = new CharSequence[] { text, input, CharBuffer.wrap(chars, 7, text.length()), customSequence };
+
+		CsvParser parser = new CsvParser(settings);
+		for (CharSequence in : inputs) {
+			List<String[]> rows = parser.parseAll(in);
+			assertEquals(rows.size(), expected.size());
+			for (int i = 0; i < rows.size(); i++) {
+				assertEquals(rows.get(i), expected.get(i));
+			}
+		}
+
+		parser.beginParsing(chars, 7, text.length());
+		assertEquals(parser.parseNext(), expected.get(0));
+		assertEquals(parser.parseNext(), expected.get(1));
+		parser.stopParsing();
+	}
+
+	@Test
+	public void parseBytes() throws Exception {
+		byte[] bytes = "a,\u00e1\u00e9\r\n\"x\r\ny\",\u20ac\r\n".getBytes("UTF-8");
+		ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+		direct.put(bytes).flip();
+
+		CsvParserSettings settings = newCsvInputSettings(new char[] { '\r', '\n' });
+		settings.setInputBufferSize(4);
+		RowListProcessor processor = new RowListProcessor();
+		settings.setRowProcessor(processor);
+		CsvParser parser = new CsvParser(settings);
+
+		parser.parse(direct, Charset.forName("UTF-8"));
+		assertEquals(processor.getRows().size(), 2);
+		assertEquals(processor.getRows().get(0), new String[] { "a", "\u00e1\u00e9" });
+		assertEquals(processor.getRows().get(1), new String[] { "x\ny", "\u20ac" });
+
+		parser.parse(Channels.newChannel(new ByteArrayInputStream(bytes)), Charset.forName("UTF-8"));
+		assertEquals(processor.getRows().get(1), new String[] { "x\ny", "\u20ac" });
+	}
 }
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.csv;
+
+import static org.testng.Assert.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import org.testng.annotations.*;
+
+public class CsvTailParserTest {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private File createFile(String content) throws IOException {
+		File file = File.createTempFile("csv-tail", ".csv");
+		file.deleteOnExit();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), UTF8);
+		try {
+			writer.write(content);
+		} finally {
+			writer.close();
+		}
+		return file;
+	}
+
+	private String createCsv(int records, String lineSeparator, char quoteEscape, boolean trailingSeparator) {
+		Random random = new Random(records);
+		StringBuilder out = new StringBuilder();
+		out.append("id,\"de").append(lineSeparator).append("scription\",name").append(lineSeparator);
+		for (int i = 0; i < records; i++) {
+			boolean blankLine = false;
+			out.append(i).append(',');
+			switch (random.nextInt(6)) {
+				case 0:
+					out.append("\"multi").append(lineSeparator).append("line\"");
+					break;
+				case 1:
+					out.append("\"with ").append(quoteEscape).append("\"quotes").append(quoteEscape).append("\" and ").append(lineSeparator).append("\"");
+					break;
+				case 2:
+					out.append("\"\"");
+					break;
+				case 3:
+					out.append("blank line follows");
+					blankLine = true;
+					break;
+				default:
+					out.append("plain value ").append(random.nextInt());
+			}
+			out.append(",ação");
+			if (i < records - 1 || trailingSeparator) {
+				out.append(lineSeparator);
+				if (blankLine) {
+					out.append(lineSeparator);
+				}
+			}
+		}
+		return out.toString();
+	}
+
+	@DataProvider
+	public Object[][] files() {
+		return new Object[][]{
+				{3000, "\n", '"', true},
+				{3000, "\r\n", '"', false},
+				{3000, "\r\n", '\\', true},
+				{3000, "\r", '"', false},
+				{2, "\n", '"', false},
+		};
+	}
+
+	@Test(dataProvider = "files")
+	public void testParseLast(int records, String lineSeparator, char quoteEscape, boolean trailingSeparator) throws IOException {
+		String content = createCsv(records, lineSeparator, quoteEscape, trailingSeparator);
+		File file = createFile(content);
+
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.getFormat().setLineSeparator(lineSeparator);
+		settings.getFormat().setQuoteEscape(quoteEscape);
+		settings.setHeaderExtractionEnabled(true);
+		CsvParser parser = new CsvParser(settings);
+		List<String[]> expected = parser.parseAll(new StringReader(content));
+		assertEquals(expected.size(), records);
+		String[] headers = parser.getContext().headers();
+
+		CsvTailParser tail = new CsvTailParser(settings);
+		for (int count : new int[]{0, 1, 2, 7, 1000, 5000}) {
+			List<String[]> rows = tail.parseLast(file, UTF8, count);
+			List<String[]> last = expected.subList(Math.max(0, records - count), records);
+			assertEquals(rows.size(), last.size());
+			for (int i = 0; i < rows.size(); i++) {
+				assertEquals(rows.get(i), last.get(i));
+			}
+			assertEquals(tail.getHeaders(), headers);
+		}
+		assertTrue(settings.isHeaderExtractionEnabled());
+		assertNull(settings.getHeaders());
+	}
+
+	@Test
+	public void testParseLastWithoutHeaders() throws IOException {
+		File file = createFile("a,b\n\"1\n\",2\n3,4\n\n");
+		CsvTailParser tail = new CsvTailParser(new CsvParserSettings());
+		List<String[]> rows = tail.parseLast(file, UTF8, 2);
+		assertEquals(rows.size(), 2);
+		assertEquals(rows.get(0), new String[]{"1\n", "2"});
+		assertEquals(rows.get(1), new String[]{"3", "4"});
+		assertNull(tail.getHeaders());
+	}
+
+	@Test
+	public void testQuotedLastRecordWithoutLineSeparator() throws IOException {
+		File file = createFile("a,b\n1,\"x\ny\"");
+
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setHeaderExtractionEnabled(true);
+		CsvTailParser tail = new CsvTailParser(settings);
+		List<String[]> rows = tail.parseLast(file, UTF8, 1);
+		assertEquals(rows.size(), 1);
+		assertEquals(rows.get(0), new String[]{"1", "x\ny"});
+		assertEquals(tail.getHeaders(), new String[]{"a", "b"});
+
+		settings.setHeaderExtractionEnabled(false);
+		rows = tail.parseLast(file, UTF8, 3);
+		assertEquals(rows.size(), 2);
+		assertEquals(rows.get(0), new String[]{"a", "b"});
+		assertEquals(rows.get(1), new String[]{"1", "x\ny"});
+
+		file = createFile("a,b\r\n1,2\r\n3,\"x\r\n\r\ny\"");
+		settings.getFormat().setLineSeparator("\r\n");
+		rows = tail.parseLast(file, UTF8, 2);
+		assertEquals(rows.size(), 2);
+		assertEquals(rows.get(0), new String[]{"1", "2"});
+		assertEquals(rows.get(1), new String[]{"3", "x\n\ny"});
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testUnsupportedEncoding() throws IOException {
+		new CsvTailParser(new CsvParserSettings()).parseLast(createFile("a,b\n"), Charset.forName("UTF-16"), 1);
+	}
+}
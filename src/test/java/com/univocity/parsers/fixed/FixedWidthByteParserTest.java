@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.fixed;
+
+import static org.testng.Assert.*;
+
+import java.io.*;
+import java.math.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import org.testng.annotations.*;
+
+public class FixedWidthByteParserTest {
+
+	private static final Charset EBCDIC = Charset.forName("Cp037");
+
+	private FixedWidthParserSettings settings;
+
+	@BeforeMethod
+	public void setup() {
+		LinkedHashMap<String, Integer> fields = new LinkedHashMap<String, Integer>();
+		fields.put("name", 6);
+		fields.put("amount", 4);
+		fields.put("quantity", 3);
+		settings = new FixedWidthParserSettings(new FixedWidthFieldLengths(fields));
+		settings.setInputBufferSize(16);
+	}
+
+	private static void write(ByteArrayOutputStream out, String text, int... bytes) throws IOException {
+		out.write(text.getBytes(EBCDIC));
+		for (int b : bytes) {
+			out.write(b);
+		}
+	}
+
+	private FixedWidthByteParser newParser() {
+		FixedWidthByteParser parser = new FixedWidthByteParser(settings, EBCDIC);
+		parser.setFieldType("amount", FixedWidthByteFieldType.PACKED, 2);
+		parser.setFieldType(2, FixedWidthByteFieldType.ZONED, 0);
+		return parser;
+	}
+
+	@Test
+	public void parsePackedAndZonedFields() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		write(out, "ALICE ", 0x01, 0x23, 0x45, 0x6C, 0xF0, 0xF1, 0xC2);
+		write(out, "  BOB ", 0x00, 0x00, 0x12, 0x3D, 0xF3, 0xF0, 0xD5);
+		write(out, "      ", 0x00, 0x00, 0x00, 0x0F, 0xF0, 0xF0, 0xF0);
+
+		FixedWidthByteParser parser = newParser();
+		parser.beginParsing(new ByteArrayInputStream(out.toByteArray()));
+
+		FixedWidthByteRecord record = parser.parseNext();
+		assertEquals(record.getRecordNumber(), 1);
+		assertEquals(record.getString(0), "ALICE");
+		assertEquals(record.getBigDecimal(1), new BigDecimal("1234.56"));
+		assertEquals(record.getLong(2), 12L);
+		assertEquals(record.getBytes(1), new byte[] { 0x01, 0x23, 0x45, 0x6C });
+
+		record = parser.parseNext();
+		assertEquals(record.getValues(), new String[] { "BOB", "-1.23", "-305" });
+
+		record = parser.parseNext();
+		assertEquals(record.getValues(), new String[] { null, "0.00", "0" });
+
+		assertNull(parser.parseNext());
+	}
+
+	@Test
+	public void parseRecordsWithSeparator() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		write(out, "A     ", 0x00, 0x00, 0x00, 0x1C, 0xF0, 0xF0, 0xF1, 0x25);
+		write(out, "B     ", 0x00, 0x00, 0x00, 0x2C, 0xF0, 0xF0, 0xF2);
+
+		FixedWidthByteParser parser = newParser();
+		parser.setRecordSeparator((byte) 0x25);
+		parser.beginParsing(new ByteArrayInputStream(out.toByteArray()));
+
+		assertEquals(parser.parseNext().getValues(), new String[] { "A", "0.01", "1" });
+		assertEquals(parser.parseNext().getValues(), new String[] { "B", "0.02", "2" });
+		assertNull(parser.parseNext());
+	}
+
+	@Test
+	public void convertLongPackedDecimal() throws Exception {
+		settings = new FixedWidthParserSettings(new FixedWidthFieldLengths(new int[] { 11 }));
+		FixedWidthByteParser parser = new FixedWidthByteParser(settings, EBCDIC);
+		parser.setFieldType(0, FixedWidthByteFieldType.PACKED, 0);
+		parser.beginParsing(new ByteArrayInputStream(new byte[] { 0x12, 0x34, 0x56, 0x78, (byte) 0x90, 0x12, 0x34, 0x56, 0x78, (byte) 0x90, 0x1D }));
+
+		FixedWidthByteRecord record = parser.parseNext();
+		assertEquals(record.getBigDecimal(0), new BigDecimal("-123456789012345678901"));
+		try {
+			record.getLong(0);
+			fail("Expected ArithmeticException");
+		} catch (ArithmeticException e) {
+			//expected
+		}
+	}
+
+	@Test(expectedExceptions = NumberFormatException.class)
+	public void rejectInvalidPackedDigit() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		write(out, "ALICE ", 0x01, 0x2A, 0x45, 0x6C, 0xF0, 0xF1, 0xC2);
+
+		FixedWidthByteParser parser = newParser();
+		parser.beginParsing(new ByteArrayInputStream(out.toByteArray()));
+		parser.parseNext().getLong(1);
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void rejectIncompleteRecord() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		write(out, "ALICE ", 0x01, 0x23, 0x45, 0x6C, 0xF0, 0xF1, 0xC2);
+		write(out, "BOB");
+
+		FixedWidthByteParser parser = newParser();
+		parser.beginParsing(new ByteArrayInputStream(out.toByteArray()));
+		assertNotNull(parser.parseNext());
+		parser.parseNext();
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void rejectDecodeOnlyCharset() {
+		new FixedWidthByteParser(settings, Charset.forName("ISO-2022-CN"));
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void rejectUnmappablePadding() {
+		settings.getFormat().setPadding('\u20AC');
+		new FixedWidthByteParser(settings, EBCDIC);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void rejectEmptyRecords() {
+		new FixedWidthByteParser(new FixedWidthParserSettings(new FixedWidthFieldLengths()), EBCDIC);
+	}
+}
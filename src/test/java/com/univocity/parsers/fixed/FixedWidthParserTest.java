@@ -15,6 +15,11 @@
  ******************************************************************************/
 package com.univocity.parsers.fixed;
 
+import static org.testng.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
 import org.testng.annotations.*;
 
 import com.univocity.parsers.*;
@@ -164,4 +169,195 @@ public class FixedWidthParserTest extends ParserTestCase {
 
 		this.assertHeadersAndValuesMatch(expectedHeaders, expectedResult);
 	}
+
+	@Test
+	public void parseIndividualLines() {
+		FixedWidthParserSettings settings = newSettings(getFieldLengths(), new char[] { '\n' });
+		FixedWidthParser parser = new FixedWidthParser(settings);
+
+		String[] row = parser.parseLine("2013-FEB-28Harry Dong                            15000.99            8.786   ");
+		assertEquals(row, new String[] { "2013-FEB-28", "Harry Dong", "15000.99", "8.786" });
+
+		row = parser.parseLine("2010-JUL-01Gaye Males                            1                   8.6\n");
+		assertEquals(row, new String[] { "2010-JUL-01", "Gaye Males", "1", "8.6" });
+	}
+
+	@DataProvider
+	public Object[][] trimmingOptions() {
+		return new Object[][] {{true, true}, {true, false}, {false, true}, {false, false}};
+	}
+
+	@Test(dataProvider = "trimmingOptions")
+	public void parseRecordsSlicedFromBuffer(boolean ignoreLeading, boolean ignoreTrailing) {
+		String input = "" +
+				"ab___ _c__ x _\n" +
+				"_____     __ a\n" +
+				" _a_b__xyz_ _ \n" +
+				"short\n" +
+				"12345678901234\n";
+
+		FixedWidthParserSettings settings = new FixedWidthParserSettings(new FixedWidthFieldLengths(new int[] { 5, 6, 3 }));
+		settings.getFormat().setLineSeparator("\n");
+		settings.getFormat().setPadding('_');
+		settings.setIgnoreLeadingWhitespaces(ignoreLeading);
+		settings.setIgnoreTrailingWhitespaces(ignoreTrailing);
+		settings.setRecordEndsOnNewline(true);
+		settings.setReadInputOnSeparateThread(false);
+
+		List<String[]> sliced = new FixedWidthParser(settings).parseAll(input);
+
+		// a tiny buffer forces most records to be read one character at a time
+		settings.setInputBufferSize(4);
+		List<String[]> read = new FixedWidthParser(settings).parseAll(new StringReader(input));
+
+		assertEquals(sliced.size(), 5);
+		assertEquals(read.size(), 5);
+		for (int i = 0; i < sliced.size(); i++) {
+			assertEquals(sliced.get(i), read.get(i));
+		}
+		assertEquals(sliced.get(3), new String[] { "short" });
+		assertEquals(sliced.get(4), new String[] { "12345", "678901", "234" });
+	}
+
+	private List<String[]> parseWithBufferSizes(FixedWidthParserSettings settings, String input) {
+		settings.getFormat().setLineSeparator("\r\n");
+		settings.setReadInputOnSeparateThread(false);
+
+		settings.setInputBufferSize(1024);
+		List<String[]> sliced = new FixedWidthParser(settings).parseAll(new StringReader(input));
+
+		// a single character buffer forces every record to be read one character at a time
+		settings.setInputBufferSize(1);
+		List<String[]> read = new FixedWidthParser(settings).parseAll(new StringReader(input));
+
+		assertEquals(sliced.size(), read.size());
+		for (int i = 0; i < sliced.size(); i++) {
+			assertEquals(sliced.get(i), read.get(i));
+		}
+		return sliced;
+	}
+
+	@Test
+	public void parseRecordsEndingWithLoneCarriageReturn() {
+		for (boolean recordEndsOnNewLine : new boolean[] { false, true }) {
+			FixedWidthParserSettings settings = new FixedWidthParserSettings(new FixedWidthFieldLengths(new int[] { 2, 2 }));
+			settings.setRecordEndsOnNewline(recordEndsOnNewLine);
+
+			List<String[]> rows = parseWithBufferSizes(settings, "\n\r\nbaba\r");
+			assertEquals(rows.size(), 1);
+			assertEquals(rows.get(0), new String[] { "ba", "ba" });
+
+			rows = parseWithBufferSizes(settings, "\nab\r");
+			assertEquals(rows.size(), 1);
+			assertEquals(rows.get(0), new String[] { "ab", null });
+		}
+	}
+
+	@DataProvider(name = "bufferSizes")
+	public Object[][] bufferSizes() {
+		return new Object[][] { { 1024 }, { 4 }, { 7 } };
+	}
+
+	@Test(dataProvider = "bufferSizes")
+	public void parseRecordTypesSelectedByLookahead(int bufferSize) {
+		String input = "" +
+				"HDR2014-11-01\n" +
+				"D1__apple_____0010\n" +
+				"D2__pear\n" +
+				"unknown___x\n" +
+				"TRL2";
+
+		LinkedHashMap<String, Integer> header = new LinkedHashMap<String, Integer>();
+		header.put("type", 3);
+		header.put("date", 10);
+
+		LinkedHashMap<String, Integer> detail = new LinkedHashMap<String, Integer>();
+		detail.put("id", 4);
+		detail.put("name", 10);
+		detail.put("amount", 4);
+
+		FixedWidthParserSettings settings = new FixedWidthParserSettings(new FixedWidthFieldLengths(new int[] { 7, 4 }));
+		settings.getFormat().setLineSeparator("\n");
+		settings.getFormat().setPadding('_');
+		settings.setRecordEndsOnNewline(true);
+		settings.setReadInputOnSeparateThread(false);
+		settings.setInputBufferSize(bufferSize);
+
+		RowListProcessor others = new RowListProcessor();
+		final List<String[]> detailHeaders = new ArrayList<String[]>();
+		RowListProcessor details = new RowListProcessor() {
+			@Override
+			public void rowProcessed(String[] row, com.univocity.parsers.common.ParsingContext context) {
+				detailHeaders.add(context.headers());
+				super.rowProcessed(row, context);
+			}
+		};
+
+		settings.setRowProcessor(others);
+		settings.addFormatForLookahead("HDR", new FixedWidthFieldLengths(header));
+		settings.addFormatForLookahead("TRL", new FixedWidthFieldLengths(new int[] { 3, 5 }));
+		settings.addFormatForLookahead("D", new FixedWidthFieldLengths(detail), details);
+
+		new FixedWidthParser(settings).parse(new StringReader(input));
+
+		List<String[]> rows = others.getRows();
+		assertEquals(rows.size(), 3);
+		assertEquals(rows.get(0), new String[] { "HDR", "2014-11-01" });
+		assertEquals(rows.get(1), new String[] { "unknown", "x" });
+		assertEquals(rows.get(2), new String[] { "TRL", "2" });
+
+		rows = details.getRows();
+		assertEquals(rows.size(), 2);
+		assertEquals(rows.get(0), new String[] { "D1", "apple", "0010" });
+		assertEquals(rows.get(1), new String[] { "D2", "pear" });
+		assertEquals(detailHeaders.get(0), new String[] { "id", "name", "amount" });
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void rejectLookaheadLongerThanRecord() {
+		FixedWidthParserSettings settings = new FixedWidthParserSettings(new FixedWidthFieldLengths(new int[] { 2 }));
+		settings.addFormatForLookahead("ABC", new FixedWidthFieldLengths(new int[] { 3, 3 }));
+		new FixedWidthParser(settings);
+	}
+
+	@DataProvider(name = "chunkSizes")
+	public Object[][] chunkSizes() {
+		return new Object[][] { { 1 }, { 2 }, { 3 }, { 7 }, { 1000 } };
+	}
+
+	@Test(dataProvider = "chunkSizes")
+	public void feedRecordsSplitAnywhere(int chunkSize) {
+		String input = "" +
+				"ab___ _c__ x _\n" +
+				"_____     __ a\n" +
+				" _a_b__xyz_ _ trailing\n" +
+				"short\n" +
+				"12345678901234";
+
+		FixedWidthParserSettings settings = new FixedWidthParserSettings(new FixedWidthFieldLengths(new int[] { 5, 6, 3 }));
+		settings.getFormat().setLineSeparator("\n");
+		settings.getFormat().setPadding('_');
+		settings.setRecordEndsOnNewline(true);
+		settings.setSkipTrailingCharsUntilNewline(true);
+		RowPositionProcessor positions = new RowPositionProcessor();
+		settings.setRowProcessor(positions);
+		assertFedRowsMatch(new FixedWidthParser(settings), positions, input, chunkSize);
+
+		input = "" +
+				"HDR2014-11-01\n" +
+				"D1__apple_____0010\n" +
+				"D2__pear\n" +
+				"unknown___x\n" +
+				"TRL2";
+
+		settings = new FixedWidthParserSettings(new FixedWidthFieldLengths(new int[] { 7, 4 }));
+		settings.getFormat().setLineSeparator("\n");
+		settings.getFormat().setPadding('_');
+		settings.setRecordEndsOnNewline(true);
+		settings.setRowProcessor(positions);
+		settings.addFormatForLookahead("HDR", new FixedWidthFieldLengths(new int[] { 3, 10 }), positions);
+		settings.addFormatForLookahead("TRL", new FixedWidthFieldLengths(new int[] { 3, 5 }), positions);
+		settings.addFormatForLookahead("D", new FixedWidthFieldLengths(new int[] { 4, 10, 4 }), positions);
+		assertFedRowsMatch(new FixedWidthParser(settings), positions, input, chunkSize);
+	}
 }
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.fixed;
+
+import static org.testng.Assert.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import org.testng.annotations.*;
+
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.common.processor.*;
+
+public class ParallelFixedWidthParserTest {
+
+	private static final Charset LATIN1 = Charset.forName("ISO-8859-1");
+
+	private File createFile(String lineSeparator, int records, boolean trailingSeparator) throws IOException {
+		StringBuilder out = new StringBuilder();
+		out.append("ID   NAME      QTY").append(lineSeparator);
+		for (int i = 0; i < records; i++) {
+			String id = String.valueOf(i);
+			String name = "name" + (i % 97);
+			String qty = String.valueOf(i % 1000);
+			out.append(pad(id, 5)).append(pad(name, 10)).append(pad(qty, 3));
+			if (i < records - 1 || trailingSeparator) {
+				out.append(lineSeparator);
+			}
+		}
+		File file = File.createTempFile("parallel-fixed", ".txt");
+		file.deleteOnExit();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), LATIN1);
+		try {
+			writer.write(out.toString());
+		} finally {
+			writer.close();
+		}
+		return file;
+	}
+
+	private String pad(String value, int length) {
+		StringBuilder out = new StringBuilder(value);
+		while (out.length() < length) {
+			out.append(' ');
+		}
+		return out.toString();
+	}
+
+	private FixedWidthParserSettings newSettings(String lineSeparator) {
+		FixedWidthParserSettings settings = new FixedWidthParserSettings(new FixedWidthFieldLengths(5, 10, 3));
+		settings.getFormat().setLineSeparator(lineSeparator);
+		settings.setHeaderExtractionEnabled(true);
+		return settings;
+	}
+
+	@DataProvider
+	public Object[][] files() {
+		return new Object[][]{
+				{"\n", 10007, true, 4},
+				{"\r\n", 10007, false, 3},
+				{"\r\n", 5, true, 8},
+				{"\n", 1, false, 2},
+		};
+	}
+
+	@Test(dataProvider = "files")
+	public void testOrdered(String lineSeparator, int records, boolean trailingSeparator, int threads) throws IOException {
+		File file = createFile(lineSeparator, records, trailingSeparator);
+
+		FixedWidthParserSettings settings = newSettings(lineSeparator);
+		List<String[]> expected = new FixedWidthParser(settings).parseAll(new InputStreamReader(new FileInputStream(file), LATIN1));
+
+		final List<String[]> rows = new ArrayList<String[]>();
+		final List<Long> recordNumbers = new ArrayList<Long>();
+		settings.setRowProcessor(new RowProcessor() {
+			@Override
+			public void processStarted(ParsingContext context) {
+				assertEquals(context.headers(), new String[]{"ID", "NAME", "QTY"});
+			}
+
+			@Override
+			public void rowProcessed(String[] row, ParsingContext context) {
+				rows.add(row);
+				recordNumbers.add(context.currentRecord());
+			}
+
+			@Override
+			public void processEnded(ParsingContext context) {
+				assertEquals(context.currentRecord(), rows.size());
+			}
+		});
+		new ParallelFixedWidthParser(settings, threads).parse(file, LATIN1);
+
+		assertEquals(rows.size(), records);
+		for (int i = 0; i < records; i++) {
+			assertEquals(rows.get(i), expected.get(i));
+			assertEquals(recordNumbers.get(i).longValue(), i + 1L);
+		}
+		assertTrue(settings.isHeaderExtractionEnabled());
+		assertNull(settings.getHeaders());
+	}
+
+	@Test
+	public void testUnordered() throws IOException {
+		File file = createFile("\n", 20000, true);
+		FixedWidthParserSettings settings = newSettings("\n");
+
+		final Set<String> ids = Collections.synchronizedSet(new HashSet<String>());
+		settings.setRowProcessor(new RowProcessor() {
+			@Override
+			public void processStarted(ParsingContext context) {
+			}
+
+			@Override
+			public void rowProcessed(String[] row, ParsingContext context) {
+				assertEquals(row[0], String.valueOf(context.currentRecord() - 1));
+				assertEquals(context.currentLine(), context.currentRecord() + 1);
+				ids.add(row[0]);
+			}
+
+			@Override
+			public void processEnded(ParsingContext context) {
+			}
+		});
+
+		ParallelFixedWidthParser parser = new ParallelFixedWidthParser(settings, 4);
+		parser.setOrdered(false);
+		parser.parse(file, LATIN1);
+
+		assertEquals(ids.size(), 20000);
+	}
+
+	@Test
+	public void testStop() throws IOException {
+		File file = createFile("\n", 50000, true);
+		FixedWidthParserSettings settings = newSettings("\n");
+		final List<String[]> rows = new ArrayList<String[]>();
+		settings.setRowProcessor(new RowListProcessor() {
+			@Override
+			public void rowProcessed(String[] row, ParsingContext context) {
+				rows.add(row);
+				if (rows.size() == 100) {
+					context.stop();
+				}
+			}
+		});
+		new ParallelFixedWidthParser(settings, 4).parse(file, LATIN1);
+		assertEquals(rows.size(), 100);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testInvalidFileSize() throws IOException {
+		File file = createFile("\n", 10, true);
+		RandomAccessFile out = new RandomAccessFile(file, "rw");
+		out.setLength(out.length() + 1);
+		out.close();
+		new ParallelFixedWidthParser(newSettings("\n"), 2).parse(file, LATIN1);
+	}
+}
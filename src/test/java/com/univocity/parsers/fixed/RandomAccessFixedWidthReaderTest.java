@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.fixed;
+
+import static org.testng.Assert.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import org.testng.annotations.*;
+
+public class RandomAccessFixedWidthReaderTest {
+
+	private static final Charset LATIN1 = Charset.forName("ISO-8859-1");
+
+	private File createFile(String lineSeparator, int records, boolean trailingSeparator) throws IOException {
+		StringBuilder out = new StringBuilder();
+		out.append("ID    NAME    ").append(lineSeparator);
+		for (int i = 0; i < records; i++) {
+			out.append(String.format("%-6d%-8s", i, "n" + (i * 7)));
+			if (i < records - 1 || trailingSeparator) {
+				out.append(lineSeparator);
+			}
+		}
+		File file = File.createTempFile("random-access", ".txt");
+		file.deleteOnExit();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), LATIN1);
+		try {
+			writer.write(out.toString());
+		} finally {
+			writer.close();
+		}
+		return file;
+	}
+
+	@DataProvider
+	public Object[][] separators() {
+		return new Object[][]{{"\n", true, false}, {"\r\n", false, false}, {"\r\n", true, true}, {"\r", false, true}};
+	}
+
+	@Test(dataProvider = "separators")
+	public void testRandomAccess(String lineSeparator, boolean trailingSeparator, boolean detectSeparator) throws IOException {
+		FixedWidthParserSettings settings = new FixedWidthParserSettings(new FixedWidthFieldLengths(6, 8));
+		if (detectSeparator) {
+			settings.setLineSeparatorDetectionEnabled(true);
+		} else {
+			settings.getFormat().setLineSeparator(lineSeparator);
+		}
+		settings.setHeaderExtractionEnabled(true);
+
+		RandomAccessFixedWidthReader reader = new RandomAccessFixedWidthReader(settings, createFile(lineSeparator, 5000, trailingSeparator), LATIN1);
+		try {
+			assertEquals(reader.getRecordCount(), 5000);
+			assertEquals(reader.getRecordLength(), 14 + lineSeparator.length());
+			assertEquals(reader.getHeaders(), new String[]{"ID", "NAME"});
+
+			assertEquals(reader.getRecord(4321), new String[]{"4321", "n30247"});
+			assertEquals(reader.getRecord(0), new String[]{"0", "n0"});
+			assertEquals(reader.getRecord(4999), new String[]{"4999", "n34993"});
+
+			List<String[]> records = reader.getRecords(4997, 3);
+			assertEquals(records.size(), 3);
+			for (int i = 0; i < 3; i++) {
+				assertEquals(records.get(i), new String[]{String.valueOf(4997 + i), "n" + ((4997 + i) * 7)});
+			}
+			assertEquals(reader.getRecord(17), new String[]{"17", "n119"});
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test(expectedExceptions = IndexOutOfBoundsException.class)
+	public void testRecordOutOfBounds() throws IOException {
+		FixedWidthParserSettings settings = new FixedWidthParserSettings(new FixedWidthFieldLengths(6, 8));
+		settings.getFormat().setLineSeparator("\n");
+
+		RandomAccessFixedWidthReader reader = new RandomAccessFixedWidthReader(settings, createFile("\n", 10, true), LATIN1);
+		try {
+			assertEquals(reader.getRecordCount(), 11);
+			assertEquals(reader.getRecord(0), new String[]{"ID", "NAME"});
+			reader.getRecord(11);
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test(expectedExceptions = IndexOutOfBoundsException.class)
+	public void testRangeOverflow() throws IOException {
+		FixedWidthParserSettings settings = new FixedWidthParserSettings(new FixedWidthFieldLengths(6, 8));
+		settings.getFormat().setLineSeparator("\n");
+
+		RandomAccessFixedWidthReader reader = new RandomAccessFixedWidthReader(settings, createFile("\n", 10, true), LATIN1);
+		try {
+			reader.getRecords(Long.MAX_VALUE, 2);
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void testRegionTooLarge() throws IOException {
+		FixedWidthParserSettings settings = new FixedWidthParserSettings(new FixedWidthFieldLengths(6, 8));
+		settings.getFormat().setLineSeparator("\n");
+
+		File file = File.createTempFile("random-access", ".txt");
+		file.deleteOnExit();
+		RandomAccessFile sparse = new RandomAccessFile(file, "rw");
+		try {
+			sparse.setLength(200000000L * 15);
+		} finally {
+			sparse.close();
+		}
+
+		RandomAccessFixedWidthReader reader = new RandomAccessFixedWidthReader(settings, file, LATIN1);
+		try {
+			assertEquals(reader.getRecordCount(), 200000000L);
+			reader.getRecords(0, 150000000);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("exceed the maximum"), e.getMessage());
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void testCommentRecords() throws IOException {
+		FixedWidthParserSettings settings = new FixedWidthParserSettings(new FixedWidthFieldLengths(6, 8));
+		settings.getFormat().setLineSeparator("\n");
+
+		File file = File.createTempFile("random-access", ".txt");
+		file.deleteOnExit();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), LATIN1);
+		try {
+			writer.write("1     one     \n#comment      \n              \n2     two     \n");
+		} finally {
+			writer.close();
+		}
+
+		RandomAccessFixedWidthReader reader = new RandomAccessFixedWidthReader(settings, file, LATIN1);
+		try {
+			assertEquals(reader.getRecordCount(), 4);
+			assertNull(reader.getRecord(1));
+			assertEquals(reader.getRecord(2), new String[]{null, null});
+			assertEquals(reader.getRecord(3), new String[]{"2", "two"});
+
+			List<String[]> records = reader.getRecords(0, 4);
+			assertEquals(records.size(), 4);
+			assertEquals(records.get(0), new String[]{"1", "one"});
+			assertNull(records.get(1));
+			assertEquals(records.get(2), new String[]{null, null});
+			assertEquals(records.get(3), new String[]{"2", "two"});
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testDecodeOnlyCharset() throws IOException {
+		FixedWidthParserSettings settings = new FixedWidthParserSettings(new FixedWidthFieldLengths(6, 8));
+		new RandomAccessFixedWidthReader(settings, createFile("\n", 10, true), Charset.forName("ISO-2022-CN")).close();
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testEmptyLayout() throws IOException {
+		FixedWidthParserSettings settings = new FixedWidthParserSettings(new FixedWidthFieldLengths());
+		settings.setLineSeparatorDetectionEnabled(true);
+		new RandomAccessFixedWidthReader(settings, createFile("\n", 10, true), LATIN1).close();
+	}
+}
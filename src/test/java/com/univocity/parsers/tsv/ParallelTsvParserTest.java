@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.tsv;
+
+import static org.testng.Assert.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import org.testng.annotations.*;
+
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.common.processor.*;
+
+public class ParallelTsvParserTest {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final String[] ESCAPES = {"\\n", "\\t", "\\r", "\\\\", "\\\\n", "\\\\\\n", "\\"};
+
+	private File createFile(String content) throws IOException {
+		File file = File.createTempFile("parallel-tsv", ".tsv");
+		file.deleteOnExit();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), UTF8);
+		try {
+			writer.write(content);
+		} finally {
+			writer.close();
+		}
+		return file;
+	}
+
+	/**
+	 * Creates lines of random lengths full of escape sequences, so that ranges start and end around all of them.
+	 * Some values end with an escape character right before the line separator.
+	 */
+	private String createContent(String lineSeparator, int records) {
+		Random random = new Random(records);
+		StringBuilder out = new StringBuilder("id\tvalue\tção").append(lineSeparator);
+		for (int i = 0; i < records; i++) {
+			out.append(i).append('\t');
+			int length = random.nextInt(40);
+			for (int j = 0; j < length; j++) {
+				if (random.nextInt(4) == 0) {
+					out.append(ESCAPES[random.nextInt(ESCAPES.length - 1)]);
+				} else {
+					out.append((char) ('a' + random.nextInt(26)));
+				}
+			}
+			if (random.nextBoolean()) {
+				out.append('\t').append("ç");
+			}
+			if (random.nextInt(10) == 0) {
+				out.append(ESCAPES[ESCAPES.length - 1]);
+			}
+			out.append(lineSeparator);
+		}
+		return out.toString();
+	}
+
+	private static final class RowsAndLines extends AbstractRowProcessor {
+		final List<String[]> rows = new ArrayList<String[]>();
+		final List<Long> lines = new ArrayList<Long>();
+		String[] headers;
+
+		@Override
+		public void rowProcessed(String[] row, ParsingContext context) {
+			rows.add(row);
+			lines.add(context.currentLine());
+		}
+
+		@Override
+		public void processEnded(ParsingContext context) {
+			headers = context.headers();
+		}
+	}
+
+	private void assertParsedInParallel(TsvParserSettings settings, String content, int threads) throws IOException {
+		RowsAndLines expected = new RowsAndLines();
+		settings.setRowProcessor(expected);
+		new TsvParser(settings).parse(new StringReader(content));
+
+		RowsAndLines parsed = new RowsAndLines();
+		settings.setRowProcessor(parsed);
+		new ParallelTsvParser(settings, threads).parse(createFile(content), UTF8);
+
+		assertEquals(parsed.headers, expected.headers);
+		assertEquals(parsed.rows.size(), expected.rows.size());
+		for (int i = 0; i < expected.rows.size(); i++) {
+			assertEquals(parsed.rows.get(i), expected.rows.get(i));
+			assertEquals(parsed.lines.get(i), expected.lines.get(i));
+		}
+	}
+
+	@DataProvider
+	public Object[][] lineSeparators() {
+		return new Object[][]{
+				{"\n", 1},
+				{"\n", 4},
+				{"\r\n", 3},
+				{"\r", 5},
+		};
+	}
+
+	@Test(dataProvider = "lineSeparators")
+	public void testEscapeSequencesNearRangeBoundaries(String lineSeparator, int threads) throws IOException {
+		String content = createContent(lineSeparator, 40000);
+		assertTrue(content.length() > 1024 * 1024);
+
+		TsvParserSettings settings = new TsvParserSettings();
+		settings.getFormat().setLineSeparator(lineSeparator);
+		settings.setHeaderExtractionEnabled(true);
+		assertParsedInParallel(settings, content, threads);
+	}
+
+	@Test(dataProvider = "lineSeparators")
+	public void testHeaderWithLineSeparatorDetection(String lineSeparator, int threads) throws IOException {
+		TsvParserSettings settings = new TsvParserSettings();
+		settings.getFormat().setLineSeparator(lineSeparator.equals("\n") ? "\r" : "\n");
+		settings.setLineSeparatorDetectionEnabled(true);
+		settings.setHeaderExtractionEnabled(true);
+		assertParsedInParallel(settings, createContent(lineSeparator, 20000), threads);
+		assertTrue(settings.isHeaderExtractionEnabled());
+		assertNull(settings.getHeaders());
+	}
+
+	@Test(dataProvider = "lineSeparators")
+	public void testCommentsAndBlankLinesBeforeHeader(String lineSeparator, int threads) throws IOException {
+		String content = "# comment" + lineSeparator + lineSeparator + "#" + lineSeparator + createContent(lineSeparator, 20000);
+
+		TsvParserSettings settings = new TsvParserSettings();
+		settings.getFormat().setLineSeparator(lineSeparator);
+		settings.setHeaderExtractionEnabled(true);
+		assertParsedInParallel(settings, content, threads);
+
+		RowListProcessor processor = new RowListProcessor();
+		settings.setRowProcessor(processor);
+		new ParallelTsvParser(settings, threads).parse(createFile(content), UTF8);
+		assertEquals(processor.getHeaders(), new String[]{"id", "value", "ção"});
+	}
+
+	@Test
+	public void testCarriageReturnSeparators() throws IOException {
+		String content = "a\tb\r1\t2\r3\t4\r";
+		TsvParserSettings settings = new TsvParserSettings();
+		settings.setLineSeparatorDetectionEnabled(true);
+		settings.setHeaderExtractionEnabled(true);
+
+		RowListProcessor processor = new RowListProcessor();
+		settings.setRowProcessor(processor);
+		new ParallelTsvParser(settings, 2).parse(createFile(content), UTF8);
+		assertEquals(processor.getHeaders(), new String[]{"a", "b"});
+		assertEquals(processor.getRows().size(), 2);
+		assertEquals(processor.getRows().get(0), new String[]{"1", "2"});
+		assertEquals(processor.getRows().get(1), new String[]{"3", "4"});
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testUnsupportedEncoding() throws IOException {
+		new ParallelTsvParser(new TsvParserSettings(), 2).parse(createFile("a\tb\n"), Charset.forName("UTF-16"));
+	}
+}
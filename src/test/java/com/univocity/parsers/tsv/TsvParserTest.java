@@ -308,4 +308,129 @@ public class TsvParserTest extends ParserTestCase {
 
 		assertHeadersAndValuesMatch(expectedHeaders, expectedResult);
 	}
+
+	@DataProvider(name = "whitespaceAndBufferSizes")
+	public Object[][] whitespaceAndBufferSizes() {
+		return new Object[][] {
+				{ true, 1024 },
+				{ true, 3 },
+				{ false, 1024 },
+				{ false, 3 },
+		};
+	}
+
+	@Test(dataProvider = "whitespaceAndBufferSizes")
+	public void parseEscapeSequencesBetweenRuns(boolean ignoreTrailing, int bufferSize) {
+		String input = "" +
+				"plain value\ta\\tb\\\\c  \tend\\t\n" +
+				"x\\ny \t\\q\t\\\n";
+
+		TsvParserSettings settings = new TsvParserSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setIgnoreTrailingWhitespaces(ignoreTrailing);
+		settings.setReadInputOnSeparateThread(false);
+		settings.setInputBufferSize(bufferSize);
+
+		List<String[]> rows = new TsvParser(settings).parseAll(new StringReader(input));
+
+		assertEquals(rows.size(), 2);
+		if (ignoreTrailing) {
+			assertEquals(rows.get(0), new String[] { "plain value", "a\tb\\c", "end" });
+			assertEquals(rows.get(1), new String[] { "x\ny", "\\q", "\\" });
+		} else {
+			assertEquals(rows.get(0), new String[] { "plain value", "a\tb\\c  ", "end\t" });
+			assertEquals(rows.get(1), new String[] { "x\ny ", "\\q", "\\" });
+		}
+	}
+
+	@Test(dataProvider = "whitespaceAndBufferSizes")
+	public void parseValuesAtEndOfInput(boolean ignoreTrailing, int bufferSize) {
+		TsvParserSettings settings = new TsvParserSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setIgnoreTrailingWhitespaces(ignoreTrailing);
+		settings.setReadInputOnSeparateThread(false);
+		settings.setInputBufferSize(bufferSize);
+		TsvParser parser = new TsvParser(settings);
+
+		List<String[]> rows = parser.parseAll(new StringReader("x  \ty  \nc  \td  "));
+		assertEquals(rows.size(), 2);
+		if (ignoreTrailing) {
+			assertEquals(rows.get(0), new String[] { "x", "y" });
+			assertEquals(rows.get(1), new String[] { "c", "d" });
+		} else {
+			assertEquals(rows.get(0), new String[] { "x  ", "y  " });
+			assertEquals(rows.get(1), new String[] { "c  ", "d  " });
+		}
+
+		rows = parser.parseAll(new StringReader("a  \\"));
+		assertEquals(rows.size(), 1);
+		assertEquals(rows.get(0), new String[] { ignoreTrailing ? "a" : "a  " });
+
+		rows = parser.parseAll(new StringReader("a\tb\\t "));
+		assertEquals(rows.size(), 1);
+		assertEquals(rows.get(0), new String[] { "a", ignoreTrailing ? "b" : "b\t " });
+	}
+
+	@Test
+	public void streamValuesWithTrailingWhitespace() {
+		final StringBuilder streamed = new StringBuilder();
+		final List<String> ended = new ArrayList<String>();
+
+		TsvParserSettings settings = new TsvParserSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setMaxCharsPerColumn(8);
+		settings.setInputBufferSize(4);
+		settings.setReadInputOnSeparateThread(false);
+		settings.streamIndexes(new StreamedColumnProcessor() {
+			@Override
+			public void valueChunk(int column, char[] chars, int offset, int length) {
+				streamed.append(chars, offset, length);
+			}
+
+			@Override
+			public void valueEnded(int column) {
+				ended.add(streamed.toString());
+				streamed.setLength(0);
+			}
+		}, 1);
+
+		TsvParser parser = new TsvParser(settings);
+		parser.parseAll(new StringReader("1\tabcdef    \n2\tab\\tcdefgh    x  \t3\n"));
+		assertEquals(ended, Arrays.asList("abcdef", "ab\tcdefgh    x"));
+
+		parser.parseAll(new StringReader("1\tabcdef    "));
+		assertEquals(ended.remove(2), "abcdef");
+
+		settings.setIgnoreTrailingWhitespaces(false);
+		parser = new TsvParser(settings);
+		parser.parseAll(new StringReader("1\tabcdef    \n"));
+		assertEquals(ended.get(2), "abcdef    ");
+	}
+
+	@DataProvider(name = "chunkSizes")
+	public Object[][] chunkSizes() {
+		return new Object[][] { { 1 }, { 2 }, { 3 }, { 7 }, { 1000 } };
+	}
+
+	@Test(dataProvider = "chunkSizes")
+	public void feedRecordsSplitAnywhere(int chunkSize) {
+		String input = "" +
+				"plain value\ta\\tb\\\\c  \tend\\t\n" +
+				"  x\\ny \t\\q\t\\\n" +
+				"\t\t\n" +
+				"# comment\n" +
+				"\n" +
+				"  lead\t  \ttrail  \\";
+
+		TsvParserSettings settings = new TsvParserSettings();
+		settings.getFormat().setLineSeparator("\n");
+		RowPositionProcessor positions = new RowPositionProcessor();
+		settings.setRowProcessor(positions);
+		assertFedRowsMatch(new TsvParser(settings), positions, input, chunkSize);
+
+		settings.setIgnoreLeadingWhitespaces(false);
+		settings.setIgnoreTrailingWhitespaces(false);
+		settings.setLineSeparatorDetectionEnabled(true);
+		assertFedRowsMatch(new TsvParser(settings), positions, input.replaceAll("\n", "\r\n"), chunkSize);
+	}
 }
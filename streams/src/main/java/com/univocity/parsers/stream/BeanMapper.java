@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.stream;
+
+import java.util.function.*;
+
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.common.processor.*;
+
+/**
+ * Converts parsed records into java beans using the annotation mappings supported by {@link BeanProcessor}.
+ *
+ * <p> Instances are not thread-safe. Each parser producing records must use its own instance.
+ *
+ * @param <T> the annotated bean type.
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+class BeanMapper<T> extends BeanProcessor<T> implements BiFunction<String[], ParsingContext, T> {
+
+	private boolean started;
+	private T bean;
+
+	/**
+	 * Creates a mapper for java beans of a given type.
+	 * @param beanType the annotated class of the beans to create.
+	 */
+	BeanMapper(Class<T> beanType) {
+		super(beanType);
+	}
+
+	/**
+	 * Converts a record into a java bean.
+	 * @param row the record parsed from the input
+	 * @param context the context of the parser that produced the record
+	 * @return the java bean with the values of the given record
+	 */
+	@Override
+	public T apply(String[] row, ParsingContext context) {
+		if (!started) {
+			started = true;
+			processStarted(context);
+		}
+		rowProcessed(row, context);
+		T out = bean;
+		bean = null;
+		return out;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void beanProcessed(T bean, ParsingContext context) {
+		this.bean = bean;
+	}
+}
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.stream;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.function.*;
+
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.common.input.*;
+
+/**
+ * A {@link Spliterator} over the records of a segment of a file. Each instance parses its segment with its own parser,
+ * and {@link #trySplit()} divides the segment in two at a record boundary found with {@link RecordBoundaries}, so that parallel streams
+ * process different parts of the file in different threads.
+ *
+ * @param <S> the type of the parser settings
+ * @param <T> the type of elements produced from each record
+ *
+ * @see ParserStreams
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+class FileSegmentSpliterator<S extends CommonParserSettings<?>, T> implements Spliterator<T> {
+
+	/**
+	 * Segments smaller than this (in bytes) are not split.
+	 */
+	static final long MINIMUM_SEGMENT_SIZE = 64 * 1024;
+
+	private final FileChannel channel;
+	private final Charset charset;
+	private final byte lineTerminator;
+	private final S settings;
+	private final Function<S, ? extends AbstractParser<S>> parserFactory;
+	private final Supplier<? extends BiFunction<String[], ParsingContext, T>> mapperFactory;
+	private final Collection<AbstractParser<?>> activeParsers;
+
+	private long start;
+	private final long end;
+
+	private AbstractParser<S> parser;
+	private BiFunction<String[], ParsingContext, T> mapper;
+	private boolean finished;
+
+	/**
+	 * Creates a spliterator over the records of a segment of a file.
+	 * @param channel the channel used to read from the file. It is shared by all spliterators created from this one.
+	 * @param charset the encoding of the file
+	 * @param settings the parser settings used to create a parser for each segment
+	 * @param parserFactory the function that creates a parser for the given settings
+	 * @param mapperFactory provides the function that converts records into stream elements, for each segment
+	 * @param activeParsers receives every parser started, so they can be stopped if the stream is closed before the input is fully parsed
+	 * @param start the position of the first record of the segment
+	 * @param end the position after the last byte of the segment
+	 */
+	FileSegmentSpliterator(FileChannel channel, Charset charset, S settings, Function<S, ? extends AbstractParser<S>> parserFactory, Supplier<? extends BiFunction<String[], ParsingContext, T>> mapperFactory, Collection<AbstractParser<?>> activeParsers, long start, long end) {
+		this.channel = channel;
+		this.charset = charset;
+		this.lineTerminator = RecordBoundaries.lineTerminator(settings.getFormat().getLineSeparator());
+		this.settings = settings;
+		this.parserFactory = parserFactory;
+		this.mapperFactory = mapperFactory;
+		this.activeParsers = activeParsers;
+		this.start = start;
+		this.end = end;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		if (finished) {
+			return false;
+		}
+		if (parser == null) {
+			parser = parserFactory.apply(settings);
+			mapper = mapperFactory.get();
+			activeParsers.add(parser);
+			parser.beginParsing(new InputStreamReader(new FileSegmentInputStream(channel, start, end), charset));
+		}
+		String[] row = parser.parseNext();
+		if (row == null) {
+			activeParsers.remove(parser);
+			finished = true;
+			return false;
+		}
+		action.accept(mapper.apply(row, parser.getContext()));
+		return true;
+	}
+
+	/**
+	 * Splits the segment in two at the first record boundary after its middle, if the segment has not been read yet.
+	 * @return a spliterator over the first half of the segment, or {@code null} if this segment can't be split.
+	 */
+	@Override
+	public Spliterator<T> trySplit() {
+		long size = end - start;
+		if (parser != null || size < MINIMUM_SEGMENT_SIZE * 2) {
+			return null;
+		}
+		long middle;
+		try {
+			middle = RecordBoundaries.nextRecordStart(channel, start + size / 2, end, lineTerminator);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if (middle <= start || middle >= end) {
+			return null;
+		}
+		FileSegmentSpliterator<S, T> prefix = new FileSegmentSpliterator<S, T>(channel, charset, settings, parserFactory, mapperFactory, activeParsers, start, middle);
+		start = middle;
+		return prefix;
+	}
+
+	/**
+	 * Returns the number of bytes in the segment, which is an upper bound of the number of records.
+	 * @return the size of the segment, in bytes.
+	 */
+	@Override
+	public long estimateSize() {
+		return end - start;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL;
+	}
+}
@@ -0,0 +1,295 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.stream;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+import org.reactivestreams.*;
+
+import com.univocity.parsers.common.*;
+
+/**
+ * A Reactive Streams {@link Publisher} of the records parsed from an input, or of elements created from them.
+ *
+ * <p> Records are parsed on demand: the parser only reads the input while there are outstanding requests from the subscriber.
+ *     Between requests, parsing is suspended and, if the input is read on a separate thread (see {@link CommonParserSettings#getReadInputOnSeparateThread()}),
+ *     that thread stops reading once its fixed number of buffers is full. Memory usage is therefore bounded regardless of how slow the subscriber is.
+ * <p> Parsing runs in the given {@link Executor} ({@link ForkJoinPool#commonPool()} by default) and only starts after the first request.
+ *     Each publisher reads a single input, so it accepts only one subscriber.
+ * <p> The parser's {@link com.univocity.parsers.common.processor.RowProcessor} is still invoked for each record, before the record is published.
+ * <p> On Java 9+, {@code org.reactivestreams.FlowAdapters.toFlowPublisher(publisher)} converts this into a {@code java.util.concurrent.Flow.Publisher}.
+ *
+ * @param <T> the type of elements published.
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public class ParserPublisher<T> implements Publisher<T> {
+
+	private final AbstractParser<?> parser;
+	private final Reader input;
+	private final Function<AbstractParser<?>, T> source;
+	private final Executor executor;
+	private final AtomicBoolean subscribed = new AtomicBoolean(false);
+
+	/**
+	 * Creates a publisher of elements produced by a parser.
+	 * @param parser the parser to use
+	 * @param input the input to be parsed
+	 * @param source the function that obtains the next element from the parser, or {@code null} if there are no more elements.
+	 * @param executor the executor that runs the parsing process.
+	 */
+	public ParserPublisher(AbstractParser<?> parser, Reader input, Function<AbstractParser<?>, T> source, Executor executor) {
+		if (parser == null || input == null || source == null || executor == null) {
+			throw new IllegalArgumentException("Parser, input, source function and executor cannot be null");
+		}
+		this.parser = parser;
+		this.input = input;
+		this.source = source;
+		this.executor = executor;
+	}
+
+	/**
+	 * Creates a publisher of the records parsed from the given input.
+	 * @param parser the parser to use
+	 * @param input the input to be parsed
+	 * @return a publisher of parsed records
+	 */
+	public static ParserPublisher<String[]> rows(AbstractParser<?> parser, Reader input) {
+		return rows(parser, input, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a publisher of the records parsed from the given input.
+	 * @param parser the parser to use
+	 * @param input the input to be parsed
+	 * @param executor the executor that runs the parsing process.
+	 * @return a publisher of parsed records
+	 */
+	public static ParserPublisher<String[]> rows(AbstractParser<?> parser, Reader input, Executor executor) {
+		return new ParserPublisher<String[]>(parser, input, AbstractParser::parseNext, executor);
+	}
+
+	/**
+	 * Creates a publisher of batches of records parsed from the given input. Each batch is parsed with {@link AbstractParser#parseNextBatch(String[][])}
+	 * and contains up to {@code batchSize} records. Each element requested by the subscriber is a whole batch.
+	 * @param parser the parser to use
+	 * @param input the input to be parsed
+	 * @param batchSize the maximum number of records in each batch
+	 * @return a publisher of batches of parsed records
+	 */
+	public static ParserPublisher<List<String[]>> batches(AbstractParser<?> parser, Reader input, int batchSize) {
+		return batches(parser, input, batchSize, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a publisher of batches of records parsed from the given input. Each batch is parsed with {@link AbstractParser#parseNextBatch(String[][])}
+	 * and contains up to {@code batchSize} records. Each element requested by the subscriber is a whole batch.
+	 * @param parser the parser to use
+	 * @param input the input to be parsed
+	 * @param batchSize the maximum number of records in each batch
+	 * @param executor the executor that runs the parsing process.
+	 * @return a publisher of batches of parsed records
+	 */
+	public static ParserPublisher<List<String[]>> batches(AbstractParser<?> parser, Reader input, final int batchSize, Executor executor) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be positive");
+		}
+		return new ParserPublisher<List<String[]>>(parser, input, p -> {
+			String[][] batch = new String[batchSize][];
+			int count = p.parseNextBatch(batch);
+			if (count == 0) {
+				return null;
+			}
+			if (count < batchSize) {
+				batch = Arrays.copyOf(batch, count);
+			}
+			return Arrays.asList(batch);
+		}, executor);
+	}
+
+	/**
+	 * Creates a publisher of java beans created from the records parsed from the given input. The bean type must be annotated as required by
+	 * {@link com.univocity.parsers.common.processor.BeanProcessor}.
+	 * @param beanType the annotated class of the java beans to create
+	 * @param parser the parser to use
+	 * @param input the input to be parsed
+	 * @param <T> the type of the java beans
+	 * @return a publisher of java beans
+	 */
+	public static <T> ParserPublisher<T> beans(Class<T> beanType, AbstractParser<?> parser, Reader input) {
+		return beans(beanType, parser, input, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a publisher of java beans created from the records parsed from the given input. The bean type must be annotated as required by
+	 * {@link com.univocity.parsers.common.processor.BeanProcessor}.
+	 * @param beanType the annotated class of the java beans to create
+	 * @param parser the parser to use
+	 * @param input the input to be parsed
+	 * @param executor the executor that runs the parsing process.
+	 * @param <T> the type of the java beans
+	 * @return a publisher of java beans
+	 */
+	public static <T> ParserPublisher<T> beans(Class<T> beanType, AbstractParser<?> parser, Reader input, Executor executor) {
+		final BeanMapper<T> mapper = new BeanMapper<T>(beanType);
+		return new ParserPublisher<T>(parser, input, p -> {
+			String[] row = p.parseNext();
+			return row == null ? null : mapper.apply(row, p.getContext());
+		}, executor);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void subscribe(Subscriber<? super T> subscriber) {
+		if (subscriber == null) {
+			throw new NullPointerException("Subscriber cannot be null");
+		}
+		if (!subscribed.compareAndSet(false, true)) {
+			subscriber.onSubscribe(new Subscription() {
+				@Override
+				public void request(long n) {
+				}
+
+				@Override
+				public void cancel() {
+				}
+			});
+			subscriber.onError(new IllegalStateException("Only one subscriber is supported by a " + getClass().getSimpleName()));
+			return;
+		}
+		subscriber.onSubscribe(new ParserSubscription(subscriber));
+	}
+
+	/**
+	 * Serves the requests of the subscriber. All interaction with the parser and the subscriber happens in {@link #run()},
+	 * which is never executed concurrently: requests made while it runs are handled in the same execution.
+	 */
+	private final class ParserSubscription implements Subscription, Runnable {
+
+		private final Subscriber<? super T> subscriber;
+		private final AtomicLong demand = new AtomicLong();
+		private final AtomicInteger pending = new AtomicInteger();
+		private volatile boolean cancelled;
+		private volatile Throwable invalidRequest;
+
+		private boolean started;
+		private boolean done;
+
+		ParserSubscription(Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				invalidRequest = new IllegalArgumentException("Number of elements requested must be positive. Got " + n);
+			} else {
+				long current;
+				long updated;
+				do {
+					current = demand.get();
+					updated = current + n;
+					if (updated < 0) {
+						updated = Long.MAX_VALUE;
+					}
+				} while (!demand.compareAndSet(current, updated));
+			}
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			schedule();
+		}
+
+		private void schedule() {
+			if (pending.getAndIncrement() == 0) {
+				try {
+					executor.execute(this);
+				} catch (RejectedExecutionException e) {
+					pending.set(0);
+					cancelled = true;
+					subscriber.onError(e);
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			int missed = 1;
+			do {
+				if (!done) {
+					try {
+						emit();
+					} catch (Throwable t) {
+						finish();
+						subscriber.onError(t);
+					}
+				}
+				missed = pending.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void emit() {
+			if (cancelled) {
+				finish();
+				return;
+			}
+			if (invalidRequest != null) {
+				finish();
+				subscriber.onError(invalidRequest);
+				return;
+			}
+			if (!started) {
+				started = true;
+				parser.beginParsing(input);
+			}
+
+			long requested = demand.get();
+			long emitted = 0;
+			while (emitted != requested && !cancelled) {
+				T next = source.apply(parser);
+				if (next == null) {
+					done = true; // the parser stops by itself at the end of the input
+					subscriber.onComplete();
+					return;
+				}
+				subscriber.onNext(next);
+				emitted++;
+			}
+			if (cancelled) {
+				finish();
+			} else if (requested != Long.MAX_VALUE) {
+				demand.addAndGet(-emitted);
+			}
+		}
+
+		private void finish() {
+			done = true;
+			if (started) {
+				parser.stopParsing();
+			}
+		}
+	}
+}
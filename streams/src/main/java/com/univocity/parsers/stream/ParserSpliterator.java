@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.stream;
+
+import java.util.*;
+import java.util.function.*;
+
+import com.univocity.parsers.common.*;
+
+/**
+ * A {@link Spliterator} over the records produced by a parser that has already been started with {@link AbstractParser#beginParsing(java.io.Reader)}.
+ *
+ * <p> Records are read with {@link AbstractParser#parseNext()}. The input can't be split at record boundaries, therefore parallel streams
+ *     can only use the batches of records buffered by {@link Spliterators.AbstractSpliterator#trySplit()}.
+ *
+ * @param <T> the type of elements produced from each record
+ *
+ * @see ParserStreams
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+class ParserSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+	private final AbstractParser<?> parser;
+	private final BiFunction<String[], ParsingContext, T> mapper;
+
+	/**
+	 * Creates a spliterator over the records of a started parser.
+	 * @param parser the parser to read records from
+	 * @param mapper the function that converts each record into an element of the stream
+	 */
+	ParserSpliterator(AbstractParser<?> parser, BiFunction<String[], ParsingContext, T> mapper) {
+		super(Long.MAX_VALUE, ORDERED | NONNULL);
+		this.parser = parser;
+		this.mapper = mapper;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		String[] row = parser.parseNext();
+		if (row == null) {
+			return false;
+		}
+		action.accept(mapper.apply(row, parser.getContext()));
+		return true;
+	}
+}
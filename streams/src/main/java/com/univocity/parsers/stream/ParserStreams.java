@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.stream;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.common.input.*;
+
+/**
+ * Provides {@link java.util.stream.Stream}s of records, or of java beans, parsed by any parser that extends {@link AbstractParser}.
+ *
+ * <p> Streams created from a {@link java.io.Reader} are sequential: the records are read one after the other with {@link AbstractParser#parseNext()}.
+ * <p> Streams created from a {@link File} can be processed in parallel with {@link Stream#parallel()}. The file is divided in segments that start
+ *     at record boundaries, and each segment is parsed by a different parser in the common {@link java.util.concurrent.ForkJoinPool}.
+ *     Record boundaries are found by searching for the last character of the line separator in the file (see {@link RecordBoundaries}), so
+ *     parallel processing requires:
+ * <ul>
+ * 	<li>an encoding where the line separator can't be part of multi-byte characters, such as ASCII, ISO-8859-x or UTF-8; and</li>
+ * 	<li>values without line separators in them (e.g. in quoted CSV values).</li>
+ * </ul>
+ *
+ * <p> Streams must be closed after use, to release the file and stop any parser that did not reach the end of its input.
+ *
+ * <p> Example:
+ * <pre>{@code
+ * try (Stream<String[]> rows = ParserStreams.stream(settings, CsvParser::new, file, StandardCharsets.UTF_8)) {
+ *     long total = rows.parallel().filter(row -> row[0] != null).count();
+ * }
+ * }</pre>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public final class ParserStreams {
+
+	private ParserStreams() {
+
+	}
+
+	/**
+	 * Starts parsing the given input and returns a sequential stream of the records parsed from it.
+	 * Closing the stream stops the parser.
+	 *
+	 * @param parser the parser to use
+	 * @param input the input to be parsed
+	 * @return a stream of the records parsed from the given input.
+	 */
+	public static Stream<String[]> stream(AbstractParser<?> parser, Reader input) {
+		return stream(parser, input, (row, context) -> row);
+	}
+
+	/**
+	 * Starts parsing the given input and returns a sequential stream of java beans created from the records parsed from it.
+	 * The bean type must be annotated as required by {@link com.univocity.parsers.common.processor.BeanProcessor}. Closing the stream stops the parser.
+	 *
+	 * @param beanType the annotated class of the java beans to create
+	 * @param parser the parser to use
+	 * @param input the input to be parsed
+	 * @param <T> the type of the java beans
+	 * @return a stream of java beans created from the records parsed from the given input.
+	 */
+	public static <T> Stream<T> beans(Class<T> beanType, AbstractParser<?> parser, Reader input) {
+		return stream(parser, input, new BeanMapper<T>(beanType));
+	}
+
+	private static <T> Stream<T> stream(AbstractParser<?> parser, Reader input, BiFunction<String[], ParsingContext, T> mapper) {
+		parser.beginParsing(input);
+		return StreamSupport.stream(new ParserSpliterator<T>(parser, mapper), false).onClose(parser::stopParsing);
+	}
+
+	/**
+	 * Returns a stream of the records parsed from a file. The stream can be processed in parallel with {@link Stream#parallel()}, in which case
+	 * the file is split at record boundaries and each part is parsed by a separate parser created with the given factory.
+	 *
+	 * <p> The same settings are used by all parsers, therefore any {@link com.univocity.parsers.common.processor.RowProcessor} configured in them
+	 *     will be invoked from multiple threads.
+	 * <p> If header extraction is enabled, the headers are parsed from the first line of the file, and the settings are updated with them
+	 *     (with header extraction disabled) so every parser uses the same headers. The original configuration is restored when the stream is closed.
+	 *
+	 * @param settings the parser settings
+	 * @param parserFactory the function that creates a parser from the given settings, e.g. {@code CsvParser::new}
+	 * @param file the file to be parsed
+	 * @param charset the encoding of the file
+	 * @param <S> the type of the parser settings
+	 * @return a stream of the records parsed from the given file.
+	 */
+	public static <S extends CommonParserSettings<?>> Stream<String[]> stream(S settings, Function<S, ? extends AbstractParser<S>> parserFactory, File file, Charset charset) {
+		return stream(settings, parserFactory, file, charset, () -> (row, context) -> row);
+	}
+
+	/**
+	 * Returns a stream of java beans created from the records parsed from a file. The bean type must be annotated as required by
+	 * {@link com.univocity.parsers.common.processor.BeanProcessor}. The stream can be processed in parallel with {@link Stream#parallel()},
+	 * in which case the file is split at record boundaries and each part is parsed by a separate parser created with the given factory.
+	 *
+	 * <p> The same settings are used by all parsers, therefore any {@link com.univocity.parsers.common.processor.RowProcessor} configured in them
+	 *     will be invoked from multiple threads.
+	 * <p> If header extraction is enabled, the headers are parsed from the first line of the file, and the settings are updated with them
+	 *     (with header extraction disabled) so every parser uses the same headers. The original configuration is restored when the stream is closed.
+	 *
+	 * @param beanType the annotated class of the java beans to create
+	 * @param settings the parser settings
+	 * @param parserFactory the function that creates a parser from the given settings, e.g. {@code CsvParser::new}
+	 * @param file the file to be parsed
+	 * @param charset the encoding of the file
+	 * @param <S> the type of the parser settings
+	 * @param <T> the type of the java beans
+	 * @return a stream of java beans created from the records parsed from the given file.
+	 */
+	public static <S extends CommonParserSettings<?>, T> Stream<T> beans(Class<T> beanType, S settings, Function<S, ? extends AbstractParser<S>> parserFactory, File file, Charset charset) {
+		return stream(settings, parserFactory, file, charset, () -> new BeanMapper<T>(beanType));
+	}
+
+	private static <S extends CommonParserSettings<?>, T> Stream<T> stream(S settings, Function<S, ? extends AbstractParser<S>> parserFactory, File file, Charset charset, Supplier<? extends BiFunction<String[], ParsingContext, T>> mapperFactory) {
+		RandomAccessFile input;
+		try {
+			input = new RandomAccessFile(file, "r");
+		} catch (FileNotFoundException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		String[] originalHeaders = settings.getHeaders();
+		boolean headerExtractionEnabled = settings.isHeaderExtractionEnabled();
+		try {
+			FileChannel channel = input.getChannel();
+			long size = channel.size();
+			long start = extractHeaders(settings, parserFactory, channel, size, charset);
+
+			Collection<AbstractParser<?>> activeParsers = new ConcurrentLinkedQueue<AbstractParser<?>>();
+			FileSegmentSpliterator<S, T> spliterator = new FileSegmentSpliterator<S, T>(channel, charset, settings, parserFactory, mapperFactory, activeParsers, start, size);
+
+			return StreamSupport.stream(spliterator, false).onClose(() -> {
+				try {
+					for (AbstractParser<?> parser : activeParsers) {
+						parser.stopParsing();
+					}
+				} finally {
+					restoreHeaders(settings, originalHeaders, headerExtractionEnabled);
+					close(input);
+				}
+			});
+		} catch (IOException e) {
+			restoreHeaders(settings, originalHeaders, headerExtractionEnabled);
+			close(input);
+			throw new UncheckedIOException(e);
+		} catch (RuntimeException e) {
+			restoreHeaders(settings, originalHeaders, headerExtractionEnabled);
+			close(input);
+			throw e;
+		}
+	}
+
+	/**
+	 * Parses the headers from the first line of the file, if header extraction is enabled, and assigns them to the given settings.
+	 * Header extraction is disabled while the file is parsed, and must be reenabled with {@link #restoreHeaders(CommonParserSettings, String[], boolean)}.
+	 * @return the position of the first record after the headers
+	 */
+	private static <S extends CommonParserSettings<?>> long extractHeaders(S settings, Function<S, ? extends AbstractParser<S>> parserFactory, FileChannel channel, long size, Charset charset) throws IOException {
+		if (!settings.isHeaderExtractionEnabled()) {
+			return 0;
+		}
+		long headerEnd = RecordBoundaries.nextRecordStart(channel, 1, size, RecordBoundaries.lineTerminator(settings.getFormat().getLineSeparator()));
+
+		byte[] bytes = new byte[(int) headerEnd];
+		DataInputStream in = new DataInputStream(new FileSegmentInputStream(channel, 0, headerEnd));
+		in.readFully(bytes);
+
+		AbstractParser<S> parser = parserFactory.apply(settings);
+		parser.parseLine(new String(bytes, charset));
+		String[] headers = parser.getContext().headers();
+		if (headers != null) {
+			settings.setHeaders(headers);
+		}
+		settings.setHeaderExtractionEnabled(false);
+		return headerEnd;
+	}
+
+	/**
+	 * Restores the header configuration of the given settings, which is changed by {@link #extractHeaders(CommonParserSettings, Function, FileChannel, long, Charset)}.
+	 */
+	private static void restoreHeaders(CommonParserSettings<?> settings, String[] originalHeaders, boolean headerExtractionEnabled) {
+		settings.setHeaderExtractionEnabled(headerExtractionEnabled);
+		if (headerExtractionEnabled) {
+			settings.setHeaders(originalHeaders);
+		}
+	}
+
+	private static void close(Closeable closeable) {
+		try {
+			closeable.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.stream;
+
+import static org.testng.Assert.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.reactivestreams.*;
+import org.testng.annotations.*;
+
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.common.processor.*;
+import com.univocity.parsers.csv.*;
+
+public class ParserPublisherTest {
+
+	private static class RecordingSubscriber<T> implements Subscriber<T> {
+		final List<T> received = new ArrayList<T>();
+		final CountDownLatch finished = new CountDownLatch(1);
+		Subscription subscription;
+		boolean completed;
+		Throwable error;
+
+		@Override
+		public void onSubscribe(Subscription subscription) {
+			this.subscription = subscription;
+		}
+
+		@Override
+		public void onNext(T element) {
+			received.add(element);
+		}
+
+		@Override
+		public void onError(Throwable error) {
+			this.error = error;
+			finished.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			completed = true;
+			finished.countDown();
+		}
+	}
+
+	private String input(int rows) {
+		StringBuilder out = new StringBuilder();
+		for (int i = 0; i < rows; i++) {
+			out.append(i).append(",value ").append(i).append('\n');
+		}
+		return out.toString();
+	}
+
+	private CsvParser newParser(RowProcessor processor) {
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setReadInputOnSeparateThread(false);
+		if (processor != null) {
+			settings.setRowProcessor(processor);
+		}
+		return new CsvParser(settings);
+	}
+
+	@Test
+	public void testRecordsAreParsedOnDemand() {
+		final int[] parsed = new int[1];
+		CsvParser parser = newParser(new AbstractRowProcessor() {
+			@Override
+			public void rowProcessed(String[] row, ParsingContext context) {
+				parsed[0]++;
+			}
+		});
+
+		RecordingSubscriber<String[]> subscriber = new RecordingSubscriber<String[]>();
+		ParserPublisher.rows(parser, new StringReader(input(10)), Runnable::run).subscribe(subscriber);
+		assertEquals(parsed[0], 0);
+
+		subscriber.subscription.request(3);
+		assertEquals(subscriber.received.size(), 3);
+		assertEquals(parsed[0], 3);
+		assertEquals(subscriber.received.get(2), new String[] { "2", "value 2" });
+
+		subscriber.subscription.request(5);
+		assertEquals(parsed[0], 8);
+		assertFalse(subscriber.completed);
+
+		subscriber.subscription.request(Long.MAX_VALUE);
+		assertEquals(subscriber.received.size(), 10);
+		assertTrue(subscriber.completed);
+	}
+
+	@Test
+	public void testCancel() {
+		RecordingSubscriber<String[]> subscriber = new RecordingSubscriber<String[]>();
+		ParserPublisher.rows(newParser(null), new StringReader(input(10)), Runnable::run).subscribe(subscriber);
+
+		subscriber.subscription.request(2);
+		subscriber.subscription.cancel();
+		subscriber.subscription.request(2);
+		assertEquals(subscriber.received.size(), 2);
+		assertFalse(subscriber.completed);
+	}
+
+	@Test
+	public void testInvalidRequest() {
+		RecordingSubscriber<String[]> subscriber = new RecordingSubscriber<String[]>();
+		ParserPublisher.rows(newParser(null), new StringReader(input(10)), Runnable::run).subscribe(subscriber);
+
+		subscriber.subscription.request(0);
+		assertTrue(subscriber.error instanceof IllegalArgumentException);
+	}
+
+	@Test
+	public void testBatches() throws InterruptedException {
+		RecordingSubscriber<List<String[]>> subscriber = new RecordingSubscriber<List<String[]>>();
+		ParserPublisher.batches(newParser(null), new StringReader(input(25)), 10).subscribe(subscriber);
+
+		subscriber.subscription.request(Long.MAX_VALUE);
+		assertTrue(subscriber.finished.await(10, TimeUnit.SECONDS));
+		assertTrue(subscriber.completed);
+		assertEquals(subscriber.received.size(), 3);
+		assertEquals(subscriber.received.get(0).size(), 10);
+		assertEquals(subscriber.received.get(2).size(), 5);
+		assertEquals(subscriber.received.get(2).get(4), new String[] { "24", "value 24" });
+	}
+
+	@Test
+	public void testSingleSubscriber() {
+		ParserPublisher<String[]> publisher = ParserPublisher.rows(newParser(null), new StringReader(input(1)), Runnable::run);
+		publisher.subscribe(new RecordingSubscriber<String[]>());
+
+		RecordingSubscriber<String[]> second = new RecordingSubscriber<String[]>();
+		publisher.subscribe(second);
+		assertTrue(second.error instanceof IllegalStateException);
+	}
+}
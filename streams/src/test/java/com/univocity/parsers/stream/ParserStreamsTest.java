@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.stream;
+
+import static org.testng.Assert.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.stream.*;
+
+import org.testng.annotations.*;
+
+import com.univocity.parsers.annotations.*;
+import com.univocity.parsers.csv.*;
+
+public class ParserStreamsTest {
+
+	private static final int ROWS = 50000;
+
+	private File file;
+
+	public static class Item {
+		@Parsed(field = "id")
+		private int id;
+
+		@Parsed(field = "description")
+		private String description;
+	}
+
+	@BeforeClass
+	public void createFile() throws IOException {
+		file = File.createTempFile("streams", ".csv");
+		file.deleteOnExit();
+		try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+			out.write("id,description,amount\n");
+			for (int i = 0; i < ROWS; i++) {
+				out.write(i + ",\"item, number " + i + "\"," + (i % 100) + "\n");
+			}
+		}
+	}
+
+	private CsvParserSettings newSettings() {
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setHeaderExtractionEnabled(true);
+		settings.setReadInputOnSeparateThread(false);
+		return settings;
+	}
+
+	@Test
+	public void testSequentialStream() throws IOException {
+		CsvParserSettings settings = newSettings();
+		try (Stream<String[]> rows = ParserStreams.stream(new CsvParser(settings), new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+			List<String[]> list = rows.limit(3).collect(Collectors.toList());
+			assertEquals(list.size(), 3);
+			assertEquals(list.get(2), new String[] { "2", "item, number 2", "2" });
+		}
+	}
+
+	@Test
+	public void testParallelStream() {
+		try (Stream<String[]> rows = ParserStreams.stream(newSettings(), CsvParser::new, file, StandardCharsets.UTF_8)) {
+			List<String[]> list = rows.parallel().collect(Collectors.toList());
+			assertEquals(list.size(), ROWS);
+			for (int i = 0; i < ROWS; i++) {
+				assertEquals(list.get(i)[0], String.valueOf(i));
+			}
+		}
+
+		try (Stream<String[]> rows = ParserStreams.stream(newSettings(), CsvParser::new, file, StandardCharsets.UTF_8)) {
+			long sum = rows.parallel().mapToLong(row -> Long.parseLong(row[2])).sum();
+			assertEquals(sum, (ROWS / 100) * 4950L);
+		}
+	}
+
+	@Test
+	public void testParallelBeanStream() {
+		CsvParserSettings settings = newSettings();
+		settings.selectFields("description", "id");
+		try (Stream<Item> items = ParserStreams.beans(Item.class, settings, CsvParser::new, file, StandardCharsets.UTF_8)) {
+			List<Item> list = items.parallel().collect(Collectors.toList());
+			assertEquals(list.size(), ROWS);
+			assertEquals(list.get(123).id, 123);
+			assertEquals(list.get(123).description, "item, number 123");
+		}
+	}
+
+	@Test
+	public void testStreamClosedEarly() {
+		try (Stream<String[]> rows = ParserStreams.stream(newSettings(), CsvParser::new, file, StandardCharsets.UTF_8)) {
+			assertEquals(rows.parallel().filter(row -> row[0].equals("42")).findAny().get()[1], "item, number 42");
+		}
+	}
+
+	@Test
+	public void testSettingsRestoredOnClose() {
+		CsvParserSettings settings = newSettings();
+		try (Stream<String[]> rows = ParserStreams.stream(settings, CsvParser::new, file, StandardCharsets.UTF_8)) {
+			assertEquals(rows.parallel().count(), ROWS);
+		}
+		assertTrue(settings.isHeaderExtractionEnabled());
+		assertNull(settings.getHeaders());
+
+		try (Stream<String[]> rows = ParserStreams.stream(settings, CsvParser::new, file, StandardCharsets.UTF_8)) {
+			assertEquals(rows.findFirst().get(), new String[] { "0", "item, number 0", "0" });
+		}
+		assertTrue(settings.isHeaderExtractionEnabled());
+		assertNull(settings.getHeaders());
+	}
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.vector;
+
+import com.univocity.parsers.common.input.*;
+
+import jdk.incubator.vector.*;
+
+/**
+ * A {@link StructuralIndex} that builds each word of the bitmap with the {@code jdk.incubator.vector} API. The 64 characters covered by a word
+ * are loaded in vectors of the preferred size of the CPU, and compared against every indexed character at once. The resulting masks form the bits of the word.
+ *
+ * <p> The characters after the last complete word of a block are indexed one by one.
+ *
+ * @see VectorStructuralIndexProvider
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public final class VectorStructuralIndex extends StructuralIndex {
+
+	static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+	/**
+	 * Creates an index of the given structural characters, and of the line separator characters. Characters from 128 onwards can't be indexed and are ignored.
+	 * @param characters the structural characters of the input format
+	 */
+	public VectorStructuralIndex(char... characters) {
+		super(characters);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void index(char[] buffer, int from, int end, long[] words, int word) {
+		final char[] characters = getIndexedCharacters();
+		final int lanes = SPECIES.length();
+
+		int p = from;
+		for (; p + 64 <= end; p += 64, word++) {
+			long bits = 0;
+			for (int lane = 0; lane < 64; lane += lanes) {
+				ShortVector chars = ShortVector.fromCharArray(SPECIES, buffer, p + lane);
+				VectorMask<Short> found = chars.eq((short) characters[0]);
+				for (int c = 1; c < characters.length; c++) {
+					found = found.or(chars.eq((short) characters[c]));
+				}
+				bits |= found.toLong() << lane;
+			}
+			words[word] = bits;
+		}
+
+		if (p < end) {
+			long bits = 0;
+			for (int bit = 0; p < end; p++, bit++) {
+				char ch = buffer[p];
+				for (int c = 0; c < characters.length; c++) {
+					if (ch == characters[c]) {
+						bits |= 1L << bit;
+						break;
+					}
+				}
+			}
+			words[word] = bits;
+		}
+	}
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.vector;
+
+import com.univocity.parsers.common.input.*;
+
+/**
+ * Provides the {@link VectorStructuralIndex} to {@link StructuralIndex#newInstance(char...)}. It's registered in
+ * {@code META-INF/services/com.univocity.parsers.common.input.StructuralIndexProvider}.
+ *
+ * <p> The index is only available if the JVM was started with {@code --add-modules jdk.incubator.vector}, and the preferred vector size
+ *     of the CPU fits in the 64 characters covered by each word of the index.
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public class VectorStructuralIndexProvider implements StructuralIndexProvider {
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isAvailable() {
+		try {
+			return 64 % VectorStructuralIndex.SPECIES.length() == 0;
+		} catch (LinkageError e) {
+			//jdk.incubator.vector was not added to the JVM
+			return false;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public StructuralIndex newStructuralIndex(char... characters) {
+		return new VectorStructuralIndex(characters);
+	}
+}
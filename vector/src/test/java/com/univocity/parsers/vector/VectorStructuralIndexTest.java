@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright 2014 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.vector;
+
+import static org.testng.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.testng.annotations.*;
+
+import com.univocity.parsers.common.input.*;
+import com.univocity.parsers.csv.*;
+import com.univocity.parsers.tsv.*;
+
+public class VectorStructuralIndexTest {
+
+	private static final char[] ALPHABET = "abc ,\"\\\t\r\nçĬ¬‬耢￿".toCharArray();
+
+	private String randomInput(Random random, int length) {
+		StringBuilder out = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			// mostly regular characters, so runs of different lengths are formed
+			if (random.nextInt(8) == 0) {
+				out.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+			} else {
+				out.append((char) ('a' + random.nextInt(26)));
+			}
+		}
+		return out.toString();
+	}
+
+	@Test
+	public void providerIsAvailable() {
+		assertTrue(new VectorStructuralIndexProvider().isAvailable());
+		assertTrue(StructuralIndex.newInstance(',', '"') instanceof VectorStructuralIndex);
+	}
+
+	@Test
+	public void indexStructuralCharacters() {
+		Random random = new Random(42);
+		char[] buffer = randomInput(random, 10000).toCharArray();
+		String indexed = ",\"\n\r";
+		VectorStructuralIndex index = new VectorStructuralIndex(',', '"', 'ç');
+
+		for (int from : new int[] { 0, 1, 7, 63, 64, 65 }) {
+			for (int end = from; end < from + 300; end++) {
+				long[] words = new long[(end - from + 63) / 64 + 1];
+				index.index(buffer, from, end, words, 1);
+
+				long[] expected = new long[words.length];
+				for (int p = from; p < end; p++) {
+					if (indexed.indexOf(buffer[p]) != -1) {
+						expected[1 + ((p - from) >>> 6)] |= 1L << ((p - from) & 63);
+					}
+				}
+				assertEquals(words, expected, "Range " + from + ".." + end);
+			}
+		}
+	}
+
+	@DataProvider
+	public Object[][] bufferSizes() {
+		return new Object[][] { { 7 }, { 100 }, { 65536 } };
+	}
+
+	@Test(dataProvider = "bufferSizes")
+	public void parseCsvWithIndex(int bufferSize) {
+		String input = randomInput(new Random(bufferSize), 20000).replace("\"", "");
+		input = input + "\n\"quoted, value\"\"\",   trailing   ";
+
+		for (boolean ignoreTrailing : new boolean[] { true, false }) {
+			CsvParserSettings settings = new CsvParserSettings();
+			settings.getFormat().setLineSeparator("\n");
+			settings.setReadInputOnSeparateThread(false);
+			settings.setInputBufferSize(bufferSize);
+			settings.setIgnoreTrailingWhitespaces(ignoreTrailing);
+			List<String[]> expected = new CsvParser(settings).parseAll(new StringReader(input));
+
+			settings.setStructuralIndexEnabled(true);
+			List<String[]> actual = new CsvParser(settings).parseAll(new StringReader(input));
+
+			assertEquals(actual.size(), expected.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(actual.get(i), expected.get(i));
+			}
+			String trailing = ignoreTrailing ? "trailing" : "trailing   ";
+			assertEquals(actual.get(actual.size() - 1), new String[] { "quoted, value\"", trailing });
+		}
+	}
+
+	@Test(dataProvider = "bufferSizes")
+	public void parseTsvWithIndex(int bufferSize) {
+		String input = randomInput(new Random(bufferSize), 20000);
+
+		TsvParserSettings settings = new TsvParserSettings();
+		settings.setLineSeparatorDetectionEnabled(true);
+		settings.setReadInputOnSeparateThread(false);
+		settings.setInputBufferSize(bufferSize);
+		List<String[]> expected = new TsvParser(settings).parseAll(new StringReader(input));
+
+		settings.setStructuralIndexEnabled(true);
+		List<String[]> actual = new TsvParser(settings).parseAll(new StringReader(input));
+
+		assertEquals(actual.size(), expected.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(actual.get(i), expected.get(i));
+		}
+	}
+}